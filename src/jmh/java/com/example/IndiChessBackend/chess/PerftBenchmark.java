@@ -0,0 +1,137 @@
+package com.example.IndiChessBackend.chess;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Perft from the standard test positions, plus raw generator throughput.
+ * Each position has its own depth range so the deep runs stay within a few
+ * seconds per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+
+    static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    @State(Scope.Thread)
+    public static class StartPosition {
+        @Param({"1", "2", "3", "4", "5", "6"})
+        int depth;
+        Position position;
+
+        @Setup
+        public void setup() {
+            position = Fen.parse(Fen.START);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Kiwipete {
+        @Param({"1", "2", "3", "4", "5"})
+        int depth;
+        Position position;
+
+        @Setup
+        public void setup() {
+            position = Fen.parse(KIWIPETE);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Position3 {
+        @Param({"1", "2", "3", "4", "5", "6"})
+        int depth;
+        Position position;
+
+        @Setup
+        public void setup() {
+            position = Fen.parse(POSITION_3);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Position4 {
+        @Param({"1", "2", "3", "4", "5"})
+        int depth;
+        Position position;
+
+        @Setup
+        public void setup() {
+            position = Fen.parse(POSITION_4);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Position5 {
+        @Param({"1", "2", "3", "4", "5"})
+        int depth;
+        Position position;
+
+        @Setup
+        public void setup() {
+            position = Fen.parse(POSITION_5);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Generator {
+        final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        Position position;
+        int legalMove;
+        int illegalMove;
+
+        @Setup
+        public void setup() {
+            position = Fen.parse(KIWIPETE);
+            legalMove = position.encodeMove(Square.parse("e2"), Square.parse("a6"), Piece.QUEEN);
+            illegalMove = position.encodeMove(Square.parse("e1"), Square.parse("e3"), Piece.QUEEN); // king cannot jump
+        }
+    }
+
+    @Benchmark
+    public long perftStartPosition(StartPosition state) {
+        return Perft.perft(state.position, state.depth);
+    }
+
+    @Benchmark
+    public long perftKiwipete(Kiwipete state) {
+        return Perft.perft(state.position, state.depth);
+    }
+
+    @Benchmark
+    public long perftPosition3(Position3 state) {
+        return Perft.perft(state.position, state.depth);
+    }
+
+    @Benchmark
+    public long perftPosition4(Position4 state) {
+        return Perft.perft(state.position, state.depth);
+    }
+
+    @Benchmark
+    public long perftPosition5(Position5 state) {
+        return Perft.perft(state.position, state.depth);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int generateLegal(Generator state) {
+        return MoveGenerator.generateLegal(state.position, state.moves);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void isLegal(Generator state, Blackhole blackhole) {
+        blackhole.consume(MoveGenerator.isLegal(state.position, state.legalMove));
+        blackhole.consume(MoveGenerator.isLegal(state.position, state.illegalMove));
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.chess.Fen;
+import com.example.IndiChessBackend.chess.MoveGenerator;
+import com.example.IndiChessBackend.chess.Piece;
+import com.example.IndiChessBackend.chess.Position;
+import com.example.IndiChessBackend.chess.San;
+import com.example.IndiChessBackend.chess.Square;
+import com.example.IndiChessBackend.model.DTO.GameStatusDTO;
+import com.example.IndiChessBackend.model.DTO.JoinRequest;
+import com.example.IndiChessBackend.model.DTO.MoveDeltaDTO;
+import com.example.IndiChessBackend.model.DTO.MoveRequest;
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.MoveRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.time.Clock;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-move hot path of GameService: FEN building and SAN (each once per
+ * applied move), a full processMove and the JSON cost of the per-move delta
+ * against a full snapshot. Repositories are in-memory stubs, so the numbers exclude
+ * MySQL round trips but include everything GameService does itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameServiceBenchmark {
+
+    private static final long MATCH_ID = 1L;
+
+    // Scholar's mate in client coordinates {fromRow, fromCol, toRow, toCol}; the last move mates
+    private static final int[][] SCHOLARS_MATE = {
+            {6, 4, 4, 4}, {1, 4, 3, 4},
+            {7, 5, 4, 2}, {0, 1, 2, 2},
+            {7, 3, 3, 7}, {0, 6, 2, 5},
+            {3, 7, 1, 5}
+    };
+    private static final String[] PIECES = {"P", "p", "B", "n", "Q", "n", "Q"};
+
+    private GameService gameService;
+    private MatchWriteBehind matchWriteBehind;
+    private Match match;
+    private Principal white;
+    private Principal black;
+    private JoinRequest joinRequest;
+    private MoveRequest[] moves;
+    private int captureMove;
+    private Position position;
+    private JsonMapper jsonMapper;
+    private MoveDeltaDTO delta;
+    private GameStatusDTO snapshot;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // GameService logs every move; keep the fork's console quiet (the println cost is still measured)
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        User player1 = new User();
+        player1.setUserId(1L);
+        player1.setUsername("white");
+        User player2 = new User();
+        player2.setUserId(2L);
+        player2.setUsername("black");
+        match = new Match(player1, player2, MatchStatus.IN_PROGRESS, 0);
+        match.setId(MATCH_ID);
+        match.setGameType(GameType.STANDARD);
+
+        MatchRepo matchRepo = stub(MatchRepo.class, match);
+        UserRepo userRepo = stub(UserRepo.class, match);
+        SimpMessagingTemplate messagingTemplate = new SimpMessagingTemplate((message, timeout) -> true);
+        matchWriteBehind = new MatchWriteBehind(matchRepo, stub(MoveRepo.class, match), TransactionOperations.withoutTransaction());
+        GameJournal journal = new GameJournal(tempDir("journal"), GameJournal.SEGMENT_SIZE);
+        JwtService jwtService = new JwtService();
+        gameService = new GameService(matchRepo, stub(MoveRepo.class, match), userRepo, jwtService, messagingTemplate,
+                new MyUserDetailsService(userRepo, jwtService, new TokenVersions(userRepo, 60),
+                        new RevokedTokens(tempDir("revocations").resolve("revoked-tokens"), 1000, Clock.systemUTC())),
+                new MatchExecutor(), new TimingWheel(),
+                matchWriteBehind,
+                journal, new GameSnapshotter(tempDir("snapshots"), journal));
+
+        white = () -> "white";
+        black = () -> "black";
+        joinRequest = new JoinRequest("JOIN", "white", null);
+
+        moves = new MoveRequest[SCHOLARS_MATE.length];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = moveRequest(SCHOLARS_MATE[i], PIECES[i], i % 2 == 0 ? "white" : "black");
+        }
+        position = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        captureMove = MoveGenerator.findLegalMove(position, Square.parse("f3"), Square.parse("h3"), Piece.QUEEN);
+
+        jsonMapper = JsonMapper.builder().build();
+        gameService.handlePlayerJoin(MATCH_ID, joinRequest, white);
+        delta = gameService.processMove(MATCH_ID, moves[0], white);
+        snapshot = gameService.resync(MATCH_ID, white);
+    }
+
+    @Benchmark
+    public String toFen() {
+        return Fen.toFen(position);
+    }
+
+    @Benchmark
+    public String san() {
+        return San.toSan(position, captureMove);
+    }
+
+    @Benchmark
+    public byte[] deltaJson() {
+        return jsonMapper.writeValueAsBytes(delta);
+    }
+
+    @Benchmark
+    public byte[] snapshotJson() {
+        return jsonMapper.writeValueAsBytes(snapshot);
+    }
+
+    /** Plays a whole scholar's mate per invocation; the score is per move. */
+    @Benchmark
+    @OperationsPerInvocation(7)
+    public MoveDeltaDTO processMove() {
+        gameService.evictGame(MATCH_ID);
+        matchWriteBehind.flush();
+        match.setStatus(MatchStatus.IN_PROGRESS);
+        match.setFenCurrent(null); // reloaded as a new game
+        gameService.handlePlayerJoin(MATCH_ID, joinRequest, white);
+
+        MoveDeltaDTO last = null;
+        for (int i = 0; i < moves.length; i++) {
+            last = gameService.processMove(MATCH_ID, moves[i], i % 2 == 0 ? white : black);
+        }
+        return last;
+    }
+
+    private static Path tempDir(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MoveRequest moveRequest(int[] squares, String piece, String color) {
+        MoveRequest request = new MoveRequest();
+        request.setFromRow(squares[0]);
+        request.setFromCol(squares[1]);
+        request.setToRow(squares[2]);
+        request.setToCol(squares[3]);
+        request.setPiece(piece);
+        request.setPlayerColor(color);
+        request.setCastled(false);
+        request.setIsEnPassant(false);
+        request.setIsPromotion(false);
+        return request;
+    }
+
+    // Minimal in-memory repository: every lookup returns the benchmark match, saves are no-ops
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Match match) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.of(match);
+                    case "findAllById" -> List.of(match);
+                    case "findByMatchIdOrderByPly" -> List.of();
+                    case "getReferenceById" -> match;
+                    case "saveAll" -> args[0];
+                    case "save" -> args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName() + " stub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
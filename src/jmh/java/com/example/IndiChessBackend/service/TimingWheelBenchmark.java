@@ -0,0 +1,52 @@
+package com.example.IndiChessBackend.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of re-arming a flag-fall deadline (what every timed move does) on a
+ * wheel already holding 100k running clocks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimingWheelBenchmark {
+
+    private static final int GAMES = 100_000;
+    private static final Runnable NOOP = () -> {
+    };
+
+    private TimingWheel timingWheel;
+    private TimingWheel.Timeout[] clocks;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        timingWheel = new TimingWheel();
+        clocks = new TimingWheel.Timeout[GAMES];
+        for (int i = 0; i < GAMES; i++) {
+            clocks[i] = timingWheel.schedule(randomDelayMs(), NOOP);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        timingWheel.destroy();
+    }
+
+    @Benchmark
+    public TimingWheel.Timeout reschedule() {
+        int game = ThreadLocalRandom.current().nextInt(GAMES);
+        clocks[game].cancel();
+        return clocks[game] = timingWheel.schedule(randomDelayMs(), NOOP);
+    }
+
+    // Somewhere inside a 3+2 blitz clock, so entries spread over several revolutions
+    private static long randomDelayMs() {
+        return ThreadLocalRandom.current().nextLong(1_000, 180_000);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.IndiChessBackend.chess;
+
+/**
+ * Automatic draw conditions, each checked in constant time after a move.
+ * Checkmate and stalemate are checked separately with the move generator.
+ */
+public final class DrawRules {
+
+    public static final int FIFTY_MOVE_PLIES = 100;
+    public static final int REPETITION_LIMIT = 3;
+
+    private static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    private DrawRules() {
+    }
+
+    /** Returns a human readable reason if the position is drawn, otherwise null. */
+    public static String drawReason(Position position, PositionHistory history) {
+        if (isInsufficientMaterial(position)) {
+            return "Insufficient material";
+        }
+        if (history.occurrences() >= REPETITION_LIMIT) {
+            return "Threefold repetition";
+        }
+        if (position.halfmoveClock() >= FIFTY_MOVE_PLIES) {
+            return "Fifty-move rule";
+        }
+        return null;
+    }
+
+    /**
+     * Neither side can mate: bare kings, a single minor piece, or only
+     * bishops that all stand on the same square color.
+     */
+    public static boolean isInsufficientMaterial(Position position) {
+        long heavy = 0;
+        for (int color = Piece.WHITE; color <= Piece.BLACK; color++) {
+            heavy |= position.pieces(color, Piece.PAWN)
+                    | position.pieces(color, Piece.ROOK)
+                    | position.pieces(color, Piece.QUEEN);
+        }
+        if (heavy != 0) {
+            return false;
+        }
+        long knights = position.pieces(Piece.WHITE, Piece.KNIGHT) | position.pieces(Piece.BLACK, Piece.KNIGHT);
+        long bishops = position.pieces(Piece.WHITE, Piece.BISHOP) | position.pieces(Piece.BLACK, Piece.BISHOP);
+        int minors = Long.bitCount(knights | bishops);
+        if (minors <= 1) {
+            return true;
+        }
+        return knights == 0 && ((bishops & LIGHT_SQUARES) == 0 || (bishops & ~LIGHT_SQUARES) == 0);
+    }
+}
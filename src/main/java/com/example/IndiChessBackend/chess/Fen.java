@@ -0,0 +1,109 @@
+package com.example.IndiChessBackend.chess;
+
+/**
+ * FEN parsing and formatting for Position.
+ */
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+    }
+
+    /**
+     * Full FEN for the position, including real castling rights, en-passant
+     * target and both move clocks.
+     */
+    public static String toFen(Position position) {
+        StringBuilder fen = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                int piece = position.pieceAt(Square.of(file, rank));
+                if (piece == Piece.NONE) {
+                    empty++;
+                } else {
+                    if (empty > 0) {
+                        fen.append(empty);
+                        empty = 0;
+                    }
+                    fen.append(Piece.symbol(piece));
+                }
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (rank > 0) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(position.isWhiteToMove() ? " w " : " b ");
+
+        int castling = position.castlingRights();
+        if (castling == 0) {
+            fen.append('-');
+        } else {
+            if ((castling & Position.WHITE_KINGSIDE) != 0) fen.append('K');
+            if ((castling & Position.WHITE_QUEENSIDE) != 0) fen.append('Q');
+            if ((castling & Position.BLACK_KINGSIDE) != 0) fen.append('k');
+            if ((castling & Position.BLACK_QUEENSIDE) != 0) fen.append('q');
+        }
+
+        fen.append(' ').append(position.epSquare() == Square.NONE ? "-" : Square.name(position.epSquare()));
+        fen.append(' ').append(position.halfmoveClock());
+        fen.append(' ').append(position.fullmoveNumber());
+        return fen.toString();
+    }
+
+    public static Position parse(String fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("FEN cannot be null");
+        }
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("Invalid FEN: " + fen);
+        }
+
+        Position position = new Position();
+        int rank = 7;
+        int file = 0;
+        for (int i = 0; i < fields[0].length(); i++) {
+            char c = fields[0].charAt(i);
+            if (c == '/') {
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                int piece = Piece.fromSymbol(c);
+                if (piece == Piece.NONE || file > 7 || rank < 0) {
+                    throw new IllegalArgumentException("Invalid FEN: " + fen);
+                }
+                position.put(piece, Square.of(file, rank));
+                file++;
+            }
+        }
+
+        int castling = 0;
+        for (char c : fields[2].toCharArray()) {
+            switch (c) {
+                case 'K' -> castling |= Position.WHITE_KINGSIDE;
+                case 'Q' -> castling |= Position.WHITE_QUEENSIDE;
+                case 'k' -> castling |= Position.BLACK_KINGSIDE;
+                case 'q' -> castling |= Position.BLACK_QUEENSIDE;
+                default -> {
+                }
+            }
+        }
+
+        int halfmoveClock = fields.length > 4 ? Integer.parseInt(fields[4]) : 0;
+        int fullmoveNumber = fields.length > 5 ? Integer.parseInt(fields[5]) : 1;
+        position.setState("b".equals(fields[1]) ? Piece.BLACK : Piece.WHITE,
+                castling,
+                "-".equals(fields[3]) ? Square.NONE : Square.parse(fields[3]),
+                halfmoveClock,
+                fullmoveNumber);
+        return position;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.IndiChessBackend.chess;
+
+/**
+ * Two-sided chess clock in milliseconds, driven by System.nanoTime readings
+ * passed in by the caller, so it never allocates and never sees wall-clock
+ * jumps. One side runs at a time, starting with White.
+ *
+ * Each turn the running side is charged its thinking time minus the delay
+ * (never below zero); completing a move in time then adds the increment.
+ */
+public class GameClock {
+
+    private final long[] remainingMs = new long[2];
+    private final long incrementMs;
+    private final long delayMs;
+    private int running = Piece.WHITE;
+    private long turnStartNanos;
+
+    public GameClock(long whiteMs, long blackMs, long incrementMs, long delayMs, long nowNanos) {
+        remainingMs[Piece.WHITE] = whiteMs;
+        remainingMs[Piece.BLACK] = blackMs;
+        this.incrementMs = incrementMs;
+        this.delayMs = delayMs;
+        this.turnStartNanos = nowNanos;
+    }
+
+    public int running() {
+        return running;
+    }
+
+    public long incrementMs() {
+        return incrementMs;
+    }
+
+    public long delayMs() {
+        return delayMs;
+    }
+
+    /** Resets both sides to recorded times with the given side's turn starting now, e.g. after a restart. */
+    public void restore(long whiteMs, long blackMs, int running, long nowNanos) {
+        remainingMs[Piece.WHITE] = whiteMs;
+        remainingMs[Piece.BLACK] = blackMs;
+        this.running = running;
+        this.turnStartNanos = nowNanos;
+    }
+
+    /** Time left as of the last move, i.e. without the running side's current turn. */
+    public long remainingMs(int color) {
+        return remainingMs[color];
+    }
+
+    /** Time left right now, including the running side's current turn. */
+    public long remainingMs(int color, long nowNanos) {
+        return color == running ? remainingMs[color] - charge(nowNanos) : remainingMs[color];
+    }
+
+    /** Milliseconds until the running side's flag falls; zero or less if it already has. */
+    public long msUntilFlag(long nowNanos) {
+        return remainingMs[running] + delayMs - elapsedMs(nowNanos);
+    }
+
+    /**
+     * Ends the running side's turn: charges its time and, if it was still on
+     * the clock, adds the increment and starts the other side.
+     * Returns false (leaving the clock at zero and stopped) if the flag had fallen.
+     */
+    public boolean punch(long nowNanos) {
+        if (checkFlag(nowNanos)) {
+            return false;
+        }
+        remainingMs[running] += incrementMs - charge(nowNanos);
+        running ^= 1;
+        turnStartNanos = nowNanos;
+        return true;
+    }
+
+    /** True (and the running side's time set to zero) once its flag has fallen. */
+    public boolean checkFlag(long nowNanos) {
+        if (remainingMs(running, nowNanos) > 0) {
+            return false;
+        }
+        remainingMs[running] = 0;
+        return true;
+    }
+
+    private long charge(long nowNanos) {
+        return Math.max(0, elapsedMs(nowNanos) - delayMs);
+    }
+
+    private long elapsedMs(long nowNanos) {
+        return (nowNanos - turnStartNanos) / 1_000_000;
+    }
+}
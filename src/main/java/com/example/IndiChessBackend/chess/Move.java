@@ -0,0 +1,66 @@
+package com.example.IndiChessBackend.chess;
+
+/**
+ * Moves are packed into the low 16 bits of an int:
+ * bits 0-5 from square, bits 6-11 to square, bits 12-15 flag.
+ * Squares are numbered a1 = 0 .. h8 = 63.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EP_CAPTURE = 5;
+    public static final int PROMOTION = 8;     // + 0..3 for N, B, R, Q
+    public static final int PROMO_CAPTURE = 12; // + 0..3 for N, B, R, Q
+
+    private Move() {
+    }
+
+    public static int of(int from, int to, int flag) {
+        return from | (to << 6) | (flag << 12);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int flag(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flag(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flag(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        int flag = flag(move);
+        return flag == KING_CASTLE || flag == QUEEN_CASTLE;
+    }
+
+    /** Promotion piece type (Piece.KNIGHT .. Piece.QUEEN), only meaningful when isPromotion. */
+    public static int promotionType(int move) {
+        return Piece.KNIGHT + (flag(move) & 3);
+    }
+
+    public static String toUci(int move) {
+        StringBuilder uci = new StringBuilder(5);
+        uci.append(Square.name(from(move))).append(Square.name(to(move)));
+        if (isPromotion(move)) {
+            uci.append(Character.toLowerCase(Piece.symbol(promotionType(move))));
+        }
+        return uci.toString();
+    }
+}
@@ -0,0 +1,370 @@
+package com.example.IndiChessBackend.chess;
+
+/**
+ * Legal move generation and validation on a Position.
+ * Nothing here allocates: moves go into a caller-supplied buffer, and
+ * single-move validation works directly on the bitboards.
+ */
+public final class MoveGenerator {
+
+    public static final int MAX_MOVES = 256;
+
+    private static final long RANK_1 = 0x00000000000000FFL;
+    private static final long RANK_8 = 0xFF00000000000000L;
+
+    private MoveGenerator() {
+    }
+
+    /** Pieces of color {@code by} attacking {@code square}, given an occupancy. */
+    public static long attackers(Position position, int square, int by, long occupied) {
+        long queens = position.pieces(by, Piece.QUEEN);
+        return (Attacks.PAWN[by ^ 1][square] & position.pieces(by, Piece.PAWN))
+                | (Attacks.KNIGHT[square] & position.pieces(by, Piece.KNIGHT))
+                | (Attacks.KING[square] & position.pieces(by, Piece.KING))
+                | (Attacks.bishop(square, occupied) & (position.pieces(by, Piece.BISHOP) | queens))
+                | (Attacks.rook(square, occupied) & (position.pieces(by, Piece.ROOK) | queens));
+    }
+
+    public static boolean isSquareAttacked(Position position, int square, int by) {
+        return attackers(position, square, by, position.occupied()) != 0;
+    }
+
+    public static int kingSquare(Position position, int color) {
+        return Long.numberOfTrailingZeros(position.pieces(color, Piece.KING));
+    }
+
+    public static boolean inCheck(Position position) {
+        int us = position.sideToMove();
+        return isSquareAttacked(position, kingSquare(position, us), us ^ 1);
+    }
+
+    /** Fills {@code moves} (at least MAX_MOVES long) with every legal move and returns the count. */
+    public static int generateLegal(Position position, int[] moves) {
+        return generate(position, moves, false);
+    }
+
+    public static int countLegal(Position position) {
+        return generate(position, null, false);
+    }
+
+    public static boolean hasLegalMove(Position position) {
+        return generate(position, null, true) > 0;
+    }
+
+    /**
+     * Returns the legal move from {@code from} to {@code to} (promoting to
+     * {@code promotionType} if needed) or Move.NONE if there is none.
+     */
+    public static int findLegalMove(Position position, int from, int to, int promotionType) {
+        int move = position.encodeMove(from, to, promotionType);
+        return move != Move.NONE && isLegal(position, move) ? move : Move.NONE;
+    }
+
+    /** Returns the legal move written as UCI (e2e4, e7e8q) or Move.NONE if it is malformed or illegal. */
+    public static int parseUci(Position position, String uci) {
+        if (uci == null || uci.length() < 4 || uci.length() > 5) {
+            return Move.NONE;
+        }
+        int from = Square.parse(uci.substring(0, 2));
+        int to = Square.parse(uci.substring(2, 4));
+        int promotion = uci.length() == 5 ? Piece.fromSymbol(uci.charAt(4)) : Piece.QUEEN;
+        if (from == Square.NONE || to == Square.NONE || promotion == Piece.NONE) {
+            return Move.NONE;
+        }
+        int move = findLegalMove(position, from, to, Piece.type(promotion));
+        // Without a suffix, a promotion is not what the string says
+        return uci.length() == 4 && move != Move.NONE && Move.isPromotion(move) ? Move.NONE : move;
+    }
+
+    /**
+     * Checks a single move: the piece must be able to reach the target and
+     * the mover's king must not be left in check (which covers pins and
+     * answering checks).
+     */
+    public static boolean isLegal(Position position, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flag = Move.flag(move);
+        int us = position.sideToMove();
+        int them = us ^ 1;
+        int piece = position.pieceAt(from);
+        if (piece == Piece.NONE || Piece.color(piece) != us || from == to) {
+            return false;
+        }
+
+        long own = position.occupancy(us);
+        long enemy = position.occupancy(them);
+        long occupied = own | enemy;
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        if ((own & toBit) != 0 || (position.pieces(them, Piece.KING) & toBit) != 0) {
+            return false;
+        }
+        if (flag != Move.EP_CAPTURE && Move.isCapture(move) != ((enemy & toBit) != 0)) {
+            return false;
+        }
+
+        int type = Piece.type(piece);
+        int forward = us == Piece.WHITE ? 8 : -8;
+        long capturedBit = enemy & toBit;
+        if (flag == 6 || flag == 7
+                || (Move.isCastle(move) && type != Piece.KING)
+                || ((flag == Move.DOUBLE_PUSH || flag == Move.EP_CAPTURE) && type != Piece.PAWN)
+                || Move.isPromotion(move) != (type == Piece.PAWN && (toBit & (RANK_1 | RANK_8)) != 0)) {
+            return false;
+        }
+
+        switch (type) {
+            case Piece.PAWN -> {
+                if (flag == Move.EP_CAPTURE) {
+                    if (to != position.epSquare() || (Attacks.PAWN[us][from] & toBit) == 0) {
+                        return false;
+                    }
+                    capturedBit = 1L << (to - forward);
+                } else if (Move.isCapture(move)) {
+                    if ((Attacks.PAWN[us][from] & toBit) == 0) {
+                        return false;
+                    }
+                } else if (flag == Move.DOUBLE_PUSH) {
+                    int startRank = us == Piece.WHITE ? 1 : 6;
+                    if (Square.rank(from) != startRank || to != from + 2 * forward
+                            || (occupied & ((1L << (from + forward)) | toBit)) != 0) {
+                        return false;
+                    }
+                } else if (to != from + forward || (occupied & toBit) != 0) {
+                    return false;
+                }
+            }
+            case Piece.KNIGHT -> {
+                if ((Attacks.KNIGHT[from] & toBit) == 0) {
+                    return false;
+                }
+            }
+            case Piece.BISHOP -> {
+                if ((Attacks.bishop(from, occupied) & toBit) == 0) {
+                    return false;
+                }
+            }
+            case Piece.ROOK -> {
+                if ((Attacks.rook(from, occupied) & toBit) == 0) {
+                    return false;
+                }
+            }
+            case Piece.QUEEN -> {
+                if ((Attacks.queen(from, occupied) & toBit) == 0) {
+                    return false;
+                }
+            }
+            default -> {
+                if (Move.isCastle(move)) {
+                    return canCastle(position, us, flag == Move.KING_CASTLE, from, to);
+                }
+                if ((Attacks.KING[from] & toBit) == 0) {
+                    return false;
+                }
+                return attackers(position, to, them, occupied ^ fromBit) == 0;
+            }
+        }
+
+        long after = (occupied ^ fromBit ^ capturedBit) | toBit;
+        return (attackers(position, kingSquare(position, us), them, after) & ~capturedBit) == 0;
+    }
+
+    private static boolean canCastle(Position position, int us, boolean kingside, int from, int to) {
+        int rank = us == Piece.WHITE ? 0 : 7;
+        int kingFrom = Square.of(4, rank);
+        int right = us == Piece.WHITE
+                ? (kingside ? Position.WHITE_KINGSIDE : Position.WHITE_QUEENSIDE)
+                : (kingside ? Position.BLACK_KINGSIDE : Position.BLACK_QUEENSIDE);
+        if (from != kingFrom || to != kingFrom + (kingside ? 2 : -2) || (position.castlingRights() & right) == 0) {
+            return false;
+        }
+        int rookSquare = kingside ? kingFrom + 3 : kingFrom - 4;
+        if ((position.pieces(us, Piece.ROOK) & (1L << rookSquare)) == 0) {
+            return false;
+        }
+        long occupied = position.occupied();
+        if ((Attacks.BETWEEN[kingFrom][rookSquare] & occupied) != 0) {
+            return false;
+        }
+        int them = us ^ 1;
+        int step = kingside ? 1 : -1;
+        for (int square = kingFrom; square != to + step; square += step) {
+            if (attackers(position, square, them, occupied) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Pin- and check-aware generation. With moves == null only the count is
+     * produced; firstOnly stops at the first legal move.
+     */
+    private static int generate(Position position, int[] moves, boolean firstOnly) {
+        int us = position.sideToMove();
+        int them = us ^ 1;
+        long own = position.occupancy(us);
+        long enemy = position.occupancy(them);
+        long occupied = own | enemy;
+        int kingSquare = kingSquare(position, us);
+        long checkers = attackers(position, kingSquare, them, occupied);
+        int count = 0;
+
+        // King steps, testing target squares with the king lifted off the board
+        long occupiedWithoutKing = occupied ^ (1L << kingSquare);
+        long targets = Attacks.KING[kingSquare] & ~own;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (attackers(position, to, them, occupiedWithoutKing) == 0) {
+                count = add(moves, count, Move.of(kingSquare, to, (enemy & (1L << to)) != 0 ? Move.CAPTURE : Move.QUIET));
+                if (firstOnly) {
+                    return count;
+                }
+            }
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return count; // double check: only the king can move
+        }
+
+        long checkMask = checkers == 0
+                ? -1L
+                : checkers | Attacks.BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)];
+
+        long enemyQueens = position.pieces(them, Piece.QUEEN);
+        long snipers = (Attacks.rook(kingSquare, enemy) & (position.pieces(them, Piece.ROOK) | enemyQueens))
+                | (Attacks.bishop(kingSquare, enemy) & (position.pieces(them, Piece.BISHOP) | enemyQueens));
+        long pinned = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.BETWEEN[kingSquare][sniper] & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+
+        // Knights: a pinned knight can never move
+        long knights = position.pieces(us, Piece.KNIGHT) & ~pinned;
+        while (knights != 0) {
+            int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            count = addTargets(moves, count, from, Attacks.KNIGHT[from] & ~own & checkMask, enemy);
+            if (firstOnly && count > 0) {
+                return count;
+            }
+        }
+
+        long queens = position.pieces(us, Piece.QUEEN);
+        long diagonal = position.pieces(us, Piece.BISHOP) | queens;
+        while (diagonal != 0) {
+            int from = Long.numberOfTrailingZeros(diagonal);
+            diagonal &= diagonal - 1;
+            long attacks = Attacks.bishop(from, occupied) & ~own & checkMask;
+            if ((pinned & (1L << from)) != 0) {
+                attacks &= Attacks.LINE[kingSquare][from];
+            }
+            count = addTargets(moves, count, from, attacks, enemy);
+            if (firstOnly && count > 0) {
+                return count;
+            }
+        }
+
+        long orthogonal = position.pieces(us, Piece.ROOK) | queens;
+        while (orthogonal != 0) {
+            int from = Long.numberOfTrailingZeros(orthogonal);
+            orthogonal &= orthogonal - 1;
+            long attacks = Attacks.rook(from, occupied) & ~own & checkMask;
+            if ((pinned & (1L << from)) != 0) {
+                attacks &= Attacks.LINE[kingSquare][from];
+            }
+            count = addTargets(moves, count, from, attacks, enemy);
+            if (firstOnly && count > 0) {
+                return count;
+            }
+        }
+
+        int forward = us == Piece.WHITE ? 8 : -8;
+        int startRank = us == Piece.WHITE ? 1 : 6;
+        int epSquare = position.epSquare();
+        long pawns = position.pieces(us, Piece.PAWN);
+        while (pawns != 0) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long allowed = (pinned & (1L << from)) != 0 ? Attacks.LINE[kingSquare][from] & checkMask : checkMask;
+
+            int to = from + forward;
+            if ((occupied & (1L << to)) == 0) {
+                if ((allowed & (1L << to)) != 0) {
+                    count = addPawnMove(moves, count, from, to, false);
+                }
+                int doubleTo = to + forward;
+                if (Square.rank(from) == startRank && (occupied & (1L << doubleTo)) == 0
+                        && (allowed & (1L << doubleTo)) != 0) {
+                    count = add(moves, count, Move.of(from, doubleTo, Move.DOUBLE_PUSH));
+                }
+            }
+
+            long captures = Attacks.PAWN[us][from] & enemy & allowed;
+            while (captures != 0) {
+                int target = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                count = addPawnMove(moves, count, from, target, true);
+            }
+
+            if (epSquare != Square.NONE && (Attacks.PAWN[us][from] & (1L << epSquare)) != 0) {
+                // Two pawns leave the rank at once, so test the resulting board directly
+                long capturedBit = 1L << (epSquare - forward);
+                long after = (occupied ^ (1L << from) ^ capturedBit) | (1L << epSquare);
+                if ((attackers(position, kingSquare, them, after) & ~capturedBit) == 0) {
+                    count = add(moves, count, Move.of(from, epSquare, Move.EP_CAPTURE));
+                }
+            }
+            if (firstOnly && count > 0) {
+                return count;
+            }
+        }
+
+        if (checkers == 0) {
+            int kingFrom = Square.of(4, us == Piece.WHITE ? 0 : 7);
+            if (kingSquare == kingFrom) {
+                if (canCastle(position, us, true, kingFrom, kingFrom + 2)) {
+                    count = add(moves, count, Move.of(kingFrom, kingFrom + 2, Move.KING_CASTLE));
+                }
+                if (canCastle(position, us, false, kingFrom, kingFrom - 2)) {
+                    count = add(moves, count, Move.of(kingFrom, kingFrom - 2, Move.QUEEN_CASTLE));
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int addTargets(int[] moves, int count, int from, long targets, long enemy) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            count = add(moves, count, Move.of(from, to, (enemy & (1L << to)) != 0 ? Move.CAPTURE : Move.QUIET));
+        }
+        return count;
+    }
+
+    private static int addPawnMove(int[] moves, int count, int from, int to, boolean capture) {
+        int rank = Square.rank(to);
+        if (rank == 0 || rank == 7) {
+            int base = capture ? Move.PROMO_CAPTURE : Move.PROMOTION;
+            for (int promotion = 3; promotion >= 0; promotion--) {
+                count = add(moves, count, Move.of(from, to, base + promotion));
+            }
+            return count;
+        }
+        return add(moves, count, Move.of(from, to, capture ? Move.CAPTURE : Move.QUIET));
+    }
+
+    private static int add(int[] moves, int count, int move) {
+        if (moves != null) {
+            moves[count] = move;
+        }
+        return count + 1;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.IndiChessBackend.chess;
+
+import java.util.Arrays;
+
+/**
+ * The moves of a live game in play order, as packed codes and thinking
+ * times (8 bytes per ply) rather than strings; notation is derived when the
+ * history is read. A game loaded from a bare FEN has no moves before it, so
+ * its log starts at that position and ply.
+ *
+ * Not thread-safe: it belongs to one game and is used on its mailbox.
+ */
+public final class MoveLog {
+
+    public static final int UNKNOWN_TIME = -1; // thinking time of a move replayed from the journal
+
+    private final Position base; // position before the first logged move
+    private final int basePly;
+    private int[] moves;
+    private int[] moveTimesMs;
+    private int size;
+
+    public MoveLog() {
+        this(Position.startPosition(), 0);
+    }
+
+    public MoveLog(Position base, int basePly) {
+        this(base, basePly, new int[16], new int[16], 0);
+    }
+
+    private MoveLog(Position base, int basePly, int[] moves, int[] moveTimesMs, int size) {
+        this.base = base.copy();
+        this.basePly = basePly;
+        this.moves = moves;
+        this.moveTimesMs = moveTimesMs;
+        this.size = size;
+    }
+
+    public void add(int move, int moveTimeMs) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+            moveTimesMs = Arrays.copyOf(moveTimesMs, size * 2);
+        }
+        moves[size] = move;
+        moveTimesMs[size] = moveTimeMs;
+        size++;
+    }
+
+    /** Plies played before the first logged move; 0 unless the game was loaded from a FEN. */
+    public int basePly() {
+        return basePly;
+    }
+
+    /** Plies played after the last logged move. */
+    public int endPly() {
+        return basePly + size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** The move that made the given ply, basePly < ply <= endPly. */
+    public int move(int ply) {
+        return moves[index(ply)];
+    }
+
+    public int moveTimeMs(int ply) {
+        return moveTimesMs[index(ply)];
+    }
+
+    /** A copy of the position before the first logged move. */
+    public Position base() {
+        return base.copy();
+    }
+
+    /** The position after the given ply, basePly <= ply <= endPly, replayed from the base. */
+    public Position positionAt(int ply) {
+        if (ply < basePly || ply > endPly()) {
+            throw new IllegalArgumentException("Ply " + ply + " is outside " + basePly + ".." + endPly());
+        }
+        Position position = base.copy();
+        for (int i = 0; i < ply - basePly; i++) {
+            position.makeMove(moves[i]);
+        }
+        return position;
+    }
+
+    /** The whole game as stored on a finished match, or null if the log does not start at the initial position. */
+    public PackedMoves toPackedMoves() {
+        if (basePly != 0 || base.key() != Position.startPosition().key()) {
+            return null;
+        }
+        return new PackedMoves(Arrays.copyOf(moves, size), Arrays.copyOf(moveTimesMs, size));
+    }
+
+    public MoveLog copy() {
+        return new MoveLog(base, basePly, Arrays.copyOf(moves, Math.max(size, 1)),
+                Arrays.copyOf(moveTimesMs, Math.max(size, 1)), size);
+    }
+
+    private int index(int ply) {
+        if (ply <= basePly || ply > endPly()) {
+            throw new IllegalArgumentException("Ply " + ply + " is not in the log " + (basePly + 1) + ".." + endPly());
+        }
+        return ply - basePly - 1;
+    }
+}
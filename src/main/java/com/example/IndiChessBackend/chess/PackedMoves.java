@@ -0,0 +1,116 @@
+package com.example.IndiChessBackend.chess;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * A finished game's whole move list in one byte array: a version byte, a
+ * varint move count, then per move its 16-bit code (big-endian) and the
+ * mover's thinking time in milliseconds as a varint. About 4 bytes per ply
+ * for a blitz game, against a few hundred for a moves row with its FENs.
+ *
+ * Move codes carry their flags, so any position is rebuilt by replaying the
+ * codes from the start position.
+ */
+public record PackedMoves(int[] moves, int[] moveTimesMs) {
+
+    public static final int VERSION = 1;
+
+    public PackedMoves {
+        if (moves.length != moveTimesMs.length) {
+            throw new IllegalArgumentException("One thinking time per move");
+        }
+    }
+
+    public int size() {
+        return moves.length;
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 + moves.length * 4);
+        out.write(VERSION);
+        writeVarint(out, moves.length);
+        for (int i = 0; i < moves.length; i++) {
+            out.write(moves[i] >>> 8);
+            out.write(moves[i]);
+            writeVarint(out, Math.max(0, moveTimesMs[i]));
+        }
+        return out.toByteArray();
+    }
+
+    public static PackedMoves decode(byte[] bytes) {
+        int[] pos = {0};
+        if (bytes.length == 0 || bytes[pos[0]++] != VERSION) {
+            throw new IllegalArgumentException("Unsupported packed moves version");
+        }
+        int count = readVarint(bytes, pos);
+        if (count < 0 || count > (bytes.length - pos[0]) / 3) {
+            throw new IllegalArgumentException("Packed moves claim " + count + " moves in " + bytes.length + " bytes");
+        }
+        int[] moves = new int[count];
+        int[] moveTimesMs = new int[count];
+        for (int i = 0; i < count; i++) {
+            if (pos[0] + 2 > bytes.length) {
+                throw new IllegalArgumentException("Packed moves truncated at move " + (i + 1));
+            }
+            moves[i] = (bytes[pos[0]] & 0xFF) << 8 | bytes[pos[0] + 1] & 0xFF;
+            pos[0] += 2;
+            moveTimesMs[i] = readVarint(bytes, pos);
+        }
+        if (pos[0] != bytes.length) {
+            throw new IllegalArgumentException("Trailing bytes after " + count + " packed moves");
+        }
+        return new PackedMoves(moves, moveTimesMs);
+    }
+
+    /** The position after the given number of plies (0 is the start position). */
+    public Position positionAt(int ply) {
+        if (ply < 0 || ply > moves.length) {
+            throw new IllegalArgumentException("No ply " + ply + " in a game of " + moves.length);
+        }
+        Position position = Position.startPosition();
+        for (int i = 0; i < ply; i++) {
+            position.makeMove(moves[i]);
+        }
+        return position;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PackedMoves that
+                && Arrays.equals(moves, that.moves) && Arrays.equals(moveTimesMs, that.moveTimesMs);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(moves) + Arrays.hashCode(moveTimesMs);
+    }
+
+    @Override
+    public String toString() {
+        return "PackedMoves[" + moves.length + " moves]";
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] bytes, int[] pos) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (pos[0] >= bytes.length) {
+                throw new IllegalArgumentException("Packed moves truncated");
+            }
+            int b = bytes[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in packed moves");
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.IndiChessBackend.chess;
+
+/**
+ * Perft: counts the leaf nodes of the legal move tree to a fixed depth.
+ * Counts for standard positions are published, so this is the reference
+ * check for the move generator and the workload for its benchmarks.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    public static long perft(Position position, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        return perft(position, depth, new int[depth][MoveGenerator.MAX_MOVES]);
+    }
+
+    private static long perft(Position position, int depth, int[][] buffers) {
+        int[] moves = buffers[depth - 1];
+        int count = MoveGenerator.generateLegal(position, moves);
+        if (depth == 1) {
+            return count; // bulk counting at the leaves
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            long undo = position.makeMove(moves[i]);
+            nodes += perft(position, depth - 1, buffers);
+            position.unmakeMove(moves[i], undo);
+        }
+        return nodes;
+    }
+}
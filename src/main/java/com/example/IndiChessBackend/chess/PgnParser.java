@@ -0,0 +1,172 @@
+package com.example.IndiChessBackend.chess;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads one PGN game: its tag pairs and the main line of its move text,
+ * each SAN move resolved to a move code by the move generator. Comments,
+ * variations, NAGs and move numbers are skipped. A game whose main line does
+ * not replay, or that starts from a set-up position, is rejected with an
+ * IllegalArgumentException.
+ *
+ * Not thread-safe; use one parser per thread.
+ */
+public final class PgnParser {
+
+    /** A parsed game; result is null if the move text has no termination marker. */
+    public record Game(Map<String, String> tags, int[] moves, String result, Position position) {
+    }
+
+    private final int[] scratch = new int[MoveGenerator.MAX_MOVES];
+    private String text;
+    private int pos;
+
+    public Game parse(String text) {
+        this.text = text;
+        this.pos = 0;
+        Map<String, String> tags = new LinkedHashMap<>();
+        Position position = Position.startPosition();
+        int[] moves = new int[128];
+        int count = 0;
+        String result = null;
+
+        while (skipWhitespace()) {
+            char c = text.charAt(pos);
+            if (c == '[' && count == 0) {
+                readTag(tags);
+            } else if (c == '%' && (pos == 0 || text.charAt(pos - 1) == '\n')) {
+                skipPast('\n');
+            } else if (c == '{') {
+                skipPast('}');
+            } else if (c == ';') {
+                skipPast('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else if (c == '$') {
+                pos++;
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+            } else {
+                String token = readToken();
+                if (token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) {
+                    result = token;
+                    break;
+                }
+                String san = stripMoveNumber(token);
+                if (san.isEmpty()) {
+                    continue;
+                }
+                if (count == 0 && tags.containsKey("FEN") && !tags.get("FEN").equals(Fen.START)) {
+                    throw new IllegalArgumentException("Game starts from a set-up position");
+                }
+                int move = San.parse(position, san, scratch);
+                if (move == Move.NONE) {
+                    throw new IllegalArgumentException("Move " + san + " at ply " + (count + 1) + " does not replay");
+                }
+                position.makeMove(move);
+                if (count == moves.length) {
+                    moves = Arrays.copyOf(moves, count * 2);
+                }
+                moves[count++] = move;
+            }
+        }
+        if (tags.containsKey("FEN") && !tags.get("FEN").equals(Fen.START)) {
+            throw new IllegalArgumentException("Game starts from a set-up position");
+        }
+        this.text = null;
+        return new Game(tags, Arrays.copyOf(moves, count), result, position);
+    }
+
+    // False at the end of the text
+    private boolean skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos < text.length();
+    }
+
+    private void skipPast(char end) {
+        int at = text.indexOf(end, pos);
+        pos = at < 0 ? text.length() : at + 1;
+    }
+
+    // Variations nest, and may hold comments with parentheses in them
+    private void skipVariation() {
+        int depth = 0;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c == '{') {
+                skipPast('}');
+                continue;
+            }
+            pos++;
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return;
+            }
+        }
+    }
+
+    private void readTag(Map<String, String> tags) {
+        int end = text.indexOf('\n', pos);
+        if (end < 0) {
+            end = text.length();
+        }
+        int nameStart = pos + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < end && !Character.isWhitespace(text.charAt(nameEnd)) && text.charAt(nameEnd) != '"') {
+            nameEnd++;
+        }
+        int quote = text.indexOf('"', nameEnd);
+        if (quote >= 0 && quote < end) {
+            StringBuilder value = new StringBuilder();
+            int i = quote + 1;
+            while (i < end && text.charAt(i) != '"') {
+                char c = text.charAt(i++);
+                if (c == '\\' && i < end) {
+                    c = text.charAt(i++);
+                }
+                value.append(c);
+            }
+            tags.put(text.substring(nameStart, nameEnd), value.toString());
+        }
+        pos = end;
+    }
+
+    private String readToken() {
+        int start = pos;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (Character.isWhitespace(c) || c == '{' || c == '(' || c == ')' || c == ';' || c == '$' || c == '[') {
+                break;
+            }
+            pos++;
+        }
+        if (pos == start) {
+            pos++; // a stray ')' or '['
+        }
+        return text.substring(start, pos);
+    }
+
+    // "12." and "12..." alone, or glued to the move as in "12.e4"; "0-0" is castling, not a number
+    private static String stripMoveNumber(String token) {
+        if (token.startsWith("0-0")) {
+            return token;
+        }
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i == 0) {
+            return token.charAt(0) == '.' || token.equals(")") || token.equals("[") ? "" : token;
+        }
+        while (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        return token.substring(i);
+    }
+}
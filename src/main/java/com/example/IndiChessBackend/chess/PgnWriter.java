@@ -0,0 +1,109 @@
+package com.example.IndiChessBackend.chess;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes games as PGN one tag and one move at a time, so a whole history can
+ * be streamed without holding any game in memory: only the position of the
+ * game being written is kept, to turn each move into SAN. Move text wraps
+ * before {@value #MAX_LINE} characters, as export format asks.
+ *
+ * A game is its tags, then its moves, then {@link #endGame}. Not
+ * thread-safe.
+ */
+public final class PgnWriter {
+
+    static final int MAX_LINE = 80;
+
+    private final Writer out;
+    private Position position = Position.startPosition();
+    private int ply;
+    private boolean inMoveText;
+    private int lineLength;
+
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /** Writes a tag pair; only before the game's first move. */
+    public void tag(String name, String value) {
+        if (inMoveText) {
+            throw new IllegalStateException("Tag " + name + " after the moves");
+        }
+        write("[" + name + " \"" + escape(value) + "\"]\n");
+    }
+
+    /** Writes the move given in UCI; false, writing nothing, if it is not legal in the game's position. */
+    public boolean move(String uci) {
+        int move = uci != null ? MoveGenerator.parseUci(position, uci) : Move.NONE;
+        if (move == Move.NONE) {
+            return false;
+        }
+        move(move);
+        return true;
+    }
+
+    /** Writes a move that is legal in the game's position, such as a stored move code. */
+    public void move(int move) {
+        startMoveText();
+        if (ply % 2 == 0) {
+            token((ply / 2 + 1) + ".");
+        }
+        token(San.toSan(position, move));
+        position.makeMove(move);
+        ply++;
+    }
+
+    /** Writes a comment into the move text, e.g. to say why the moves stop early. */
+    public void comment(String text) {
+        startMoveText();
+        token("{" + text.replace('}', ')') + "}");
+    }
+
+    /** Ends the game with its result ("1-0", "0-1", "1/2-1/2" or "*") and readies the writer for the next one. */
+    public void endGame(String result) {
+        startMoveText();
+        token(result);
+        write("\n\n");
+        position = Position.startPosition();
+        ply = 0;
+        inMoveText = false;
+        lineLength = 0;
+    }
+
+    private void startMoveText() {
+        if (!inMoveText) {
+            write("\n");
+            inMoveText = true;
+        }
+    }
+
+    private void token(String token) {
+        if (lineLength > 0 && lineLength + 1 + token.length() >= MAX_LINE) {
+            write("\n");
+            lineLength = 0;
+        } else if (lineLength > 0) {
+            write(" ");
+            lineLength++;
+        }
+        write(token);
+        lineLength += token.length();
+    }
+
+    private void write(String text) {
+        try {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "?";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace('\n', ' ');
+    }
+}
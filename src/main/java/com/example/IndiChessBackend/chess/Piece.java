@@ -0,0 +1,46 @@
+package com.example.IndiChessBackend.chess;
+
+/**
+ * Piece indices used by the bitboards: white pieces 0-5, black pieces 6-11,
+ * in the order pawn, knight, bishop, rook, queen, king.
+ */
+public final class Piece {
+
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int NONE = -1;
+    public static final int COUNT = 12;
+
+    private static final String SYMBOLS = "PNBRQKpnbrqk";
+
+    private Piece() {
+    }
+
+    public static int of(int color, int type) {
+        return color * 6 + type;
+    }
+
+    public static int color(int piece) {
+        return piece < 6 ? WHITE : BLACK;
+    }
+
+    public static int type(int piece) {
+        return piece < 6 ? piece : piece - 6;
+    }
+
+    public static char symbol(int piece) {
+        return SYMBOLS.charAt(piece);
+    }
+
+    public static int fromSymbol(char symbol) {
+        return SYMBOLS.indexOf(symbol);
+    }
+}
@@ -0,0 +1,324 @@
+package com.example.IndiChessBackend.chess;
+
+/**
+ * Compact bitboard chess position: one long per piece kind plus side to move,
+ * castling rights, en-passant square and the two move clocks.
+ * This is the authoritative board for every active game; the String[][]
+ * board is only built from it when a DTO needs one.
+ * A Zobrist key is kept up to date incrementally by every make/unmake.
+ */
+public class Position {
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    // Castling rights that survive a piece moving from or to each square
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        java.util.Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[Square.of(4, 0)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[Square.of(7, 0)] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[Square.of(0, 0)] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[Square.of(4, 7)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[Square.of(7, 7)] &= ~BLACK_KINGSIDE;
+        CASTLING_MASK[Square.of(0, 7)] &= ~BLACK_QUEENSIDE;
+    }
+
+    private final long[] pieces = new long[Piece.COUNT];
+    private final long[] occupancy = new long[2];
+    private int sideToMove = Piece.WHITE;
+    private int castlingRights;
+    private int epSquare = Square.NONE;
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+    private long key;
+
+    public static Position startPosition() {
+        Position position = new Position();
+        position.pieces[Piece.of(Piece.WHITE, Piece.PAWN)] = 0x000000000000FF00L;
+        position.pieces[Piece.of(Piece.WHITE, Piece.KNIGHT)] = 0x0000000000000042L;
+        position.pieces[Piece.of(Piece.WHITE, Piece.BISHOP)] = 0x0000000000000024L;
+        position.pieces[Piece.of(Piece.WHITE, Piece.ROOK)] = 0x0000000000000081L;
+        position.pieces[Piece.of(Piece.WHITE, Piece.QUEEN)] = 0x0000000000000008L;
+        position.pieces[Piece.of(Piece.WHITE, Piece.KING)] = 0x0000000000000010L;
+        position.pieces[Piece.of(Piece.BLACK, Piece.PAWN)] = 0x00FF000000000000L;
+        position.pieces[Piece.of(Piece.BLACK, Piece.KNIGHT)] = 0x4200000000000000L;
+        position.pieces[Piece.of(Piece.BLACK, Piece.BISHOP)] = 0x2400000000000000L;
+        position.pieces[Piece.of(Piece.BLACK, Piece.ROOK)] = 0x8100000000000000L;
+        position.pieces[Piece.of(Piece.BLACK, Piece.QUEEN)] = 0x0800000000000000L;
+        position.pieces[Piece.of(Piece.BLACK, Piece.KING)] = 0x1000000000000000L;
+        position.occupancy[Piece.WHITE] = 0x000000000000FFFFL;
+        position.occupancy[Piece.BLACK] = 0xFFFF000000000000L;
+        position.castlingRights = ALL_CASTLING;
+        position.key = position.computeKey();
+        return position;
+    }
+
+    /** Independent copy, e.g. for a snapshot taken while the game goes on. */
+    public Position copy() {
+        Position copy = new Position();
+        System.arraycopy(pieces, 0, copy.pieces, 0, pieces.length);
+        System.arraycopy(occupancy, 0, copy.occupancy, 0, occupancy.length);
+        copy.sideToMove = sideToMove;
+        copy.castlingRights = castlingRights;
+        copy.epSquare = epSquare;
+        copy.halfmoveClock = halfmoveClock;
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.key = key;
+        return copy;
+    }
+
+    public long pieces(int piece) {
+        return pieces[piece];
+    }
+
+    public long pieces(int color, int type) {
+        return pieces[Piece.of(color, type)];
+    }
+
+    public long occupancy(int color) {
+        return occupancy[color];
+    }
+
+    public long occupied() {
+        return occupancy[Piece.WHITE] | occupancy[Piece.BLACK];
+    }
+
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    public boolean isWhiteToMove() {
+        return sideToMove == Piece.WHITE;
+    }
+
+    public int castlingRights() {
+        return castlingRights;
+    }
+
+    public int epSquare() {
+        return epSquare;
+    }
+
+    public int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public long key() {
+        return key;
+    }
+
+    /** Full Zobrist recomputation; the incremental key must always equal this. */
+    public long computeKey() {
+        long hash = 0;
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            long bits = pieces[piece];
+            while (bits != 0) {
+                hash ^= Zobrist.PIECE_SQUARE[piece][Long.numberOfTrailingZeros(bits)];
+                bits &= bits - 1;
+            }
+        }
+        hash ^= Zobrist.CASTLING[castlingRights] ^ epKey();
+        if (sideToMove == Piece.BLACK) {
+            hash ^= Zobrist.BLACK_TO_MOVE;
+        }
+        return hash;
+    }
+
+    public int pieceAt(int square) {
+        long bit = 1L << square;
+        if ((occupied() & bit) == 0) {
+            return Piece.NONE;
+        }
+        int first = (occupancy[Piece.WHITE] & bit) != 0 ? 0 : 6;
+        for (int piece = first; piece < first + 6; piece++) {
+            if ((pieces[piece] & bit) != 0) {
+                return piece;
+            }
+        }
+        return Piece.NONE;
+    }
+
+    /**
+     * Builds a packed move from raw coordinates, working out the flag
+     * (capture, double push, castling, en passant, promotion) from the position.
+     * Returns Move.NONE if the side to move has no piece on the from square.
+     * promotionType is ignored unless a pawn reaches the last rank; queen is the default.
+     */
+    public int encodeMove(int from, int to, int promotionType) {
+        int piece = pieceAt(from);
+        if (piece == Piece.NONE || Piece.color(piece) != sideToMove || from == to) {
+            return Move.NONE;
+        }
+        boolean capture = pieceAt(to) != Piece.NONE;
+        int type = Piece.type(piece);
+
+        if (type == Piece.KING && Math.abs(Square.file(to) - Square.file(from)) == 2) {
+            return Move.of(from, to, to > from ? Move.KING_CASTLE : Move.QUEEN_CASTLE);
+        }
+        if (type == Piece.PAWN) {
+            int toRank = Square.rank(to);
+            if (toRank == 0 || toRank == 7) {
+                if (promotionType < Piece.KNIGHT || promotionType > Piece.QUEEN) {
+                    promotionType = Piece.QUEEN;
+                }
+                int flag = (capture ? Move.PROMO_CAPTURE : Move.PROMOTION) + (promotionType - Piece.KNIGHT);
+                return Move.of(from, to, flag);
+            }
+            if (to == epSquare && Square.file(to) != Square.file(from)) {
+                return Move.of(from, to, Move.EP_CAPTURE);
+            }
+            if (Math.abs(to - from) == 16) {
+                return Move.of(from, to, Move.DOUBLE_PUSH);
+            }
+        }
+        return Move.of(from, to, capture ? Move.CAPTURE : Move.QUIET);
+    }
+
+    /**
+     * Applies a packed move to this position. The move is trusted: callers are
+     * expected to have validated it against the side to move.
+     * Returns an undo token for {@link #unmakeMove(int, long)}.
+     */
+    public long makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flag = Move.flag(move);
+        int us = sideToMove;
+        int piece = pieceAt(from);
+        int captured = Piece.NONE;
+        long undo = ((long) castlingRights << 4)
+                | ((long) (epSquare & 0x7F) << 8)
+                | ((long) halfmoveClock << 16);
+
+        key ^= Zobrist.CASTLING[castlingRights] ^ epKey() ^ Zobrist.BLACK_TO_MOVE;
+
+        if (flag == Move.EP_CAPTURE) {
+            captured = Piece.of(us ^ 1, Piece.PAWN);
+            remove(captured, us == Piece.WHITE ? to - 8 : to + 8);
+        } else if (Move.isCapture(move)) {
+            captured = pieceAt(to);
+            remove(captured, to);
+        }
+
+        remove(piece, from);
+        put(Move.isPromotion(move) ? Piece.of(us, Move.promotionType(move)) : piece, to);
+
+        if (flag == Move.KING_CASTLE) {
+            int rook = Piece.of(us, Piece.ROOK);
+            remove(rook, to + 1);
+            put(rook, to - 1);
+        } else if (flag == Move.QUEEN_CASTLE) {
+            int rook = Piece.of(us, Piece.ROOK);
+            remove(rook, to - 2);
+            put(rook, to + 1);
+        }
+
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        epSquare = flag == Move.DOUBLE_PUSH ? (from + to) >>> 1 : Square.NONE;
+        halfmoveClock = (Piece.type(piece) == Piece.PAWN || captured != Piece.NONE) ? 0 : halfmoveClock + 1;
+        if (us == Piece.BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove = us ^ 1;
+        key ^= Zobrist.CASTLING[castlingRights] ^ epKey();
+        return undo | (captured & 0xF);
+    }
+
+    /** Takes back a move made with {@link #makeMove(int)}. */
+    public void unmakeMove(int move, long undo) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int flag = Move.flag(move);
+        int us = sideToMove ^ 1;
+        int captured = (int) (undo & 0xF);
+
+        key ^= Zobrist.CASTLING[castlingRights] ^ epKey() ^ Zobrist.BLACK_TO_MOVE;
+        sideToMove = us;
+        if (us == Piece.BLACK) {
+            fullmoveNumber--;
+        }
+        castlingRights = (int) ((undo >>> 4) & 0xF);
+        int ep = (int) ((undo >>> 8) & 0x7F);
+        epSquare = ep == 0x7F ? Square.NONE : ep;
+        halfmoveClock = (int) (undo >>> 16);
+
+        if (flag == Move.KING_CASTLE) {
+            int rook = Piece.of(us, Piece.ROOK);
+            remove(rook, to - 1);
+            put(rook, to + 1);
+        } else if (flag == Move.QUEEN_CASTLE) {
+            int rook = Piece.of(us, Piece.ROOK);
+            remove(rook, to + 1);
+            put(rook, to - 2);
+        }
+
+        int moved = pieceAt(to);
+        remove(moved, to);
+        put(Move.isPromotion(move) ? Piece.of(us, Piece.PAWN) : moved, from);
+
+        if (captured != 0xF) {
+            put(captured, flag == Move.EP_CAPTURE ? (us == Piece.WHITE ? to - 8 : to + 8) : to);
+        }
+        key ^= Zobrist.CASTLING[castlingRights] ^ epKey();
+    }
+
+    /**
+     * Board in the client layout: row 0 is rank 8, "" for empty squares,
+     * FEN letters for pieces.
+     */
+    public String[][] toBoard() {
+        String[][] board = new String[8][8];
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                int piece = pieceAt(Square.fromRowCol(row, col));
+                board[row][col] = piece == Piece.NONE ? "" : String.valueOf(Piece.symbol(piece));
+            }
+        }
+        return board;
+    }
+
+    void setState(int sideToMove, int castlingRights, int epSquare, int halfmoveClock, int fullmoveNumber) {
+        this.sideToMove = sideToMove;
+        this.castlingRights = castlingRights;
+        this.epSquare = epSquare;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        this.key = computeKey();
+    }
+
+    /*
+     * The en-passant square only counts towards the key when a pawn of the
+     * side to move could actually capture there, so positions that differ
+     * only by an unusable ep square are treated as repetitions.
+     */
+    private long epKey() {
+        if (epSquare == Square.NONE
+                || (Attacks.PAWN[sideToMove ^ 1][epSquare] & pieces[Piece.of(sideToMove, Piece.PAWN)]) == 0) {
+            return 0;
+        }
+        return Zobrist.EP_FILE[Square.file(epSquare)];
+    }
+
+    void put(int piece, int square) {
+        long bit = 1L << square;
+        pieces[piece] |= bit;
+        occupancy[Piece.color(piece)] |= bit;
+        key ^= Zobrist.PIECE_SQUARE[piece][square];
+    }
+
+    private void remove(int piece, int square) {
+        long bit = ~(1L << square);
+        pieces[piece] &= bit;
+        occupancy[Piece.color(piece)] &= bit;
+        key ^= Zobrist.PIECE_SQUARE[piece][square];
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.IndiChessBackend.chess;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Compact binary form of a Position, for game snapshots: the occupied
+ * bitboard, one 4-bit piece code per occupied square (a1 upwards), then side
+ * to move, castling rights, en-passant square and the two move clocks.
+ * 30 bytes for the starting position against ~56 for its FEN.
+ */
+public final class PositionCodec {
+
+    private PositionCodec() {
+    }
+
+    public static void write(Position position, DataOutput out) throws IOException {
+        long occupied = position.occupied();
+        out.writeLong(occupied);
+        int pending = -1;
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            int piece = position.pieceAt(Long.numberOfTrailingZeros(bits));
+            if (pending < 0) {
+                pending = piece;
+            } else {
+                out.writeByte(pending << 4 | piece);
+                pending = -1;
+            }
+        }
+        if (pending >= 0) {
+            out.writeByte(pending << 4);
+        }
+        out.writeByte(position.sideToMove() << 4 | position.castlingRights());
+        out.writeByte(position.epSquare());
+        out.writeShort(position.halfmoveClock());
+        out.writeShort(position.fullmoveNumber());
+    }
+
+    public static Position read(DataInput in) throws IOException {
+        Position position = new Position();
+        long occupied = in.readLong();
+        int count = Long.bitCount(occupied);
+        if (count > 32) {
+            throw new IOException("Corrupt position: " + count + " pieces");
+        }
+        int packed = 0;
+        int index = 0;
+        for (long bits = occupied; bits != 0; bits &= bits - 1, index++) {
+            if ((index & 1) == 0) {
+                packed = in.readUnsignedByte();
+            }
+            int piece = (index & 1) == 0 ? packed >>> 4 : packed & 0xF;
+            if (piece >= Piece.COUNT) {
+                throw new IOException("Corrupt position: piece code " + piece);
+            }
+            position.put(piece, Long.numberOfTrailingZeros(bits));
+        }
+        int state = in.readUnsignedByte();
+        int epSquare = in.readByte();
+        int halfmoveClock = in.readUnsignedShort();
+        int fullmoveNumber = in.readUnsignedShort();
+        position.setState(state >>> 4, state & Position.ALL_CASTLING, epSquare, halfmoveClock, fullmoveNumber);
+        return position;
+    }
+}
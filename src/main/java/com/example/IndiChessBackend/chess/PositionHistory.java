@@ -0,0 +1,64 @@
+package com.example.IndiChessBackend.chess;
+
+import java.util.Arrays;
+
+/**
+ * Zobrist keys of the positions since the last irreversible move (pawn move
+ * or capture), used for repetition detection. Only positions inside the
+ * halfmove clock window can repeat, so the history is cleared whenever the
+ * clock resets and never holds more than about 100 keys; checking for a
+ * repetition is a scan over at most 50 of them.
+ */
+public class PositionHistory {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int size;
+
+    public PositionHistory(Position position) {
+        push(position);
+    }
+
+    /** Restores a history saved with {@link #keys()}. */
+    public PositionHistory(long[] keys) {
+        this.keys = Arrays.copyOf(keys, Math.max(INITIAL_CAPACITY, keys.length));
+        this.size = keys.length;
+    }
+
+    /** Records the position reached after a move. */
+    public void push(Position position) {
+        if (position.halfmoveClock() == 0) {
+            size = 0;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = position.key();
+    }
+
+    /** How many times the latest position has occurred, counting itself. */
+    public int occurrences() {
+        if (size == 0) {
+            return 0;
+        }
+        long current = keys[size - 1];
+        int count = 1;
+        // Same side to move only, so step back two plies at a time
+        for (int i = size - 3; i >= 0; i -= 2) {
+            if (keys[i] == current) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** The recorded keys, oldest first. */
+    public long[] keys() {
+        return Arrays.copyOf(keys, size);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.IndiChessBackend.chess;
+
+/**
+ * Standard algebraic notation for a legal move, e.g. "Nbd7", "exd6",
+ * "e8=Q+", "O-O-O#". Disambiguation and the check suffix come from the
+ * move generator, so the result is exact rather than guessed from the
+ * client's move request.
+ */
+public final class San {
+
+    private San() {
+    }
+
+    /** SAN of a legal move in the given position; the position is left unchanged. */
+    public static String toSan(Position position, int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int type = Piece.type(position.pieceAt(from));
+        StringBuilder san = new StringBuilder(8);
+
+        if (Move.isCastle(move)) {
+            san.append(Move.flag(move) == Move.KING_CASTLE ? "O-O" : "O-O-O");
+        } else if (type == Piece.PAWN) {
+            if (Move.isCapture(move)) {
+                san.append((char) ('a' + Square.file(from))).append('x');
+            }
+            san.append(Square.name(to));
+            if (Move.isPromotion(move)) {
+                san.append('=').append(Piece.symbol(Move.promotionType(move)));
+            }
+        } else {
+            san.append(Piece.symbol(type));
+            appendDisambiguation(san, position, move, type);
+            if (Move.isCapture(move)) {
+                san.append('x');
+            }
+            san.append(Square.name(to));
+        }
+
+        long undo = position.makeMove(move);
+        if (MoveGenerator.inCheck(position)) {
+            san.append(MoveGenerator.hasLegalMove(position) ? '+' : '#');
+        }
+        position.unmakeMove(move, undo);
+        return san.toString();
+    }
+
+    /**
+     * The legal move a SAN string names in the given position, or Move.NONE
+     * if it names none or more than one. Accepts what PGN files contain
+     * beyond strict SAN: check and annotation suffixes, "0-0" castling, a
+     * promotion without '=' and a redundant disambiguation.
+     */
+    public static int parse(Position position, String san) {
+        return parse(position, san, new int[MoveGenerator.MAX_MOVES]);
+    }
+
+    /** As {@link #parse(Position, String)}, generating moves into the caller's buffer of MAX_MOVES. */
+    public static int parse(Position position, String san, int[] moves) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        String text = san.substring(0, end);
+        if (text.equals("O-O") || text.equals("0-0")) {
+            return castle(position, Move.KING_CASTLE, moves);
+        }
+        if (text.equals("O-O-O") || text.equals("0-0-0")) {
+            return castle(position, Move.QUEEN_CASTLE, moves);
+        }
+
+        int promotion = Piece.NONE;
+        if (end > 0 && "NBRQ".indexOf(text.charAt(end - 1)) >= 0) {
+            promotion = Piece.type(Piece.fromSymbol(text.charAt(end - 1)));
+            end -= end > 1 && text.charAt(end - 2) == '=' ? 2 : 1;
+        }
+        if (end < 2) {
+            return Move.NONE;
+        }
+        int to = Square.parse(text.substring(end - 2, end));
+        int start = 0;
+        int type = Piece.PAWN;
+        if ("NBRQK".indexOf(text.charAt(0)) >= 0) {
+            type = Piece.type(Piece.fromSymbol(text.charAt(0)));
+            start = 1;
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < end - 2; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != ':' && c != '-') {
+                return Move.NONE;
+            }
+        }
+        if (to == Square.NONE || (promotion != Piece.NONE && type != Piece.PAWN)) {
+            return Move.NONE;
+        }
+
+        int count = MoveGenerator.generateLegal(position, moves);
+        int found = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.isCastle(move)
+                    || Piece.type(position.pieceAt(from)) != type
+                    || (fromFile >= 0 && Square.file(from) != fromFile)
+                    || (fromRank >= 0 && Square.rank(from) != fromRank)
+                    || Move.isPromotion(move) != (promotion != Piece.NONE)
+                    || (promotion != Piece.NONE && Move.promotionType(move) != promotion)) {
+                continue;
+            }
+            if (found != Move.NONE) {
+                return Move.NONE; // ambiguous
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    private static int castle(Position position, int flag, int[] moves) {
+        int count = MoveGenerator.generateLegal(position, moves);
+        for (int i = 0; i < count; i++) {
+            if (Move.flag(moves[i]) == flag) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    // File if that tells the pieces apart, else rank, else both
+    private static void appendDisambiguation(StringBuilder san, Position position, int move, int type) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < count; i++) {
+            int other = Move.from(moves[i]);
+            if (Move.to(moves[i]) != to || other == from || Piece.type(position.pieceAt(other)) != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= Square.file(other) == Square.file(from);
+            sameRank |= Square.rank(other) == Square.rank(from);
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            san.append((char) ('a' + Square.file(from)));
+        } else if (!sameRank) {
+            san.append((char) ('1' + Square.rank(from)));
+        } else {
+            san.append(Square.name(from));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.IndiChessBackend.chess;
+
+/**
+ * Square helpers. Squares are numbered a1 = 0 .. h8 = 63; the client board
+ * uses row 0 for rank 8, so row/col coordinates are flipped vertically.
+ */
+public final class Square {
+
+    public static final int NONE = -1;
+
+    private Square() {
+    }
+
+    public static int of(int file, int rank) {
+        return rank * 8 + file;
+    }
+
+    public static int fromRowCol(int row, int col) {
+        return (7 - row) * 8 + col;
+    }
+
+    public static int file(int square) {
+        return square & 7;
+    }
+
+    public static int rank(int square) {
+        return square >>> 3;
+    }
+
+    public static int row(int square) {
+        return 7 - rank(square);
+    }
+
+    public static boolean isValidRowCol(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+
+    public static String name(int square) {
+        return String.valueOf((char) ('a' + file(square))) + (char) ('1' + rank(square));
+    }
+
+    public static int parse(String name) {
+        if (name == null || name.length() != 2) {
+            return NONE;
+        }
+        int file = name.charAt(0) - 'a';
+        int rank = name.charAt(1) - '1';
+        if (file < 0 || file > 7 || rank < 0 || rank > 7) {
+            return NONE;
+        }
+        return of(file, rank);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.IndiChessBackend.chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for position hashing. Seeded with a constant so keys (and any
+ * persisted hashes) are the same across restarts and nodes.
+ */
+public final class Zobrist {
+
+    static final long[][] PIECE_SQUARE = new long[Piece.COUNT][64];
+    static final long[] CASTLING = new long[16];
+    static final long[] EP_FILE = new long[8];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x1D1C4E55L);
+        for (int piece = 0; piece < Piece.COUNT; piece++) {
+            for (int square = 0; square < 64; square++) {
+                PIECE_SQUARE[piece][square] = random.nextLong();
+            }
+        }
+        for (int rights = 1; rights < 16; rights++) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for (int file = 0; file < 8; file++) {
+            EP_FILE[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+}
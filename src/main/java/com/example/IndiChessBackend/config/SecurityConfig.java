@@ -1,9 +1,11 @@
 package com.example.IndiChessBackend.config;
 
 import com.example.IndiChessBackend.filters.JwtFilter;
+import com.example.IndiChessBackend.filters.JwtLogoutHandler;
 import com.example.IndiChessBackend.oauth.OAuth2SuccessHandler;
 import com.example.IndiChessBackend.service.MyUserDetailsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
@@ -20,6 +22,7 @@ import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.logout.HttpStatusReturningLogoutSuccessHandler;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -33,16 +36,19 @@ public class SecurityConfig {
     private final MyUserDetailsService userDetailService;
     private final JwtFilter jwtFilter;
     private final OAuth2SuccessHandler oAuth2SuccessHandler;
+    private final JwtLogoutHandler jwtLogoutHandler;
 
+    // Raising the cost rehashes each stored password at its owner's next login
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(@Value("${indichess.auth.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider auth = new DaoAuthenticationProvider(userDetailService);
-        auth.setPasswordEncoder(passwordEncoder());
+        auth.setPasswordEncoder(passwordEncoder);
+        auth.setUserDetailsPasswordService(userDetailService);
         return auth;
     }
 
@@ -84,6 +90,12 @@ public class SecurityConfig {
                         .loginPage("/login")
                         .successHandler(oAuth2SuccessHandler)
                 )
+                .logout(logout -> logout
+                        .logoutUrl("/logout")
+                        .addLogoutHandler(jwtLogoutHandler)
+                        .deleteCookies("JWT")
+                        .logoutSuccessHandler(new HttpStatusReturningLogoutSuccessHandler())
+                )
                 .sessionManagement(sm ->
                         sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
@@ -1,6 +1,6 @@
 package com.example.IndiChessBackend.config;
 
-import com.example.IndiChessBackend.service.JwtService;
+import com.example.IndiChessBackend.model.UserPrincipal;
 import com.example.IndiChessBackend.service.MyUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.Message;
@@ -13,11 +13,12 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.util.Optional;
+
 @Component
 @RequiredArgsConstructor
 public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
-    private final JwtService jwtService;
     private final MyUserDetailsService userDetailsService;
 
     @Override
@@ -44,11 +45,10 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
 
             if (token != null) {
                 try {
-                    String username = jwtService.extractUsername(token);
-                    UserDetails userDetails =
-                            userDetailsService.loadUserByUsername(username);
+                    Optional<UserPrincipal> principal = userDetailsService.loadUserByToken(token);
 
-                    if (jwtService.isTokenValid(token, userDetails)) {
+                    if (principal.isPresent()) {
+                        UserDetails userDetails = principal.get();
 
                         UsernamePasswordAuthenticationToken auth =
                                 new UsernamePasswordAuthenticationToken(
@@ -3,20 +3,25 @@ package com.example.IndiChessBackend.controller;
 import com.example.IndiChessBackend.model.DTO.LoginDto;
 import com.example.IndiChessBackend.model.DTO.LoginResponseDto;
 import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.model.UserPrincipal;
 import com.example.IndiChessBackend.service.AuthService;
 import com.example.IndiChessBackend.service.JwtService;
+import com.example.IndiChessBackend.service.LoginService;
+import com.example.IndiChessBackend.service.TokenVersions;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/")
@@ -25,8 +30,9 @@ import java.io.IOException;
 public class AuthController {
 
     private final AuthService authservice;
-    private final AuthenticationManager authenticationManager;
+    private final LoginService loginService;
     private final JwtService jwtService;
+    private final TokenVersions tokenVersions;
 
 
     @PostMapping("signup")
@@ -35,41 +41,53 @@ public class AuthController {
         return new ResponseEntity<>(authservice.save(user), HttpStatus.CREATED);
     }
 
+    // The password check runs on LoginService's pool; this request thread is freed meanwhile
     @PostMapping("login")
-    public ResponseEntity<?> handleLogin(HttpServletRequest request,
-                                         HttpServletResponse response,
-                                         @RequestBody LoginDto loginDto) throws IOException {
-
-
-        Authentication authObject = authenticationManager.
-                authenticate(new
-                        UsernamePasswordAuthenticationToken
-                        (loginDto.getUsername(), loginDto.getPassword()));
-        if(authObject.isAuthenticated()) {
-            String tk = jwtService.generateToken(loginDto.getUsername());
-            System.out.println("Inside Auth controller");
-            System.out.println(tk);
-
-
-
-//            ResponseCookie cookie = ResponseCookie.from("JWT", tk).httpOnly(true).
-//                    secure(false).sameSite("lax").path("/").maxAge(3600).build();
-//            response.setHeader(HttpHeaders.SET_COOKIE, cookie.toString());
-
-            // Store JWT in HTTP-only cookie
-            Cookie jwtCookie = new Cookie("JWT", tk);
-            jwtCookie.setHttpOnly(true); // Prevents JavaScript from accessing the cookie
-            jwtCookie.setPath("/"); // Make sure the cookie is accessible for the entire domain
-            jwtCookie.setMaxAge(3600); // Optional: set cookie expiration (e.g., 1 hour)
-            jwtCookie.setSecure(false); // Optional: set to true if using HTTPS
-            response.addCookie(jwtCookie); // Add the cookie to the response
-
-
-
-            return ResponseEntity.ok(tk);
-        }
+    public CompletableFuture<ResponseEntity<?>> handleLogin(HttpServletRequest request,
+                                                            @RequestBody LoginDto loginDto) {
+
+        return loginService.login(loginDto.getUsername(), loginDto.getPassword(), request.getRemoteAddr())
+                .handle((principal, failure) -> {
+                    if (failure == null) {
+                        String tk = jwtService.generateToken(principal);
+
+                        // Store JWT in HTTP-only cookie
+                        ResponseCookie jwtCookie = ResponseCookie.from("JWT", tk)
+                                .httpOnly(true) // Prevents JavaScript from accessing the cookie
+                                .path("/") // Make sure the cookie is accessible for the entire domain
+                                .maxAge(3600) // Optional: set cookie expiration (e.g., 1 hour)
+                                .secure(false) // Optional: set to true if using HTTPS
+                                .build();
+                        return ResponseEntity.ok()
+                                .header(HttpHeaders.SET_COOKIE, jwtCookie.toString())
+                                .body(tk);
+                    }
+
+                    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    if (cause instanceof LoginService.LoginRejectedException rejected) {
+                        return ResponseEntity.status(rejected.isThrottled() ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(rejected.getRetryAfterSeconds()))
+                                .body(new LoginResponseDto(null, rejected.getMessage()));
+                    }
+                    if (!(cause instanceof AuthenticationException)) {
+                        System.err.println("❌ Login failed: " + cause);
+                    }
+                    return new ResponseEntity<>(new LoginResponseDto(null, "Auth Failed"), HttpStatus.BAD_REQUEST);
+                });
+    }
 
-        return new ResponseEntity<>(new LoginResponseDto(null, "Auth Failed"), HttpStatus.BAD_REQUEST);
+    // Signs the user out on every device: all their tokens stop working
+    @PostMapping("logout-all")
+    public ResponseEntity<?> handleLogoutAll(@AuthenticationPrincipal UserPrincipal principal,
+                                             HttpServletResponse response) {
+        tokenVersions.revokeAll(principal.getUserId());
+
+        Cookie jwtCookie = new Cookie("JWT", "");
+        jwtCookie.setHttpOnly(true);
+        jwtCookie.setPath("/");
+        jwtCookie.setMaxAge(0);
+        response.addCookie(jwtCookie);
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("home")
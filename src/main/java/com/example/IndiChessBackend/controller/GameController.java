@@ -9,9 +9,9 @@ import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.web.bind.annotation.*;
-import java.util.ArrayList;
 
 import java.security.Principal;
 import java.util.HashMap;
@@ -24,6 +24,7 @@ import java.util.Map;
 public class GameController {
 
     private final GameService gameService;
+    private final SimpMessagingTemplate messagingTemplate;
 
     // REST endpoint to get game details
     @GetMapping("/{matchId}")
@@ -38,10 +39,12 @@ public class GameController {
         }
     }
 
-    // WebSocket endpoint for making moves
+    // WebSocket endpoint for making moves; broadcasts a compact delta, not the board.
+    // Only accepted moves go to /topic/moves: a rejection goes to its sender alone, on /user/queue/move-errors,
+    // so the other player and spectators never see it in the delta stream they check for gaps.
     @MessageMapping("/game/{matchId}/move")
     @SendTo("/topic/moves/{matchId}")
-    public MoveDTO handleMove(@DestinationVariable Long matchId,
+    public MoveDeltaDTO handleMove(@DestinationVariable Long matchId,
                               @Payload MoveRequest moveRequest,
                               Principal principal) {
         try {
@@ -49,10 +52,26 @@ public class GameController {
             return gameService.processMove(matchId, moveRequest, principal);
         } catch (Exception e) {
             System.err.println("Error processing move: " + e.getMessage());
-            MoveDTO errorMove = new MoveDTO();
-            errorMove.setMatchId(matchId);
-            errorMove.setMoveNotation("ERROR: " + e.getMessage());
-            return errorMove;
+            messagingTemplate.convertAndSendToUser(principal.getName(), "/queue/move-errors",
+                    MoveDeltaDTO.error(matchId, "ERROR: " + e.getMessage()));
+            return null; // nothing is broadcast
+        }
+    }
+
+    // WebSocket endpoint for a full snapshot, e.g. after a gap in the move plies
+    @MessageMapping("/game/{matchId}/resync")
+    @SendToUser("/queue/game-sync")
+    public GameStatusDTO handleResync(@DestinationVariable Long matchId,
+                                      Principal principal) {
+        try {
+            System.out.println("Player " + principal.getName() + " resyncing game " + matchId);
+            return gameService.resync(matchId, principal);
+        } catch (Exception e) {
+            System.err.println("Error handling resync: " + e.getMessage());
+            GameStatusDTO errorStatus = new GameStatusDTO();
+            errorStatus.setMatchId(matchId);
+            errorStatus.setStatus("ERROR: " + e.getMessage());
+            return errorStatus;
         }
     }
 
@@ -180,15 +199,13 @@ public class GameController {
         }
     }
 
-    // REST endpoint to get move history (optional)
+    // REST endpoint for the move history, one page per call; poll with sincePly for new moves
     @GetMapping("/{matchId}/moves")
-    public ResponseEntity<Map<String, Object>> getMoveHistory(@PathVariable Long matchId) {
+    public ResponseEntity<MoveHistoryDTO> getMoveHistory(@PathVariable Long matchId,
+                                                         @RequestParam(defaultValue = "0") int sincePly,
+                                                         @RequestParam(defaultValue = "100") int limit) {
         try {
-            Map<String, Object> response = new HashMap<>();
-            response.put("matchId", matchId);
-            response.put("moves", new ArrayList<>()); // Return empty list for now
-            response.put("count", 0);
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(gameService.getMoveHistory(matchId, sincePly, limit));
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
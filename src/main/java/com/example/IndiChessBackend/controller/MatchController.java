@@ -1,18 +1,30 @@
 package com.example.IndiChessBackend.controller;
 
 import com.example.IndiChessBackend.model.DTO.CreateMatchRequest;
+import com.example.IndiChessBackend.model.DTO.GameListDTO;
+import com.example.IndiChessBackend.model.GameType;
 import com.example.IndiChessBackend.model.Match;
 import com.example.IndiChessBackend.model.User;
-import com.example.IndiChessBackend.service.JwtService;
+import com.example.IndiChessBackend.model.UserPrincipal;
 import com.example.IndiChessBackend.service.MatchService;
+import com.example.IndiChessBackend.service.PgnExportService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/game")
@@ -21,11 +33,14 @@ import java.util.Optional;
 public class MatchController {
 
     private final MatchService matchService;
-    private final JwtService jwtService;
+    private final PgnExportService pgnExportService;
+
+    private static final long EXPORT_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
 
     @PostMapping
     public ResponseEntity<Map<String, Long>> createMatch(
             HttpServletRequest request,
+            Principal principal,
             @RequestBody(required = false) CreateMatchRequest createMatchRequest) {
         
         // If no request body provided, create default request with STANDARD game type
@@ -33,7 +48,7 @@ public class MatchController {
             createMatchRequest = new CreateMatchRequest();
         }
         
-        Optional<Long> matchIdOpt = matchService.createMatch(request, createMatchRequest);
+        Optional<Long> matchIdOpt = matchService.createMatch(request, principal, createMatchRequest);
 
         Map<String, Long> response = new HashMap<>();
         if (matchIdOpt.isPresent()) {
@@ -46,8 +61,8 @@ public class MatchController {
     }
 
     @GetMapping("/check-match")
-    public ResponseEntity<Map<String, Long>> checkMatch(HttpServletRequest request) {
-        Optional<Long> matchIdOpt = matchService.checkMatch(request);
+    public ResponseEntity<Map<String, Long>> checkMatch(Principal principal) {
+        Optional<Long> matchIdOpt = matchService.checkMatch(principal);
 
         Map<String, Long> response = new HashMap<>();
         if (matchIdOpt.isPresent()) {
@@ -60,8 +75,8 @@ public class MatchController {
     }
 
     @PostMapping("/cancel-waiting")
-    public ResponseEntity<Map<String, Boolean>> cancelWaiting(HttpServletRequest request) {
-        boolean cancelled = matchService.cancelWaiting(request);
+    public ResponseEntity<Map<String, Boolean>> cancelWaiting(Principal principal) {
+        boolean cancelled = matchService.cancelWaiting(principal);
 
         Map<String, Boolean> response = new HashMap<>();
         response.put("cancelled", cancelled);
@@ -71,11 +86,11 @@ public class MatchController {
     @GetMapping("/{matchId}")
     public ResponseEntity<Map<String, Object>> getGameDetails(
             @PathVariable Long matchId,
-            HttpServletRequest request) {
+            Principal principal) {
 
         try {
             // Delegate to MatchService
-            Map<String, Object> response = matchService.getGameDetailsForFrontend(matchId, request);
+            Map<String, Object> response = matchService.getGameDetailsForFrontend(matchId, principal);
             return ResponseEntity.ok(response);
 
         } catch (RuntimeException e) {
@@ -91,4 +106,59 @@ public class MatchController {
         }
     }
 
-}
\ No newline at end of file
+    @GetMapping("/history")
+    public ResponseEntity<GameListDTO> getGameHistory(
+            @AuthenticationPrincipal UserPrincipal user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeFinishedAt,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(matchService.getGameHistory(user, beforeFinishedAt, beforeId, limit));
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("Not authenticated")) {
+                return ResponseEntity.status(401).build();
+            }
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Games in progress, newest first, optionally of one game type
+    @GetMapping("/live")
+    public ResponseEntity<GameListDTO> getLiveGames(
+            @RequestParam(required = false) GameType gameType,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(matchService.getLiveGames(gameType, beforeId, limit));
+    }
+
+    // Streams every finished game of the signed-in player as PGN, optionally gzipped. A long history takes a
+    // while to send, so this response alone gets EXPORT_TIMEOUT_MS instead of the short default async timeout.
+    @GetMapping("/export.pgn")
+    public WebAsyncTask<Void> exportPgn(
+            Principal principal,
+            HttpServletResponse response,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+
+        if (principal == null) {
+            response.setStatus(401);
+            return null;
+        }
+        String username = principal.getName();
+        Optional<Long> userIdOpt = pgnExportService.findUserId(username);
+        if (userIdOpt.isEmpty()) {
+            response.setStatus(404);
+            return null;
+        }
+        Long userId = userIdOpt.get();
+
+        String filename = username + "-games.pgn" + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : "application/x-chess-pgn;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString());
+        return new WebAsyncTask<>(EXPORT_TIMEOUT_MS, () -> {
+            pgnExportService.export(userId, response.getOutputStream(), gzip);
+            return null;
+        });
+    }
+
+}
@@ -1,6 +1,6 @@
 package com.example.IndiChessBackend.filters;
 
-import com.example.IndiChessBackend.service.JwtService;
+import com.example.IndiChessBackend.model.UserPrincipal;
 import com.example.IndiChessBackend.service.MyUserDetailsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -10,18 +10,17 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
 
-    private final JwtService jwtService;
     private final MyUserDetailsService userDetailsService;
 
     /**
@@ -45,39 +44,35 @@ public class JwtFilter extends OncePerRequestFilter {
             FilterChain filterChain)
             throws ServletException, IOException {
 
-        String token = extractTokenFromCookies(request);
+        String token = resolveToken(request);
 
         if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            String username = jwtService.extractUsername(token);
-
-            if (username != null) {
-                try {
-                    UserDetails userDetails =
-                            userDetailsService.loadUserByUsername(username);
-
-                    if (userDetails != null && jwtService.isTokenValid(token, userDetails)) {
-
-                        UsernamePasswordAuthenticationToken authToken =
-                                new UsernamePasswordAuthenticationToken(
-                                        userDetails,
-                                        null,
-                                        userDetails.getAuthorities()
-                                );
-
-                        authToken.setDetails(
-                                new WebAuthenticationDetailsSource()
-                                        .buildDetails(request)
-                        );
-
-                        SecurityContextHolder
-                                .getContext()
-                                .setAuthentication(authToken);
-                    }
-                } catch (Exception ex) {
-                    // ❌ Invalid token → clear context, don’t crash
-                    SecurityContextHolder.clearContext();
+            try {
+                // Built from the token's claims; no user lookup
+                Optional<UserPrincipal> principal = userDetailsService.loadUserByToken(token);
+
+                if (principal.isPresent()) {
+
+                    UsernamePasswordAuthenticationToken authToken =
+                            new UsernamePasswordAuthenticationToken(
+                                    principal.get(),
+                                    null,
+                                    principal.get().getAuthorities()
+                            );
+
+                    authToken.setDetails(
+                            new WebAuthenticationDetailsSource()
+                                    .buildDetails(request)
+                    );
+
+                    SecurityContextHolder
+                            .getContext()
+                            .setAuthentication(authToken);
                 }
+            } catch (Exception ex) {
+                // ❌ Invalid token → clear context, don’t crash
+                SecurityContextHolder.clearContext();
             }
         }
 
@@ -85,16 +80,22 @@ public class JwtFilter extends OncePerRequestFilter {
     }
 
     /**
-     * 🍪 Extract JWT from HttpOnly cookie
+     * 🍪 The request's JWT: the HttpOnly cookie, else an Authorization: Bearer header.
+     * Whatever reads a token off a request goes through here, so all of them see the same one.
      */
-    private String extractTokenFromCookies(HttpServletRequest request) {
-        if (request.getCookies() == null) return null;
-
-        for (Cookie cookie : request.getCookies()) {
-            if ("JWT".equals(cookie.getName())) {
-                return cookie.getValue();
+    public static String resolveToken(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if ("JWT".equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
             }
         }
+
+        String bearerToken = request.getHeader("Authorization");
+        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
         return null;
     }
 }
@@ -0,0 +1,31 @@
+package com.example.IndiChessBackend.filters;
+
+import com.example.IndiChessBackend.service.JwtService;
+import com.example.IndiChessBackend.service.RevokedTokens;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * 🚪 POST /logout: revokes the request's JWT, found as {@link JwtFilter} finds it
+ * (cookie or Bearer header), so a copy of it kept elsewhere stops working too,
+ * not just the cookie being cleared
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtLogoutHandler implements LogoutHandler {
+
+    private final JwtService jwtService;
+    private final RevokedTokens revokedTokens;
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        String token = JwtFilter.resolveToken(request);
+        if (token != null) {
+            jwtService.verify(token).ifPresent(revokedTokens::revoke);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.IndiChessBackend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished match moved out of the hot matches table by the archiver. It
+ * keeps what a finished game is read for (players, result, type, dates and
+ * its packed moves) and drops the live columns; the final position is
+ * replayed from the moves when read. Players are plain ids so archiving
+ * needs no join. The table uses InnoDB's compressed row format.
+ */
+@Entity
+@Table(
+        name = "match_archive",
+        indexes = {
+                @Index(name = "idx_match_archive_player1", columnList = "player1_id, finished_at"),
+                @Index(name = "idx_match_archive_player2", columnList = "player2_id, finished_at")
+        },
+        options = "ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8"
+)
+@Data
+public class ArchivedMatch {
+
+    @Id
+    private Long id; // the id it had in matches
+
+    @Column(name = "player1_id", nullable = false)
+    private Long player1Id;
+
+    @Column(name = "player2_id", nullable = false)
+    private Long player2Id;
+
+    @Enumerated(EnumType.STRING)
+    private MatchStatus status;
+
+    @Enumerated(EnumType.STRING)
+    private GameType gameType;
+
+    private Integer currentPly;
+
+    @Lob
+    @Column(name = "packed_moves", length = 1 << 20, nullable = false)
+    private byte[] packedMoves;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime archivedAt;
+}
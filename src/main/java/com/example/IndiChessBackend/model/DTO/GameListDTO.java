@@ -0,0 +1,23 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of GET /game/history or GET /game/live, newest first. Ask for
+ * the next page with beforeFinishedAt (history only) and beforeId set to
+ * the values given here.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameListDTO {
+    private List<GameSummaryDTO> games;
+    private LocalDateTime nextBeforeFinishedAt; // finish time of the last game in this page; null for live games
+    private Long nextBeforeId;
+    private boolean hasMore;
+}
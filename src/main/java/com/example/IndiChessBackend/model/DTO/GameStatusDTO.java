@@ -14,4 +14,7 @@ public class GameStatusDTO {
     private boolean isMyTurn;
     private String[][] board;
     private String fen;
+    private Integer ply; // plies played; move deltas continue from here
+    private Long player1TimeRemainingMs; // as of the moment the snapshot was taken
+    private Long player2TimeRemainingMs;
 }
\ No newline at end of file
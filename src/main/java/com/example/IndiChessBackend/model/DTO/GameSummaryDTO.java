@@ -0,0 +1,24 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.MatchStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** One game in a games list: a player's history or the games in progress. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameSummaryDTO {
+    private Long matchId;
+    private String white;
+    private String black;
+    private MatchStatus status;
+    private GameType gameType;
+    private Integer plies;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
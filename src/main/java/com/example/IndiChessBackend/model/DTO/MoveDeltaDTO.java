@@ -0,0 +1,35 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-move broadcast on /topic/moves/{matchId}: only what changed.
+ * Clients apply the move to their own board; a full GameStatusDTO snapshot
+ * is sent on join, on resync, or when the client's ply does not match.
+ * A rejected move is answered with an error delta on the sender's own
+ * /user/queue/move-errors, never on the topic.
+ * Null fields (clocks in untimed games, error) are left out of the JSON.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MoveDeltaDTO {
+    private Long matchId;
+    private Integer ply; // plies played after this move; consecutive deltas differ by exactly one
+    private String uci; // e.g. "e2e4", "e7e8q"
+    private Integer move; // packed 16-bit move: from | to << 6 | flag << 12 (see chess.Move)
+    private Long player1TimeRemainingMs; // both clocks right after the move, increment included
+    private Long player2TimeRemainingMs;
+    private String error;
+
+    public static MoveDeltaDTO error(Long matchId, String error) {
+        MoveDeltaDTO delta = new MoveDeltaDTO();
+        delta.setMatchId(matchId);
+        delta.setError(error);
+        return delta;
+    }
+}
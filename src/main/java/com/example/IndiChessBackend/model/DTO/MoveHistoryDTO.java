@@ -0,0 +1,24 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of GET /api/games/{matchId}/moves: the moves after the requested
+ * ply, in order. Poll again with sincePly = nextSincePly for the rest, or for
+ * moves played since.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveHistoryDTO {
+    private Long matchId;
+    private boolean live; // served from the in-memory game rather than the database
+    private List<PlayedMoveDTO> moves;
+    private int count;
+    private int nextSincePly; // last ply in this page, or the requested one if it is empty
+    private boolean hasMore; // more moves follow this page right now
+}
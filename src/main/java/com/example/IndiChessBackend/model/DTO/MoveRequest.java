@@ -29,4 +29,5 @@ public class MoveRequest {
     private String playerColor;
     private Long matchId;
     private LocalDateTime timestamp;
+    private Integer ply; // plies the client has seen; a mismatch triggers a resync snapshot
 }
\ No newline at end of file
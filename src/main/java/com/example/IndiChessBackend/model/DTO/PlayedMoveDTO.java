@@ -0,0 +1,18 @@
+package com.example.IndiChessBackend.model.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One move of a game's history; moveTimeMs is left out when it is not known. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PlayedMoveDTO {
+    private Integer ply; // 1 for White's first move
+    private String uci; // e.g. "e2e4", "e7e8q"
+    private String san; // e.g. "e4", "exd8=Q+"
+    private Integer moveTimeMs; // thinking time of the mover
+}
@@ -2,8 +2,35 @@ package com.example.IndiChessBackend.model;
 
 public enum GameType {
 
-    STANDARD, // no time limit
-    BLITZ, // 3 +1
-    RAPID, // 10 min
+    STANDARD(0, 0, 0), // no time limit
+    BLITZ(180_000, 1_000, 0), // 3 +1
+    RAPID(600_000, 0, 0), // 10 min
 
-}
\ No newline at end of file
+    ;
+
+    private final long initialMs;
+    private final long incrementMs; // Fischer increment, added after each completed move
+    private final long delayMs; // simple delay: the clock only starts running after this much thinking
+
+    GameType(long initialMs, long incrementMs, long delayMs) {
+        this.initialMs = initialMs;
+        this.incrementMs = incrementMs;
+        this.delayMs = delayMs;
+    }
+
+    public boolean isTimed() {
+        return initialMs > 0;
+    }
+
+    public long getInitialMs() {
+        return initialMs;
+    }
+
+    public long getIncrementMs() {
+        return incrementMs;
+    }
+
+    public long getDelayMs() {
+        return delayMs;
+    }
+}
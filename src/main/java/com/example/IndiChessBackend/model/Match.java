@@ -11,7 +11,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "matches")
+@Table(
+        name = "matches",
+        indexes = {
+                // A player's games newest first, for either colour; InnoDB appends the id to each entry
+                @Index(name = "idx_matches_player1_finished", columnList = "player1_id, finished_at"),
+                @Index(name = "idx_matches_player2_finished", columnList = "player2_id, finished_at"),
+                @Index(name = "idx_matches_status", columnList = "status"),
+                @Index(name = "idx_matches_status_type", columnList = "status, game_type")
+        }
+)
 @Data
 public class Match {
 
@@ -47,6 +56,11 @@ public class Match {
     @OrderBy("ply ASC") // VERY IMPORTANT
     private List<Move> moves = new ArrayList<>();
 
+    // Whole move list of a finished game (PackedMoves), written when it ends; null while in progress
+    @Lob
+    @Column(name = "packed_moves", length = 1 << 20)
+    private byte[] packedMoves;
+
     @Enumerated(EnumType.STRING)
     private GameType gameType;
 
@@ -71,6 +85,10 @@ public class Match {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Set on a match rebuilt from match_archive; MatchRepo.save refuses it so the hot row is never recreated
+    @Transient
+    private boolean archived;
+
     // Update constructor
     public Match(User player1, User player2, MatchStatus matchStatus, int i) {
         this.player1 = player1;
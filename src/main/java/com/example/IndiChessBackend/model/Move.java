@@ -13,8 +13,11 @@ import java.time.LocalDateTime;
 )
 public class Move {
 
+    // IDENTITY would force one INSERT per round trip; a pooled sequence hands out 50 ids
+    // per fetch so inserts can be JDBC-batched (a sequence table on MySQL)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "move_seq")
+    @SequenceGenerator(name = "move_seq", sequenceName = "move_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,10 +33,10 @@ public class Move {
     private String uci;         // e2e4
     private String san;         // e4
 
-    private String fenBefore;
-    private String fenAfter;
+    // No FEN columns: a position is rebuilt by replaying the plies' uci from the start
+    // (or from the match's packed moves), so a row does not carry two FEN strings
 
-//    private Integer moveTimeMs;
+    private Integer moveTimeMs; // thinking time of the mover
 
     private LocalDateTime createdAt;
 }
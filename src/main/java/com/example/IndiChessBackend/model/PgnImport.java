@@ -0,0 +1,38 @@
+package com.example.IndiChessBackend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a PGN file import: the offset after the last chunk of games
+ * committed, written in the same transaction as those games, so an import
+ * that fails resumes from there without duplicating or losing a game.
+ */
+@Entity
+@Table(name = "pgn_imports")
+@Data
+public class PgnImport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 500)
+    private String source; // absolute path of the file
+
+    private long sourceBytes; // the file's size when the import began; offsets are only valid for that file
+
+    private long byteOffset;
+
+    private long gamesImported;
+
+    private long gamesSkipped;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.validator.constraints.UniqueElements;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -42,4 +43,9 @@ public class User  {
 
     Integer rating ;// default rating
 
+    // Tokens carry the version they were issued at; bumping it revokes them all
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    int tokenVersion;
+
 }
@@ -1,21 +1,57 @@
 package com.example.IndiChessBackend.model;
 
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
 import org.jspecify.annotations.Nullable;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
 
-@RequiredArgsConstructor
+/**
+ * The signed-in user. Built from the users row at login, and from the JWT
+ * claims on every request after that, so a request is authenticated
+ * without loading the user; a principal built from a token has no
+ * password.
+ */
 public class UserPrincipal implements UserDetails {
 
+    @Getter
     private final User user;
+    private final List<GrantedAuthority> authorities;
+
+    public UserPrincipal(User user) {
+        this(user, List.of());
+    }
+
+    private UserPrincipal(User user, List<GrantedAuthority> authorities) {
+        this.user = user;
+        this.authorities = authorities;
+    }
+
+    /** The principal a verified token describes. */
+    public static UserPrincipal fromClaims(Long userId, String username, int tokenVersion, Collection<String> roles) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setUsername(username);
+        user.setTokenVersion(tokenVersion);
+        return new UserPrincipal(user, roles.stream()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList());
+    }
+
+    public Long getUserId() {
+        return user.getUserId();
+    }
+
+    public int getTokenVersion() {
+        return user.getTokenVersion();
+    }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of();
+        return authorities;
     }
 
     @Override
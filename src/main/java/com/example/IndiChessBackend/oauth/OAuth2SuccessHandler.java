@@ -1,6 +1,7 @@
 package com.example.IndiChessBackend.oauth;
 
 import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.model.UserPrincipal;
 import com.example.IndiChessBackend.repo.UserRepo;
 import com.example.IndiChessBackend.service.JwtService;
 import jakarta.servlet.http.Cookie;
@@ -46,8 +47,8 @@ public class OAuth2SuccessHandler implements AuthenticationSuccessHandler {
             userRepo.save(user);
         }
 
-        // ✅ Generate JWT using USERNAME (IMPORTANT)
-        String jwt = jwtService.generateToken(user.getUsername());
+        // ✅ Generate JWT carrying the user id, username and token version
+        String jwt = jwtService.generateToken(new UserPrincipal(user));
 
         // Store JWT in HttpOnly cookie
         Cookie jwtCookie = new Cookie("JWT", jwt);
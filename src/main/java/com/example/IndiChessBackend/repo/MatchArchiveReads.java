@@ -0,0 +1,28 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.Match;
+
+import java.util.Optional;
+
+/**
+ * Read-through to the match archive for {@link MatchRepo}: an id missing
+ * from the hot table is looked up among archived matches, so callers find a
+ * finished match wherever it lives.
+ *
+ * Only findById reads through. existsById, findAllById, getReferenceById,
+ * findAll, count and the derived queries see the hot table alone, so an
+ * archived match is missing from them.
+ */
+public interface MatchArchiveReads {
+
+    /** The match from the hot table, else rebuilt from the archive; an archived match is read-only. */
+    Optional<Match> findById(Long id);
+
+    /**
+     * Saves as JpaRepository does, but refuses an archived match rather than
+     * writing its id back into the hot table: an IllegalStateException, which
+     * reaches callers of MatchRepo as InvalidDataAccessApiUsageException.
+     * saveAll and saveAndFlush do not come through here.
+     */
+    <S extends Match> S save(S match);
+}
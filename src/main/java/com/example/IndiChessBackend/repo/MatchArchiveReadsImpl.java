@@ -0,0 +1,67 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.chess.Fen;
+import com.example.IndiChessBackend.chess.Move;
+import com.example.IndiChessBackend.chess.PackedMoves;
+import com.example.IndiChessBackend.model.ArchivedMatch;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.User;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// Spring Data picks this fragment's findById and save over the default ones
+class MatchArchiveReadsImpl implements MatchArchiveReads {
+
+    private final EntityManager entityManager;
+
+    MatchArchiveReadsImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<Match> findById(Long id) {
+        Match match = entityManager.find(Match.class, id);
+        if (match != null) {
+            return Optional.of(match);
+        }
+        ArchivedMatch archived = entityManager.find(ArchivedMatch.class, id);
+        return archived == null ? Optional.empty() : Optional.of(toMatch(archived));
+    }
+
+    @Override
+    @Transactional
+    public <S extends Match> S save(S match) {
+        if (match.isArchived()) {
+            throw new IllegalStateException("Match " + match.getId() + " is archived and read-only");
+        }
+        if (match.getId() == null) {
+            entityManager.persist(match);
+            return match;
+        }
+        return entityManager.merge(match);
+    }
+
+    /** A read-only, detached Match with the archived columns, its final FEN and last move replayed from the packed moves. */
+    Match toMatch(ArchivedMatch archived) {
+        Match match = new Match();
+        match.setId(archived.getId());
+        match.setPlayer1(entityManager.find(User.class, archived.getPlayer1Id()));
+        match.setPlayer2(entityManager.find(User.class, archived.getPlayer2Id()));
+        match.setStatus(archived.getStatus());
+        match.setGameType(archived.getGameType());
+        match.setCurrentPly(archived.getCurrentPly());
+        match.setPackedMoves(archived.getPackedMoves());
+        PackedMoves packed = PackedMoves.decode(archived.getPackedMoves());
+        match.setFenCurrent(Fen.toFen(packed.positionAt(packed.size())));
+        if (packed.size() > 0) {
+            match.setLastMoveUci(Move.toUci(packed.moves()[packed.size() - 1]));
+        }
+        match.setStartedAt(archived.getStartedAt());
+        match.setFinishedAt(archived.getFinishedAt());
+        match.setCreatedAt(archived.getCreatedAt());
+        match.setArchived(true);
+        return match;
+    }
+}
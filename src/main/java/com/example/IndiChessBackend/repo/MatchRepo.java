@@ -1,9 +1,123 @@
 package com.example.IndiChessBackend.repo;
 
+import com.example.IndiChessBackend.model.GameType;
 import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.MatchStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface MatchRepo extends JpaRepository<Match, Long> {
-}
\ No newline at end of file
+public interface MatchRepo extends JpaRepository<Match, Long>, MatchArchiveReads {
+
+    /** A match as a games list shows it: players by id and name, no User entities, no moves. */
+    interface MatchSummary {
+        Long getId();
+
+        MatchStatus getStatus();
+
+        GameType getGameType();
+
+        Integer getCurrentPly();
+
+        LocalDateTime getStartedAt();
+
+        LocalDateTime getFinishedAt();
+
+        Long getPlayer1Id();
+
+        String getPlayer1Name();
+
+        Long getPlayer2Id();
+
+        String getPlayer2Name();
+    }
+
+    // Served by MatchArchiveReadsImpl: the hot table, then the archive
+    @Override
+    Optional<Match> findById(Long id);
+
+    // Served by MatchArchiveReadsImpl, which refuses archived matches
+    @Override
+    <S extends Match> S save(S match);
+
+    // One primary-key lookup per id; finished and archived matches are left out
+    @Query("select m.id from Match m where m.id in :ids"
+            + " and m.status = com.example.IndiChessBackend.model.MatchStatus.IN_PROGRESS")
+    List<Long> findInProgressIds(@Param("ids") Collection<Long> ids);
+
+    // Keyset walk of the primary key: old finished matches have the lowest ids, so no extra index on the hot table
+    @Query("select m.id from Match m where m.finishedAt < :cutoff and m.id > :afterId"
+            + " and m.status <> com.example.IndiChessBackend.model.MatchStatus.IN_PROGRESS order by m.id")
+    List<Long> findArchivableIds(@Param("cutoff") LocalDateTime cutoff, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * A player's finished games, newest first, that finished before the
+     * (beforeFinishedAt, beforeId) cursor. One statement: each side of each
+     * table is a range read of its (player, finished_at) index stopping at
+     * the limit, and only those rows are merged and joined to the two names.
+     */
+    @Query(value = """
+            SELECT g.id AS id, g.status AS status, g.game_type AS gameType, g.current_ply AS currentPly,
+                   g.started_at AS startedAt, g.finished_at AS finishedAt,
+                   g.player1_id AS player1Id, w.user_name AS player1Name,
+                   g.player2_id AS player2Id, b.user_name AS player2Name
+            FROM (
+                (SELECT id, status, game_type, current_ply, started_at, finished_at, player1_id, player2_id
+                 FROM matches
+                 WHERE player1_id = :userId AND finished_at IS NOT NULL
+                   AND (finished_at < :beforeFinishedAt OR (finished_at = :beforeFinishedAt AND id < :beforeId))
+                 ORDER BY finished_at DESC, id DESC LIMIT :limit)
+                UNION ALL
+                (SELECT id, status, game_type, current_ply, started_at, finished_at, player1_id, player2_id
+                 FROM matches
+                 WHERE player2_id = :userId AND finished_at IS NOT NULL
+                   AND (finished_at < :beforeFinishedAt OR (finished_at = :beforeFinishedAt AND id < :beforeId))
+                 ORDER BY finished_at DESC, id DESC LIMIT :limit)
+                UNION ALL
+                (SELECT id, status, game_type, current_ply, started_at, finished_at, player1_id, player2_id
+                 FROM match_archive
+                 WHERE player1_id = :userId
+                   AND (finished_at < :beforeFinishedAt OR (finished_at = :beforeFinishedAt AND id < :beforeId))
+                 ORDER BY finished_at DESC, id DESC LIMIT :limit)
+                UNION ALL
+                (SELECT id, status, game_type, current_ply, started_at, finished_at, player1_id, player2_id
+                 FROM match_archive
+                 WHERE player2_id = :userId
+                   AND (finished_at < :beforeFinishedAt OR (finished_at = :beforeFinishedAt AND id < :beforeId))
+                 ORDER BY finished_at DESC, id DESC LIMIT :limit)
+            ) g
+            JOIN users w ON w.user_id = g.player1_id
+            JOIN users b ON b.user_id = g.player2_id
+            ORDER BY g.finished_at DESC, g.id DESC
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<MatchSummary> findFinishedByPlayer(@Param("userId") Long userId,
+                                            @Param("beforeFinishedAt") LocalDateTime beforeFinishedAt,
+                                            @Param("beforeId") Long beforeId,
+                                            @Param("limit") int limit);
+
+    // Keyset on the (status) index, whose entries are ordered by id
+    @Query("select m.id as id, m.status as status, m.gameType as gameType, m.currentPly as currentPly,"
+            + " m.startedAt as startedAt, m.finishedAt as finishedAt,"
+            + " p1.userId as player1Id, p1.username as player1Name, p2.userId as player2Id, p2.username as player2Name"
+            + " from Match m join m.player1 p1 join m.player2 p2"
+            + " where m.status = :status and m.id < :beforeId order by m.id desc")
+    List<MatchSummary> findByStatus(@Param("status") MatchStatus status, @Param("beforeId") Long beforeId, Limit limit);
+
+    // Keyset on the (status, game_type) index
+    @Query("select m.id as id, m.status as status, m.gameType as gameType, m.currentPly as currentPly,"
+            + " m.startedAt as startedAt, m.finishedAt as finishedAt,"
+            + " p1.userId as player1Id, p1.username as player1Name, p2.userId as player2Id, p2.username as player2Name"
+            + " from Match m join m.player1 p1 join m.player2 p2"
+            + " where m.status = :status and m.gameType = :gameType and m.id < :beforeId order by m.id desc")
+    List<MatchSummary> findByStatusAndGameType(@Param("status") MatchStatus status, @Param("gameType") GameType gameType,
+                                               @Param("beforeId") Long beforeId, Limit limit);
+}
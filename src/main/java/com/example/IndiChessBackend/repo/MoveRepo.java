@@ -1,9 +1,36 @@
 package com.example.IndiChessBackend.repo;
 
 import com.example.IndiChessBackend.model.Move;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface MoveRepo extends JpaRepository<Move, Long> {
+
+    /** A stored move without its FENs and notation: enough to replay or pack a match. */
+    interface PlayedMove {
+        String getUci();
+
+        Integer getMoveTimeMs();
+    }
+
+    /** A stored move as the move history shows it. */
+    interface HistoryMove {
+        int getPly();
+
+        String getUci();
+
+        String getSan();
+
+        Integer getMoveTimeMs();
+    }
+
+    // Closed projection: selects only the two columns, in play order
+    List<PlayedMove> findByMatchIdOrderByPly(Long matchId);
+
+    // Keyset page on the (match_id, ply) unique index: the moves after a ply, never an OFFSET scan
+    List<HistoryMove> findByMatchIdAndPlyGreaterThanOrderByPly(Long matchId, int ply, Limit limit);
 }
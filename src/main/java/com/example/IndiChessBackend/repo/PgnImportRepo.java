@@ -0,0 +1,13 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.model.PgnImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PgnImportRepo extends JpaRepository<PgnImport, Long> {
+
+    Optional<PgnImport> findBySource(String source);
+}
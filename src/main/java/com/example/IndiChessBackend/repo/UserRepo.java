@@ -2,7 +2,13 @@ package com.example.IndiChessBackend.repo;
 
 import com.example.IndiChessBackend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 
 @Repository
@@ -15,4 +21,17 @@ public interface UserRepo extends JpaRepository<User, Long> {
 
 
     User getUserByEmailId(String email);
+
+    @Query("select u.tokenVersion from User u where u.userId = :userId")
+    Optional<Integer> findTokenVersion(@Param("userId") Long userId);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.userId = :userId")
+    int updatePassword(@Param("userId") Long userId, @Param("password") String password);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.userId = :userId")
+    int incrementTokenVersion(@Param("userId") Long userId);
 }
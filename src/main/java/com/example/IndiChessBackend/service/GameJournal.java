@@ -0,0 +1,435 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.chess.GameClock;
+import com.example.IndiChessBackend.chess.Piece;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of live games: one record when a game starts (or is
+ * reloaded from the database mid-game, with its whole state), one per
+ * applied move (with both clocks after it) and one when it ends. Replaying
+ * it at startup rebuilds every game that was still in progress.
+ *
+ * Records go into fixed-size memory-mapped segment files. A record is in the
+ * page cache as soon as append returns, so it survives a JVM crash or kill
+ * at once; a sync thread forces the newly written range to disk every
+ * {@value #GROUP_COMMIT_MS} ms, so an OS crash loses at most that window and
+ * no move ever waits for an fsync.
+ *
+ * Record layout: int length, int CRC32 of the body, then the body (type byte
+ * and fields). A zero length ends a segment; a bad length or CRC is a torn
+ * write and ends the replay. The writer always starts a fresh segment after a
+ * restart, and a segment is deleted once every game that started in or
+ * before it has ended, or once a snapshot covers it (see {@link #checkpoint}).
+ *
+ * A journal position is segment index * segment size + offset, so positions
+ * only grow and can be stored in a snapshot.
+ */
+@Component
+public class GameJournal implements DisposableBean {
+
+    static final int SEGMENT_SIZE = 64 << 20;
+    static final long GROUP_COMMIT_MS = 5;
+
+    private static final byte STARTED = 1;
+    private static final byte MOVED = 2;
+    private static final byte ENDED = 3;
+    private static final byte RESUMED = 4;
+    private static final int HEADER = 8;
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final CRC32 crc = new CRC32(); // guarded by this
+    // Segment holding each live game's STARTED record; older segments are deletable
+    private final Map<Long, Long> liveGames = new ConcurrentHashMap<>();
+    private final List<Long> replaySegments = new ArrayList<>();
+    private final Thread syncer;
+    private volatile boolean running = true;
+    private volatile long checkpointSegment = -1; // first segment a snapshot still needs, -1 without one
+
+    // Guarded by this
+    private long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int synced;
+
+    /** Listener for {@link #replay}; untimed games have negative clocks. */
+    public interface Listener {
+
+        void started(long matchId, String player1, String player2,
+                     long whiteMs, long blackMs, long incrementMs, long delayMs);
+
+        void moved(long matchId, int ply, int move, long whiteMs, long blackMs);
+
+        /** A game reloaded mid-play; replaces anything known about it so far. */
+        void resumed(GameSnapshot.Game game);
+
+        void ended(long matchId);
+    }
+
+    @Autowired
+    public GameJournal(@Value("${indichess.journal.dir:data/journal}") String directory) {
+        this(Path.of(directory), SEGMENT_SIZE);
+    }
+
+    public GameJournal(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.map(GameJournal::segmentIndex).filter(index -> index >= 0).sorted().forEach(replaySegments::add);
+            }
+            openSegment(replaySegments.isEmpty() ? 0 : replaySegments.getLast() + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open game journal in " + directory, e);
+        }
+        this.syncer = Thread.ofPlatform().name("journal-sync").daemon().start(this::syncLoop);
+    }
+
+    public void gameStarted(long matchId, String player1, String player2, GameClock clock) {
+        byte[] name1 = player1.getBytes(StandardCharsets.UTF_8);
+        byte[] name2 = player2.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            ByteBuffer body = reserve(1 + 8 + 4 * 8 + 4 + name1.length + name2.length);
+            if (body == null) {
+                return;
+            }
+            body.put(STARTED).putLong(matchId);
+            putClock(body, clock);
+            body.putLong(clock != null ? clock.incrementMs() : -1).putLong(clock != null ? clock.delayMs() : -1);
+            body.putShort((short) name1.length).put(name1).putShort((short) name2.length).put(name2);
+            commit(body);
+            liveGames.putIfAbsent(matchId, segmentIndex);
+        }
+    }
+
+    /** Records a game brought back into memory after ply 0, with everything needed to continue it. */
+    public void gameResumed(GameSnapshot.Game game) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            GameSnapshot.writeGame(game, new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by an in-memory stream
+        }
+        synchronized (this) {
+            ByteBuffer body = reserve(1 + 8 + bytes.size());
+            if (body == null) {
+                return;
+            }
+            body.put(RESUMED).putLong(game.matchId()).put(bytes.toByteArray());
+            commit(body);
+            liveGames.put(game.matchId(), segmentIndex);
+        }
+    }
+
+    public synchronized void moveApplied(long matchId, int ply, int move, GameClock clock) {
+        ByteBuffer body = reserve(1 + 8 + 4 + 2 + 2 * 8);
+        if (body == null) {
+            return;
+        }
+        body.put(MOVED).putLong(matchId).putInt(ply).putShort((short) move);
+        putClock(body, clock);
+        commit(body);
+    }
+
+    public synchronized void gameEnded(long matchId) {
+        ByteBuffer body = reserve(1 + 8);
+        if (body == null) {
+            return;
+        }
+        body.put(ENDED).putLong(matchId);
+        commit(body);
+        liveGames.remove(matchId);
+    }
+
+    /**
+     * Replays every record written before this process started, in order.
+     * Call once at startup, before the journal is used; stops at the first
+     * torn or corrupt record.
+     */
+    public void replay(Listener listener) {
+        replay(0, listener);
+    }
+
+    /**
+     * Replays the records from a snapshot's journal position on. The
+     * segments from that position are kept until the next checkpoint, since
+     * the snapshot alone does not hold what was played after it.
+     */
+    public void replayFrom(long position, Listener listener) {
+        checkpointSegment = position / segmentSize;
+        replay(position, listener);
+    }
+
+    /** Position the next record will be written at. */
+    public synchronized long position() {
+        return segmentIndex * segmentSize + (buffer != null ? buffer.position() : 0);
+    }
+
+    /**
+     * Declares that a durable snapshot holds every live game as of the given
+     * position, so earlier segments are no longer needed for recovery.
+     */
+    public synchronized void checkpoint(long position) {
+        long segment = position / segmentSize;
+        checkpointSegment = Math.max(checkpointSegment, segment);
+        liveGames.replaceAll((matchId, started) -> Math.max(started, segment));
+        deleteEndedSegments();
+    }
+
+    /** Number of segment files on disk, including the one being written. */
+    public int segmentCount() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return (int) files.filter(file -> segmentIndex(file) >= 0).count();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        syncer.interrupt();
+        synchronized (this) {
+            if (buffer != null) {
+                buffer.force();
+            }
+            closeQuietly(channel);
+            buffer = null;
+        }
+    }
+
+    private void replay(long from, Listener listener) {
+        long fromSegment = from / segmentSize;
+        for (Long index : replaySegments) {
+            if (index < fromSegment) {
+                continue;
+            }
+            if (!replaySegment(index, index == fromSegment ? (int) (from % segmentSize) : 0, listener)) {
+                break;
+            }
+        }
+        replaySegments.clear();
+    }
+
+    private boolean replaySegment(long index, int start, Listener listener) {
+        Path file = segmentPath(index);
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer segment = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            CRC32 check = new CRC32();
+            int pos = start;
+            while (pos + HEADER <= segment.limit()) {
+                int length = segment.getInt(pos);
+                if (length == 0) {
+                    return true; // end of this segment
+                }
+                if (length < 0 || pos + HEADER + length > segment.limit()) {
+                    System.err.println("⚠️ Journal " + file.getFileName() + " ends with a torn record at " + pos);
+                    return false;
+                }
+                ByteBuffer body = segment.slice(pos + HEADER, length);
+                check.reset();
+                check.update(body.duplicate());
+                if ((int) check.getValue() != segment.getInt(pos + 4)) {
+                    System.err.println("⚠️ Journal " + file.getFileName() + " has a bad checksum at " + pos);
+                    return false;
+                }
+                dispatch(body, index, listener);
+                pos += HEADER + length;
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("⚠️ Cannot read journal " + file.getFileName() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void dispatch(ByteBuffer body, long index, Listener listener) {
+        byte type = body.get();
+        long matchId = body.getLong();
+        switch (type) {
+            case STARTED -> {
+                long whiteMs = body.getLong();
+                long blackMs = body.getLong();
+                long incrementMs = body.getLong();
+                long delayMs = body.getLong();
+                String player1 = getString(body);
+                String player2 = getString(body);
+                liveGames.put(matchId, index);
+                listener.started(matchId, player1, player2, whiteMs, blackMs, incrementMs, delayMs);
+            }
+            case MOVED -> {
+                int ply = body.getInt();
+                int move = body.getShort() & 0xFFFF;
+                listener.moved(matchId, ply, move, body.getLong(), body.getLong());
+            }
+            case RESUMED -> {
+                byte[] bytes = new byte[body.remaining()];
+                body.get(bytes);
+                GameSnapshot.Game game;
+                try {
+                    game = GameSnapshot.readGame(new DataInputStream(new ByteArrayInputStream(bytes)), GameSnapshot.VERSION);
+                } catch (IOException e) {
+                    System.err.println("⚠️ Unreadable resumed game " + matchId + ": " + e.getMessage());
+                    return;
+                }
+                liveGames.put(matchId, index);
+                listener.resumed(game);
+            }
+            case ENDED -> {
+                liveGames.remove(matchId);
+                listener.ended(matchId);
+            }
+            default -> System.err.println("⚠️ Unknown journal record type " + type);
+        }
+    }
+
+    // Returns a view for the record body, rolling to a new segment if this one is full; null if the journal is broken
+    private ByteBuffer reserve(int length) {
+        if (buffer == null) {
+            return null;
+        }
+        if (buffer.position() + HEADER + length > segmentSize) {
+            try {
+                roll();
+            } catch (IOException e) {
+                System.err.println("❌ Game journal disabled, cannot roll segment: " + e.getMessage());
+                buffer = null;
+                return null;
+            }
+        }
+        return buffer.slice(buffer.position() + HEADER, length);
+    }
+
+    // Body first, then checksum, then length: a reader never sees a length before its bytes
+    private void commit(ByteBuffer body) {
+        int pos = buffer.position();
+        int length = body.capacity();
+        crc.reset();
+        crc.update(body.flip());
+        buffer.putInt(pos + 4, (int) crc.getValue());
+        buffer.putInt(pos, length);
+        buffer.position(pos + HEADER + length);
+    }
+
+    private void roll() throws IOException {
+        buffer.force();
+        channel.close();
+        openSegment(segmentIndex + 1);
+        deleteEndedSegments();
+    }
+
+    private void openSegment(long index) throws IOException {
+        segmentIndex = index;
+        channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        synced = 0;
+    }
+
+    // Segments before the oldest live game's start (and not still waiting for replay) hold nothing needed
+    private void deleteEndedSegments() {
+        long keepFrom = segmentIndex;
+        for (Long index : liveGames.values()) {
+            keepFrom = Math.min(keepFrom, index);
+        }
+        if (checkpointSegment >= 0) {
+            // Games restored from the snapshot are not in liveGames; their moves since it start here
+            keepFrom = Math.min(keepFrom, checkpointSegment);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                long index = segmentIndex(file);
+                if (index >= 0 && index < keepFrom && !replaySegments.contains(index)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Cannot delete old journal segments: " + e.getMessage());
+        }
+    }
+
+    private void syncLoop() {
+        while (running) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(GROUP_COMMIT_MS));
+            MappedByteBuffer toSync;
+            int from;
+            int to;
+            synchronized (this) {
+                if (buffer == null || buffer.position() == synced) {
+                    continue;
+                }
+                toSync = buffer;
+                from = synced;
+                to = buffer.position();
+                synced = to;
+            }
+            // Outside the lock: appends carry on while the range is flushed
+            toSync.force(from, to - from);
+        }
+    }
+
+    private static void putClock(ByteBuffer body, GameClock clock) {
+        body.putLong(clock != null ? clock.remainingMs(Piece.WHITE) : -1);
+        body.putLong(clock != null ? clock.remainingMs(Piece.BLACK) : -1);
+    }
+
+    private static String getString(ByteBuffer body) {
+        byte[] bytes = new byte[body.getShort()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%020d%s", index, SUFFIX));
+    }
+
+    private static long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException ignored) {
+            // nothing left to do on shutdown
+        }
+    }
+}
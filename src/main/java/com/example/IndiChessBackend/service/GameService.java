@@ -1,20 +1,37 @@
 package com.example.IndiChessBackend.service;
 
+import com.example.IndiChessBackend.chess.DrawRules;
+import com.example.IndiChessBackend.chess.Fen;
+import com.example.IndiChessBackend.chess.GameClock;
+import com.example.IndiChessBackend.chess.Move;
+import com.example.IndiChessBackend.chess.MoveGenerator;
+import com.example.IndiChessBackend.chess.MoveLog;
+import com.example.IndiChessBackend.chess.PackedMoves;
+import com.example.IndiChessBackend.chess.Piece;
+import com.example.IndiChessBackend.chess.Position;
+import com.example.IndiChessBackend.chess.PositionHistory;
+import com.example.IndiChessBackend.chess.San;
+import com.example.IndiChessBackend.chess.Square;
+import com.example.IndiChessBackend.filters.JwtFilter;
 import com.example.IndiChessBackend.model.DTO.*;
+import com.example.IndiChessBackend.model.GameType;
 import com.example.IndiChessBackend.model.Match;
 import com.example.IndiChessBackend.model.MatchStatus;
 import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.model.UserPrincipal;
 import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.MoveRepo;
 import com.example.IndiChessBackend.repo.UserRepo;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,36 +39,56 @@ import org.springframework.transaction.annotation.Transactional;
 import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 public class GameService {
 
     private final MatchRepo matchRepo;
+    private final MoveRepo moveRepo;
     private final UserRepo userRepo;
     private final JwtService jwtService;
     private final SimpMessagingTemplate messagingTemplate;
     private final MyUserDetailsService userDetailsService;
-
-    // In-memory storage for active games (can be replaced with Redis for production)
+    private final MatchExecutor matchExecutor;
+    private final TimingWheel timingWheel;
+    private final MatchWriteBehind matchWriteBehind;
+    private final GameJournal gameJournal;
+    private final GameSnapshotter gameSnapshotter;
+
+    // In-memory storage for active games (can be replaced with Redis for production).
+    // A GameState is only read or written on its match's mailbox (see MatchExecutor).
     private final Map<Long, GameState> activeGames = new ConcurrentHashMap<>();
     private final Map<Long, List<String>> gamePlayers = new ConcurrentHashMap<>();
 
+    private static final long INACTIVE_GAME_NANOS = TimeUnit.HOURS.toNanos(2);
+    private static final long END_RETRY_MS = 5_000;
+    static final int MAX_HISTORY_PAGE = 500;
+
     // Helper class to store game state
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
     private static class GameState {
-        private String[][] board;
-        private boolean isWhiteTurn;
+        private Position position; // authoritative board; String[][] is only built for DTOs
+        private PositionHistory history; // keys since the last pawn move or capture, for repetition
+        private String fen; // FEN of the current position, rebuilt once per applied move
+        private int ply; // plies played, echoed in every move delta so clients can spot gaps
+        private int lastMove; // packed last move, Move.NONE before the first one
+        private MoveLog moveLog; // every move so far, for the move history endpoint
         private String status;
         private String player1Username;
         private String player2Username;
-        private LocalDateTime lastMoveTime;
-        private Integer player1TimeRemaining; // Time remaining for player1 (white) in seconds
-        private Integer player2TimeRemaining; // Time remaining for player2 (black) in seconds
-        private LocalDateTime lastTimeUpdate; // When time was last updated
+        private long lastMoveNanos; // System.nanoTime of the last move, for inactivity cleanup
+        private GameClock clock; // millisecond clocks of a timed game, null for STANDARD
+        private TimingWheel.Timeout flagTimeout; // flag-fall deadline of the side to move, timed games only
+
+        boolean isWhiteTurn() {
+            return position.isWhiteToMove();
+        }
     }
 
     public GameDTO getGameDetails(Long matchId, HttpServletRequest request) {
@@ -59,8 +96,11 @@ public class GameService {
         if (username == null) {
             throw new RuntimeException("User not authenticated");
         }
+        return matchExecutor.call(matchId, () -> gameDetails(matchId, username));
+    }
 
-        Optional<Match> matchOpt = matchRepo.findById(matchId);
+    private GameDTO gameDetails(Long matchId, String username) {
+        Optional<Match> matchOpt = findMatch(matchId);
         if (matchOpt.isEmpty()) {
             throw new RuntimeException("Game not found");
         }
@@ -70,32 +110,33 @@ public class GameService {
         // Determine player color
         String playerColor = determinePlayerColor(match, username);
 
-        // Determine if it's this player's turn
-        boolean isMyTurn = determineMyTurn(match, username);
-
-        // Get or initialize game state
+        // Get the game state, loading it if the match is in progress but not in memory
         GameState gameState = activeGames.get(matchId);
         if (gameState == null) {
-            gameState = initializeGameState(match);
-            activeGames.put(matchId, gameState);
-
-            // Store player usernames
-            List<String> players = new ArrayList<>();
-            players.add(match.getPlayer1().getUsername());
-            players.add(match.getPlayer2().getUsername());
-            gamePlayers.put(matchId, players);
+            gameState = rehydrate(match);
         }
 
+        // Determine if it's this player's turn
+        boolean isMyTurn = determineMyTurn(match, username);
+
         // Create response DTO
         GameDTO gameDTO = new GameDTO();
         gameDTO.setId(match.getId());
         gameDTO.setPlayer1(match.getPlayer1());
         gameDTO.setPlayer2(match.getPlayer2());
-        gameDTO.setStatus(gameState.getStatus());
+        if (gameState != null) {
+            gameDTO.setStatus(gameState.getStatus());
+            gameDTO.setBoard(gameState.getPosition().toBoard());
+            gameDTO.setFen(gameState.getFen());
+        } else {
+            // Finished: the stored row is final
+            String fen = match.getFenCurrent() != null ? match.getFenCurrent() : Fen.START;
+            gameDTO.setStatus(match.getStatus().name());
+            gameDTO.setBoard(Fen.parse(fen).toBoard());
+            gameDTO.setFen(fen);
+        }
         gameDTO.setPlayerColor(playerColor);
         gameDTO.setMyTurn(isMyTurn);
-        gameDTO.setBoard(gameState.getBoard());
-        gameDTO.setFen(convertBoardToFEN(gameState.getBoard(), gameState.isWhiteTurn()));
         gameDTO.setCreatedAt(match.getCreatedAt());
         gameDTO.setUpdatedAt(match.getUpdatedAt());
 
@@ -114,8 +155,7 @@ public class GameService {
     private boolean determineMyTurn(Match match, String username) {
         GameState gameState = activeGames.get(match.getId());
         if (gameState == null) {
-            // First move - white starts
-            return match.getPlayer1().getUsername().equals(username);
+            return false; // finished
         }
 
         // Determine whose turn it is based on game state
@@ -127,35 +167,260 @@ public class GameService {
         }
     }
 
-    private GameState initializeGameState(Match match) {
-        String[][] initialBoard = {
-                {"r", "n", "b", "q", "k", "b", "n", "r"},
-                {"p", "p", "p", "p", "p", "p", "p", "p"},
-                {"", "", "", "", "", "", "", ""},
-                {"", "", "", "", "", "", "", ""},
-                {"", "", "", "", "", "", "", ""},
-                {"", "", "", "", "", "", "", ""},
-                {"P", "P", "P", "P", "P", "P", "P", "P"},
-                {"R", "N", "B", "Q", "K", "B", "N", "R"}
-        };
+    // The match's live state, loaded from the database if it is in progress but not in memory; null once it is over
+    private GameState loadGame(Long matchId) {
+        GameState gameState = activeGames.get(matchId);
+        if (gameState != null) {
+            return gameState;
+        }
+        return findMatch(matchId).map(this::rehydrate).orElse(null);
+    }
+
+    // Reads the match row; an evicted game's last state may still be queued, so that is written first
+    private Optional<Match> findMatch(Long matchId) {
+        if (!activeGames.containsKey(matchId) && matchWriteBehind.isPending(matchId)) {
+            matchWriteBehind.flush();
+        }
+        return matchRepo.findById(matchId);
+    }
+
+    /**
+     * Brings an in-progress match into memory from its rows: a new match
+     * starts from the initial position, a match dropped from memory replays
+     * its stored moves (restoring the repetition history too), and if those
+     * do not lead to the stored FEN (matches older than the moves table) the
+     * FEN is taken as is. Clocks resume from the stored remaining times.
+     *
+     * Runs on the match's mailbox, like every other access to its state, so
+     * concurrent requests for the match queue behind this one load and then
+     * find the game in memory; each mailbox has its own virtual thread, so
+     * the database reads never hold up another match. Returns null for a
+     * finished match.
+     */
+    private GameState rehydrate(Match match) {
+        if (match.getStatus() != MatchStatus.IN_PROGRESS) {
+            return null;
+        }
+        Long matchId = match.getId();
+        long now = System.nanoTime();
+        GameState gameState = newGameState(match.getPlayer1().getUsername(), match.getPlayer2().getUsername(), null, now);
+        if (!replayStoredMoves(match, gameState)) {
+            Position position = Fen.parse(match.getFenCurrent() != null ? match.getFenCurrent() : Fen.START);
+            gameState.setPosition(position);
+            gameState.setHistory(new PositionHistory(position));
+            gameState.setFen(Fen.toFen(position));
+            gameState.setPly(match.getCurrentPly() != null ? match.getCurrentPly() : 0);
+            gameState.setMoveLog(new MoveLog(position, gameState.getPly()));
+            System.out.println("♻️ Match " + matchId + " loaded from its FEN; repetition history before it is lost");
+        }
+        // Initialize time from match; increment and delay come from the time control
+        if (match.getPlayer1TimeRemaining() != null && match.getPlayer2TimeRemaining() != null) {
+            GameType gameType = match.getGameType() != null ? match.getGameType() : GameType.STANDARD;
+            long whiteMs = match.getPlayer1TimeRemaining() * 1000L;
+            long blackMs = match.getPlayer2TimeRemaining() * 1000L;
+            GameClock clock = new GameClock(whiteMs, blackMs, gameType.getIncrementMs(), gameType.getDelayMs(), now);
+            clock.restore(whiteMs, blackMs, gameState.getPosition().sideToMove(), now);
+            gameState.setClock(clock);
+        }
 
+        activeGames.put(matchId, gameState);
+        gamePlayers.put(matchId, new ArrayList<>(List.of(gameState.getPlayer1Username(), gameState.getPlayer2Username())));
+        if (gameState.getPly() == 0) {
+            gameJournal.gameStarted(matchId, gameState.getPlayer1Username(), gameState.getPlayer2Username(), gameState.getClock());
+        } else {
+            gameJournal.gameResumed(toSnapshotGame(matchId, gameState));
+        }
+        scheduleFlag(matchId, gameState); // the side to move's clock starts now
+        return gameState;
+    }
+
+    // Replays the match's stored moves; false if one is unreadable or they do not reach the stored position
+    private boolean replayStoredMoves(Match match, GameState gameState) {
+        Position position = gameState.getPosition();
+        PositionHistory history = gameState.getHistory();
+        MoveLog moveLog = gameState.getMoveLog();
+        int lastMove = Move.NONE;
+        List<MoveRepo.PlayedMove> moves = moveRepo.findByMatchIdOrderByPly(match.getId());
+        for (MoveRepo.PlayedMove played : moves) {
+            lastMove = MoveGenerator.parseUci(position, played.getUci());
+            if (lastMove == Move.NONE) {
+                return false;
+            }
+            position.makeMove(lastMove);
+            history.push(position);
+            moveLog.add(lastMove, played.getMoveTimeMs() != null ? played.getMoveTimeMs() : MoveLog.UNKNOWN_TIME);
+        }
+        String fen = Fen.toFen(position);
+        if (match.getFenCurrent() != null && !match.getFenCurrent().equals(fen)) {
+            return false;
+        }
+        gameState.setFen(fen);
+        gameState.setPly(moves.size());
+        gameState.setLastMove(lastMove);
+        return true;
+    }
+
+    private static GameState newGameState(String player1Username, String player2Username, GameClock clock, long now) {
         GameState gameState = new GameState();
-        gameState.setBoard(initialBoard);
-        gameState.setWhiteTurn(true); // White starts
+        gameState.setPosition(Position.startPosition()); // White starts
+        gameState.setHistory(new PositionHistory(gameState.getPosition()));
+        gameState.setMoveLog(new MoveLog());
+        gameState.setFen(Fen.toFen(gameState.getPosition()));
         gameState.setStatus("IN_PROGRESS");
-        gameState.setPlayer1Username(match.getPlayer1().getUsername());
-        gameState.setPlayer2Username(match.getPlayer2().getUsername());
-        gameState.setLastMoveTime(LocalDateTime.now());
-        
-        // Initialize time from match
-        gameState.setPlayer1TimeRemaining(match.getPlayer1TimeRemaining());
-        gameState.setPlayer2TimeRemaining(match.getPlayer2TimeRemaining());
-        gameState.setLastTimeUpdate(LocalDateTime.now());
+        gameState.setPlayer1Username(player1Username);
+        gameState.setPlayer2Username(player2Username);
+        gameState.setLastMoveNanos(now);
+        gameState.setClock(clock);
+        return gameState;
+    }
+
+    /**
+     * Rebuilds the games that were in progress when the server last stopped:
+     * the latest snapshot, then the journal written after it, less any game
+     * whose match has finished meanwhile. Clocks resume where the last move
+     * left them; the downtime is not charged to anyone. Then starts the
+     * periodic snapshots.
+     */
+    @PostConstruct
+    public void recoverActiveGames() {
+        long start = System.nanoTime();
+        Map<Long, GameState> recovered = new HashMap<>();
+        Optional<GameSnapshot> snapshot = gameSnapshotter.loadLatest();
+        snapshot.ifPresent(image -> image.games().forEach(game -> recovered.put(game.matchId(), fromSnapshot(game, start))));
+
+        GameJournal.Listener replay = new GameJournal.Listener() {
+            @Override
+            public void started(long matchId, String player1, String player2,
+                                long whiteMs, long blackMs, long incrementMs, long delayMs) {
+                // Already there if the snapshot caught the game after it started
+                GameClock clock = whiteMs >= 0 ? new GameClock(whiteMs, blackMs, incrementMs, delayMs, start) : null;
+                recovered.putIfAbsent(matchId, newGameState(player1, player2, clock, start));
+            }
 
+            @Override
+            public void moved(long matchId, int ply, int move, long whiteMs, long blackMs) {
+                GameState gameState = recovered.get(matchId);
+                if (gameState == null || ply != gameState.getPly() + 1) {
+                    return;
+                }
+                Position position = gameState.getPosition();
+                position.makeMove(move);
+                gameState.getHistory().push(position);
+                gameState.getMoveLog().add(move, MoveLog.UNKNOWN_TIME);
+                gameState.setPly(ply);
+                gameState.setLastMove(move);
+                if (gameState.getClock() != null) {
+                    gameState.getClock().restore(whiteMs, blackMs, position.sideToMove(), start);
+                }
+            }
+
+            @Override
+            public void resumed(GameSnapshot.Game game) {
+                recovered.put(game.matchId(), fromSnapshot(game, start));
+            }
+
+            @Override
+            public void ended(long matchId) {
+                recovered.remove(matchId);
+            }
+        };
+        if (snapshot.isPresent()) {
+            gameJournal.replayFrom(snapshot.get().journalPosition(), replay);
+        } else {
+            gameJournal.replay(replay);
+        }
+        dropFinishedGames(recovered);
+
+        recovered.forEach((matchId, gameState) -> matchExecutor.run(matchId, () -> {
+            gameState.setFen(Fen.toFen(gameState.getPosition()));
+            activeGames.put(matchId, gameState);
+            gamePlayers.put(matchId, new ArrayList<>(List.of(gameState.getPlayer1Username(), gameState.getPlayer2Username())));
+            scheduleFlag(matchId, gameState);
+            updateMatchInDatabase(matchId, gameState); // the row may have missed the last flush
+        }));
+        if (!recovered.isEmpty()) {
+            System.out.println("♻️ Recovered " + recovered.size() + " games in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        }
+        gameSnapshotter.start(this::captureGames);
+    }
+
+    /*
+     * A game's result is written before its end is journaled, so a crash in
+     * between leaves a finished match that the journal still has as started,
+     * and a snapshot taken before the end restores it just the same. Whatever
+     * the journal and snapshot do not know, the match row does: keep only the
+     * games still in progress there, and journal the end of the rest.
+     */
+    private void dropFinishedGames(Map<Long, GameState> recovered) {
+        if (recovered.isEmpty()) {
+            return;
+        }
+        Set<Long> inProgress = new HashSet<>(matchRepo.findInProgressIds(List.copyOf(recovered.keySet())));
+        recovered.keySet().removeIf(matchId -> {
+            if (inProgress.contains(matchId)) {
+                return false;
+            }
+            System.out.println("🏁 Match " + matchId + " already finished, not recovering it");
+            gameJournal.gameEnded(matchId);
+            return true;
+        });
+    }
+
+    private static GameState fromSnapshot(GameSnapshot.Game game, long now) {
+        GameClock clock = null;
+        if (game.whiteMs() >= 0) {
+            clock = new GameClock(game.whiteMs(), game.blackMs(), game.incrementMs(), game.delayMs(), now);
+            clock.restore(game.whiteMs(), game.blackMs(), game.position().sideToMove(), now);
+        }
+        GameState gameState = newGameState(game.player1(), game.player2(), clock, now);
+        gameState.setPosition(game.position());
+        gameState.setHistory(new PositionHistory(game.historyKeys()));
+        gameState.setMoveLog(game.moveLog());
+        gameState.setPly(game.ply());
+        gameState.setLastMove(game.lastMove());
         return gameState;
     }
 
-    public MoveDTO processMove(Long matchId, MoveRequest moveRequest, Principal principal) {
+    // Copies each live game on its own mailbox: no game waits longer than one copy, and none waits for the file write
+    List<GameSnapshot.Game> captureGames() {
+        List<CompletableFuture<GameSnapshot.Game>> copies = new ArrayList<>(activeGames.size());
+        for (Long matchId : activeGames.keySet()) {
+            copies.add(matchExecutor.submit(matchId, () -> {
+                GameState gameState = activeGames.get(matchId);
+                if (gameState == null || !"IN_PROGRESS".equals(gameState.getStatus())) {
+                    return null;
+                }
+                return toSnapshotGame(matchId, gameState);
+            }));
+        }
+        List<GameSnapshot.Game> games = new ArrayList<>(copies.size());
+        for (CompletableFuture<GameSnapshot.Game> copy : copies) {
+            GameSnapshot.Game game = copy.join();
+            if (game != null) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    private static GameSnapshot.Game toSnapshotGame(Long matchId, GameState gameState) {
+        GameClock clock = gameState.getClock();
+        return new GameSnapshot.Game(matchId, gameState.getPlayer1Username(), gameState.getPlayer2Username(),
+                gameState.getPly(), gameState.getLastMove(),
+                gameState.getPosition().copy(), gameState.getHistory().keys(),
+                clock != null ? clock.remainingMs(Piece.WHITE) : -1,
+                clock != null ? clock.remainingMs(Piece.BLACK) : -1,
+                clock != null ? clock.incrementMs() : -1,
+                clock != null ? clock.delayMs() : -1,
+                gameState.getMoveLog().copy());
+    }
+
+    public MoveDeltaDTO processMove(Long matchId, MoveRequest moveRequest, Principal principal) {
+        return matchExecutor.call(matchId, () -> applyMove(matchId, moveRequest, principal));
+    }
+
+    private MoveDeltaDTO applyMove(Long matchId, MoveRequest moveRequest, Principal principal) {
         String username = principal.getName();
 
         // Add null checks for required fields
@@ -179,11 +444,21 @@ public class GameService {
         System.out.println("♟️ Piece: " + moveRequest.getPiece());
 
         // Get game state
-        GameState gameState = activeGames.get(matchId);
+        GameState gameState = loadGame(matchId);
         if (gameState == null) {
             System.out.println("❌ Game not found in active games: " + matchId);
             throw new RuntimeException("Game not found or not active");
         }
+        if (!"IN_PROGRESS".equals(gameState.getStatus())) {
+            throw new RuntimeException("Game is over: " + gameState.getStatus());
+        }
+
+        // The client missed (or invented) a move: refuse it and send that client a full snapshot
+        if (moveRequest.getPly() != null && moveRequest.getPly() != gameState.getPly()) {
+            System.out.println("❌ Ply mismatch. Client: " + moveRequest.getPly() + ", Server: " + gameState.getPly());
+            messagingTemplate.convertAndSendToUser(username, "/queue/game-sync", snapshot(matchId, gameState, username));
+            throw new RuntimeException("Out of sync: expected ply " + gameState.getPly());
+        }
 
         // Verify it's this player's turn
         boolean isWhiteTurn = gameState.isWhiteTurn();
@@ -205,205 +480,249 @@ public class GameService {
             throw new RuntimeException("Invalid move: Black's turn but player is " + playerColor);
         }
 
-        // Update board state
-        String[][] newBoard = moveRequest.getBoard();
-        if (newBoard == null) {
-            System.out.println("❌ Board is null in move request");
-            throw new RuntimeException("Board cannot be null");
+        // A move that arrives after the mover's flag fell is not played: the game is lost on time
+        long now = System.nanoTime();
+        if (gameState.getClock() != null && gameState.getClock().checkFlag(now)) {
+            endOnTime(matchId, gameState);
+            throw new RuntimeException("Game is over: " + gameState.getStatus());
         }
 
-        // Log board state before and after
-        System.out.println("📊 Board received in move request. First row: " +
-                Arrays.toString(newBoard[0]));
+        // Validate and apply the move on the server's own position; the client board is ignored
+        if (!Square.isValidRowCol(moveRequest.getFromRow(), moveRequest.getFromCol()) ||
+                !Square.isValidRowCol(moveRequest.getToRow(), moveRequest.getToCol())) {
+            throw new RuntimeException("Move coordinates out of range");
+        }
+
+        Position position = gameState.getPosition();
+        int from = Square.fromRowCol(moveRequest.getFromRow(), moveRequest.getFromCol());
+        int to = Square.fromRowCol(moveRequest.getToRow(), moveRequest.getToCol());
+        int move = MoveGenerator.findLegalMove(position, from, to, promotionType(moveRequest.getPromotedTo()));
+        if (move == Move.NONE) {
+            System.out.println("❌ Illegal move: " + Square.name(from) + Square.name(to));
+            throw new RuntimeException("Illegal move: " + Square.name(from) + Square.name(to));
+        }
 
-        gameState.setBoard(newBoard);
-        gameState.setWhiteTurn(!isWhiteTurn); // Switch turns
-        LocalDateTime now = LocalDateTime.now();
-        gameState.setLastMoveTime(now);
+        String san = San.toSan(position, move); // needs the position before the move
+        position.makeMove(move); // Switches turns
+        gameState.getHistory().push(position);
+        gameState.setFen(Fen.toFen(position));
+        gameState.setPly(gameState.getPly() + 1);
+        gameState.setLastMove(move);
+
+        int moveTimeMs = (int) TimeUnit.NANOSECONDS.toMillis(now - gameState.getLastMoveNanos());
+        gameState.getMoveLog().add(move, moveTimeMs);
+        gameState.setLastMoveNanos(now);
         gameState.setStatus("IN_PROGRESS");
 
         // Update time for timed games
-        updateTimeForMove(matchId, gameState, isWhiteTurn, now);
+        updateTimeForMove(matchId, gameState, now);
+
+        // Journal the move for crash recovery, then queue the move and the row update before any
+        // game-end handling so the final write includes them
+        gameJournal.moveApplied(matchId, gameState.getPly(), move, gameState.getClock());
+        matchWriteBehind.recordMove(new MatchWriteBehind.MoveRecord(matchId, gameState.getPly(), Move.toUci(move), san,
+                moveTimeMs, LocalDateTime.now()));
+        updateMatchInDatabase(matchId, gameState);
 
         // Check for time expiration
         checkTimeExpiration(matchId, gameState);
 
-        // Update active games
-        activeGames.put(matchId, gameState);
-        System.out.println("✅ Game state updated. Now it's " + (!isWhiteTurn ? "White" : "Black") + "'s turn");
-
-        // Update match in database (optional - for persistence)
-        try {
-            updateMatchInDatabase(matchId, moveRequest);
-        } catch (Exception e) {
-            System.err.println("⚠️ Failed to update database: " + e.getMessage());
-            // Continue anyway - in-memory state is more important
-        }
-
-        // Create move notation
-        String moveNotation = createMoveNotation(moveRequest);
-        System.out.println("📝 Move notation: " + moveNotation);
-
-        // Prepare response DTO
-        MoveDTO moveDTO = new MoveDTO();
-        moveDTO.setFromRow(moveRequest.getFromRow());
-        moveDTO.setFromCol(moveRequest.getFromCol());
-        moveDTO.setToRow(moveRequest.getToRow());
-        moveDTO.setToCol(moveRequest.getToCol());
-        moveDTO.setPiece(moveRequest.getPiece());
-        moveDTO.setPromotedTo(moveRequest.getPromotedTo());
-        moveDTO.setCapturedPiece(moveRequest.getCapturedPiece());
-        moveDTO.setCastled(moveRequest.getCastled() != null ? moveRequest.getCastled() : false);
-        moveDTO.setIsEnPassant(moveRequest.getIsEnPassant() != null ? moveRequest.getIsEnPassant() : false);
-        moveDTO.setIsPromotion(moveRequest.getIsPromotion() != null ? moveRequest.getIsPromotion() : false);
-        moveDTO.setFenBefore(moveRequest.getFenBefore());
-        moveDTO.setFenAfter(moveRequest.getFenAfter());
-        moveDTO.setBoard(newBoard);
-        moveDTO.setIsWhiteTurn(!isWhiteTurn); // Next player's turn
-        moveDTO.setPlayerColor(playerColor);
-        moveDTO.setMatchId(matchId);
-        moveDTO.setTimestamp(LocalDateTime.now());
-        moveDTO.setMoveNotation(moveNotation);
-        moveDTO.setPlayerUsername(username);
-
-        System.out.println("📤 Prepared MoveDTO for broadcasting. Board included: " +
-                (moveDTO.getBoard() != null ? "YES" : "NO"));
-        System.out.println("🎯 Broadcasting to: /topic/moves/" + matchId);
+        // Check for checkmate / stalemate now that the opponent is to move
+        if ("IN_PROGRESS".equals(gameState.getStatus()) && !MoveGenerator.hasLegalMove(position)) {
+            if (MoveGenerator.inCheck(position)) {
+                gameState.setStatus("CHECKMATE");
+                System.out.println("🏁 Checkmate by " + playerColor);
+                handleGameEnd(matchId, isWhiteTurn ? "PLAYER1_WON" : "PLAYER2_WON", "Checkmate");
+            } else {
+                gameState.setStatus("STALEMATE");
+                System.out.println("🏁 Stalemate");
+                handleGameEnd(matchId, "DRAW", "Stalemate");
+            }
+        }
 
-        return moveDTO;
-    }
+        // Automatic draws: insufficient material, threefold repetition, fifty-move rule
+        if ("IN_PROGRESS".equals(gameState.getStatus())) {
+            String drawReason = DrawRules.drawReason(position, gameState.getHistory());
+            if (drawReason != null) {
+                gameState.setStatus("DRAW");
+                System.out.println("🏁 Draw: " + drawReason);
+                handleGameEnd(matchId, "DRAW", drawReason);
+            }
+        }
 
-    private String createMoveNotation(MoveRequest move) {
-        int fromRow = move.getFromRow();
-        int fromCol = move.getFromCol();
-        int toRow = move.getToRow();
-        int toCol = move.getToCol();
-        String piece = move.getPiece();
+        // Re-arm the flag for the side now to move; a finished game has already dropped its timer
+        if ("IN_PROGRESS".equals(gameState.getStatus())) {
+            scheduleFlag(matchId, gameState);
+        }
 
-        String fromSquare = colToFile(fromCol) + (8 - fromRow);
-        String toSquare = colToFile(toCol) + (8 - toRow);
+        System.out.println("✅ Game state updated. Now it's " + (!isWhiteTurn ? "White" : "Black") + "'s turn");
 
-        if (move.getCastled()) {
-            return toCol == 6 ? "O-O" : "O-O-O"; // Kingside or Queenside
-        }
+        System.out.println("📝 Move notation: " + san);
 
-        String pieceSymbol = piece.toUpperCase();
-        if ("p".equalsIgnoreCase(piece)) {
-            pieceSymbol = "";
+        // Broadcast only the delta; the board and FEN go out in snapshots
+        MoveDeltaDTO delta = new MoveDeltaDTO();
+        delta.setMatchId(matchId);
+        delta.setPly(gameState.getPly());
+        delta.setUci(Move.toUci(move));
+        delta.setMove(move);
+        if (gameState.getClock() != null) {
+            delta.setPlayer1TimeRemainingMs(gameState.getClock().remainingMs(Piece.WHITE));
+            delta.setPlayer2TimeRemainingMs(gameState.getClock().remainingMs(Piece.BLACK));
         }
 
-        String capture = move.getCapturedPiece() != null && !move.getCapturedPiece().isEmpty() ? "x" : "";
+        System.out.println("🎯 Broadcasting to: /topic/moves/" + matchId);
 
-        return pieceSymbol + capture + toSquare;
+        return delta;
     }
 
-    private String colToFile(int col) {
-        return String.valueOf((char) ('a' + col));
+    private int promotionType(String promotedTo) {
+        if (promotedTo == null || promotedTo.isEmpty()) {
+            return Piece.QUEEN;
+        }
+        int piece = Piece.fromSymbol(promotedTo.charAt(0));
+        return piece == Piece.NONE ? Piece.QUEEN : Piece.type(piece);
     }
 
-    private void updateMatchInDatabase(Long matchId, MoveRequest moveRequest) {
-        try {
-            Optional<Match> matchOpt = matchRepo.findById(matchId);
-            if (matchOpt.isPresent()) {
-                Match match = matchOpt.get();
+    // Hands the match row to the write-behind; the database is updated off the move path
+    private void updateMatchInDatabase(Long matchId, GameState gameState) {
+        GameClock clock = gameState.getClock();
+        matchWriteBehind.update(matchId, new MatchWriteBehind.MatchUpdate(
+                gameState.getFen(),
+                gameState.getPly(),
+                gameState.getLastMove() != Move.NONE ? Move.toUci(gameState.getLastMove()) : null,
+                clock != null ? toSeconds(clock.remainingMs(Piece.WHITE)) : null,
+                clock != null ? toSeconds(clock.remainingMs(Piece.BLACK)) : null));
+    }
 
-                // Update basic match info
-                // match.setUpdatedAt(LocalDateTime.now()); // Remove this line if Match entity doesn't have updatedAt
+    public GameStatusDTO handlePlayerJoin(Long matchId, JoinRequest joinRequest, Principal principal) {
+        return matchExecutor.call(matchId, () -> join(matchId, joinRequest, principal));
+    }
 
-                // Update game state fields if they exist in your Match entity
-                if (moveRequest.getFenAfter() != null) {
-                    match.setFenCurrent(moveRequest.getFenAfter());
-                    System.out.println("📝 Updated FEN to: " + moveRequest.getFenAfter());
-                }
+    private GameStatusDTO join(Long matchId, JoinRequest joinRequest, Principal principal) {
+        // Loads the game if it is not in memory; a finished one is described from its row
+        GameStatusDTO statusDTO = currentSnapshot(matchId, principal);
+        statusDTO.setPlayerColor(joinRequest.getPlayerColor());
 
-                // Update last move in UCI format
-                String uci = createUCI(moveRequest);
-                if (!uci.isEmpty()) {
-                    match.setLastMoveUci(uci);
-                    System.out.println("📝 Updated last move UCI: " + uci);
-                }
+        return statusDTO;
+    }
 
-                // Increment ply counter
-                Integer currentPly = match.getCurrentPly();
-                if (currentPly == null) {
-                    currentPly = 0;
-                }
-                match.setCurrentPly(currentPly + 1);
-                System.out.println("📝 Updated ply to: " + (currentPly + 1));
+    // Full snapshot for a client that joined late or lost track of the move stream
+    public GameStatusDTO resync(Long matchId, Principal principal) {
+        return matchExecutor.call(matchId, () -> currentSnapshot(matchId, principal));
+    }
 
-                // Update match status if needed (e.g., if game ended)
-                // match.setStatus(MatchStatus.IN_PROGRESS); // or other status
+    private GameStatusDTO currentSnapshot(Long matchId, Principal principal) {
+        String username = principal.getName();
+        GameState gameState = activeGames.get(matchId);
+        if (gameState != null) {
+            return snapshot(matchId, gameState, username);
+        }
 
-                // Save the updated match
-                matchRepo.save(match);
-                System.out.println("💾 Database updated for match: " + matchId);
-            } else {
-                System.out.println("⚠️ Match not found in database: " + matchId);
-            }
-        } catch (Exception e) {
-            System.err.println("❌ Error updating match in database: " + e.getMessage());
-            e.printStackTrace();
-            // Don't throw - we want to continue even if DB update fails
+        Match match = findMatch(matchId)
+                .orElseThrow(() -> new RuntimeException("Game not found"));
+        gameState = rehydrate(match);
+        if (gameState != null) {
+            return snapshot(matchId, gameState, username);
         }
+
+        // Finished games: rebuild the snapshot from the stored match
+        String fen = match.getFenCurrent() != null ? match.getFenCurrent() : Fen.START;
+        GameStatusDTO statusDTO = new GameStatusDTO();
+        statusDTO.setMatchId(matchId);
+        statusDTO.setStatus(match.getStatus().name());
+        statusDTO.setPlayerColor(playerColor(match.getPlayer1().getUsername(), match.getPlayer2().getUsername(), username));
+        statusDTO.setBoard(Fen.parse(fen).toBoard());
+        statusDTO.setFen(fen);
+        statusDTO.setPly(match.getCurrentPly() != null ? match.getCurrentPly() : 0);
+        statusDTO.setPlayer1TimeRemainingMs(match.getPlayer1TimeRemaining() != null ? match.getPlayer1TimeRemaining() * 1000L : null);
+        statusDTO.setPlayer2TimeRemainingMs(match.getPlayer2TimeRemaining() != null ? match.getPlayer2TimeRemaining() * 1000L : null);
+        return statusDTO;
     }
 
-    private String createUCI(MoveRequest move) {
-        // Add null checks
-        if (move.getFromCol() == null || move.getFromRow() == null ||
-                move.getToCol() == null || move.getToRow() == null) {
-            return "";
+    /**
+     * Up to limit moves of a game after sincePly. A game in memory answers
+     * from its move log, copied on its mailbox with the notation derived off
+     * it; any other game from one keyset page of the moves table, or from its
+     * packed move list if it has no rows. Never loads the lazy Match.moves
+     * collection, and never brings a game into memory just to read it.
+     */
+    public MoveHistoryDTO getMoveHistory(Long matchId, int sincePly, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_HISTORY_PAGE);
+        int after = Math.max(0, sincePly);
+        if (activeGames.containsKey(matchId)) {
+            MoveLog moveLog = matchExecutor.call(matchId, () -> {
+                GameState gameState = activeGames.get(matchId);
+                return gameState != null ? gameState.getMoveLog().copy() : null;
+            });
+            if (moveLog != null) {
+                return historyPage(matchId, true, moveLog, after, pageSize);
+            }
         }
 
-        try {
-            String fromFile = Character.toString((char) ('a' + move.getFromCol()));
-            int fromRank = 8 - move.getFromRow();
-            String toFile = Character.toString((char) ('a' + move.getToCol()));
-            int toRank = 8 - move.getToRow();
-
-            String uci = fromFile + fromRank + toFile + toRank;
-
-            // Add promotion piece if it's a promotion
-            if (Boolean.TRUE.equals(move.getIsPromotion()) && move.getPromotedTo() != null) {
-                String promotedPiece = move.getPromotedTo().toLowerCase();
-                if (promotedPiece.equals("q")) uci += "q";
-                else if (promotedPiece.equals("r")) uci += "r";
-                else if (promotedPiece.equals("b")) uci += "b";
-                else if (promotedPiece.equals("n")) uci += "n";
+        List<MoveRepo.HistoryMove> rows = moveRepo.findByMatchIdAndPlyGreaterThanOrderByPly(matchId, after, Limit.of(pageSize + 1));
+        if (rows.isEmpty()) {
+            Match match = matchRepo.findById(matchId)
+                    .orElseThrow(() -> new RuntimeException("Game not found"));
+            if (match.getPackedMoves() != null) {
+                PackedMoves packed = PackedMoves.decode(match.getPackedMoves());
+                MoveLog moveLog = new MoveLog();
+                for (int i = 0; i < packed.size(); i++) {
+                    moveLog.add(packed.moves()[i], packed.moveTimesMs()[i]);
+                }
+                return historyPage(matchId, false, moveLog, after, pageSize);
             }
-
-            return uci;
-        } catch (Exception e) {
-            System.err.println("Error creating UCI notation: " + e.getMessage());
-            return "";
+            return new MoveHistoryDTO(matchId, false, List.of(), 0, after, false);
         }
+        List<PlayedMoveDTO> moves = new ArrayList<>(Math.min(rows.size(), pageSize));
+        for (MoveRepo.HistoryMove row : rows.subList(0, Math.min(rows.size(), pageSize))) {
+            moves.add(new PlayedMoveDTO(row.getPly(), row.getUci(), row.getSan(), row.getMoveTimeMs()));
+        }
+        return new MoveHistoryDTO(matchId, false, moves, moves.size(), moves.getLast().getPly(), rows.size() > pageSize);
     }
 
-    public GameStatusDTO handlePlayerJoin(Long matchId, JoinRequest joinRequest, Principal principal) {
-        String username = principal.getName();
-
-        GameState gameState = activeGames.get(matchId);
-        if (gameState == null) {
-            // Initialize game if not already active
-            Optional<Match> matchOpt = matchRepo.findById(matchId);
-            if (matchOpt.isPresent()) {
-                gameState = initializeGameState(matchOpt.get());
-                activeGames.put(matchId, gameState);
-            } else {
-                throw new RuntimeException("Game not found");
+    private static MoveHistoryDTO historyPage(Long matchId, boolean live, MoveLog moveLog, int after, int pageSize) {
+        // Moves before a log's base (a game loaded from a FEN) are not known; the page starts at the base
+        int from = Math.max(after, moveLog.basePly());
+        int to = Math.min(moveLog.endPly(), from + pageSize);
+        List<PlayedMoveDTO> moves = new ArrayList<>(Math.max(0, to - from));
+        if (from < to) {
+            Position position = moveLog.positionAt(from);
+            for (int ply = from + 1; ply <= to; ply++) {
+                int move = moveLog.move(ply);
+                int moveTimeMs = moveLog.moveTimeMs(ply);
+                moves.add(new PlayedMoveDTO(ply, Move.toUci(move), San.toSan(position, move),
+                        moveTimeMs != MoveLog.UNKNOWN_TIME ? moveTimeMs : null));
+                position.makeMove(move);
             }
         }
+        return new MoveHistoryDTO(matchId, live, moves, moves.size(), moves.isEmpty() ? after : to, to < moveLog.endPly());
+    }
 
+    private GameStatusDTO snapshot(Long matchId, GameState gameState, String username) {
         GameStatusDTO statusDTO = new GameStatusDTO();
         statusDTO.setMatchId(matchId);
         statusDTO.setStatus(gameState.getStatus());
-        statusDTO.setPlayerColor(joinRequest.getPlayerColor());
+        statusDTO.setPlayerColor(playerColor(gameState.getPlayer1Username(), gameState.getPlayer2Username(), username));
         statusDTO.setMyTurn(determineMyTurn(matchId, username));
-        statusDTO.setBoard(gameState.getBoard());
-        statusDTO.setFen(convertBoardToFEN(gameState.getBoard(), gameState.isWhiteTurn()));
-
+        statusDTO.setBoard(gameState.getPosition().toBoard());
+        statusDTO.setFen(gameState.getFen());
+        statusDTO.setPly(gameState.getPly());
+        GameClock clock = gameState.getClock();
+        if (clock != null) {
+            long now = System.nanoTime();
+            statusDTO.setPlayer1TimeRemainingMs(Math.max(0, clock.remainingMs(Piece.WHITE, now)));
+            statusDTO.setPlayer2TimeRemainingMs(Math.max(0, clock.remainingMs(Piece.BLACK, now)));
+        }
         return statusDTO;
     }
 
+    private String playerColor(String player1Username, String player2Username, String username) {
+        if (username.equals(player1Username)) {
+            return "white";
+        }
+        return username.equals(player2Username) ? "black" : null;
+    }
+
     private boolean determineMyTurn(Long matchId, String username) {
         GameState gameState = activeGames.get(matchId);
         if (gameState == null) return false;
@@ -416,64 +735,37 @@ public class GameService {
         }
     }
 
-    private String convertBoardToFEN(String[][] board, boolean isWhiteTurn) {
-        StringBuilder fen = new StringBuilder();
-
-        for (int row = 0; row < 8; row++) {
-            int emptyCount = 0;
-            for (int col = 0; col < 8; col++) {
-                String piece = board[row][col];
-                if (piece == null || piece.isEmpty()) {
-                    emptyCount++;
-                } else {
-                    if (emptyCount > 0) {
-                        fen.append(emptyCount);
-                        emptyCount = 0;
-                    }
-                    fen.append(piece);
-                }
-            }
-            if (emptyCount > 0) {
-                fen.append(emptyCount);
-            }
-            if (row < 7) {
-                fen.append("/");
-            }
-        }
-
-        // Add active color
-        fen.append(" ").append(isWhiteTurn ? "w" : "b");
-
-        // Add castling rights (simplified - assume all available)
-        fen.append(" ").append("KQkq");
-
-        // Add en passant target
-        fen.append(" ").append("-");
-
-        // Add halfmove clock and fullmove number
-        fen.append(" ").append("0 1");
-
-        return fen.toString();
+    public void handleResignation(Long matchId, String username) {
+        matchExecutor.run(matchId, () -> resign(matchId, username));
     }
 
-    public void handleResignation(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
+    private void resign(Long matchId, String username) {
+        GameState gameState = loadGame(matchId);
         if (gameState != null) {
+            boolean whiteResigned = username.equals(gameState.getPlayer1Username());
+            if (!whiteResigned && !username.equals(gameState.getPlayer2Username())) {
+                throw new RuntimeException("User not part of this game");
+            }
             gameState.setStatus("RESIGNED");
-            activeGames.put(matchId, gameState);
 
             // Notify players
             GameStatusDTO statusDTO = new GameStatusDTO();
             statusDTO.setMatchId(matchId);
             statusDTO.setStatus("RESIGNED");
-            statusDTO.setPlayerColor(getPlayerColor(matchId, username));
+            statusDTO.setPlayerColor(whiteResigned ? "white" : "black");
 
             messagingTemplate.convertAndSend("/topic/game-state/" + matchId, statusDTO);
+
+            handleGameEnd(matchId, whiteResigned ? "PLAYER2_WON" : "PLAYER1_WON", username + " resigned");
         }
     }
 
     public void handleDrawOffer(Long matchId, String username) {
-        GameState gameState = activeGames.get(matchId);
+        matchExecutor.run(matchId, () -> offerDraw(matchId, username));
+    }
+
+    private void offerDraw(Long matchId, String username) {
+        GameState gameState = loadGame(matchId);
         if (gameState != null) {
             String opponent = getOpponentUsername(matchId, username);
 
@@ -488,18 +780,6 @@ public class GameService {
         }
     }
 
-    private String getPlayerColor(Long matchId, String username) {
-        List<String> players = gamePlayers.get(matchId);
-        if (players != null && players.size() >= 2) {
-            if (players.get(0).equals(username)) {
-                return "white";
-            } else if (players.get(1).equals(username)) {
-                return "black";
-            }
-        }
-        return null;
-    }
-
     private String getOpponentUsername(Long matchId, String username) {
         List<String> players = gamePlayers.get(matchId);
         if (players != null && players.size() >= 2) {
@@ -513,116 +793,145 @@ public class GameService {
     }
 
     private String getUsernameFromRequest(HttpServletRequest request) {
-        String token = extractToken(request);
+        String token = JwtFilter.resolveToken(request);
         if (token != null) {
-            String username = jwtService.extractUsername(token);
-            if (username != null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if (jwtService.isTokenValid(token, userDetails)) {
-                    return jwtService.extractUsername(token);
-                }
-            }
-        }
-        return null;
-    }
-
-    private String extractToken(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
-        }
-
-        // Also check cookies
-        jakarta.servlet.http.Cookie[] cookies = request.getCookies();
-        if (cookies != null) {
-            for (jakarta.servlet.http.Cookie cookie : cookies) {
-                if ("JWT".equals(cookie.getName())) {
-                    return cookie.getValue();
-                }
-            }
+            return userDetailsService.loadUserByToken(token).map(UserPrincipal::getUsername).orElse(null);
         }
-
         return null;
     }
 
-    private void updateTimeForMove(Long matchId, GameState gameState, boolean wasWhiteTurn, LocalDateTime now) {
+    private void updateTimeForMove(Long matchId, GameState gameState, long nowNanos) {
         // Only update time for timed games
-        if (gameState.getPlayer1TimeRemaining() == null && gameState.getPlayer2TimeRemaining() == null) {
+        GameClock clock = gameState.getClock();
+        if (clock == null) {
             return; // STANDARD game, no time tracking
         }
 
-        // Calculate elapsed time since last move
-        LocalDateTime lastUpdate = gameState.getLastTimeUpdate();
-        if (lastUpdate != null) {
-            long elapsedSeconds = java.time.Duration.between(lastUpdate, now).getSeconds();
-            
-            // Decrement time for the player who just moved
-            if (wasWhiteTurn && gameState.getPlayer1TimeRemaining() != null) {
-                int newTime = gameState.getPlayer1TimeRemaining() - (int)elapsedSeconds;
-                gameState.setPlayer1TimeRemaining(Math.max(0, newTime));
-                System.out.println("⏱️ Player1 (White) time remaining: " + gameState.getPlayer1TimeRemaining() + " seconds");
-            } else if (!wasWhiteTurn && gameState.getPlayer2TimeRemaining() != null) {
-                int newTime = gameState.getPlayer2TimeRemaining() - (int)elapsedSeconds;
-                gameState.setPlayer2TimeRemaining(Math.max(0, newTime));
-                System.out.println("⏱️ Player2 (Black) time remaining: " + gameState.getPlayer2TimeRemaining() + " seconds");
-            }
-        }
-        
-        gameState.setLastTimeUpdate(now);
-        
-        // Update match in database
-        try {
-            Optional<Match> matchOpt = matchRepo.findById(matchId);
-            if (matchOpt.isPresent()) {
-                Match match = matchOpt.get();
-                match.setPlayer1TimeRemaining(gameState.getPlayer1TimeRemaining());
-                match.setPlayer2TimeRemaining(gameState.getPlayer2TimeRemaining());
-                matchRepo.save(match);
-            }
-        } catch (Exception e) {
-            System.err.println("⚠️ Failed to update time in database: " + e.getMessage());
-        }
+        // Charge the player who just moved and add the increment; their flag was checked before the move
+        int mover = clock.running();
+        clock.punch(nowNanos);
+        System.out.println("⏱️ " + (mover == Piece.WHITE ? "Player1 (White)" : "Player2 (Black)")
+                + " time remaining: " + clock.remainingMs(mover) + " ms");
+    }
+
+    // The match table keeps whole seconds; round up so a clock with time left never reads 0
+    private static int toSeconds(long ms) {
+        return (int) ((ms + 999) / 1000);
     }
 
     private void checkTimeExpiration(Long matchId, GameState gameState) {
+        GameClock clock = gameState.getClock();
+        if (clock == null) {
+            return;
+        }
         // Check if any player has run out of time
-        if (gameState.getPlayer1TimeRemaining() != null && gameState.getPlayer1TimeRemaining() <= 0) {
+        if (clock.remainingMs(Piece.WHITE) <= 0) {
             gameState.setStatus("TIME_OUT_WHITE");
             System.out.println("⏰ Player1 (White) ran out of time!");
             handleGameEnd(matchId, "PLAYER2_WON", "Player1 ran out of time");
-        } else if (gameState.getPlayer2TimeRemaining() != null && gameState.getPlayer2TimeRemaining() <= 0) {
+        } else if (clock.remainingMs(Piece.BLACK) <= 0) {
             gameState.setStatus("TIME_OUT_BLACK");
             System.out.println("⏰ Player2 (Black) ran out of time!");
             handleGameEnd(matchId, "PLAYER1_WON", "Player2 ran out of time");
         }
     }
 
+    // (Re)arms the single flag-fall deadline of this game; runs on the match's mailbox
+    private void scheduleFlag(Long matchId, GameState gameState) {
+        if (gameState.getFlagTimeout() != null) {
+            gameState.getFlagTimeout().cancel();
+            gameState.setFlagTimeout(null);
+        }
+        if (gameState.getClock() == null) {
+            return; // STANDARD game, no flag
+        }
+        // The wheel thread only hands the check to the mailbox
+        gameState.setFlagTimeout(timingWheel.schedule(gameState.getClock().msUntilFlag(System.nanoTime()),
+                () -> matchExecutor.execute(matchId, () -> handleFlagFall(matchId))));
+    }
+
+    private void handleFlagFall(Long matchId) {
+        GameState gameState = activeGames.get(matchId);
+        // Ignore a deadline that a move replaced after it fired
+        if (gameState == null || gameState.getFlagTimeout() == null || !gameState.getFlagTimeout().isExpired()
+                || !"IN_PROGRESS".equals(gameState.getStatus())) {
+            return;
+        }
+        if (gameState.getClock().checkFlag(System.nanoTime())) {
+            endOnTime(matchId, gameState);
+        } else {
+            scheduleFlag(matchId, gameState);
+        }
+    }
+
+    // The side to move's flag has fallen (its clock is at zero): record the clocks and end the game
+    private void endOnTime(Long matchId, GameState gameState) {
+        updateMatchInDatabase(matchId, gameState);
+        checkTimeExpiration(matchId, gameState);
+    }
+
     private void handleGameEnd(Long matchId, String matchStatus, String reason) {
+        GameState gameState = activeGames.get(matchId);
+        PackedMoves moves = gameState != null ? gameState.getMoveLog().toPackedMoves() : null;
+        boolean written;
         try {
-            Optional<Match> matchOpt = matchRepo.findById(matchId);
-            if (matchOpt.isPresent()) {
-                Match match = matchOpt.get();
-                match.setStatus(com.example.IndiChessBackend.model.MatchStatus.valueOf(matchStatus));
-                match.setFinishedAt(LocalDateTime.now());
-                matchRepo.save(match);
-                
-                // Notify players via WebSocket
-                Map<String, Object> gameEndMessage = new HashMap<>();
-                gameEndMessage.put("type", "GAME_END");
-                gameEndMessage.put("matchId", matchId);
-                gameEndMessage.put("status", matchStatus);
-                gameEndMessage.put("reason", reason);
-                messagingTemplate.convertAndSend("/topic/game-state/" + matchId, Optional.of(gameEndMessage));
-            }
+            // Flush the last position and the result before the game is dropped or anyone hears it ended
+            written = matchWriteBehind.finish(matchId, MatchStatus.valueOf(matchStatus), moves);
         } catch (Exception e) {
-            System.err.println("⚠️ Failed to handle game end: " + e.getMessage());
+            // Still in progress in the database and the journal: keep the finished game in memory and try again
+            System.err.println("⚠️ Failed to write the end of match " + matchId + ", retrying: " + e.getMessage());
+            timingWheel.schedule(END_RETRY_MS, () -> matchExecutor.execute(matchId, () -> {
+                if (activeGames.containsKey(matchId)) {
+                    handleGameEnd(matchId, matchStatus, reason);
+                }
+            }));
+            return;
+        }
+        endGame(matchId);
+        if (written) {
+            // Notify players via WebSocket
+            Map<String, Object> gameEndMessage = new HashMap<>();
+            gameEndMessage.put("type", "GAME_END");
+            gameEndMessage.put("matchId", matchId);
+            gameEndMessage.put("status", matchStatus);
+            gameEndMessage.put("reason", reason);
+            messagingTemplate.convertAndSend("/topic/game-state/" + matchId, Optional.of(gameEndMessage));
         }
     }
 
+    // Drops a game whose result is written; the journal no longer needs it
+    private void endGame(Long matchId) {
+        if (dropGame(matchId)) {
+            gameJournal.gameEnded(matchId);
+        }
+    }
+
+    // Drops a game still in progress from memory, e.g. when idle; it is reloaded from the database on its next request
+    void evictGame(Long matchId) {
+        dropGame(matchId);
+    }
+
+    private boolean dropGame(Long matchId) {
+        return matchExecutor.call(matchId, () -> {
+            GameState gameState = activeGames.remove(matchId);
+            if (gameState != null && gameState.getFlagTimeout() != null) {
+                gameState.getFlagTimeout().cancel();
+            }
+            gamePlayers.remove(matchId);
+            return gameState != null;
+        });
+    }
+
     public void cleanupInactiveGames() {
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(2);
-        activeGames.entrySet().removeIf(entry ->
-                entry.getValue().getLastMoveTime().isBefore(cutoff)
-        );
+        long now = System.nanoTime();
+        for (Long matchId : activeGames.keySet()) {
+            // Checked on the match's own mailbox so a move arriving meanwhile is not lost
+            matchExecutor.execute(matchId, () -> {
+                GameState gameState = activeGames.get(matchId);
+                if (gameState != null && now - gameState.getLastMoveNanos() > INACTIVE_GAME_NANOS) {
+                    evictGame(matchId);
+                }
+            });
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,265 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.chess.Fen;
+import com.example.IndiChessBackend.chess.MoveGenerator;
+import com.example.IndiChessBackend.chess.MoveLog;
+import com.example.IndiChessBackend.chess.Piece;
+import com.example.IndiChessBackend.chess.Position;
+import com.example.IndiChessBackend.chess.PositionCodec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary image of every live game at one point of the game journal.
+ * Startup loads the latest image and replays only the journal records from
+ * {@link #journalPosition} on.
+ *
+ * File layout (big-endian), version 2:
+ * <pre>
+ * int    magic "ICSN"
+ * short  version
+ * long   journal position the image is complete up to
+ * long   creation time, epoch millis
+ * int    game count
+ * games: long matchId, UTF player1, UTF player2, int ply, short last move,
+ *        position (PositionCodec), short n + n long repetition keys,
+ *        byte timed, and if timed long whiteMs, blackMs, incrementMs, delayMs,
+ *        int log base ply, its position (PositionCodec) if above 0,
+ *        int n + n (short move, int thinking ms) logged moves
+ * int    CRC32 of everything above
+ * </pre>
+ * Version 1 files, which have no move log, still load: their games log
+ * moves from the snapshot position on. Run {@link #main} on a file to
+ * verify it without starting the server.
+ */
+public record GameSnapshot(long journalPosition, long createdAtMillis, List<Game> games) {
+
+    static final int MAGIC = 0x4943534E; // "ICSN"
+    static final short VERSION = 2;
+    static final short OLDEST_READABLE_VERSION = 1;
+
+    /** One live game; clocks are negative for an untimed game. */
+    public record Game(long matchId, String player1, String player2, int ply, int lastMove,
+                       Position position, long[] historyKeys,
+                       long whiteMs, long blackMs, long incrementMs, long delayMs, MoveLog moveLog) {
+
+        boolean isTimed() {
+            return whiteMs >= 0;
+        }
+    }
+
+    /** Writes to a temporary file, syncs it and renames it into place, so a reader never sees half a snapshot. */
+    public void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fileOut, 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(journalPosition);
+            out.writeLong(createdAtMillis);
+            out.writeInt(games.size());
+            for (Game game : games) {
+                writeGame(game, out);
+            }
+            out.flush();
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            fileOut.getFD().sync();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Reads a snapshot, rejecting a wrong magic, an unknown version or a bad checksum. */
+    public static GameSnapshot read(Path file) throws IOException {
+        try (InputStream fileIn = Files.newInputStream(file)) {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(fileIn, 1 << 16), new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a game snapshot");
+            }
+            short version = in.readShort();
+            if (version < OLDEST_READABLE_VERSION || version > VERSION) {
+                throw new IOException(file + " has unsupported snapshot version " + version);
+            }
+            long journalPosition = in.readLong();
+            long createdAtMillis = in.readLong();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException(file + " has a negative game count");
+            }
+            List<Game> games = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                games.add(readGame(in, version));
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (in.readInt() != expected) {
+                throw new IOException(file + " has a bad checksum");
+            }
+            if (in.read() != -1) {
+                throw new IOException(file + " has trailing bytes");
+            }
+            return new GameSnapshot(journalPosition, createdAtMillis, games);
+        } catch (EOFException e) {
+            throw new IOException(file + " is truncated", e);
+        }
+    }
+
+    /**
+     * Reads a snapshot and checks every game for consistency: incremental key,
+     * repetition history, one king per side, side not to move not in check,
+     * sane clocks. Returns the problems found, empty if the file is good.
+     */
+    public static List<String> verify(Path file) {
+        List<String> problems = new ArrayList<>();
+        GameSnapshot snapshot;
+        try {
+            snapshot = read(file);
+        } catch (IOException e) {
+            problems.add(e.getMessage());
+            return problems;
+        }
+        for (Game game : snapshot.games()) {
+            String prefix = "match " + game.matchId() + ": ";
+            Position position = game.position();
+            if (Long.bitCount(position.pieces(Piece.WHITE, Piece.KING)) != 1
+                    || Long.bitCount(position.pieces(Piece.BLACK, Piece.KING)) != 1) {
+                problems.add(prefix + "needs exactly one king per side");
+                continue;
+            }
+            if (position.key() != position.computeKey()) {
+                problems.add(prefix + "position key mismatch");
+            }
+            long[] keys = game.historyKeys();
+            if (keys.length == 0 || keys[keys.length - 1] != position.key()) {
+                problems.add(prefix + "repetition history does not end with the current position");
+            }
+            if (MoveGenerator.isSquareAttacked(position, MoveGenerator.kingSquare(position, position.sideToMove() ^ 1),
+                    position.sideToMove())) {
+                problems.add(prefix + "side not to move is in check");
+            }
+            if (game.ply() < 0 || game.player1() == null || game.player2() == null) {
+                problems.add(prefix + "bad ply or players");
+            }
+            if (game.isTimed() && (game.blackMs() < 0 || game.incrementMs() < 0 || game.delayMs() < 0)) {
+                problems.add(prefix + "bad clock");
+            }
+            MoveLog moveLog = game.moveLog();
+            if (moveLog.endPly() != game.ply()
+                    || !Fen.toFen(moveLog.positionAt(moveLog.endPly())).equals(Fen.toFen(position))) {
+                problems.add(prefix + "move log does not lead to the current position");
+            }
+        }
+        return problems;
+    }
+
+    /** Standalone verifier: {@code java -cp app.jar ...GameSnapshot <file>...}; exits 1 on any problem. */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: GameSnapshot <snapshot-file>...");
+            System.exit(2);
+        }
+        boolean ok = true;
+        for (String arg : args) {
+            Path file = Path.of(arg);
+            List<String> problems = verify(file);
+            if (problems.isEmpty()) {
+                try {
+                    GameSnapshot snapshot = read(file);
+                    System.out.println(file + ": OK, version " + VERSION + ", " + snapshot.games().size()
+                            + " games, journal position " + snapshot.journalPosition());
+                } catch (IOException e) {
+                    problems.add(e.getMessage());
+                }
+            }
+            for (String problem : problems) {
+                System.out.println(file + ": " + problem);
+                ok = false;
+            }
+        }
+        System.exit(ok ? 0 : 1);
+    }
+
+    // Also the body of the journal's RESUMED record
+    static void writeGame(Game game, DataOutputStream out) throws IOException {
+        out.writeLong(game.matchId());
+        out.writeUTF(game.player1());
+        out.writeUTF(game.player2());
+        out.writeInt(game.ply());
+        out.writeShort(game.lastMove());
+        PositionCodec.write(game.position(), out);
+        out.writeShort(game.historyKeys().length);
+        for (long key : game.historyKeys()) {
+            out.writeLong(key);
+        }
+        out.writeBoolean(game.isTimed());
+        if (game.isTimed()) {
+            out.writeLong(game.whiteMs());
+            out.writeLong(game.blackMs());
+            out.writeLong(game.incrementMs());
+            out.writeLong(game.delayMs());
+        }
+        MoveLog moveLog = game.moveLog();
+        out.writeInt(moveLog.basePly());
+        if (moveLog.basePly() > 0) {
+            PositionCodec.write(moveLog.base(), out);
+        }
+        out.writeInt(moveLog.size());
+        for (int ply = moveLog.basePly() + 1; ply <= moveLog.endPly(); ply++) {
+            out.writeShort(moveLog.move(ply));
+            out.writeInt(moveLog.moveTimeMs(ply));
+        }
+    }
+
+    static Game readGame(DataInputStream in, int version) throws IOException {
+        long matchId = in.readLong();
+        String player1 = in.readUTF();
+        String player2 = in.readUTF();
+        int ply = in.readInt();
+        int lastMove = in.readUnsignedShort();
+        Position position = PositionCodec.read(in);
+        long[] keys = new long[in.readUnsignedShort()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = in.readLong();
+        }
+        long[] clocks = {-1, -1, -1, -1};
+        if (in.readBoolean()) {
+            for (int i = 0; i < clocks.length; i++) {
+                clocks[i] = in.readLong();
+            }
+        }
+        return new Game(matchId, player1, player2, ply, lastMove, position, keys,
+                clocks[0], clocks[1], clocks[2], clocks[3], version >= 2 ? readMoveLog(in) : new MoveLog(position, ply));
+    }
+
+    private static MoveLog readMoveLog(DataInputStream in) throws IOException {
+        int basePly = in.readInt();
+        if (basePly < 0) {
+            throw new IOException("Corrupt move log: base ply " + basePly);
+        }
+        MoveLog moveLog = basePly > 0 ? new MoveLog(PositionCodec.read(in), basePly) : new MoveLog();
+        int size = in.readInt();
+        if (size < 0) {
+            throw new IOException("Corrupt move log: " + size + " moves");
+        }
+        for (int i = 0; i < size; i++) {
+            moveLog.add(in.readUnsignedShort(), in.readInt());
+        }
+        return moveLog;
+    }
+}
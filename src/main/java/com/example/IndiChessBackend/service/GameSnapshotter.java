@@ -0,0 +1,130 @@
+package com.example.IndiChessBackend.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a {@link GameSnapshot} of all live games every
+ * {@value #INTERVAL_SECONDS} s on a background thread, so a restart loads
+ * the newest image and replays only the journal written after it.
+ *
+ * The journal position is read before the games are captured, so every
+ * captured game already includes the moves before that position and replay
+ * from it misses nothing (moves it repeats are skipped by ply). The newest
+ * two snapshots are kept; the journal is checkpointed at the older one, so
+ * a damaged newest file still leaves a complete fallback.
+ */
+@Component
+public class GameSnapshotter implements DisposableBean {
+
+    static final long INTERVAL_SECONDS = 60;
+
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".icsn";
+
+    private final Path directory;
+    private final GameJournal gameJournal;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            task -> Thread.ofPlatform().name("game-snapshot").daemon().unstarted(task));
+
+    @Autowired
+    public GameSnapshotter(@Value("${indichess.snapshot.dir:data/snapshots}") String directory, GameJournal gameJournal) {
+        this(Path.of(directory), gameJournal);
+    }
+
+    public GameSnapshotter(Path directory, GameJournal gameJournal) {
+        this.directory = directory;
+        this.gameJournal = gameJournal;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create snapshot directory " + directory, e);
+        }
+    }
+
+    /** Starts periodic snapshots of whatever capture returns. */
+    public void start(Supplier<List<GameSnapshot.Game>> capture) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot(capture);
+            } catch (Exception e) {
+                System.err.println("⚠️ Game snapshot failed: " + e.getMessage());
+            }
+        }, INTERVAL_SECONDS, INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** Takes one snapshot now and returns its file. */
+    public Path snapshot(Supplier<List<GameSnapshot.Game>> capture) throws IOException {
+        long start = System.nanoTime();
+        long position = gameJournal.position();
+        GameSnapshot snapshot = new GameSnapshot(position, System.currentTimeMillis(), capture.get());
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, position, SUFFIX));
+        snapshot.write(file);
+
+        List<Path> files = snapshotFiles();
+        for (int i = 2; i < files.size(); i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+        if (files.size() > 1) {
+            gameJournal.checkpoint(position(files.get(1)));
+        }
+        System.out.println("📸 Snapshot of " + snapshot.games().size() + " games in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return file;
+    }
+
+    /** The newest snapshot that reads back cleanly, if any. */
+    public Optional<GameSnapshot> loadLatest() {
+        for (Path file : snapshotFiles()) {
+            try {
+                return Optional.of(GameSnapshot.read(file));
+            } catch (IOException e) {
+                System.err.println("⚠️ Skipping snapshot " + file.getFileName() + ": " + e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    // Newest first
+    private List<Path> snapshotFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> position(file) >= 0)
+                    .sorted(Comparator.comparingLong(GameSnapshotter::position).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long position(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -1,55 +1,189 @@
 package com.example.IndiChessBackend.service;
 
 
+import com.example.IndiChessBackend.model.UserPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Issues and verifies the HS256 session tokens. A token names its user by
+ * id and username and carries their roles and token version, which is all
+ * a request needs to be authenticated without loading the user. Each token
+ * has its own random id, by which it can be revoked ({@link RevokedTokens}).
+ *
+ * {@link #verify} is the one way to read a token: it checks the signature
+ * and expiry once and returns who the token is for. Verified tokens are
+ * remembered by their SHA-256 digest (never the token itself) until they
+ * expire, or for at most {@value #MAX_CACHE_SECONDS} s, so the requests a
+ * client makes with the same cookie cost one hash and one map lookup
+ * instead of an HMAC and a JSON parse. The cache holds at most
+ * {@value #MAX_CACHED_TOKENS} tokens.
+ */
 @Service
 public class JwtService {
 
+    static final int MAX_CACHED_TOKENS = 50_000;
+    static final long MAX_CACHE_SECONDS = 600;
 
     private final String SECRET = "aluesgo8q37g4tifqbhrefg8g3124ib801g7br18b7gb17g4b";
 
-    public String generateToken(String username) {
+    private static final String USER_ID = "uid";
+    private static final String TOKEN_VERSION = "ver";
+    private static final String ROLES = "roles";
+
+    /** Who a verified token is for and when it stops being valid. */
+    public record VerifiedToken(UUID tokenId, Long userId, String username, int tokenVersion, List<String> roles,
+                                Instant expiresAt) {
+
+        public UserPrincipal toPrincipal() {
+            return UserPrincipal.fromClaims(userId, username, tokenVersion, roles);
+        }
+    }
+
+    // A token's SHA-256, as four longs for a cheap equals and hashCode
+    private record TokenDigest(long a, long b, long c, long d) {
+    }
+
+    private record CachedToken(VerifiedToken token, Instant cachedUntil) {
+    }
+
+    private final Clock clock;
+    private final Key key;
+    private final JwtParser parser; // immutable and thread-safe, so built once
+    private final ConcurrentHashMap<TokenDigest, CachedToken> verified = new ConcurrentHashMap<>();
+    private final AtomicLong signatureChecks = new AtomicLong();
+
+    @Autowired
+    public JwtService() {
+        this(Clock.systemUTC());
+    }
+
+    JwtService(Clock clock) {
+        this.clock = clock;
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setClock(() -> Date.from(clock.instant()))
+                .build();
+    }
+
+    public String generateToken(UserPrincipal principal) {
 //        System.out.println("Inside token generation service " + username );
+        Instant now = clock.instant();
         return Jwts.builder().
-                setSubject(username).
-                setIssuedAt(new Date(System.currentTimeMillis())).
-                setExpiration(new Date(System.currentTimeMillis() + 1000*60*60*5)).
-                signWith(getKey(), SignatureAlgorithm.HS256).
+                setId(UUID.randomUUID().toString()).
+                setSubject(principal.getUsername()).
+                claim(USER_ID, principal.getUserId()).
+                claim(TOKEN_VERSION, principal.getTokenVersion()).
+                claim(ROLES, principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList()).
+                setIssuedAt(Date.from(now)).
+                setExpiration(Date.from(now.plus(Duration.ofHours(5)))).
+                signWith(key, SignatureAlgorithm.HS256).
                 compact();
     }
 
-    Key getKey(){
-        byte [] bytekey = Decoders.BASE64.decode(SECRET);
-        return Keys.hmacShaKeyFor(bytekey);
+    /** The token's user if its signature is ours and it has not expired; empty for a missing or bad token. */
+    public Optional<VerifiedToken> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        Instant now = clock.instant();
+        TokenDigest digest = digest(token);
+        CachedToken cached = verified.get(digest);
+        if (cached != null) {
+            if (now.isBefore(cached.cachedUntil())) {
+                return Optional.of(cached.token());
+            }
+            verified.remove(digest, cached);
+        }
+
+        VerifiedToken result;
+        try {
+            signatureChecks.incrementAndGet();
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            Long userId = claims.get(USER_ID, Long.class);
+            Integer tokenVersion = claims.get(TOKEN_VERSION, Integer.class);
+            List<?> roles = claims.get(ROLES, List.class);
+            if (claims.getId() == null || claims.getSubject() == null || claims.getExpiration() == null
+                    || userId == null || tokenVersion == null) {
+                return Optional.empty(); // not one of ours, or issued before tokens carried the user
+            }
+            result = new VerifiedToken(UUID.fromString(claims.getId()), userId, claims.getSubject(), tokenVersion,
+                    roles != null ? roles.stream().map(String::valueOf).toList() : List.of(),
+                    claims.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty(); // bad signature, expired, malformed
+        }
+        Instant cacheLimit = now.plusSeconds(MAX_CACHE_SECONDS);
+        remember(digest, new CachedToken(result,
+                result.expiresAt().isBefore(cacheLimit) ? result.expiresAt() : cacheLimit), now);
+        return Optional.of(result);
     }
 
+    /** The token's username, or null if the token does not verify. */
     public String extractUsername(String token) {
-        return extractClaims(token).getSubject();
-    }
-    private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return verify(token).map(VerifiedToken::username).orElse(null);
     }
+
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        return extractUsername(token).equals(userDetails.getUsername())
-                && !isTokenExpired(token);
+        return verify(token).filter(v -> v.username().equals(userDetails.getUsername())).isPresent();
+    }
+
+    /** Tokens currently remembered as verified. */
+    int cachedTokenCount() {
+        return verified.size();
     }
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token).getExpiration().before(new Date());
+
+    /** Signature verifications so far, i.e. cache misses. */
+    long signatureChecks() {
+        return signatureChecks.get();
+    }
+
+    private void remember(TokenDigest digest, CachedToken entry, Instant now) {
+        if (verified.size() >= MAX_CACHED_TOKENS) {
+            // Drop what has lapsed; if the cache is still full, drop arbitrary entries, which just re-verify
+            verified.values().removeIf(cached -> !now.isBefore(cached.cachedUntil()));
+            Iterator<TokenDigest> it = verified.keySet().iterator();
+            while (verified.size() >= MAX_CACHED_TOKENS * 9 / 10 && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        verified.put(digest, entry);
+    }
+
+    private static TokenDigest digest(String token) {
+        try {
+            ByteBuffer hash = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
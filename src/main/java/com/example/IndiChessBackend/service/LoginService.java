@@ -0,0 +1,130 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.UserPrincipal;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Password logins, off the request threads. Checking a password is a
+ * deliberately slow BCrypt hash, so a burst of logins, such as everyone
+ * signing back in after an outage, would otherwise hold every servlet
+ * thread and starve game traffic. Logins run on {@code indichess.login.threads}
+ * threads (half the cores by default) behind a queue of
+ * {@code indichess.login.queue-size}; when that queue is full a login is
+ * turned away at once with a retry time estimated from the queue and the
+ * recent hashing time, instead of waiting. Before that, {@link LoginThrottle}
+ * limits the attempts per IP and per username.
+ *
+ * A password hashed at a lower BCrypt cost than the current one is rehashed
+ * by the authentication provider on a successful login.
+ */
+@Service
+public class LoginService implements DisposableBean {
+
+    private final AuthenticationManager authenticationManager;
+    private final LoginThrottle loginThrottle;
+    private final ThreadPoolExecutor executor;
+    private volatile long averageLoginNanos = 100_000_000; // until measured; a BCrypt check at cost 10 is ~0.1 s
+
+    /** Why a login was not tried, and when to try again. */
+    public static class LoginRejectedException extends RuntimeException {
+
+        private final boolean throttled;
+        private final long retryAfterSeconds;
+
+        LoginRejectedException(String message, boolean throttled, long retryAfterSeconds) {
+            super(message);
+            this.throttled = throttled;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        /** True for too many attempts from the client, false for a server too busy to take the login. */
+        public boolean isThrottled() {
+            return throttled;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+
+    @Autowired
+    public LoginService(AuthenticationManager authenticationManager, LoginThrottle loginThrottle,
+                        @Value("${indichess.login.threads:0}") int threads,
+                        @Value("${indichess.login.queue-size:200}") int queueSize) {
+        this.authenticationManager = authenticationManager;
+        this.loginThrottle = loginThrottle;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                task -> Thread.ofPlatform().name("login-" + threadCount.incrementAndGet()).daemon().unstarted(task),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Checks the password on the login pool. The future fails with
+     * {@link LoginRejectedException} if the login was throttled or shed, and
+     * with the authentication manager's AuthenticationException for a wrong
+     * username or password.
+     */
+    public CompletableFuture<UserPrincipal> login(String username, String password, String ip) {
+        if (username == null || password == null) {
+            return CompletableFuture.failedFuture(
+                    new BadCredentialsException("Missing credentials"));
+        }
+        long retryAfter = loginThrottle.tryAcquire(ip, username);
+        if (retryAfter > 0) {
+            return CompletableFuture.failedFuture(
+                    new LoginRejectedException("Too many login attempts", true, retryAfter));
+        }
+
+        CompletableFuture<UserPrincipal> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                try {
+                    result.complete((UserPrincipal) authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(username, password)).getPrincipal());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    averageLoginNanos += (elapsed - averageLoginNanos) / 8; // racy average; it only sizes Retry-After
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(
+                    new LoginRejectedException("Too many logins in progress", false, queueWaitSeconds()));
+        }
+        return result;
+    }
+
+    int queuedLogins() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // How long the logins queued now will take to clear
+    private long queueWaitSeconds() {
+        long nanos = (executor.getQueue().size() + executor.getActiveCount()) * averageLoginNanos
+                / executor.getMaximumPoolSize();
+        return Math.max(1, (nanos + 999_999_999) / 1_000_000_000);
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.IndiChessBackend.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets on login attempts: one per client IP, one per username at
+ * that IP, and a much looser one per username across all IPs. Each holds a
+ * burst of attempts and refills at a steady rate, so one address cannot
+ * keep the password hashers busy or guess at one account, while someone
+ * failing to log in as you elsewhere does not lock you out. An attempt is
+ * only charged when all three buckets allow it, whether or not its password
+ * turns out right.
+ *
+ * Each kind of bucket is held for at most {@value #MAX_BUCKETS} keys, the
+ * least recently used going first, and buckets that have refilled
+ * completely are swept every {@value #SWEEP_SECONDS} s.
+ */
+@Component
+public class LoginThrottle implements DisposableBean {
+
+    static final int MAX_BUCKETS = 100_000;
+    static final long SWEEP_SECONDS = 60;
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+
+    private final LongSupplier nanoTime;
+    private final Buckets ipBuckets;
+    private final Buckets usernameAtIpBuckets;
+    private final Buckets usernameBuckets;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            task -> Thread.ofPlatform().name("login-throttle").daemon().unstarted(task));
+
+    private record Limit(int burst, long nanosPerToken) {
+
+        static Limit perMinute(int burst, int perMinute) {
+            return new Limit(burst, NANOS_PER_MINUTE / Math.max(1, perMinute));
+        }
+
+        long full() {
+            return burst * nanosPerToken;
+        }
+    }
+
+    @Autowired
+    public LoginThrottle(@Value("${indichess.login.ip-burst:20}") int ipBurst,
+                         @Value("${indichess.login.ip-per-minute:30}") int ipPerMinute,
+                         @Value("${indichess.login.username-ip-burst:5}") int usernameIpBurst,
+                         @Value("${indichess.login.username-ip-per-minute:5}") int usernameIpPerMinute,
+                         @Value("${indichess.login.username-burst:100}") int usernameBurst,
+                         @Value("${indichess.login.username-per-minute:60}") int usernamePerMinute) {
+        this(ipBurst, ipPerMinute, usernameIpBurst, usernameIpPerMinute, usernameBurst, usernamePerMinute,
+                System::nanoTime);
+        scheduler.scheduleWithFixedDelay(this::sweepSafely, SWEEP_SECONDS, SWEEP_SECONDS, TimeUnit.SECONDS);
+    }
+
+    LoginThrottle(int ipBurst, int ipPerMinute, int usernameIpBurst, int usernameIpPerMinute,
+                  int usernameBurst, int usernamePerMinute, LongSupplier nanoTime) {
+        this.ipBuckets = new Buckets(Limit.perMinute(ipBurst, ipPerMinute));
+        this.usernameAtIpBuckets = new Buckets(Limit.perMinute(usernameIpBurst, usernameIpPerMinute));
+        this.usernameBuckets = new Buckets(Limit.perMinute(usernameBurst, usernamePerMinute));
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Takes an attempt from the IP's, the username at the IP's and the
+     * username's buckets. Returns 0 if the attempt may go ahead, else the
+     * seconds until it may be retried; a refused attempt takes nothing.
+     */
+    public long tryAcquire(String ip, String username) {
+        long now = nanoTime.getAsLong();
+        String name = username.toLowerCase();
+        Buckets[] kinds = {ipBuckets, usernameAtIpBuckets, usernameBuckets};
+        Bucket[] buckets = {ipBuckets.get(ip, now), usernameAtIpBuckets.get(name + "@" + ip, now),
+                usernameBuckets.get(name, now)};
+
+        long wait = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            wait = Math.max(wait, buckets[i].waitNanos(kinds[i].limit, now));
+        }
+        if (wait > 0) {
+            return seconds(wait);
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            long missing = buckets[i].take(kinds[i].limit, now);
+            if (missing > 0) {
+                // Another attempt took the last token since the check: give back what this one took
+                for (int j = 0; j < i; j++) {
+                    buckets[j].refund(kinds[j].limit);
+                }
+                return seconds(missing);
+            }
+        }
+        return 0;
+    }
+
+    /** Drops the buckets that have refilled completely; they hold nothing a new bucket would not. */
+    int sweep() {
+        long now = nanoTime.getAsLong();
+        return ipBuckets.sweep(now) + usernameAtIpBuckets.sweep(now) + usernameBuckets.sweep(now);
+    }
+
+    int bucketCount() {
+        return ipBuckets.size() + usernameAtIpBuckets.size() + usernameBuckets.size();
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            System.err.println("⚠️ Login throttle sweep failed: " + e.getMessage());
+        }
+    }
+
+    private static long seconds(long nanos) {
+        return nanos == 0 ? 0 : Math.max(1, (nanos + 999_999_999) / 1_000_000_000);
+    }
+
+    /*
+     * One kind of bucket by key, in access order. Past MAX_BUCKETS the least
+     * recently used bucket is dropped: under a flood of new keys that is one
+     * of the flood's own, while a client that keeps trying keeps its bucket.
+     * A login costs a BCrypt hash, so one lock per map is no bottleneck.
+     */
+    private static final class Buckets {
+        private final Limit limit;
+        private final LinkedHashMap<String, Bucket> byKey = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > MAX_BUCKETS;
+            }
+        };
+
+        Buckets(Limit limit) {
+            this.limit = limit;
+        }
+
+        synchronized Bucket get(String key, long now) {
+            return byKey.computeIfAbsent(key, k -> new Bucket(limit, now));
+        }
+
+        synchronized int sweep(long now) {
+            int before = byKey.size();
+            byKey.values().removeIf(bucket -> bucket.isFull(limit, now));
+            return before - byKey.size();
+        }
+
+        synchronized int size() {
+            return byKey.size();
+        }
+    }
+
+    // Tokens are counted in nanoseconds of refill: `level` is how far the bucket is filled
+    private static final class Bucket {
+        private long level;
+        private long updatedAt;
+
+        Bucket(Limit limit, long now) {
+            this.level = limit.full();
+            this.updatedAt = now;
+        }
+
+        // 0 if a token is there, else nanos until one is
+        synchronized long waitNanos(Limit limit, long now) {
+            refill(limit, now);
+            return Math.max(0, limit.nanosPerToken() - level);
+        }
+
+        // 0 if a token was taken, else nanos until one is there
+        synchronized long take(Limit limit, long now) {
+            long wait = waitNanos(limit, now);
+            if (wait == 0) {
+                level -= limit.nanosPerToken();
+            }
+            return wait;
+        }
+
+        synchronized void refund(Limit limit) {
+            level = Math.min(limit.full(), level + limit.nanosPerToken());
+        }
+
+        synchronized boolean isFull(Limit limit, long now) {
+            refill(limit, now);
+            return level == limit.full();
+        }
+
+        private void refill(Limit limit, long now) {
+            level = Math.min(limit.full(), level + (now - updatedAt));
+            updatedAt = now;
+        }
+    }
+}
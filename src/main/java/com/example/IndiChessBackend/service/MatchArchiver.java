@@ -0,0 +1,158 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.MoveRepo;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves finished matches older than {@code indichess.archive.after-days}
+ * out of the hot matches and moves tables into the compressed match_archive
+ * table, so the hot tables hold little more than the games being played.
+ *
+ * A background thread runs every {@code indichess.archive.interval-minutes}
+ * and walks the candidates in id order, {@code batch-size} matches per
+ * transaction: insert their archive rows, delete their moves rows, delete
+ * their match rows. It sleeps {@code pause-ms} between batches so the
+ * deletes do not crowd out the writes of live games. A match is archived
+ * with its packed moves; one finished before moves were packed is packed
+ * from its moves rows, and left in place if those do not replay.
+ *
+ * Reads of an archived id go through {@link MatchRepo#findById}, which falls
+ * back to the archive.
+ */
+@Component
+public class MatchArchiver implements DisposableBean {
+
+    private static final String SELECT_MATCHES = """
+            SELECT id, player1_id, player2_id, status, game_type, current_ply, packed_moves,
+                   started_at, finished_at, created_at
+            FROM matches WHERE id IN (%s) AND status <> 'IN_PROGRESS'
+            """;
+
+    private static final String INSERT_ARCHIVE = """
+            INSERT INTO match_archive (id, player1_id, player2_id, status, game_type, current_ply, packed_moves,
+                                       started_at, finished_at, created_at, archived_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final MatchRepo matchRepo;
+    private final MoveRepo moveRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final Duration archiveAfter;
+    private final int batchSize;
+    private final long pauseMs;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            task -> Thread.ofPlatform().name("match-archiver").daemon().unstarted(task));
+    private volatile boolean stopped;
+
+    public MatchArchiver(MatchRepo matchRepo, MoveRepo moveRepo, JdbcTemplate jdbcTemplate,
+                         TransactionOperations transactionOperations,
+                         @Value("${indichess.archive.after-days:30}") long afterDays,
+                         @Value("${indichess.archive.batch-size:500}") int batchSize,
+                         @Value("${indichess.archive.pause-ms:250}") long pauseMs,
+                         @Value("${indichess.archive.interval-minutes:15}") long intervalMinutes) {
+        this.matchRepo = matchRepo;
+        this.moveRepo = moveRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.archiveAfter = Duration.ofDays(afterDays);
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+        if (intervalMinutes > 0) {
+            scheduler.scheduleWithFixedDelay(this::archiveSafely, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+        }
+    }
+
+    /** Archives every match old enough now, batch by batch; returns how many were moved. */
+    public int archiveOldMatches() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(archiveAfter);
+        long afterId = 0;
+        int archived = 0;
+        while (!stopped) {
+            List<Long> ids = matchRepo.findArchivableIds(cutoff, afterId, Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            archived += archiveBatch(ids);
+            afterId = ids.getLast();
+            if (ids.size() < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return archived;
+    }
+
+    @Override
+    public void destroy() {
+        stopped = true;
+        scheduler.shutdownNow();
+    }
+
+    private void archiveSafely() {
+        try {
+            int archived = archiveOldMatches();
+            if (archived > 0) {
+                System.out.println("🗄️ Archived " + archived + " finished matches");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Match archiving stopped, retrying next run: " + e.getMessage());
+        }
+    }
+
+    // One transaction: archive rows in, moves rows and match rows out
+    private int archiveBatch(List<Long> ids) {
+        Integer moved = transactionOperations.execute(tx -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(ids.size());
+            List<Long> archivedIds = new ArrayList<>(ids.size());
+            String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+            for (Map<String, Object> match : jdbcTemplate.queryForList(SELECT_MATCHES.formatted(placeholders), ids.toArray())) {
+                Long id = ((Number) match.get("id")).longValue();
+                byte[] packed = (byte[]) match.get("packed_moves");
+                int plies = match.get("current_ply") != null ? ((Number) match.get("current_ply")).intValue() : 0;
+                if (packed == null) {
+                    packed = MatchWriteBehind.packMoves(moveRepo.findByMatchIdOrderByPly(id), plies);
+                }
+                if (packed == null) {
+                    continue; // its moves rows are the only record of its moves
+                }
+                rows.add(new Object[]{id, match.get("player1_id"), match.get("player2_id"), match.get("status"),
+                        match.get("game_type"), plies, packed, match.get("started_at"), match.get("finished_at"),
+                        match.get("created_at"), now});
+                archivedIds.add(id);
+            }
+            if (archivedIds.isEmpty()) {
+                return 0;
+            }
+            jdbcTemplate.batchUpdate(INSERT_ARCHIVE, rows);
+            String archivedPlaceholders = String.join(",", Collections.nCopies(archivedIds.size(), "?"));
+            jdbcTemplate.update("DELETE FROM moves WHERE match_id IN (" + archivedPlaceholders + ")", archivedIds.toArray());
+            jdbcTemplate.update("DELETE FROM matches WHERE id IN (" + archivedPlaceholders + ")", archivedIds.toArray());
+            return archivedIds.size();
+        });
+        return moved != null ? moved : 0;
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.IndiChessBackend.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Single-writer execution for match state. Every task for a match goes
+ * through that match's mailbox, and a mailbox is drained by at most one
+ * virtual thread at a time, so a match's GameState is only ever touched by
+ * one thread and needs no locks. Different matches drain in parallel.
+ *
+ * A mailbox exists in the map exactly while it has work scheduled: it is
+ * created (and started) by the first enqueue and removed by its own drain
+ * once the queue is empty, both under the map's per-key lock.
+ */
+@Component
+public class MatchExecutor implements DisposableBean {
+
+    // Tasks run per turn before a busy mailbox yields its thread to other matches
+    private static final int BATCH_SIZE = 64;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    // Match whose mailbox the current thread is draining, so nested calls run inline
+    private static final ThreadLocal<Long> CURRENT_MATCH = new ThreadLocal<>();
+
+    /** Queues a task on the match's mailbox. */
+    public <T> CompletableFuture<T> submit(Long matchId, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(matchId, () -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    /** Queues a task without waiting for it. */
+    public void execute(Long matchId, Runnable task) {
+        enqueue(matchId, task);
+    }
+
+    /**
+     * Runs a task on the match's mailbox and waits for its result.
+     * Runtime exceptions thrown by the task are rethrown unchanged.
+     * Called from a task of the same match, it runs inline instead of deadlocking.
+     */
+    public <T> T call(Long matchId, Callable<T> task) {
+        if (matchId.equals(CURRENT_MATCH.get())) {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        try {
+            return submit(matchId, task).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public void run(Long matchId, Runnable task) {
+        call(matchId, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /** Number of matches with queued or running work. */
+    public int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    private void enqueue(Long matchId, Runnable task) {
+        mailboxes.compute(matchId, (id, mailbox) -> {
+            if (mailbox == null) {
+                mailbox = new Mailbox(id);
+                mailbox.queue.add(task);
+                executor.execute(mailbox);
+            } else {
+                mailbox.queue.add(task);
+            }
+            return mailbox;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private final class Mailbox implements Runnable {
+
+        private final Long matchId;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+        private Mailbox(Long matchId) {
+            this.matchId = matchId;
+        }
+
+        @Override
+        public void run() {
+            CURRENT_MATCH.set(matchId);
+            try {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    Runnable task = queue.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        System.err.println("❌ Task failed for match " + matchId + ": " + t.getMessage());
+                    }
+                }
+            } finally {
+                CURRENT_MATCH.remove();
+            }
+
+            // Retire the mailbox if it is idle, otherwise take another turn on a fresh virtual thread
+            mailboxes.compute(matchId, (id, mailbox) -> {
+                if (queue.isEmpty()) {
+                    return null;
+                }
+                executor.execute(this);
+                return this;
+            });
+        }
+    }
+}
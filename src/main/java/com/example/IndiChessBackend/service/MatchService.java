@@ -2,40 +2,40 @@ package com.example.IndiChessBackend.service;
 
 
 import com.example.IndiChessBackend.model.DTO.CreateMatchRequest;
+import com.example.IndiChessBackend.model.DTO.GameListDTO;
+import com.example.IndiChessBackend.model.DTO.GameSummaryDTO;
 import com.example.IndiChessBackend.model.GameType;
 import com.example.IndiChessBackend.model.Match;
 import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.model.UserPrincipal;
 import com.example.IndiChessBackend.repo.MatchRepo;
 import com.example.IndiChessBackend.repo.UserRepo;
-import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+
+import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static com.example.IndiChessBackend.model.MatchStatus.IN_PROGRESS;
 
 @Service
 public class MatchService {
 
-    // Store waiting players: key = username, value = gameType (as string for matching)
-    private static final Map<String, GameType> waitingPlayers = new ConcurrentHashMap<>();
-    private static final Map<Long, String[]> matchPlayers = new ConcurrentHashMap<>();
-
-    private final JwtService jwtService;
     private final UserRepo userRepo;
     private final MatchRepo matchRepo;
     private final GameService gameService;
+    private final Matchmaker matchmaker;
 
     @Autowired
-    MatchService(JwtService jwtService, UserRepo userRepo, MatchRepo matchRepo, GameService gameService) {
-        this.jwtService = jwtService;
+    MatchService(UserRepo userRepo, MatchRepo matchRepo, GameService gameService, Matchmaker matchmaker) {
         this.userRepo = userRepo;
         this.matchRepo = matchRepo;
         this.gameService = gameService;
+        this.matchmaker = matchmaker;
 
         // Clean up old entries periodically (optional)
         new Timer().schedule(new TimerTask() {
@@ -45,28 +45,19 @@ public class MatchService {
         }, 0, 60000); // Clean up every minute
     }
 
-    public String getJwtFromCookie(HttpServletRequest request) {
-        Cookie[] cookies = request.getCookies();
-        if (cookies != null) {
-            for (Cookie cookie : cookies) {
-                if ("JWT".equals(cookie.getName())) {
-                    return cookie.getValue();
-                }
-            }
-        }
-        return null;
+    // The user JwtFilter authenticated the request as, revocation and token version already checked
+    private static String usernameOf(Principal principal) {
+        return principal != null ? principal.getName() : null;
     }
 
     private void cleanupOldEntries() {
-        // Remove entries older than 5 minutes
-        long fiveMinutesAgo = System.currentTimeMillis() - (5 * 60 * 1000);
-        // You can add timestamp tracking if needed
+        // Drop matches their player never came back for
+        matchmaker.expireUncollected();
     }
 
     // In your existing MatchService, update the createMatch method
-    public Optional<Long> createMatch(HttpServletRequest request, CreateMatchRequest createMatchRequest) {
-        String tk = getJwtFromCookie(request);
-        String userName = jwtService.extractUsername(tk);
+    public Optional<Long> createMatch(HttpServletRequest request, Principal principal, CreateMatchRequest createMatchRequest) {
+        String userName = usernameOf(principal);
 
         if (userName == null) {
             return Optional.empty();
@@ -78,123 +69,97 @@ public class MatchService {
 
         System.out.println("User " + userName + " requesting match with game type: " + requestedGameType);
 
-        synchronized(this) {
-            // Check if there's already a waiting player with the same game type
-            for (Map.Entry<String, GameType> entry : waitingPlayers.entrySet()) {
-                String waitingPlayer = entry.getKey();
-                GameType waitingGameType = entry.getValue();
-                
-                if (!waitingPlayer.equals(userName) && waitingGameType == requestedGameType) {
-                    // Found opponent with matching game type
-                    User player1 = userRepo.getUserByUsername(waitingPlayer);
-                    User player2 = userRepo.getUserByUsername(userName);
-
-                    if (player1 != null && player2 != null) {
-                        // Create the match with game type
-                        Match newMatch = new Match(player1, player2, IN_PROGRESS, 1);
-                        newMatch.setGameType(requestedGameType);
-                        
-                        // Set initial time based on game type
-                        setInitialTimeForMatch(newMatch, requestedGameType);
-                        
-                        newMatch = matchRepo.save(newMatch);
-                        Long matchId = newMatch.getId();
-
-                        // Store match info
-                        matchPlayers.put(matchId, new String[]{waitingPlayer, userName});
-
-                        // Remove waiting player
-                        waitingPlayers.remove(waitingPlayer);
-
-                        System.out.println("Match created: " + matchId + " with game type: " + requestedGameType);
-
-                        // Initialize game state
-                        gameService.getGameDetails(matchId, request);
-
-                        return Optional.of(matchId);
-                    }
+        // Looked up before pairing: nothing below holds a lock, and pairing only swaps a reference
+        User player2 = userRepo.getUserByUsername(userName);
+        if (player2 == null) {
+            return Optional.empty();
+        }
+
+        while (true) {
+            Matchmaker.Join join = matchmaker.join(userName, requestedGameType);
+            Matchmaker.Ticket opponent = join.opponent();
+            if (opponent == null) {
+                if (join.matchId() == -1L) {
+                    System.out.println("User " + userName + " added to waiting queue for game type: " + requestedGameType);
                 }
+                return Optional.of(join.matchId());
+            }
+
+            // Found opponent with matching game type
+            User player1 = userRepo.getUserByUsername(opponent.getUsername());
+            if (player1 == null) {
+                matchmaker.drop(opponent);
+                continue;
             }
 
-            // No opponent found, add to waiting queue with game type
-            waitingPlayers.put(userName, requestedGameType);
-            System.out.println("User " + userName + " added to waiting queue for game type: " + requestedGameType);
+            Long matchId;
+            try {
+                // Create the match with game type
+                Match newMatch = new Match(player1, player2, IN_PROGRESS, 1);
+                newMatch.setGameType(requestedGameType);
+
+                // Set initial time based on game type
+                setInitialTimeForMatch(newMatch, requestedGameType);
+
+                newMatch = matchRepo.save(newMatch);
+                matchId = newMatch.getId();
 
-            return Optional.of(-1L);
+                System.out.println("Match created: " + matchId + " with game type: " + requestedGameType);
+
+                // Initialize game state
+                gameService.getGameDetails(matchId, request);
+            } catch (RuntimeException e) {
+                matchmaker.release(opponent);
+                throw e;
+            }
+
+            // Only now can the waiting player collect it through checkMatch
+            matchmaker.matched(opponent, matchId);
+            return Optional.of(matchId);
         }
     }
 
     private void setInitialTimeForMatch(Match match, GameType gameType) {
-        switch (gameType) {
-            case BLITZ:
-                // 3 minutes = 180 seconds
-                match.setPlayer1TimeRemaining(180);
-                match.setPlayer2TimeRemaining(180);
-                break;
-            case RAPID:
-                // 10 minutes = 600 seconds
-                match.setPlayer1TimeRemaining(600);
-                match.setPlayer2TimeRemaining(600);
-                break;
-            case STANDARD:
-            default:
-                // No time limit
-                match.setPlayer1TimeRemaining(null);
-                match.setPlayer2TimeRemaining(null);
-                break;
+        if (gameType.isTimed()) {
+            // Stored in seconds; the live clock in GameService runs in milliseconds
+            int seconds = (int) (gameType.getInitialMs() / 1000);
+            match.setPlayer1TimeRemaining(seconds);
+            match.setPlayer2TimeRemaining(seconds);
+        } else {
+            // No time limit
+            match.setPlayer1TimeRemaining(null);
+            match.setPlayer2TimeRemaining(null);
         }
     }
 
     // Method for Player1 to check if match was created
-    public Optional<Long> checkMatch(HttpServletRequest request) {
-        String tk = getJwtFromCookie(request);
-        String userName = jwtService.extractUsername(tk);
+    public Optional<Long> checkMatch(Principal principal) {
+        String userName = usernameOf(principal);
 
         if (userName == null) {
             return Optional.empty();
         }
 
-        synchronized(this) {
-            // Check if user is in waitingPlayers (regardless of game type)
-            if (waitingPlayers.containsKey(userName)) {
-                // User is still waiting
-                return Optional.of(-1L);
-            }
-
-            // Check if user has a match in matchPlayers
-            for (Map.Entry<Long, String[]> entry : matchPlayers.entrySet()) {
-                String[] players = entry.getValue();
-                if (players[0].equals(userName) || players[1].equals(userName)) {
-                    Long matchId = entry.getKey();
-                    // Clean up after retrieving
-                    matchPlayers.remove(matchId);
-                    waitingPlayers.remove(players[0]);
-                    waitingPlayers.remove(players[1]);
-                    System.out.println("Returning match " + matchId + " to " + userName);
-                    return Optional.of(matchId);
-                }
-            }
+        Optional<Long> matchId = matchmaker.poll(userName);
+        if (matchId.isPresent() && matchId.get() != -1L) {
+            System.out.println("Returning match " + matchId.get() + " to " + userName);
         }
-
-        return Optional.empty();
+        return matchId;
     }
 
     // Method to cancel waiting
-    public boolean cancelWaiting(HttpServletRequest request) {
-        String tk = getJwtFromCookie(request);
-        String userName = jwtService.extractUsername(tk);
+    public boolean cancelWaiting(Principal principal) {
+        String userName = usernameOf(principal);
 
         if (userName == null) {
             return false;
         }
 
-        synchronized(this) {
-            boolean removed = waitingPlayers.remove(userName) != null;
-            if (removed) {
-                System.out.println("User " + userName + " cancelled waiting");
-            }
-            return removed;
+        boolean removed = matchmaker.cancel(userName);
+        if (removed) {
+            System.out.println("User " + userName + " cancelled waiting");
         }
+        return removed;
     }
 
     private Map<String, Object> createPlayerInfo(User user) {
@@ -220,15 +185,10 @@ public class MatchService {
         return (isPlayer1 && isWhiteTurn) || (!isPlayer1 && !isWhiteTurn);
     }
 
-    public Map<String, Object> getGameDetailsForFrontend(Long matchId, HttpServletRequest request) {
-        String token = getJwtFromCookie(request);
-        if (token == null) {
-            throw new RuntimeException("Not authenticated");
-        }
-
-        String username = jwtService.extractUsername(token);
+    public Map<String, Object> getGameDetailsForFrontend(Long matchId, Principal principal) {
+        String username = usernameOf(principal);
         if (username == null) {
-            throw new RuntimeException("Invalid token");
+            throw new RuntimeException("Not authenticated");
         }
 
         // Find the match
@@ -279,4 +239,56 @@ public class MatchService {
 
         return response;
     }
-}
\ No newline at end of file
+
+    static final int MAX_HISTORY_PAGE = 100;
+
+    /**
+     * A page of the games in progress, of one game type or all, newest
+     * first, for spectators to pick from. Keyset-paged on the match id: the
+     * next page passes the page's nextBeforeId.
+     */
+    public GameListDTO getLiveGames(GameType gameType, Long beforeId, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_HISTORY_PAGE);
+        long cursorId = beforeId != null ? beforeId : Long.MAX_VALUE;
+        List<MatchRepo.MatchSummary> rows = gameType != null
+                ? matchRepo.findByStatusAndGameType(IN_PROGRESS, gameType, cursorId, Limit.of(pageSize + 1))
+                : matchRepo.findByStatus(IN_PROGRESS, cursorId, Limit.of(pageSize + 1));
+
+        List<GameSummaryDTO> games = summaries(rows, pageSize);
+        GameSummaryDTO last = games.isEmpty() ? null : games.getLast();
+        return new GameListDTO(games, null, last != null ? last.getMatchId() : beforeId, rows.size() > pageSize);
+    }
+
+    /**
+     * A page of the signed-in player's finished games, newest first, from
+     * one indexed query over the hot and archived matches. The first page
+     * has no cursor; the next one passes the page's nextBeforeFinishedAt and
+     * nextBeforeId. The player's id comes from their token, so no user is loaded.
+     */
+    public GameListDTO getGameHistory(UserPrincipal user, LocalDateTime beforeFinishedAt, Long beforeId, int limit) {
+        if (user == null) {
+            throw new RuntimeException("Not authenticated");
+        }
+
+        int pageSize = Math.clamp(limit, 1, MAX_HISTORY_PAGE);
+        // Without a cursor, start after the newest possible game
+        LocalDateTime cursorTime = beforeFinishedAt != null ? beforeFinishedAt : LocalDateTime.of(9999, 12, 31, 0, 0);
+        long cursorId = beforeId != null ? beforeId : Long.MAX_VALUE;
+        List<MatchRepo.MatchSummary> rows = matchRepo.findFinishedByPlayer(user.getUserId(), cursorTime, cursorId, pageSize + 1);
+
+        List<GameSummaryDTO> games = summaries(rows, pageSize);
+        GameSummaryDTO last = games.isEmpty() ? null : games.getLast();
+        return new GameListDTO(games, last != null ? last.getFinishedAt() : beforeFinishedAt,
+                last != null ? last.getMatchId() : beforeId, rows.size() > pageSize);
+    }
+
+    // The first pageSize rows; one more was fetched only to tell whether there is a next page
+    private static List<GameSummaryDTO> summaries(List<MatchRepo.MatchSummary> rows, int pageSize) {
+        List<GameSummaryDTO> games = new ArrayList<>(Math.min(rows.size(), pageSize));
+        for (MatchRepo.MatchSummary row : rows.subList(0, Math.min(rows.size(), pageSize))) {
+            games.add(new GameSummaryDTO(row.getId(), row.getPlayer1Name(), row.getPlayer2Name(), row.getStatus(),
+                    row.getGameType(), row.getCurrentPly(), row.getStartedAt(), row.getFinishedAt()));
+        }
+        return games;
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.chess.MoveGenerator;
+import com.example.IndiChessBackend.chess.PackedMoves;
+import com.example.IndiChessBackend.chess.Position;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.model.Move;
+import com.example.IndiChessBackend.model.PieceColor;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.MoveRepo;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind for the live columns of a match row (FEN, ply, last move,
+ * clocks) and for the moves table. A move only records the latest state of
+ * its match and appends its Move row in memory; a single flusher thread
+ * writes whatever is pending every {@value #FLUSH_INTERVAL_MS} ms, loading
+ * and updating up to {@value #BATCH_SIZE} matches per transaction and
+ * inserting up to {@value #MOVE_BATCH_SIZE} moves, from any number of
+ * matches, per transaction. Ten moves on one match between flushes cost one
+ * UPDATE plus a share of a batched INSERT, and no move waits for MySQL.
+ *
+ * Every write runs on the flusher thread, so an older state can never land
+ * after a newer one. {@link #finish} pushes a match's last state and result
+ * through the same thread and waits for it, so a finished game is durable
+ * before its players are told it ended; it also packs the game's moves into
+ * the match row, so a finished game can be read without its moves rows.
+ *
+ * A batch of moves the database rejects is split in halves until the rows
+ * it refuses (a duplicate ply, a deleted match) are isolated; those are
+ * logged and dropped, and the rest are inserted. A batch that fails for
+ * any other reason, such as the database being down, is retried on the
+ * next flush, and a move still failing after {@value #MAX_MOVE_ATTEMPTS}
+ * flushes is dropped too. Only the matches with moves held back wait for
+ * their state to be written; every other match is written as usual.
+ */
+@Component
+public class MatchWriteBehind implements DisposableBean {
+
+    static final long FLUSH_INTERVAL_MS = 200; // upper bound on how stale a live match row gets
+    static final int BATCH_SIZE = 200;
+    static final int MOVE_BATCH_SIZE = 500;
+    static final int MAX_MOVE_ATTEMPTS = 300; // about a minute of flushes
+
+    private final MatchRepo matchRepo;
+    private final MoveRepo moveRepo;
+    private final TransactionOperations transactionOperations;
+    private final ConcurrentHashMap<Long, MatchUpdate> pending = new ConcurrentHashMap<>();
+    private final Queue<MoveRecord> pendingMoves = new ConcurrentLinkedQueue<>();
+    private final List<QueuedMove> retryMoves = new ArrayList<>(); // flusher thread only, written before pendingMoves
+    private final AtomicLong droppedMoves = new AtomicLong();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            task -> Thread.ofPlatform().name("match-write-behind").daemon().unstarted(task));
+
+    /**
+     * Latest persisted view of a live game. Clocks are whole seconds and null
+     * for untimed games; lastMoveUci is null before the first move.
+     */
+    public record MatchUpdate(String fen, int ply, String lastMoveUci,
+                              Integer player1TimeRemaining, Integer player2TimeRemaining) {
+    }
+
+    /** One applied move, turned into a Move row by the flusher. */
+    public record MoveRecord(Long matchId, int ply, String uci, String san,
+                             Integer moveTimeMs, LocalDateTime playedAt) {
+    }
+
+    // A move held back for the next flush, with the number of flushes that failed to insert it
+    private record QueuedMove(MoveRecord record, int failures) {
+    }
+
+    public MatchWriteBehind(MatchRepo matchRepo, MoveRepo moveRepo, TransactionOperations transactionOperations) {
+        this.matchRepo = matchRepo;
+        this.moveRepo = moveRepo;
+        this.transactionOperations = transactionOperations;
+        flusher.scheduleWithFixedDelay(this::flushPending, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** Records the match's current state; replaces anything not yet written. */
+    public void update(Long matchId, MatchUpdate update) {
+        pending.put(matchId, update);
+    }
+
+    /** Queues a Move row; rows are inserted in the order they were recorded. */
+    public void recordMove(MoveRecord move) {
+        pendingMoves.add(move);
+    }
+
+    /**
+     * Writes the match's pending state and moves together with its result
+     * and waits for the write. The game's moves are stored packed on the
+     * match: pass them from the live game, or null to pack them from the
+     * moves rows, in which case the finish fails while any of the match's
+     * rows are still held back. Returns false if the match does not exist.
+     */
+    public boolean finish(Long matchId, MatchStatus status, PackedMoves moves) {
+        return await(flusher.submit(() -> {
+            if (flushMoves().contains(matchId) && moves == null) {
+                throw new IllegalStateException("Moves of match " + matchId + " are not written yet");
+            }
+            MatchUpdate update = pending.get(matchId);
+            boolean finished = Boolean.TRUE.equals(transactionOperations.execute(tx -> {
+                Optional<Match> matchOpt = matchRepo.findById(matchId);
+                if (matchOpt.isEmpty()) {
+                    return false;
+                }
+                Match match = matchOpt.get();
+                if (update != null) {
+                    apply(match, update);
+                }
+                match.setPackedMoves(moves != null ? moves.encode()
+                        : packMoves(matchId, match.getCurrentPly() != null ? match.getCurrentPly() : 0));
+                match.setStatus(status);
+                match.setFinishedAt(LocalDateTime.now());
+                matchRepo.save(match);
+                return true;
+            }));
+            pending.remove(matchId);
+            return finished;
+        }));
+    }
+
+    /** Writes everything pending now and waits for it. */
+    public void flush() {
+        await(flusher.submit(this::flushPending));
+    }
+
+    /** Whether the match has a state not yet written; its moves are queued before it, so they are pending too. */
+    public boolean isPending(Long matchId) {
+        return pending.containsKey(matchId);
+    }
+
+    /** Matches with a state not yet written. */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /** Moves not yet inserted; approximate while a flush is running. */
+    public int pendingMoveCount() {
+        return pendingMoves.size() + retryMoves.size();
+    }
+
+    /** Moves dropped because the database would not take them. */
+    long droppedMoveCount() {
+        return droppedMoves.get();
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            flush();
+        } finally {
+            flusher.shutdown();
+        }
+    }
+
+    // Flusher thread only
+    private void flushPending() {
+        // Take the match states before inserting moves: GameService records a move before the state
+        // that counts it, so every ply a state claims is then already in the moves table, unless the
+        // move was held back, in which case its match's state waits for it. A state stays pending
+        // until it is written, so isPending covers the write in progress.
+        Map<Long, MatchUpdate> updates = new HashMap<>(pending);
+        Set<Long> heldBack = flushMoves();
+        List<Long> matchIds = new ArrayList<>(updates.size());
+        for (Long matchId : updates.keySet()) {
+            if (!heldBack.contains(matchId)) {
+                matchIds.add(matchId);
+            }
+        }
+        for (int from = 0; from < matchIds.size(); from += BATCH_SIZE) {
+            Map<Long, MatchUpdate> batch = new HashMap<>();
+            for (Long matchId : matchIds.subList(from, Math.min(from + BATCH_SIZE, matchIds.size()))) {
+                batch.put(matchId, updates.get(matchId));
+            }
+            try {
+                // One SELECT ... IN for the batch; dirty checking turns the changes into batched UPDATEs on commit
+                transactionOperations.executeWithoutResult(tx -> {
+                    for (Match match : matchRepo.findAllById(batch.keySet())) {
+                        apply(match, batch.get(match.getId()));
+                    }
+                });
+                // Done unless a newer state arrived meanwhile
+                batch.forEach(pending::remove);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Failed to write " + batch.size() + " matches, retrying next flush: " + e.getMessage());
+            }
+        }
+    }
+
+    // Inserts every queued move in batches; returns the matches with moves held back for the next flush
+    private Set<Long> flushMoves() {
+        List<QueuedMove> queued = new ArrayList<>(retryMoves);
+        retryMoves.clear();
+        MoveRecord record;
+        while ((record = pendingMoves.poll()) != null) {
+            queued.add(new QueuedMove(record, 0));
+        }
+        for (int from = 0; from < queued.size(); from += MOVE_BATCH_SIZE) {
+            int to = Math.min(from + MOVE_BATCH_SIZE, queued.size());
+            if (!insert(queued.subList(from, to))) {
+                retryMoves.addAll(queued.subList(to, queued.size())); // the database is failing: try the rest later
+                break;
+            }
+        }
+        Set<Long> heldBack = new HashSet<>();
+        for (QueuedMove queuedMove : retryMoves) {
+            heldBack.add(queuedMove.record().matchId());
+        }
+        return heldBack;
+    }
+
+    // Inserts the batch, halving it to isolate rows the database rejects, which are dropped. False if the
+    // database failed for another reason; the rows not inserted are then held back in order.
+    private boolean insert(List<QueuedMove> batch) {
+        try {
+            transactionOperations.executeWithoutResult(tx -> {
+                List<Move> rows = new ArrayList<>(batch.size());
+                for (QueuedMove move : batch) {
+                    rows.add(toEntity(move.record()));
+                }
+                moveRepo.saveAll(rows);
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                drop(batch.getFirst().record(), e);
+                return true;
+            }
+            int half = batch.size() / 2;
+            if (!insert(batch.subList(0, half))) {
+                retryMoves.addAll(batch.subList(half, batch.size()));
+                return false;
+            }
+            return insert(batch.subList(half, batch.size()));
+        } catch (RuntimeException e) {
+            System.err.println("⚠️ Failed to insert " + batch.size() + " moves, retrying next flush: " + e.getMessage());
+            for (QueuedMove move : batch) {
+                if (move.failures() + 1 >= MAX_MOVE_ATTEMPTS) {
+                    drop(move.record(), e);
+                } else {
+                    retryMoves.add(new QueuedMove(move.record(), move.failures() + 1));
+                }
+            }
+            return false;
+        }
+    }
+
+    private void drop(MoveRecord record, RuntimeException e) {
+        droppedMoves.incrementAndGet();
+        System.err.println("❌ Dropping move " + record.ply() + " (" + record.uci() + ") of match " + record.matchId()
+                + ": " + e.getMessage());
+    }
+
+    private Move toEntity(MoveRecord record) {
+        Move move = new Move();
+        move.setMatch(matchRepo.getReferenceById(record.matchId())); // no SELECT, just the foreign key
+        move.setPly(record.ply());
+        move.setMoveNumber((record.ply() + 1) / 2);
+        move.setColor(PieceColor.fromPly(record.ply()));
+        move.setUci(record.uci());
+        move.setSan(record.san());
+        move.setMoveTimeMs(record.moveTimeMs());
+        move.setCreatedAt(record.playedAt());
+        return move;
+    }
+
+    /**
+     * Packs the match's stored moves into its PackedMoves column, replaying
+     * them to get each move's code. Null unless the rows are the whole game,
+     * as for matches older than the moves table or after a failed insert.
+     */
+    private byte[] packMoves(Long matchId, int plies) {
+        return packMoves(moveRepo.findByMatchIdOrderByPly(matchId), plies);
+    }
+
+    static byte[] packMoves(List<MoveRepo.PlayedMove> played, int plies) {
+        if (played.size() != plies) {
+            return null;
+        }
+        Position position = Position.startPosition();
+        int[] moves = new int[plies];
+        int[] moveTimesMs = new int[plies];
+        for (int i = 0; i < plies; i++) {
+            int move = MoveGenerator.parseUci(position, played.get(i).getUci());
+            if (move == com.example.IndiChessBackend.chess.Move.NONE) {
+                return null;
+            }
+            position.makeMove(move);
+            moves[i] = move;
+            moveTimesMs[i] = played.get(i).getMoveTimeMs() != null ? played.get(i).getMoveTimeMs() : 0;
+        }
+        return new PackedMoves(moves, moveTimesMs).encode();
+    }
+
+    private static void apply(Match match, MatchUpdate update) {
+        match.setFenCurrent(update.fen());
+        match.setCurrentPly(update.ply());
+        if (update.lastMoveUci() != null) {
+            match.setLastMoveUci(update.lastMoveUci());
+        }
+        if (update.player1TimeRemaining() != null) {
+            match.setPlayer1TimeRemaining(update.player1TimeRemaining());
+            match.setPlayer2TimeRemaining(update.player2TimeRemaining());
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the match writer", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
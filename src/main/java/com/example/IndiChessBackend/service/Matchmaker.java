@@ -0,0 +1,153 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.GameType;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pairs players asking for a game of the same type, without locks.
+ *
+ * A player who finds nobody waiting for their game type waits, and the next
+ * player to ask for that type is paired with them, so a game type never has
+ * more than one player waiting; its queue is one slot, taken and emptied
+ * by compare-and-set. A player's {@link Ticket} is held from asking until
+ * their match id is collected, which makes asking twice, and cancelling
+ * twice, harmless.
+ *
+ * Pairing only hands the caller an opponent; creating the match, and any
+ * other I/O, happens in {@link MatchService} afterwards, outside all of this.
+ */
+@Component
+public class Matchmaker {
+
+    static final long UNCOLLECTED_MATCH_MS = 5 * 60 * 1000;
+
+    /** A player's place in matchmaking, from asking for a game until their match id is collected. */
+    public static final class Ticket {
+        private final String username;
+        private final GameType gameType;
+        private volatile Long matchId;
+        private volatile long matchedAt;
+
+        Ticket(String username, GameType gameType) {
+            this.username = username;
+            this.gameType = gameType;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public GameType getGameType() {
+            return gameType;
+        }
+    }
+
+    /**
+     * The outcome of asking for a game: an opponent drawn from the queue,
+     * for whom the caller must now create the match, or else a match id,
+     * -1 while waiting.
+     */
+    public record Join(Long matchId, Ticket opponent) {
+
+        static final Join WAITING = new Join(-1L, null);
+    }
+
+    private final Map<GameType, AtomicReference<Ticket>> waiting = new EnumMap<>(GameType.class);
+    private final ConcurrentHashMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    public Matchmaker() {
+        for (GameType gameType : GameType.values()) {
+            waiting.put(gameType, new AtomicReference<>());
+        }
+    }
+
+    /** Pairs the player with whoever waits for this game type, or makes them the one waiting. */
+    public Join join(String username, GameType gameType) {
+        Ticket mine = new Ticket(username, gameType);
+        Ticket held;
+        while ((held = tickets.putIfAbsent(username, mine)) != null) {
+            Long matchId = held.matchId;
+            if (matchId != null) {
+                tickets.remove(username, held); // matched already, not yet collected
+                return new Join(matchId, null);
+            }
+            if (held.gameType == gameType || !waiting.get(held.gameType).compareAndSet(held, null)) {
+                return Join.WAITING; // waiting already, or being paired right now
+            }
+            tickets.remove(username, held); // gave up waiting for another game type
+        }
+
+        AtomicReference<Ticket> slot = waiting.get(gameType);
+        while (true) {
+            Ticket opponent = slot.get();
+            if (opponent == null) {
+                if (slot.compareAndSet(null, mine)) {
+                    return Join.WAITING;
+                }
+            } else if (slot.compareAndSet(opponent, null)) {
+                tickets.remove(username, mine); // the caller learns the match id from creating it
+                return new Join(null, opponent);
+            }
+        }
+    }
+
+    /** Gives a drawn opponent their match, for {@link #poll} to hand out. */
+    public void matched(Ticket opponent, Long matchId) {
+        opponent.matchedAt = System.currentTimeMillis();
+        opponent.matchId = matchId;
+    }
+
+    /** Puts a drawn opponent back after the match could not be created; if someone else waits already, the opponent has to ask again. */
+    public void release(Ticket opponent) {
+        if (!waiting.get(opponent.gameType).compareAndSet(null, opponent)) {
+            tickets.remove(opponent.username, opponent);
+        }
+    }
+
+    /** Forgets a drawn opponent who cannot play, such as a deleted user. */
+    public void drop(Ticket opponent) {
+        tickets.remove(opponent.username, opponent);
+    }
+
+    /** The player's new match id, collected once; -1 while waiting; empty if they are not in matchmaking. */
+    public Optional<Long> poll(String username) {
+        Ticket ticket = tickets.get(username);
+        if (ticket == null) {
+            return Optional.empty();
+        }
+        Long matchId = ticket.matchId;
+        if (matchId == null) {
+            return Optional.of(-1L);
+        }
+        tickets.remove(username, ticket);
+        return Optional.of(matchId);
+    }
+
+    /** Stops the player waiting; false if they were not waiting or have just been paired. */
+    public boolean cancel(String username) {
+        Ticket ticket = tickets.get(username);
+        if (ticket == null || ticket.matchId != null
+                || !waiting.get(ticket.gameType).compareAndSet(ticket, null)) {
+            return false;
+        }
+        tickets.remove(username, ticket);
+        return true;
+    }
+
+    /** Forgets match ids nobody collected within {@value #UNCOLLECTED_MATCH_MS} ms. */
+    public void expireUncollected() {
+        long cutoff = System.currentTimeMillis() - UNCOLLECTED_MATCH_MS;
+        tickets.values().removeIf(ticket -> ticket.matchId != null && ticket.matchedAt < cutoff);
+    }
+
+    boolean isWaiting(String username) {
+        Ticket ticket = tickets.get(username);
+        return ticket != null && waiting.get(ticket.gameType).get() == ticket;
+    }
+}
@@ -5,19 +5,46 @@ import com.example.IndiChessBackend.model.UserPrincipal;
 import com.example.IndiChessBackend.repo.UserRepo;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor
-public class MyUserDetailsService implements UserDetailsService {
+public class MyUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepo userRepo;
+    private final JwtService jwtService;
+    private final TokenVersions tokenVersions;
+    private final RevokedTokens revokedTokens;
 
+    // Login only; requests after it are authenticated by loadUserByToken
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepo.getUserByUsername(username);
+        if (user == null) {
+            throw new UsernameNotFoundException(username);
+        }
         return new UserPrincipal(user);
     }
-}
\ No newline at end of file
+
+    // Called at login when the stored hash is weaker than the encoder's current cost
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = ((UserPrincipal) userDetails).getUser();
+        userRepo.updatePassword(user.getUserId(), newPassword);
+        user.setPassword(newPassword);
+        return userDetails;
+    }
+
+    /** The user a session token is for, from its claims; empty if the token is bad, expired, signed out or revoked. */
+    public Optional<UserPrincipal> loadUserByToken(String token) {
+        return jwtService.verify(token)
+                .filter(verified -> !revokedTokens.isRevoked(verified.tokenId()))
+                .filter(tokenVersions::isCurrent)
+                .map(JwtService.VerifiedToken::toPrincipal);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.IndiChessBackend.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Cuts a PGN file into chunks of whole games without parsing them, so the
+ * parsing can run in parallel. A game starts at a tag line that follows
+ * move text (or at the first tag or move line of the file); a chunk holds up
+ * to a fixed number of games and knows the file offsets it spans, which is
+ * what an import records to resume after a failure.
+ *
+ * A tag-like line inside a multi-line comment would be taken as the start of
+ * a game; the parser then rejects the two halves.
+ */
+final class PgnChunkReader implements Closeable {
+
+    /** Raw bytes of whole games; gameStarts are indices into data, the last game runs to data's end. */
+    record Chunk(long startOffset, long endOffset, byte[] data, int[] gameStarts) {
+
+        int games() {
+            return gameStarts.length;
+        }
+
+        int gameEnd(int game) {
+            return game + 1 < gameStarts.length ? gameStarts[game + 1] : data.length;
+        }
+    }
+
+    private final InputStream in;
+    private final int gamesPerChunk;
+    private final byte[] buffer = new byte[1 << 16];
+    private int bufferPos;
+    private int bufferLimit;
+    private boolean eof;
+
+    private byte[] data = new byte[1 << 16];
+    private int length;
+    private int[] gameStarts;
+    private int games;
+    private boolean sawMoveText;
+    private long offset; // file offset of data[0]
+
+    PgnChunkReader(InputStream in, long startOffset, int gamesPerChunk) {
+        this.in = in;
+        this.offset = startOffset;
+        this.gamesPerChunk = gamesPerChunk;
+        this.gameStarts = new int[gamesPerChunk];
+    }
+
+    /** The next chunk, or null at the end of the input. */
+    Chunk next() throws IOException {
+        while (true) {
+            int lineStart = length;
+            if (!readLine()) {
+                return games == 0 ? null : cut(length);
+            }
+            int first = firstVisible(lineStart);
+            if (first < 0 || data[first] == '%') {
+                continue; // blank or escape line
+            }
+            boolean tag = data[first] == '[';
+            if (games == 0 || (tag && sawMoveText)) {
+                if (games == gamesPerChunk) {
+                    Chunk chunk = cut(lineStart);
+                    gameStarts[games++] = 0;
+                    sawMoveText = !tag;
+                    return chunk;
+                }
+                gameStarts[games++] = lineStart;
+                sawMoveText = false;
+            }
+            sawMoveText |= !tag;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // Hands out data[0, end) and keeps the rest as the start of the next chunk
+    private Chunk cut(int end) {
+        Chunk chunk = new Chunk(offset, offset + end, Arrays.copyOf(data, end), Arrays.copyOf(gameStarts, games));
+        System.arraycopy(data, end, data, 0, length - end);
+        length -= end;
+        offset += end;
+        games = 0;
+        sawMoveText = false;
+        return chunk;
+    }
+
+    // Skips whitespace and the bytes of a UTF-8 byte order mark
+    private int firstVisible(int from) {
+        for (int i = from; i < length; i++) {
+            byte b = data[i];
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\n' && b != (byte) 0xEF && b != (byte) 0xBB && b != (byte) 0xBF) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Appends one line, with its newline, to data; false if the input ended first with nothing read
+    private boolean readLine() throws IOException {
+        int start = length;
+        while (true) {
+            if (bufferPos == bufferLimit && !fill()) {
+                return length > start;
+            }
+            int newline = -1;
+            for (int i = bufferPos; i < bufferLimit; i++) {
+                if (buffer[i] == '\n') {
+                    newline = i;
+                    break;
+                }
+            }
+            int end = newline >= 0 ? newline + 1 : bufferLimit;
+            append(end - bufferPos);
+            if (newline >= 0) {
+                return true;
+            }
+        }
+    }
+
+    private void append(int count) {
+        if (length + count > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + count));
+        }
+        System.arraycopy(buffer, bufferPos, data, length, count);
+        length += count;
+        bufferPos += count;
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int read = in.read(buffer);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        bufferPos = 0;
+        bufferLimit = read;
+        return true;
+    }
+}
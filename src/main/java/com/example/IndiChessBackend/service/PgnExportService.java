@@ -0,0 +1,203 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.chess.PackedMoves;
+import com.example.IndiChessBackend.chess.PgnWriter;
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports a user's finished games as PGN straight from the database to the
+ * response. One query walks the user's matches joined with their moves in
+ * (match, ply) order on a forward-only cursor, and each row is written as it
+ * arrives, SAN included, so memory stays flat however many games the user
+ * has played. Games that ended with their moves packed into the match row
+ * are read from that column instead of the moves table, and archived games
+ * are streamed the same way from match_archive before the hot table.
+ */
+@Service
+public class PgnExportService {
+
+    private static final String EXPORT_SQL = """
+            SELECT m.id, m.status, m.game_type, m.started_at, m.created_at, m.packed_moves,
+                   w.user_name AS white, b.user_name AS black, mv.uci
+            FROM matches m
+            JOIN users w ON w.user_id = m.player1_id
+            JOIN users b ON b.user_id = m.player2_id
+            LEFT JOIN moves mv ON mv.match_id = m.id AND m.packed_moves IS NULL
+            WHERE (m.player1_id = ? OR m.player2_id = ?) AND m.status <> 'IN_PROGRESS'
+            ORDER BY m.id, mv.ply
+            """;
+
+    // Archived matches always have their moves packed
+    private static final String EXPORT_ARCHIVED_SQL = """
+            SELECT a.id, a.status, a.game_type, a.started_at, a.created_at, a.packed_moves,
+                   w.user_name AS white, b.user_name AS black, NULL AS uci
+            FROM match_archive a
+            JOIN users w ON w.user_id = a.player1_id
+            JOIN users b ON b.user_id = a.player2_id
+            WHERE a.player1_id = ? OR a.player2_id = ?
+            ORDER BY a.id
+            """;
+
+    private static final DateTimeFormatter PGN_DATE = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepo userRepo;
+
+    public PgnExportService(DataSource dataSource, UserRepo userRepo) {
+        this.userRepo = userRepo;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // Connector/J buffers a whole result set unless the fetch size is Integer.MIN_VALUE,
+        // which streams rows one at a time off a forward-only, read-only cursor
+        this.jdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /** The id of the user whose games an export of this username would write. */
+    public Optional<Long> findUserId(String username) {
+        return Optional.ofNullable(userRepo.getUserByUsername(username)).map(User::getUserId);
+    }
+
+    /**
+     * Writes every finished game of the user to the stream as PGN, gzipped
+     * if asked. The stream is flushed, and the gzip trailer written, but not
+     * closed.
+     */
+    public void export(Long userId, OutputStream out, boolean gzip) throws IOException {
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, 1 << 16) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip ? gzipOut : out, StandardCharsets.UTF_8), 1 << 16);
+        GameRows rows = new GameRows(new PgnWriter(writer));
+        jdbcTemplate.query(EXPORT_ARCHIVED_SQL, rows, userId, userId); // the older games first
+        rows.finish();
+        jdbcTemplate.query(EXPORT_SQL, rows, userId, userId);
+        rows.finish();
+        writer.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        out.flush();
+    }
+
+    static String result(MatchStatus status) {
+        return switch (status) {
+            case PLAYER1_WON -> "1-0"; // player 1 has the white pieces
+            case PLAYER2_WON -> "0-1";
+            case DRAW -> "1/2-1/2";
+            case IN_PROGRESS -> "*";
+        };
+    }
+
+    static String timeControl(GameType gameType) {
+        if (gameType == null || !gameType.isTimed()) {
+            return "-";
+        }
+        String base = String.valueOf(gameType.getInitialMs() / 1000);
+        return gameType.getIncrementMs() > 0 ? base + "+" + gameType.getIncrementMs() / 1000 : base;
+    }
+
+    /** Turns the joined rows into games: a new match id starts a game and ends the one before. */
+    private static final class GameRows implements RowCallbackHandler {
+
+        private final PgnWriter pgn;
+        private long matchId = -1;
+        private String result;
+        private boolean movesBroken;
+        private int ply;
+
+        GameRows(PgnWriter pgn) {
+            this.pgn = pgn;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (id != matchId) {
+                finish();
+                startGame(rs, id);
+                return;
+            }
+            writeMove(rs.getString("uci"));
+        }
+
+        void finish() {
+            if (matchId != -1) {
+                pgn.endGame(result);
+                matchId = -1;
+            }
+        }
+
+        private void startGame(ResultSet rs, long id) throws SQLException {
+            matchId = id;
+            MatchStatus status = MatchStatus.valueOf(rs.getString("status"));
+            String gameType = rs.getString("game_type");
+            Timestamp startedAt = rs.getTimestamp("started_at");
+            if (startedAt == null) {
+                startedAt = rs.getTimestamp("created_at");
+            }
+            result = result(status);
+            movesBroken = false;
+            ply = 0;
+
+            pgn.tag("Event", "IndiChess " + (gameType != null ? gameType.toLowerCase() : "casual") + " game");
+            pgn.tag("Site", "IndiChess");
+            pgn.tag("Date", startedAt != null ? startedAt.toLocalDateTime().format(PGN_DATE) : "????.??.??");
+            pgn.tag("Round", "-");
+            pgn.tag("White", rs.getString("white"));
+            pgn.tag("Black", rs.getString("black"));
+            pgn.tag("Result", result);
+            pgn.tag("TimeControl", timeControl(gameType != null ? GameType.valueOf(gameType) : null));
+            pgn.tag("GameId", String.valueOf(id));
+
+            byte[] packed = rs.getBytes("packed_moves");
+            if (packed != null) {
+                writePacked(packed);
+            } else {
+                writeMove(rs.getString("uci")); // null when the game has no moves rows
+            }
+        }
+
+        private void writePacked(byte[] packed) {
+            PackedMoves moves;
+            try {
+                moves = PackedMoves.decode(packed);
+            } catch (IllegalArgumentException e) {
+                pgn.comment("Moves unavailable: " + e.getMessage());
+                return;
+            }
+            for (int move : moves.moves()) {
+                pgn.move(move);
+            }
+        }
+
+        private void writeMove(String uci) {
+            if (uci == null || movesBroken) {
+                return;
+            }
+            if (pgn.move(uci)) {
+                ply++;
+            } else {
+                // Keep the moves that replay and say where the rest stopped, rather than fail the export
+                movesBroken = true;
+                pgn.comment("Stored move " + uci + " after ply " + ply + " does not replay");
+            }
+        }
+    }
+}
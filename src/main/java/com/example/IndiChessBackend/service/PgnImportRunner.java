@@ -0,0 +1,37 @@
+package com.example.IndiChessBackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Imports the PGN file named by {@code indichess.import.file} once the
+ * application has started, e.g. {@code --indichess.import.file=masters.pgn}
+ * to seed the opening statistics. Starting again with the same file resumes
+ * an import that failed.
+ */
+@Component
+@ConditionalOnProperty(name = "indichess.import.file")
+public class PgnImportRunner implements ApplicationRunner {
+
+    private final PgnImportService pgnImportService;
+    private final Path file;
+
+    public PgnImportRunner(PgnImportService pgnImportService, @Value("${indichess.import.file}") String file) {
+        this.pgnImportService = pgnImportService;
+        this.file = Path.of(file);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            pgnImportService.importFile(file);
+        } catch (Exception e) {
+            System.err.println("❌ Import of " + file + " stopped, start again to resume: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.PgnImport;
+import com.example.IndiChessBackend.repo.PgnImportRepo;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Imports PGN files of finished games, such as master databases or a
+ * player's history from another site, as match rows through
+ * {@link PgnImporter}. Each chunk of games is one transaction: a batched
+ * INSERT of its matches plus the move of the file offset in its
+ * {@link PgnImport} row, so a failed import is run again to resume.
+ *
+ * An imported game's moves go into the match's packed moves column only;
+ * history, PGN export and replay all read finished games from there, and
+ * skipping the moves rows and their FENs is what keeps the import at
+ * thousands of games a second. Players are matched to users by name, and a
+ * name with no user gets a placeholder user without a password.
+ */
+@Service
+public class PgnImportService {
+
+    static final int GAMES_PER_CHUNK = 1000;
+    static final int MAX_CACHED_USERS = 100_000;
+    static final int MAX_USERNAME = 50;
+
+    private static final String INSERT_MATCH = """
+            INSERT INTO matches (player1_id, player2_id, status, game_type, current_ply, fen_current,
+                                 last_move_uci, packed_moves, started_at, finished_at, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String ADVANCE_IMPORT = """
+            UPDATE pgn_imports
+            SET byte_offset = ?, games_imported = games_imported + ?, games_skipped = games_skipped + ?, updated_at = ?
+            WHERE id = ? AND byte_offset = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactionOperations;
+    private final PgnImportRepo pgnImportRepo;
+    private final Map<String, Long> userIds = new HashMap<>(); // import writer thread only
+
+    public PgnImportService(JdbcTemplate jdbcTemplate, TransactionOperations transactionOperations,
+                            PgnImportRepo pgnImportRepo) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.pgnImportRepo = pgnImportRepo;
+    }
+
+    /**
+     * Imports the file, or resumes its earlier import, and waits for it.
+     * A file already imported to the end is not read again. One import of a
+     * file at a time: a second one running alongside fails at its first
+     * chunk.
+     */
+    public synchronized PgnImporter.Progress importFile(Path file) throws IOException {
+        Path source = file.toAbsolutePath().normalize();
+        long size = Files.size(source);
+        PgnImport job = pgnImportRepo.findBySource(source.toString()).orElseGet(() -> {
+            PgnImport created = new PgnImport();
+            created.setSource(source.toString());
+            created.setSourceBytes(size);
+            created.setStartedAt(LocalDateTime.now());
+            return pgnImportRepo.save(created);
+        });
+        if (job.getFinishedAt() != null) {
+            System.out.println("📥 " + source + " was already imported: " + job.getGamesImported() + " games");
+            return new PgnImporter.Progress(size, size, job.getGamesImported(), job.getGamesSkipped(), 0);
+        }
+        if (job.getSourceBytes() != size) {
+            throw new IllegalStateException(source + " changed since its import began ("
+                    + job.getSourceBytes() + " bytes, now " + size + ")");
+        }
+        if (job.getByteOffset() > 0) {
+            System.out.println("📥 Resuming import of " + source + " at byte " + job.getByteOffset());
+        }
+
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors());
+        PgnImporter importer = new PgnImporter(workers, GAMES_PER_CHUNK, workers * 2);
+        PgnImporter.Progress progress = importer.run(source, job.getByteOffset(),
+                chunk -> write(job.getId(), chunk), PgnImportService::report);
+
+        PgnImport finished = pgnImportRepo.findById(job.getId()).orElseThrow();
+        finished.setFinishedAt(LocalDateTime.now());
+        pgnImportRepo.save(finished);
+        System.out.println("📥 Imported " + source + ": " + finished.getGamesImported() + " games, "
+                + finished.getGamesSkipped() + " skipped");
+        return progress;
+    }
+
+    // Import writer thread
+    private void write(Long importId, PgnImporter.ParsedChunk chunk) {
+        Map<String, Long> created = new HashMap<>();
+        transactionOperations.executeWithoutResult(tx -> {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(chunk.games().size());
+            for (PgnImporter.ImportedGame game : chunk.games()) {
+                rows.add(new Object[]{
+                        userId(game.white(), created),
+                        userId(game.black(), created),
+                        game.status().name(),
+                        game.gameType().name(),
+                        game.plies(),
+                        game.fen(),
+                        game.lastMoveUci(),
+                        game.packedMoves(),
+                        game.date() != null ? Timestamp.valueOf(game.date().atStartOfDay()) : null,
+                        // Games lists order by finish time; an undated game counts as finished when imported
+                        game.date() != null ? Timestamp.valueOf(game.date().atStartOfDay()) : now,
+                        now,
+                        now});
+            }
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_MATCH, rows);
+            }
+            int advanced = jdbcTemplate.update(ADVANCE_IMPORT, chunk.endOffset(), chunk.games().size(),
+                    chunk.skipped(), now, importId, chunk.startOffset());
+            if (advanced != 1) {
+                throw new IllegalStateException("Import " + importId + " is not at byte " + chunk.startOffset()
+                        + "; is another import of the same file running?");
+            }
+        });
+        // Only now are the users created in the transaction there to point at
+        if (userIds.size() + created.size() > MAX_CACHED_USERS) {
+            userIds.clear();
+        }
+        userIds.putAll(created);
+    }
+
+    private Long userId(String name, Map<String, Long> created) {
+        String username = name.length() > MAX_USERNAME ? name.substring(0, MAX_USERNAME) : name;
+        Long id = userIds.get(username);
+        if (id == null) {
+            id = created.get(username);
+        }
+        if (id == null) {
+            List<Long> found = jdbcTemplate.queryForList("SELECT user_id FROM users WHERE user_name = ?", Long.class, username);
+            id = found.isEmpty() ? createPlaceholderUser(username) : found.get(0);
+            created.put(username, id);
+        }
+        return id;
+    }
+
+    private Long createPlaceholderUser(String username) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO users (user_name) VALUES (?)", Statement.RETURN_GENERATED_KEYS);
+            statement.setString(1, username);
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    private static void report(PgnImporter.Progress progress) {
+        System.out.printf("📥 PGN import: %d%% (%d of %d MB), %d games, %d skipped, %.0f games/s%n",
+                progress.totalBytes() == 0 ? 100 : progress.bytesDone() * 100 / progress.totalBytes(),
+                progress.bytesDone() >> 20, progress.totalBytes() >> 20,
+                progress.gamesImported(), progress.gamesSkipped(), progress.gamesPerSecond());
+    }
+}
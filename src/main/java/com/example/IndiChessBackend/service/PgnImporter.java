@@ -0,0 +1,281 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.chess.Fen;
+import com.example.IndiChessBackend.chess.Move;
+import com.example.IndiChessBackend.chess.PackedMoves;
+import com.example.IndiChessBackend.chess.PgnParser;
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.MatchStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Imports a PGN file in three stages joined by a bounded queue:
+ * <ol>
+ *   <li>the calling thread cuts the file into chunks of whole games
+ *       ({@link PgnChunkReader});</li>
+ *   <li>a pool of workers parses the chunks in parallel, resolving SAN with
+ *       the move generator and packing each game's moves;</li>
+ *   <li>one writer thread hands the parsed chunks to a {@link Sink} in file
+ *       order.</li>
+ * </ol>
+ * The queue holds the workers' futures in file order, so the reader stops
+ * once {@code queueCapacity} chunks are waiting and memory stays bounded
+ * however large the file. Because chunks reach the sink in order, the end
+ * offset of the last chunk it committed is where a failed import resumes.
+ *
+ * Games that do not replay, start from a set-up position or have no result
+ * are skipped and counted.
+ */
+public final class PgnImporter {
+
+    /** Where parsed games go; write must commit the games and chunk.endOffset() together. */
+    @FunctionalInterface
+    public interface Sink {
+        void write(ParsedChunk chunk);
+    }
+
+    /** A finished game ready to become a match row. */
+    public record ImportedGame(String white, String black, MatchStatus status, GameType gameType, LocalDate date,
+                               byte[] packedMoves, String fen, String lastMoveUci, int plies) {
+    }
+
+    public record ParsedChunk(long startOffset, long endOffset, List<ImportedGame> games, int skipped) {
+    }
+
+    public record Progress(long bytesDone, long totalBytes, long gamesImported, long gamesSkipped, long elapsedMs) {
+
+        public double gamesPerSecond() {
+            return elapsedMs == 0 ? 0 : gamesImported * 1000.0 / elapsedMs;
+        }
+    }
+
+    private static final CompletableFuture<ParsedChunk> END = CompletableFuture.completedFuture(null);
+    private static final DateTimeFormatter PGN_DATE = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+    private static final long PROGRESS_INTERVAL_MS = 1000;
+
+    private final int workers;
+    private final int gamesPerChunk;
+    private final int queueCapacity;
+
+    public PgnImporter(int workers, int gamesPerChunk, int queueCapacity) {
+        this.workers = workers;
+        this.gamesPerChunk = gamesPerChunk;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Imports the file from the given byte offset (0, or the end offset of
+     * the last chunk a previous run committed) and returns the final
+     * progress. Progress is also reported about once a second from the
+     * writer thread, and once more at the end. If the sink fails, reading
+     * stops and the failure is rethrown once the stages have wound down.
+     */
+    public Progress run(Path file, long fromOffset, Sink sink, Consumer<Progress> progress) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long totalBytes = channel.size();
+            channel.position(fromOffset);
+            return run(Channels.newInputStream(channel), fromOffset, totalBytes, sink, progress);
+        }
+    }
+
+    Progress run(InputStream in, long fromOffset, long totalBytes, Sink sink, Consumer<Progress> progress)
+            throws IOException {
+        AtomicInteger workerIds = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers,
+                task -> Thread.ofPlatform().name("pgn-import-worker-" + workerIds.incrementAndGet()).daemon().unstarted(task));
+        ThreadLocal<PgnParser> parsers = ThreadLocal.withInitial(PgnParser::new);
+        BlockingQueue<Future<ParsedChunk>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicReference<Progress> last = new AtomicReference<>(new Progress(fromOffset, totalBytes, 0, 0, 0));
+
+        Thread writer = Thread.ofPlatform().name("pgn-import-writer").start(() -> {
+            long startNanos = System.nanoTime();
+            long nextReport = PROGRESS_INTERVAL_MS;
+            long imported = 0;
+            long skipped = 0;
+            try {
+                while (true) {
+                    ParsedChunk chunk = queue.take().get();
+                    if (chunk == null) {
+                        break;
+                    }
+                    sink.write(chunk);
+                    imported += chunk.games().size();
+                    skipped += chunk.skipped();
+                    long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+                    last.set(new Progress(chunk.endOffset(), totalBytes, imported, skipped, elapsedMs));
+                    if (elapsedMs >= nextReport) {
+                        progress.accept(last.get());
+                        nextReport = elapsedMs + PROGRESS_INTERVAL_MS;
+                    }
+                }
+            } catch (InterruptedException e) {
+                failure.compareAndSet(null, e);
+            } catch (ExecutionException e) {
+                failure.compareAndSet(null, e.getCause());
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+
+        try (PgnChunkReader reader = new PgnChunkReader(in, fromOffset, gamesPerChunk)) {
+            PgnChunkReader.Chunk chunk;
+            while (failure.get() == null && (chunk = reader.next()) != null) {
+                PgnChunkReader.Chunk toParse = chunk;
+                enqueue(queue, pool.submit(() -> parseChunk(toParse, parsers.get())), failure);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            if (!enqueue(queue, END, failure)) {
+                writer.interrupt(); // it may be waiting on a queue no one will fill
+            }
+            awaitWriter(writer, failure);
+            pool.shutdownNow();
+        }
+
+        Throwable cause = failure.get();
+        if (cause instanceof IOException io) {
+            throw io;
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (cause != null) {
+            throw new IllegalStateException("PGN import failed", cause);
+        }
+        progress.accept(last.get());
+        return last.get();
+    }
+
+    static ParsedChunk parseChunk(PgnChunkReader.Chunk chunk, PgnParser parser) {
+        List<ImportedGame> games = new ArrayList<>(chunk.games());
+        int skipped = 0;
+        for (int i = 0; i < chunk.games(); i++) {
+            int start = chunk.gameStarts()[i];
+            String text = new String(chunk.data(), start, chunk.gameEnd(i) - start, StandardCharsets.UTF_8);
+            ImportedGame game = toImportedGame(text, parser);
+            if (game != null) {
+                games.add(game);
+            } else {
+                skipped++;
+            }
+        }
+        return new ParsedChunk(chunk.startOffset(), chunk.endOffset(), games, skipped);
+    }
+
+    /** The game as a match row, or null if it cannot be imported. */
+    static ImportedGame toImportedGame(String text, PgnParser parser) {
+        PgnParser.Game game;
+        try {
+            game = parser.parse(!text.isEmpty() && text.charAt(0) == '\uFEFF' ? text.substring(1) : text);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        String result = game.result() != null ? game.result() : game.tags().get("Result");
+        MatchStatus status = status(result);
+        if (status == null) {
+            return null;
+        }
+        int[] moves = game.moves();
+        return new ImportedGame(
+                game.tags().getOrDefault("White", "?"),
+                game.tags().getOrDefault("Black", "?"),
+                status,
+                gameType(game.tags().get("TimeControl")),
+                date(game.tags().get("Date")),
+                new PackedMoves(moves, new int[moves.length]).encode(),
+                Fen.toFen(game.position()),
+                moves.length > 0 ? Move.toUci(moves[moves.length - 1]) : null,
+                moves.length);
+    }
+
+    // Null for an unfinished game
+    static MatchStatus status(String result) {
+        if (result == null) {
+            return null;
+        }
+        return switch (result) {
+            case "1-0" -> MatchStatus.PLAYER1_WON;
+            case "0-1" -> MatchStatus.PLAYER2_WON;
+            case "1/2-1/2" -> MatchStatus.DRAW;
+            default -> null;
+        };
+    }
+
+    // The nearest of our game types: untimed, blitz under ten minutes, rapid otherwise
+    static GameType gameType(String timeControl) {
+        if (timeControl == null || timeControl.isEmpty() || timeControl.equals("-") || timeControl.equals("?")) {
+            return GameType.STANDARD;
+        }
+        int plus = timeControl.indexOf('+');
+        try {
+            long baseSeconds = Long.parseLong(plus < 0 ? timeControl : timeControl.substring(0, plus));
+            return baseSeconds * 1000 < GameType.RAPID.getInitialMs() ? GameType.BLITZ : GameType.RAPID;
+        } catch (NumberFormatException e) {
+            return GameType.STANDARD; // moves-per-period and other forms
+        }
+    }
+
+    // Null when the date is missing or partly unknown, as in "1927.??.??"
+    static LocalDate date(String date) {
+        if (date == null || date.indexOf('?') >= 0) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date, PGN_DATE);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // Blocks while the queue is full; false if it gave up because a stage failed
+    private static boolean enqueue(BlockingQueue<Future<ParsedChunk>> queue, Future<ParsedChunk> future,
+                                   AtomicReference<Throwable> failure) {
+        try {
+            while (!queue.offer(future, 100, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+            return false;
+        }
+    }
+
+    private static void awaitWriter(Thread writer, AtomicReference<Throwable> failure) {
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+            writer.interrupt();
+        }
+    }
+}
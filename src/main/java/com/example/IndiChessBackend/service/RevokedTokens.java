@@ -0,0 +1,221 @@
+package com.example.IndiChessBackend.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tokens signed out before they expire, by token id. Checked on every
+ * authenticated request, and nearly every token checked is not revoked, so
+ * a Bloom filter answers that case with a few bit reads; only a filter hit
+ * looks in the exact set.
+ *
+ * A revocation is remembered until its token expires, since an expired
+ * token fails verification anyway. Every {@value #SWEEP_MINUTES} minutes a
+ * background thread drops the expired ones, rebuilds the filter without
+ * them and rewrites {@code indichess.revocation.file}; each revocation is
+ * appended to that file as it happens and read back at startup.
+ */
+@Component
+public class RevokedTokens implements DisposableBean {
+
+    static final long SWEEP_MINUTES = 10;
+
+    private final Path file;
+    private final Clock clock;
+    private final int expectedTokens;
+    private final ConcurrentHashMap<UUID, Instant> revoked = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object(); // revocations are rare; reads take no lock
+    private volatile BloomFilter filter;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            task -> Thread.ofPlatform().name("token-revocations").daemon().unstarted(task));
+
+    @Autowired
+    public RevokedTokens(@Value("${indichess.revocation.file:data/revoked-tokens}") String file,
+                         @Value("${indichess.revocation.expected-tokens:100000}") int expectedTokens) {
+        this(Path.of(file), expectedTokens, Clock.systemUTC());
+        scheduler.scheduleWithFixedDelay(this::sweepSafely, SWEEP_MINUTES, SWEEP_MINUTES, TimeUnit.MINUTES);
+    }
+
+    RevokedTokens(Path file, int expectedTokens, Clock clock) {
+        this.file = file;
+        this.clock = clock;
+        this.expectedTokens = expectedTokens;
+        load();
+        this.filter = buildFilter();
+    }
+
+    public boolean isRevoked(UUID tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        return revoked.containsKey(tokenId);
+    }
+
+    public void revoke(JwtService.VerifiedToken token) {
+        revoke(token.tokenId(), token.expiresAt());
+    }
+
+    public void revoke(UUID tokenId, Instant expiresAt) {
+        if (!clock.instant().isBefore(expiresAt)) {
+            return; // already unusable
+        }
+        synchronized (writeLock) {
+            if (revoked.putIfAbsent(tokenId, expiresAt) != null) {
+                return;
+            }
+            if (revoked.size() > filter.capacity()) {
+                filter = buildFilter();
+            } else {
+                filter.add(tokenId);
+            }
+            try {
+                Files.writeString(file, line(tokenId, expiresAt), StandardCharsets.US_ASCII,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+            } catch (IOException e) {
+                System.err.println("⚠️ Token revocation not saved, it lasts until restart: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Forgets the revocations of expired tokens; returns how many. */
+    int sweep() throws IOException {
+        synchronized (writeLock) {
+            Instant now = clock.instant();
+            int before = revoked.size();
+            revoked.values().removeIf(expiresAt -> !now.isBefore(expiresAt));
+            filter = buildFilter();
+
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            StringBuilder out = new StringBuilder();
+            revoked.forEach((tokenId, expiresAt) -> out.append(line(tokenId, expiresAt)));
+            Files.writeString(tmp, out, StandardCharsets.US_ASCII);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return before - revoked.size();
+        }
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    boolean filterMightContain(UUID tokenId) {
+        return filter.mightContain(tokenId);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            System.err.println("⚠️ Token revocation sweep failed: " + e.getMessage());
+        }
+    }
+
+    private void load() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (!Files.exists(file)) {
+                return;
+            }
+            Instant now = clock.instant();
+            List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+            for (String entry : lines) {
+                int space = entry.indexOf(' ');
+                try {
+                    Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(entry.substring(space + 1)));
+                    if (now.isBefore(expiresAt)) {
+                        revoked.put(UUID.fromString(entry.substring(0, space)), expiresAt);
+                    }
+                } catch (RuntimeException e) {
+                    // a line torn by a crash mid-append
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read token revocations from " + file, e);
+        }
+        if (!revoked.isEmpty()) {
+            System.out.println("🔒 Loaded " + revoked.size() + " token revocations");
+        }
+    }
+
+    private BloomFilter buildFilter() {
+        BloomFilter built = new BloomFilter(Math.max(expectedTokens, revoked.size() * 2));
+        revoked.keySet().forEach(built::add);
+        return built;
+    }
+
+    private static String line(UUID tokenId, Instant expiresAt) {
+        return tokenId + " " + expiresAt.getEpochSecond() + "\n";
+    }
+
+    /**
+     * Ten bits and seven probes per token, about 1% false positives at
+     * capacity. Token ids are random UUIDs, so the probes come straight from
+     * their two halves by double hashing.
+     */
+    private static final class BloomFilter {
+        private static final int BITS_PER_TOKEN = 10;
+        private static final int PROBES = 7;
+
+        private final int capacity;
+        private final long bits;
+        private final AtomicLongArray words;
+
+        BloomFilter(int capacity) {
+            this.capacity = capacity;
+            this.bits = Math.max(64, (long) capacity * BITS_PER_TOKEN) & ~63L;
+            this.words = new AtomicLongArray((int) (bits >>> 6));
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        boolean mightContain(UUID tokenId) {
+            long h1 = tokenId.getMostSignificantBits();
+            long h2 = tokenId.getLeastSignificantBits() | 1;
+            for (int i = 0; i < PROBES; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(UUID tokenId) {
+            long h1 = tokenId.getMostSignificantBits();
+            long h2 = tokenId.getLeastSignificantBits() | 1;
+            for (int i = 0; i < PROBES; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                words.getAndAccumulate((int) (bit >>> 6), 1L << bit, (word, mask) -> word | mask);
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.IndiChessBackend.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel for flag-fall deadlines: one ticker thread, a ring of
+ * buckets and one linked entry per running clock, so 100k timed games cost
+ * 100k small objects rather than 100k ScheduledFutures.
+ *
+ * schedule and cancel are O(1) and lock-free from any thread: new and
+ * cancelled entries go through queues that the ticker drains at the start of
+ * each tick, and only the ticker touches the buckets. An entry fires on the
+ * first tick at or after its deadline, never before it.
+ *
+ * Tasks run on the ticker thread and must only hand work off (e.g. to a
+ * match mailbox); a slow task delays every other deadline.
+ */
+@Component
+public class TimingWheel implements DisposableBean {
+
+    private static final long DEFAULT_TICK_MS = 100;
+    private static final int DEFAULT_WHEEL_SIZE = 1024; // one revolution = 102.4 s
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startNanos;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final Thread ticker;
+    private volatile boolean running = true;
+
+    public TimingWheel() {
+        this(DEFAULT_TICK_MS, DEFAULT_WHEEL_SIZE);
+    }
+
+    public TimingWheel(long tickMs, int wheelSize) {
+        if (tickMs <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize a power of two");
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheelSize - 1;
+        this.startNanos = System.nanoTime();
+        this.ticker = Thread.ofPlatform().name("timing-wheel").daemon().start(this::run);
+    }
+
+    /** Runs task on the ticker thread once delayMs have passed. */
+    public Timeout schedule(long delayMs, Runnable task) {
+        if (!running) {
+            throw new IllegalStateException("Timing wheel stopped");
+        }
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /** Entries currently linked into buckets; approximate when read off the ticker thread. */
+    public int size() {
+        int size = 0;
+        for (Bucket bucket : wheel) {
+            size += bucket.size;
+        }
+        return size;
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        ticker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            // Sleep to the end of the tick so every entry in its bucket is due
+            long tickEnd = (tick + 1) * tickNanos;
+            long sleep;
+            while (running && (sleep = tickEnd - (System.nanoTime() - startNanos)) > 0) {
+                LockSupport.parkNanos(sleep);
+            }
+            removeCancelled();
+            addPending(tick);
+            expire(wheel[(int) (tick & mask)], tick);
+            tick++;
+        }
+    }
+
+    private void addPending(long tick) {
+        // Bounded per tick so a flood of schedules cannot stall expiry
+        for (int i = 0; i < 100_000; i++) {
+            Timeout timeout = pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() != Timeout.PENDING) {
+                continue;
+            }
+            // Last tick whose end is at or before the deadline rounds up; never earlier than now
+            long deadlineTick = Math.max(tick, (timeout.deadline + tickNanos - 1) / tickNanos - 1);
+            timeout.deadlineTick = deadlineTick;
+            wheel[(int) (deadlineTick & mask)].add(timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void expire(Bucket bucket, long tick) {
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            // Entries for later revolutions share the bucket and stay put
+            if (timeout.deadlineTick <= tick) {
+                bucket.remove(timeout);
+                if (timeout.state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED)) {
+                    try {
+                        timeout.task.run();
+                    } catch (Throwable t) {
+                        System.err.println("❌ Timing wheel task failed: " + t.getMessage());
+                    }
+                }
+            }
+            timeout = next;
+        }
+    }
+
+    /** Handle to one scheduled deadline. */
+    public static final class Timeout {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimingWheel timingWheel;
+        private final Runnable task;
+        private final long deadline; // nanos since the wheel started
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        // Owned by the ticker thread
+        private long deadlineTick;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(TimingWheel timingWheel, Runnable task, long deadline) {
+            this.timingWheel = timingWheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /** Stops the task from running; false if it already ran or was cancelled. */
+        public boolean cancel() {
+            if (!state.compareAndSet(PENDING, CANCELLED)) {
+                return false;
+            }
+            timingWheel.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+    }
+
+    // Doubly linked so a cancelled entry is unlinked in O(1)
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+        private int size;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+            size++;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.bucket = null;
+            timeout.prev = null;
+            timeout.next = null;
+            size--;
+        }
+    }
+}
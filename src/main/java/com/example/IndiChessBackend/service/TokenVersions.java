@@ -0,0 +1,73 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Each user's current token version, kept in memory. A token issued at an
+ * older version is revoked: {@link #revokeAll} bumps the version, which
+ * signs the user out everywhere. A version is read from the users table
+ * when first needed and again after {@code indichess.auth.token-version-ttl-seconds},
+ * so a change made straight in the database also takes effect; in between,
+ * checking a token touches no database.
+ */
+@Service
+public class TokenVersions {
+
+    static final int MAX_CACHED_USERS = 100_000;
+
+    private record CachedVersion(int version, Instant loadedAt) {
+    }
+
+    private final UserRepo userRepo;
+    private final Clock clock;
+    private final Duration ttl;
+    private final ConcurrentHashMap<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    public TokenVersions(UserRepo userRepo,
+                         @Value("${indichess.auth.token-version-ttl-seconds:60}") long ttlSeconds) {
+        this(userRepo, Clock.systemUTC(), Duration.ofSeconds(ttlSeconds));
+    }
+
+    TokenVersions(UserRepo userRepo, Clock clock, Duration ttl) {
+        this.userRepo = userRepo;
+        this.clock = clock;
+        this.ttl = ttl;
+    }
+
+    /** Whether a token issued at this version is still good; false if the user no longer exists. */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Instant now = clock.instant();
+        CachedVersion cached = versions.get(userId);
+        if (cached == null || !now.isBefore(cached.loadedAt().plus(ttl))) {
+            Optional<Integer> version = userRepo.findTokenVersion(userId);
+            if (version.isEmpty()) {
+                versions.remove(userId);
+                return false;
+            }
+            cached = new CachedVersion(version.get(), now);
+            if (versions.size() >= MAX_CACHED_USERS) {
+                versions.clear(); // they reload one query each
+            }
+            versions.put(userId, cached);
+        }
+        return cached.version() == tokenVersion;
+    }
+
+    public boolean isCurrent(JwtService.VerifiedToken token) {
+        return isCurrent(token.userId(), token.tokenVersion());
+    }
+
+    /** Revokes every token the user holds. */
+    public void revokeAll(Long userId) {
+        userRepo.incrementTokenVersion(userId);
+        versions.remove(userId); // the next check reads the new version
+    }
+}
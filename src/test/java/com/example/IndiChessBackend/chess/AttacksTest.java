@@ -0,0 +1,115 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttacksTest {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    @Test
+    void slidingAttacksMatchARayWalkOnRandomOccupancies() {
+        Random random = new Random(20260101L);
+        for (int square = 0; square < 64; square++) {
+            for (int i = 0; i < 2_000; i++) {
+                // Sparse, even and crowded boards, so rays stop early, late and not at all
+                long occupied = switch (i % 3) {
+                    case 0 -> random.nextLong() & random.nextLong() & random.nextLong();
+                    case 1 -> random.nextLong();
+                    default -> random.nextLong() | random.nextLong();
+                };
+                assertSliding(square, occupied);
+                // The attacker's own square is outside every ray, so occupying it changes nothing
+                assertSliding(square, occupied | (1L << square));
+            }
+            assertSliding(square, 0);
+            assertSliding(square, -1L);
+        }
+    }
+
+    @Test
+    void leaperAttacksMatchTheirSteps() {
+        for (int square = 0; square < 64; square++) {
+            long knight = 0;
+            long king = 0;
+            long whitePawn = 0;
+            long blackPawn = 0;
+            for (int target = 0; target < 64; target++) {
+                int df = Square.file(target) - Square.file(square);
+                int dr = Square.rank(target) - Square.rank(square);
+                long bit = 1L << target;
+                if (df * df + dr * dr == 5) {
+                    knight |= bit;
+                }
+                if (target != square && Math.abs(df) <= 1 && Math.abs(dr) <= 1) {
+                    king |= bit;
+                }
+                if (Math.abs(df) == 1 && dr == 1) {
+                    whitePawn |= bit;
+                }
+                if (Math.abs(df) == 1 && dr == -1) {
+                    blackPawn |= bit;
+                }
+            }
+            String name = Square.name(square);
+            assertThat(Attacks.KNIGHT[square]).as("knight on %s", name).isEqualTo(knight);
+            assertThat(Attacks.KING[square]).as("king on %s", name).isEqualTo(king);
+            assertThat(Attacks.PAWN[Piece.WHITE][square]).as("white pawn on %s", name).isEqualTo(whitePawn);
+            assertThat(Attacks.PAWN[Piece.BLACK][square]).as("black pawn on %s", name).isEqualTo(blackPawn);
+        }
+    }
+
+    @Test
+    void betweenAndLineFollowTheRayJoiningTwoSquares() {
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                long between = 0;
+                long line = 0;
+                int df = Integer.signum(Square.file(b) - Square.file(a));
+                int dr = Integer.signum(Square.rank(b) - Square.rank(a));
+                boolean aligned = a != b && (Square.file(a) == Square.file(b) || Square.rank(a) == Square.rank(b)
+                        || Math.abs(Square.file(b) - Square.file(a)) == Math.abs(Square.rank(b) - Square.rank(a)));
+                if (aligned) {
+                    for (int f = Square.file(a) + df, r = Square.rank(a) + dr; Square.of(f, r) != b; f += df, r += dr) {
+                        between |= 1L << Square.of(f, r);
+                    }
+                    line = (1L << a) | rayWalk(a, 0, new int[][]{{df, dr}, {-df, -dr}});
+                }
+                String pair = Square.name(a) + "-" + Square.name(b);
+                assertThat(Attacks.BETWEEN[a][b]).as("between %s", pair).isEqualTo(between);
+                assertThat(Attacks.LINE[a][b]).as("line %s", pair).isEqualTo(line);
+            }
+        }
+    }
+
+    private static void assertSliding(int square, long occupied) {
+        long rook = rayWalk(square, occupied, ROOK_DIRECTIONS);
+        long bishop = rayWalk(square, occupied, BISHOP_DIRECTIONS);
+        String where = Square.name(square) + " occupied " + Long.toHexString(occupied);
+        assertThat(Attacks.rook(square, occupied)).as("rook on %s", where).isEqualTo(rook);
+        assertThat(Attacks.bishop(square, occupied)).as("bishop on %s", where).isEqualTo(bishop);
+        assertThat(Attacks.queen(square, occupied)).as("queen on %s", where).isEqualTo(rook | bishop);
+    }
+
+    // Each ray runs to the edge or the first occupied square, which it includes
+    private static long rayWalk(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int f = Square.file(square) + direction[0];
+            int r = Square.rank(square) + direction[1];
+            while (f >= 0 && f < 8 && r >= 0 && r < 8) {
+                attacks |= 1L << Square.of(f, r);
+                if ((occupied & (1L << Square.of(f, r))) != 0) {
+                    break;
+                }
+                f += direction[0];
+                r += direction[1];
+            }
+        }
+        return attacks;
+    }
+}
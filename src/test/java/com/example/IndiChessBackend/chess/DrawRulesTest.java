@@ -0,0 +1,148 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DrawRulesTest {
+
+    @Test
+    void threefoldRepetition() {
+        Game game = new Game(Fen.START);
+
+        game.play("g1f3", "g8f6", "f3g1", "f6g8");
+        assertThat(game.history.occurrences()).isEqualTo(2);
+        assertThat(game.drawReason()).isNull();
+
+        game.play("g1f3", "g8f6", "f3g1");
+        assertThat(game.drawReason()).isNull();
+        game.play("f6g8");
+        assertThat(game.history.occurrences()).isEqualTo(3);
+        assertThat(game.drawReason()).isEqualTo("Threefold repetition");
+    }
+
+    @Test
+    void lostCastlingRightsMakeADifferentPosition() {
+        Game game = new Game("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+
+        // Back to the same squares twice, but without the queenside rights the start had
+        game.play("a1b1", "a8b8", "b1a1", "b8a8", "a1b1", "a8b8", "b1a1", "b8a8");
+        assertThat(game.history.occurrences()).isEqualTo(2);
+        assertThat(game.drawReason()).isNull();
+
+        game.play("a1b1", "a8b8", "b1a1", "b8a8");
+        assertThat(game.drawReason()).isEqualTo("Threefold repetition");
+    }
+
+    @Test
+    void aCapturableEnPassantSquareMakesADifferentPosition() {
+        // After e4 the f4 pawn may take en passant; once the kings have moved it no longer can
+        Game game = new Game("4k3/8/8/8/5p2/8/4P3/4K3 w - - 0 1");
+
+        game.play("e2e4", "e8d8", "e1d1", "d8e8", "d1e1", "e8d8", "e1d1", "d8e8", "d1e1");
+        assertThat(game.history.occurrences()).isEqualTo(2);
+        assertThat(game.drawReason()).isNull();
+
+        game.play("e8d8", "e1d1", "d8e8", "d1e1");
+        assertThat(game.drawReason()).isEqualTo("Threefold repetition");
+    }
+
+    @Test
+    void anEnPassantSquareNobodyCanUseIsIgnored() {
+        Game game = new Game("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1");
+
+        game.play("e2e4", "e8d8", "e1d1", "d8e8", "d1e1", "e8d8", "e1d1", "d8e8", "d1e1");
+
+        assertThat(game.drawReason()).isEqualTo("Threefold repetition");
+    }
+
+    @Test
+    void anIrreversibleMoveClearsTheHistory() {
+        Game game = new Game(Fen.START);
+        game.play("g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1");
+
+        game.play("e7e5");
+
+        assertThat(game.history.size()).isEqualTo(1);
+        assertThat(game.history.occurrences()).isEqualTo(1);
+    }
+
+    @Test
+    void restoredHistoryStillCountsRepetitions() {
+        Game game = new Game(Fen.START);
+        game.play("g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1");
+
+        PositionHistory restored = new PositionHistory(game.history.keys());
+        game.position.makeMove(MoveGenerator.parseUci(game.position, "f6g8"));
+        restored.push(game.position);
+
+        assertThat(DrawRules.drawReason(game.position, restored)).isEqualTo("Threefold repetition");
+    }
+
+    @Test
+    void fiftyMoveRule() {
+        Game game = new Game("4k3/8/8/8/8/8/8/R3K3 w - - 98 80");
+
+        game.play("a1a2");
+        assertThat(game.position.halfmoveClock()).isEqualTo(99);
+        assertThat(game.drawReason()).isNull();
+
+        game.play("e8d8");
+        assertThat(game.drawReason()).isEqualTo("Fifty-move rule");
+    }
+
+    @Test
+    void aPawnMoveResetsTheFiftyMoveCount() {
+        Game game = new Game("4k3/8/8/8/8/8/P7/R3K3 w - - 99 80");
+
+        game.play("a2a3");
+
+        assertThat(game.position.halfmoveClock()).isZero();
+        assertThat(game.drawReason()).isNull();
+    }
+
+    @Test
+    void insufficientMaterial() {
+        assertThat(insufficient("4k3/8/8/8/8/8/8/4K3 w - - 0 1")).as("K v K").isTrue();
+        assertThat(insufficient("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1")).as("KB v K").isTrue();
+        assertThat(insufficient("4k3/8/8/8/8/8/8/1N2K3 w - - 0 1")).as("KN v K").isTrue();
+        assertThat(insufficient("4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1")).as("KB v KB, both on dark squares").isTrue();
+        assertThat(insufficient("2b1k3/8/8/8/8/8/8/3BK3 w - - 0 1")).as("KB v KB, both on light squares").isTrue();
+
+        assertThat(insufficient("4kb2/8/8/8/8/8/8/3BK3 w - - 0 1")).as("KB v KB, opposite colours").isFalse();
+        assertThat(insufficient("4k3/8/8/8/8/8/8/1NB1K3 w - - 0 1")).as("KBN v K").isFalse();
+        assertThat(insufficient("1n2k3/8/8/8/8/8/8/1N2K3 w - - 0 1")).as("KN v KN").isFalse();
+        assertThat(insufficient("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1")).as("KP v K").isFalse();
+        assertThat(insufficient("4k3/8/8/8/8/8/8/R3K3 w - - 0 1")).as("KR v K").isFalse();
+        assertThat(DrawRules.drawReason(Fen.parse("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1"),
+                new PositionHistory(Fen.parse("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1")))).isEqualTo("Insufficient material");
+    }
+
+    private static boolean insufficient(String fen) {
+        return DrawRules.isInsufficientMaterial(Fen.parse(fen));
+    }
+
+    // A position and its history, advanced the way GameService does after each move
+    private static final class Game {
+        final Position position;
+        final PositionHistory history;
+
+        Game(String fen) {
+            position = Fen.parse(fen);
+            history = new PositionHistory(position);
+        }
+
+        void play(String... moves) {
+            for (String uci : moves) {
+                int move = MoveGenerator.parseUci(position, uci);
+                assertThat(move).as(uci).isNotEqualTo(Move.NONE);
+                position.makeMove(move);
+                history.push(position);
+            }
+        }
+
+        String drawReason() {
+            return DrawRules.drawReason(position, history);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FenTest {
+
+    private static final String[] STANDARD_POSITIONS = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1",
+    };
+
+    @Test
+    void startPosition() {
+        assertThat(Fen.toFen(Position.startPosition())).isEqualTo(Fen.START);
+    }
+
+    @Test
+    void standardPositionsRoundTrip() {
+        for (String fen : STANDARD_POSITIONS) {
+            Position position = Fen.parse(fen);
+            assertThat(Fen.toFen(position)).isEqualTo(fen);
+            assertThat(Fen.parse(Fen.toFen(position)).key()).isEqualTo(position.key());
+        }
+    }
+
+    @Test
+    void writesTheCastlingRightsThatAreLeft() {
+        assertThat(castlingField("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", "e1g1")).isEqualTo("kq");
+        assertThat(castlingField("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", "h1h2")).isEqualTo("Qkq");
+        assertThat(castlingField("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", "a1a8")).isEqualTo("Kk");
+        assertThat(castlingField("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1", "e8d8")).isEqualTo("KQ");
+        assertThat(castlingField("r3k2r/8/8/8/8/8/8/R3K2R b Kk - 0 1", "e8g8")).isEqualTo("K");
+        assertThat(castlingField("r3k2r/8/8/8/8/8/8/R3K2R w K - 0 1", "e1f1")).isEqualTo("-");
+    }
+
+    @Test
+    void writesTheEnPassantSquareForOneMoveOnly() {
+        Position position = Position.startPosition();
+
+        play(position, "e2e4");
+        assertThat(Fen.toFen(position)).isEqualTo("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        play(position, "c7c5");
+        assertThat(Fen.toFen(position)).isEqualTo("rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2");
+        play(position, "g1f3");
+        assertThat(Fen.toFen(position)).isEqualTo("rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2");
+    }
+
+    @Test
+    void countsHalfmovesAndFullmoves() {
+        Position position = Fen.parse("4k3/8/8/8/8/8/4P3/R3K3 w Q - 7 31");
+
+        play(position, "a1a5");
+        assertThat(clocks(position)).isEqualTo("8 31");
+        play(position, "e8d7");
+        assertThat(clocks(position)).isEqualTo("9 32");
+        play(position, "e2e3");
+        assertThat(clocks(position)).isEqualTo("0 32");
+        play(position, "d7d6");
+        assertThat(clocks(position)).isEqualTo("1 33");
+    }
+
+    @Test
+    void readsFenWithoutClocks() {
+        Position position = Fen.parse("4k3/8/8/8/8/8/8/4K3 b - -");
+
+        assertThat(Fen.toFen(position)).isEqualTo("4k3/8/8/8/8/8/8/4K3 b - - 0 1");
+    }
+
+    @Test
+    void rejectsMalformedFen() {
+        assertThatThrownBy(() -> Fen.parse(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Fen.parse("8/8/8/8 w")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Fen.parse("4k3/8/8/8/8/8/8/4X3 w - - 0 1")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fenKeptAfterEachMoveMatchesThePosition() {
+        // GameService keeps Fen.toFen of the position after every move; reading it back must give the same position
+        Position position = Position.startPosition();
+        String fen = Fen.toFen(position);
+        String[] game = {"e2e4", "d7d5", "e4e5", "f7f5", "e5f6", "g8f6", "g1f3", "e7e6", "f1d3", "f8c5", "e1g1",
+                "e8g8", "b2b4", "c5b4", "c2c4", "b4a5", "c4d5", "e6d5", "d1b3", "c7c5", "b3b7", "c5c4", "b7a8"};
+
+        for (String uci : game) {
+            Position before = Fen.parse(fen);
+            assertThat(Fen.toFen(before)).isEqualTo(fen);
+            assertThat(before.key()).isEqualTo(position.key());
+            play(position, uci);
+            fen = Fen.toFen(position);
+        }
+
+        assertThat(fen).isEqualTo("Qnbq1rk1/p5pp/5n2/b2p4/2p5/3B1N2/P2P1PPP/RNB2RK1 b - - 0 12");
+    }
+
+    private static String castlingField(String fen, String uci) {
+        Position position = Fen.parse(fen);
+        play(position, uci);
+        return Fen.toFen(position).split(" ")[2];
+    }
+
+    private static String clocks(Position position) {
+        String[] fields = Fen.toFen(position).split(" ");
+        return fields[4] + " " + fields[5];
+    }
+
+    private static void play(Position position, String uci) {
+        int move = MoveGenerator.parseUci(position, uci);
+        assertThat(move).as(uci).isNotEqualTo(Move.NONE);
+        position.makeMove(move);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameClockTest {
+
+    private static final long MS = 1_000_000;
+
+    @Test
+    void subSecondMovesAreCharged() {
+        GameClock clock = new GameClock(180_000, 180_000, 0, 0, 0);
+
+        assertThat(clock.punch(400 * MS)).isTrue();
+        assertThat(clock.punch(1_150 * MS)).isTrue();
+
+        assertThat(clock.remainingMs(Piece.WHITE)).isEqualTo(179_600);
+        assertThat(clock.remainingMs(Piece.BLACK)).isEqualTo(179_250);
+        assertThat(clock.running()).isEqualTo(Piece.WHITE);
+    }
+
+    @Test
+    void incrementIsAddedAfterEachMove() {
+        GameClock clock = new GameClock(180_000, 180_000, 1_000, 0, 0);
+
+        clock.punch(2_500 * MS);
+
+        assertThat(clock.remainingMs(Piece.WHITE)).isEqualTo(178_500);
+        assertThat(clock.running()).isEqualTo(Piece.BLACK);
+        assertThat(clock.remainingMs(Piece.BLACK, 3_000 * MS)).isEqualTo(179_500);
+    }
+
+    @Test
+    void delayIsFreeThinkingTime() {
+        GameClock clock = new GameClock(60_000, 60_000, 0, 2_000, 0);
+
+        clock.punch(1_500 * MS);
+        assertThat(clock.remainingMs(Piece.WHITE)).isEqualTo(60_000);
+
+        clock.punch(6_500 * MS);
+        assertThat(clock.remainingMs(Piece.BLACK)).isEqualTo(57_000);
+    }
+
+    @Test
+    void flagFallsAfterRemainingTimePlusDelay() {
+        GameClock clock = new GameClock(1_000, 60_000, 1_000, 500, 0);
+
+        assertThat(clock.msUntilFlag(0)).isEqualTo(1_500);
+        assertThat(clock.checkFlag(1_499 * MS)).isFalse();
+        assertThat(clock.checkFlag(1_500 * MS)).isTrue();
+
+        // A move after the flag fell does not earn the increment or pass the turn
+        assertThat(clock.punch(1_600 * MS)).isFalse();
+        assertThat(clock.remainingMs(Piece.WHITE)).isZero();
+        assertThat(clock.running()).isEqualTo(Piece.WHITE);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoveGeneratorTest {
+
+    // The standard perft positions, as in PerftBenchmark
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    private static final int[] PROMOTION_TYPES = {Piece.KNIGHT, Piece.BISHOP, Piece.ROOK, Piece.QUEEN};
+
+    @Test
+    void startPosition() {
+        assertPerft(Fen.START, 20, 400, 8_902, 197_281);
+    }
+
+    @Test
+    void kiwipete() {
+        // Castling through and out of check, pins, en passant, promotions
+        assertPerft(KIWIPETE, 48, 2_039, 97_862);
+    }
+
+    @Test
+    void position3() {
+        // Discovered checks and the en passant capture that exposes the king along the rank
+        assertPerft(POSITION_3, 14, 191, 2_812, 43_238);
+    }
+
+    @Test
+    void position4() {
+        assertPerft(POSITION_4, 6, 264, 9_467);
+    }
+
+    @Test
+    void position5() {
+        assertPerft(POSITION_5, 44, 1_486, 62_379);
+    }
+
+    @Test
+    void perftLeavesThePositionUnchanged() {
+        Position position = Fen.parse(KIWIPETE);
+        long key = position.key();
+
+        Perft.perft(position, 3);
+
+        assertThat(Fen.toFen(position)).isEqualTo(KIWIPETE);
+        assertThat(position.key()).isEqualTo(key);
+    }
+
+    @Test
+    void singleMoveChecksAgreeWithTheGenerator() {
+        for (String fen : new String[]{Fen.START, KIWIPETE, POSITION_3, POSITION_4, POSITION_5}) {
+            Position root = Fen.parse(fen);
+            assertAgreement(root);
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int count = MoveGenerator.generateLegal(root, moves);
+            for (int i = 0; i < count; i++) {
+                long undo = root.makeMove(moves[i]);
+                assertAgreement(root);
+                root.unmakeMove(moves[i], undo);
+            }
+        }
+    }
+
+    @Test
+    void checkmateAndStalemateHaveNoLegalMoves() {
+        Position mate = Fen.parse("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3");
+        assertThat(MoveGenerator.inCheck(mate)).isTrue();
+        assertThat(MoveGenerator.hasLegalMove(mate)).isFalse();
+
+        Position stalemate = Fen.parse("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        assertThat(MoveGenerator.inCheck(stalemate)).isFalse();
+        assertThat(MoveGenerator.countLegal(stalemate)).isZero();
+    }
+
+    private static void assertPerft(String fen, long... expected) {
+        Position position = Fen.parse(fen);
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertThat(Perft.perft(position, depth)).as("%s depth %d", fen, depth).isEqualTo(expected[depth - 1]);
+        }
+    }
+
+    // Every from/to/promotion that isLegal accepts is generated, and every generated move passes isLegal
+    private static void assertAgreement(Position position) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+        Set<Integer> generated = Arrays.stream(moves, 0, count).boxed().collect(Collectors.toSet());
+        String fen = Fen.toFen(position);
+
+        Set<Integer> found = new HashSet<>();
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                for (int promotionType : PROMOTION_TYPES) {
+                    int move = MoveGenerator.findLegalMove(position, from, to, promotionType);
+                    if (move != Move.NONE) {
+                        found.add(move);
+                    }
+                }
+            }
+        }
+
+        assertThat(found).as(fen).isEqualTo(generated);
+        assertThat(generated).as(fen).allSatisfy(move -> assertThat(MoveGenerator.isLegal(position, move)).isTrue());
+        assertThat(MoveGenerator.countLegal(position)).as(fen).isEqualTo(count);
+        assertThat(MoveGenerator.hasLegalMove(position)).as(fen).isEqualTo(count > 0);
+        assertThat(generated).as(fen).hasSize(count);
+    }
+}
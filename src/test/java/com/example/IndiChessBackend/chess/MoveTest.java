@@ -0,0 +1,50 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoveTest {
+
+    @Test
+    void packsFromToAndFlagIntoSixteenBits() {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                for (int flag = 0; flag < 16; flag++) {
+                    int move = Move.of(from, to, flag);
+                    assertThat(move).isBetween(0, 0xFFFF);
+                    assertThat(Move.from(move)).isEqualTo(from);
+                    assertThat(Move.to(move)).isEqualTo(to);
+                    assertThat(Move.flag(move)).isEqualTo(flag);
+                }
+            }
+        }
+    }
+
+    @Test
+    void flagsSayWhatKindOfMoveItIs() {
+        int capture = Move.of(Square.parse("e4"), Square.parse("d5"), Move.CAPTURE);
+        int enPassant = Move.of(Square.parse("e5"), Square.parse("d6"), Move.EP_CAPTURE);
+        int castle = Move.of(Square.parse("e1"), Square.parse("g1"), Move.KING_CASTLE);
+        int underPromotion = Move.of(Square.parse("a7"), Square.parse("a8"), Move.PROMOTION + 1);
+        int promoCapture = Move.of(Square.parse("a7"), Square.parse("b8"), Move.PROMO_CAPTURE + 3);
+
+        assertThat(Move.isCapture(capture)).isTrue();
+        assertThat(Move.isCapture(enPassant)).isTrue();
+        assertThat(Move.isCapture(castle)).isFalse();
+        assertThat(Move.isCastle(castle)).isTrue();
+        assertThat(Move.isPromotion(underPromotion)).isTrue();
+        assertThat(Move.isCapture(underPromotion)).isFalse();
+        assertThat(Move.promotionType(underPromotion)).isEqualTo(Piece.BISHOP);
+        assertThat(Move.isCapture(promoCapture)).isTrue();
+        assertThat(Move.promotionType(promoCapture)).isEqualTo(Piece.QUEEN);
+    }
+
+    @Test
+    void writesUci() {
+        assertThat(Move.toUci(Move.of(Square.parse("g1"), Square.parse("f3"), Move.QUIET))).isEqualTo("g1f3");
+        assertThat(Move.toUci(Move.of(Square.parse("h2"), Square.parse("h1"), Move.PROMOTION))).isEqualTo("h2h1n");
+        assertThat(Move.toUci(Move.of(Square.parse("a7"), Square.parse("b8"), Move.PROMO_CAPTURE + 3)))
+                .isEqualTo("a7b8q");
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PackedMovesTest {
+
+    private static final String[] GAME = {"e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "g8f6", "e1g1", "f8c5", "d2d4", "e5d4"};
+
+    @Test
+    void roundTripsMovesAndThinkingTimes() {
+        PackedMoves packed = pack(GAME, new int[]{0, 1, 127, 128, 16_383, 16_384, 2_000_000, 5, 0, 300_000});
+
+        byte[] bytes = packed.encode();
+
+        assertThat(PackedMoves.decode(bytes)).isEqualTo(packed);
+        // Version, count, 2 bytes per code and 1 to 3 per time for these
+        assertThat(bytes.length).isLessThan(2 + GAME.length * 5);
+    }
+
+    @Test
+    void replaysToAnyPosition() {
+        PackedMoves packed = PackedMoves.decode(pack(GAME, new int[GAME.length]).encode());
+
+        assertThat(Fen.toFen(packed.positionAt(0))).isEqualTo(Fen.START);
+        assertThat(Fen.toFen(packed.positionAt(8)))
+                .isEqualTo("r1bqk2r/pppp1ppp/2n2n2/2b1p3/2B1P3/5N2/PPPP1PPP/RNBQ1RK1 w kq - 6 5");
+        assertThat(packed.positionAt(GAME.length).pieceAt(Square.parse("d4"))).isEqualTo(Piece.of(Piece.BLACK, Piece.PAWN));
+    }
+
+    @Test
+    void rejectsDamagedBytes() {
+        byte[] bytes = pack(GAME, new int[GAME.length]).encode();
+
+        assertThatThrownBy(() -> PackedMoves.decode(Arrays.copyOf(bytes, bytes.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PackedMoves.decode(Arrays.copyOf(bytes, bytes.length + 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        bytes[0] = 9;
+        assertThatThrownBy(() -> PackedMoves.decode(bytes)).hasMessageContaining("version");
+    }
+
+    private static PackedMoves pack(String[] ucis, int[] moveTimesMs) {
+        Position position = Position.startPosition();
+        int[] moves = new int[ucis.length];
+        for (int i = 0; i < ucis.length; i++) {
+            moves[i] = MoveGenerator.parseUci(position, ucis[i]);
+            position.makeMove(moves[i]);
+        }
+        return new PackedMoves(moves, moveTimesMs);
+    }
+}
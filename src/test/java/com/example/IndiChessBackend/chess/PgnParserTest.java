@@ -0,0 +1,60 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PgnParserTest {
+
+    @Test
+    void readsTagsAndTheMainLine() {
+        PgnParser.Game game = new PgnParser().parse("""
+                [Event "Casual \\"blitz\\""]
+                [White "alice"]
+                [Result "1-0"]
+
+                1.e4 {best by test} e5 2. Bc4 (2. Nf3 Nc6 {(a comment)} (2... d6) 3. Bb5) 2... Nc6 $1
+                3. Qh5 Nf6?? ; hangs mate
+                4. Qxf7# 1-0
+                """);
+
+        assertThat(game.tags()).containsEntry("Event", "Casual \"blitz\"").containsEntry("White", "alice");
+        assertThat(Arrays.stream(game.moves()).mapToObj(Move::toUci))
+                .containsExactly("e2e4", "e7e5", "f1c4", "b8c6", "d1h5", "g8f6", "h5f7");
+        assertThat(game.result()).isEqualTo("1-0");
+        assertThat(MoveGenerator.hasLegalMove(game.position())).isFalse();
+    }
+
+    @Test
+    void readsBackWhatPgnWriterWrites() {
+        StringWriter out = new StringWriter();
+        PgnWriter writer = new PgnWriter(out);
+        String[] game = {"e2e4", "d7d5", "e4d5", "g8f6", "f1b5", "c8d7", "b5d7", "b8d7", "g1f3", "e7e6",
+                "e1g1", "f8c5", "d2d4", "e8g8", "d4c5", "d8e7", "d5e6", "f8d8", "e6d7", "e7e1"};
+        for (String uci : game) {
+            writer.move(uci);
+        }
+        writer.endGame("*");
+
+        PgnParser.Game parsed = new PgnParser().parse(out.toString());
+
+        assertThat(Arrays.stream(parsed.moves()).mapToObj(Move::toUci)).containsExactly(game);
+        assertThat(parsed.result()).isEqualTo("*");
+    }
+
+    @Test
+    void rejectsGamesThatCannotBeReplayed() {
+        PgnParser parser = new PgnParser();
+
+        assertThatThrownBy(() -> parser.parse("1. e4 e5 2. Ke3 *"))
+                .hasMessageContaining("Ke3 at ply 3");
+        assertThatThrownBy(() -> parser.parse("[FEN \"4k3/8/8/8/8/8/8/4K3 w - - 0 1\"]\n\n1. Kd2 *"))
+                .hasMessageContaining("set-up position");
+        // The parser is usable again after a rejected game
+        assertThat(parser.parse("1. d4 *").moves()).hasSize(1);
+    }
+}
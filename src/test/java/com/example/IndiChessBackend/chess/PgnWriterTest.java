@@ -0,0 +1,75 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PgnWriterTest {
+
+    @Test
+    void writesTagsAndSanMoveText() {
+        StringWriter out = new StringWriter();
+        PgnWriter pgn = new PgnWriter(out);
+
+        pgn.tag("White", "alice");
+        pgn.tag("Black", "bob \"the rook\"");
+        for (String uci : new String[]{"f2f3", "e7e5", "g2g4", "d8h4"}) {
+            assertThat(pgn.move(uci)).isTrue();
+        }
+        pgn.endGame("0-1");
+        pgn.tag("White", "bob");
+        pgn.endGame("*");
+
+        assertThat(out.toString()).isEqualTo("""
+                [White "alice"]
+                [Black "bob \\"the rook\\""]
+
+                1. f3 e5 2. g4 Qh4# 0-1
+
+                [White "bob"]
+
+                *
+
+                """);
+    }
+
+    @Test
+    void stopsAtAMoveThatDoesNotReplay() {
+        StringWriter out = new StringWriter();
+        PgnWriter pgn = new PgnWriter(out);
+
+        assertThat(pgn.move("e2e4")).isTrue();
+        assertThat(pgn.move("e2e4")).isFalse();
+        pgn.comment("cut short");
+        pgn.endGame("*");
+
+        assertThat(out.toString()).isEqualTo("\n1. e4 {cut short} *\n\n");
+        assertThatThrownBy(() -> {
+            pgn.move("d2d4");
+            pgn.tag("Result", "*");
+        }).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void wrapsLongMoveText() {
+        StringWriter out = new StringWriter();
+        PgnWriter pgn = new PgnWriter(out);
+
+        // Knights out and back: legal for as long as we like
+        String[] cycle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (int i = 0; i < 40; i++) {
+            pgn.move(cycle[i % 4]);
+        }
+        pgn.endGame("1/2-1/2");
+
+        String[] lines = out.toString().strip().split("\n");
+        assertThat(lines.length).isGreaterThan(2);
+        for (String line : lines) {
+            assertThat(line.length()).isLessThan(PgnWriter.MAX_LINE);
+        }
+        assertThat(out.toString()).contains("20. Ng1 Ng8 1/2-1/2");
+    }
+}
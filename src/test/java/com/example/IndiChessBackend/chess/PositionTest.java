@@ -0,0 +1,198 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PositionTest {
+
+    private static final String[][] START_BOARD = {
+            {"r", "n", "b", "q", "k", "b", "n", "r"},
+            {"p", "p", "p", "p", "p", "p", "p", "p"},
+            {"", "", "", "", "", "", "", ""},
+            {"", "", "", "", "", "", "", ""},
+            {"", "", "", "", "", "", "", ""},
+            {"", "", "", "", "", "", "", ""},
+            {"P", "P", "P", "P", "P", "P", "P", "P"},
+            {"R", "N", "B", "Q", "K", "B", "N", "R"}
+    };
+
+    @Test
+    void startPositionAsTheClientBoard() {
+        Position position = Position.startPosition();
+
+        assertThat(position.toBoard()).isDeepEqualTo(START_BOARD);
+        assertThat(position.isWhiteToMove()).isTrue();
+        assertThat(position.castlingRights()).isEqualTo(Position.ALL_CASTLING);
+        assertThat(position.epSquare()).isEqualTo(Square.NONE);
+        assertThat(position.occupancy(Piece.WHITE)).isEqualTo(0xFFFFL);
+        assertThat(position.occupied()).isEqualTo(0xFFFF00000000FFFFL);
+        assertThat(position.pieceAt(Square.parse("d8"))).isEqualTo(Piece.of(Piece.BLACK, Piece.QUEEN));
+    }
+
+    @Test
+    void boardFollowsTheMovesMadeFromClientCoordinates() {
+        Position position = Position.startPosition();
+        makeRowCol(position, 6, 4, 4, 4); // e2e4
+        makeRowCol(position, 1, 3, 3, 3); // d7d5
+        makeRowCol(position, 4, 4, 3, 3); // exd5
+
+        String[][] board = position.toBoard();
+        assertThat(board[6][4]).isEmpty();
+        assertThat(board[1][3]).isEmpty();
+        assertThat(board[3][3]).isEqualTo("P");
+        assertThat(position.isWhiteToMove()).isFalse();
+        assertThat(position.fullmoveNumber()).isEqualTo(2);
+        assertThat(position.halfmoveClock()).isZero();
+        assertThat(Long.bitCount(position.pieces(Piece.BLACK, Piece.PAWN))).isEqualTo(7);
+    }
+
+    @Test
+    void encodeMoveWorksOutTheFlagFromThePosition() {
+        Position start = Position.startPosition();
+        assertThat(Move.flag(encode(start, "e2e4"))).isEqualTo(Move.DOUBLE_PUSH);
+        assertThat(Move.flag(encode(start, "g1f3"))).isEqualTo(Move.QUIET);
+        assertThat(encode(start, "e7e5")).as("not the side to move").isEqualTo(Move.NONE);
+        assertThat(encode(start, "e4e5")).as("empty from square").isEqualTo(Move.NONE);
+
+        Position castling = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertThat(Move.flag(encode(castling, "e1g1"))).isEqualTo(Move.KING_CASTLE);
+        assertThat(Move.flag(encode(castling, "e1c1"))).isEqualTo(Move.QUEEN_CASTLE);
+        assertThat(Move.flag(encode(castling, "a1a8"))).isEqualTo(Move.CAPTURE);
+
+        Position enPassant = Fen.parse("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        assertThat(Move.flag(encode(enPassant, "e5d6"))).isEqualTo(Move.EP_CAPTURE);
+
+        Position promotion = Fen.parse("1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        int defaultPromotion = promotion.encodeMove(Square.parse("a7"), Square.parse("a8"), Piece.NONE);
+        assertThat(Move.isPromotion(defaultPromotion)).isTrue();
+        assertThat(Move.promotionType(defaultPromotion)).isEqualTo(Piece.QUEEN);
+        int knightCapture = promotion.encodeMove(Square.parse("a7"), Square.parse("b8"), Piece.KNIGHT);
+        assertThat(Move.flag(knightCapture)).isEqualTo(Move.PROMO_CAPTURE);
+    }
+
+    @Test
+    void copyIsIndependentOfTheOriginal() {
+        Position position = Position.startPosition();
+        Position copy = position.copy();
+
+        position.makeMove(encode(position, "e2e4"));
+
+        assertThat(copy.toBoard()).isDeepEqualTo(START_BOARD);
+        assertThat(copy.isWhiteToMove()).isTrue();
+        assertThat(copy.key()).isEqualTo(Position.startPosition().key());
+        assertThat(position.key()).isNotEqualTo(copy.key());
+    }
+
+    @Test
+    void incrementalKeyFollowsCastling() {
+        Position position = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+
+        assertKeyAfter(position, "e1g1");
+        assertKeyAfter(position, "e8c8");
+        assertThat(position.castlingRights()).isZero();
+    }
+
+    @Test
+    void incrementalKeyFollowsRookMovesAndCapturesThatDropCastlingRights() {
+        Position position = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1");
+
+        assertKeyAfter(position, "h8h1"); // takes a rook on its corner: both kingside rights go
+        assertThat(position.castlingRights()).isEqualTo(Position.WHITE_QUEENSIDE | Position.BLACK_QUEENSIDE);
+        assertKeyAfter(position, "e1d2");
+        assertThat(position.castlingRights()).isEqualTo(Position.BLACK_QUEENSIDE);
+    }
+
+    @Test
+    void incrementalKeyFollowsPromotions() {
+        Position position = Fen.parse("1r2k3/P7/8/8/8/8/7p/4K3 w - - 0 1");
+
+        assertKeyAfter(position, "a7b8n");
+        assertKeyAfter(position, "h2h1q");
+        assertThat(Fen.toFen(position)).startsWith("1N2k3/8/8/8/8/8/8/4K2q w");
+    }
+
+    @Test
+    void incrementalKeyFollowsEnPassant() {
+        Position position = Fen.parse("4k3/3p4/8/4P3/8/8/8/4K3 b - - 0 1");
+
+        assertKeyAfter(position, "d7d5");
+        assertThat(position.epSquare()).isEqualTo(Square.parse("d6"));
+        assertKeyAfter(position, "e5d6");
+        assertThat(position.pieceAt(Square.parse("d5"))).isEqualTo(Piece.NONE);
+    }
+
+    @Test
+    void incrementalKeyMatchesThroughoutTheMoveTree() {
+        // Kiwipete and position 4 between them castle, promote and capture en passant at every depth
+        for (String fen : new String[]{
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"}) {
+            assertKeysInTree(Fen.parse(fen), 3);
+        }
+    }
+
+    @Test
+    void theSamePositionHasTheSameKeyHoweverItWasReached() {
+        Position viaKnights = Position.startPosition();
+        for (String uci : new String[]{"g1f3", "g8f6", "b1c3", "b8c6"}) {
+            viaKnights.makeMove(MoveGenerator.parseUci(viaKnights, uci));
+        }
+        Position transposed = Position.startPosition();
+        for (String uci : new String[]{"b1c3", "b8c6", "g1f3", "g8f6"}) {
+            transposed.makeMove(MoveGenerator.parseUci(transposed, uci));
+        }
+
+        assertThat(viaKnights.key()).isEqualTo(transposed.key());
+        assertThat(Fen.parse(Fen.toFen(viaKnights)).key()).isEqualTo(viaKnights.key());
+    }
+
+    @Test
+    void unmakeRestoresThePosition() {
+        Position position = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        String fen = Fen.toFen(position);
+        long key = position.key();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+
+        for (int i = 0; i < count; i++) {
+            long undo = position.makeMove(moves[i]);
+            position.unmakeMove(moves[i], undo);
+            assertThat(Fen.toFen(position)).as(Move.toUci(moves[i])).isEqualTo(fen);
+            assertThat(position.key()).isEqualTo(key);
+        }
+    }
+
+    private static int encode(Position position, String uci) {
+        return position.encodeMove(Square.parse(uci.substring(0, 2)), Square.parse(uci.substring(2, 4)), Piece.NONE);
+    }
+
+    private static void makeRowCol(Position position, int fromRow, int fromCol, int toRow, int toCol) {
+        int move = position.encodeMove(Square.fromRowCol(fromRow, fromCol), Square.fromRowCol(toRow, toCol), Piece.NONE);
+        assertThat(move).isNotEqualTo(Move.NONE);
+        position.makeMove(move);
+    }
+
+    private static void assertKeyAfter(Position position, String uci) {
+        int move = MoveGenerator.parseUci(position, uci);
+        assertThat(move).as(uci).isNotEqualTo(Move.NONE);
+        position.makeMove(move);
+        assertThat(position.key()).as(uci).isEqualTo(position.computeKey());
+    }
+
+    private static void assertKeysInTree(Position position, int depth) {
+        assertThat(position.key()).as(Fen.toFen(position)).isEqualTo(position.computeKey());
+        if (depth == 0) {
+            return;
+        }
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+        for (int i = 0; i < count; i++) {
+            long undo = position.makeMove(moves[i]);
+            assertKeysInTree(position, depth - 1);
+            position.unmakeMove(moves[i], undo);
+        }
+        assertThat(position.key()).isEqualTo(position.computeKey());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SanTest {
+
+    @Test
+    void pawnAndPieceMoves() {
+        Position position = Position.startPosition();
+
+        assertThat(san(position, "e2", "e4", Piece.QUEEN)).isEqualTo("e4");
+        assertThat(san(position, "g1", "f3", Piece.QUEEN)).isEqualTo("Nf3");
+    }
+
+    @Test
+    void capturesChecksAndMate() {
+        Position position = Fen.parse("r1bqkbnr/pppp1ppp/2n5/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 2 3");
+
+        assertThat(san(position, "h5", "f7", Piece.QUEEN)).isEqualTo("Qxf7#");
+        assertThat(san(position, "c4", "f7", Piece.QUEEN)).isEqualTo("Bxf7+");
+        assertThat(san(position, "h5", "e5", Piece.QUEEN)).isEqualTo("Qxe5+");
+    }
+
+    @Test
+    void disambiguatesByFileThenRankThenSquare() {
+        // Knights on b1 and f1 both reach d2; rooks on a1 and a7 both reach a4
+        Position byFile = Fen.parse("4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1");
+        assertThat(san(byFile, "b1", "d2", Piece.QUEEN)).isEqualTo("Nbd2");
+
+        Position byRank = Fen.parse("4k3/R7/8/8/8/8/8/R3K3 w - - 0 1");
+        assertThat(san(byRank, "a1", "a4", Piece.QUEEN)).isEqualTo("R1a4");
+
+        Position bySquare = Fen.parse("4k3/8/8/8/8/8/Q1Q5/Q3K3 w - - 0 1");
+        assertThat(san(bySquare, "a2", "b1", Piece.QUEEN)).isEqualTo("Qa2b1");
+    }
+
+    @Test
+    void castlingPromotionAndEnPassant() {
+        Position castle = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertThat(san(castle, "e1", "g1", Piece.QUEEN)).isEqualTo("O-O");
+        assertThat(san(castle, "e1", "c1", Piece.QUEEN)).isEqualTo("O-O-O");
+
+        Position promotion = Fen.parse("1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        assertThat(san(promotion, "a7", "b8", Piece.KNIGHT)).isEqualTo("axb8=N");
+        assertThat(san(promotion, "a7", "a8", Piece.QUEEN)).isEqualTo("a8=Q");
+
+        Position enPassant = Fen.parse("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        assertThat(san(enPassant, "e5", "d6", Piece.QUEEN)).isEqualTo("exd6");
+    }
+
+    @Test
+    void leavesThePositionUnchanged() {
+        Position position = Fen.parse("r1bqkbnr/pppp1ppp/2n5/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 2 3");
+        String fen = Fen.toFen(position);
+        long key = position.key();
+
+        san(position, "h5", "f7", Piece.QUEEN);
+
+        assertThat(Fen.toFen(position)).isEqualTo(fen);
+        assertThat(position.key()).isEqualTo(key);
+    }
+
+    @Test
+    void parsesWhatToSanWritesAndLooserForms() {
+        Position byFile = Fen.parse("4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1");
+        assertThat(Move.toUci(San.parse(byFile, "Nbd2"))).isEqualTo("b1d2");
+        assertThat(San.parse(byFile, "Nd2")).isEqualTo(Move.NONE); // ambiguous
+
+        Position promotion = Fen.parse("1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        assertThat(Move.toUci(San.parse(promotion, "axb8=N"))).isEqualTo("a7b8n");
+        assertThat(Move.toUci(San.parse(promotion, "a8Q+!"))).isEqualTo("a7a8q");
+        assertThat(San.parse(promotion, "a8")).isEqualTo(Move.NONE);
+
+        Position castle = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertThat(Move.toUci(San.parse(castle, "0-0-0"))).isEqualTo("e1c1");
+        assertThat(San.parse(castle, "Kg1")).isEqualTo(Move.NONE);
+
+        Position enPassant = Fen.parse("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        assertThat(Move.toUci(San.parse(enPassant, "exd6"))).isEqualTo("e5d6");
+        assertThat(San.parse(enPassant, "Qd6")).isEqualTo(Move.NONE);
+    }
+
+    private static String san(Position position, String from, String to, int promotionType) {
+        int move = MoveGenerator.findLegalMove(position, Square.parse(from), Square.parse(to), promotionType);
+        assertThat(move).isNotEqualTo(Move.NONE);
+        return San.toSan(position, move);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.IndiChessBackend.chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SquareTest {
+
+    @Test
+    void numbersSquaresFromA1ToH8() {
+        assertThat(Square.parse("a1")).isZero();
+        assertThat(Square.parse("h1")).isEqualTo(7);
+        assertThat(Square.parse("a8")).isEqualTo(56);
+        assertThat(Square.parse("h8")).isEqualTo(63);
+        assertThat(Square.of(4, 3)).isEqualTo(Square.parse("e4"));
+    }
+
+    @Test
+    void clientRowsRunFromRankEightDown() {
+        assertThat(Square.fromRowCol(0, 0)).isEqualTo(Square.parse("a8"));
+        assertThat(Square.fromRowCol(7, 0)).isEqualTo(Square.parse("a1"));
+        assertThat(Square.fromRowCol(6, 4)).isEqualTo(Square.parse("e2"));
+        for (int square = 0; square < 64; square++) {
+            assertThat(Square.fromRowCol(Square.row(square), Square.file(square))).isEqualTo(square);
+        }
+    }
+
+    @Test
+    void namesAndParsesEverySquare() {
+        for (int square = 0; square < 64; square++) {
+            assertThat(Square.parse(Square.name(square))).isEqualTo(square);
+        }
+        assertThat(Square.parse("i1")).isEqualTo(Square.NONE);
+        assertThat(Square.parse("a9")).isEqualTo(Square.NONE);
+        assertThat(Square.parse("e")).isEqualTo(Square.NONE);
+        assertThat(Square.parse(null)).isEqualTo(Square.NONE);
+    }
+
+    @Test
+    void validatesClientCoordinates() {
+        assertThat(Square.isValidRowCol(0, 7)).isTrue();
+        assertThat(Square.isValidRowCol(-1, 0)).isFalse();
+        assertThat(Square.isValidRowCol(0, 8)).isFalse();
+    }
+}
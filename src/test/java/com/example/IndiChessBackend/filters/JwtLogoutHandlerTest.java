@@ -0,0 +1,83 @@
+package com.example.IndiChessBackend.filters;
+
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.model.UserPrincipal;
+import com.example.IndiChessBackend.service.JwtService;
+import com.example.IndiChessBackend.service.RevokedTokens;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtLogoutHandlerTest {
+
+    @TempDir
+    Path dir;
+
+    private final JwtService jwtService = new JwtService();
+    private RevokedTokens revokedTokens;
+    private JwtLogoutHandler logoutHandler;
+
+    @BeforeEach
+    void setUp() {
+        revokedTokens = new RevokedTokens(dir.resolve("revoked").toString(), 1000);
+        logoutHandler = new JwtLogoutHandler(jwtService, revokedTokens);
+    }
+
+    @AfterEach
+    void tearDown() {
+        revokedTokens.destroy();
+    }
+
+    @Test
+    void revokesTheCookieToken() {
+        String token = token();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/logout");
+        request.setCookies(new Cookie("JWT", token));
+
+        logoutHandler.logout(request, new MockHttpServletResponse(), null);
+
+        assertThat(isRevoked(token)).isTrue();
+    }
+
+    @Test
+    void revokesTheBearerToken() {
+        String token = token();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/logout");
+        request.addHeader("Authorization", "Bearer " + token);
+
+        logoutHandler.logout(request, new MockHttpServletResponse(), null);
+
+        assertThat(isRevoked(token)).isTrue();
+    }
+
+    @Test
+    void leavesOtherTokensAlone() {
+        String token = token();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/logout");
+        request.addHeader("Authorization", "Bearer not-a-token");
+
+        logoutHandler.logout(request, new MockHttpServletResponse(), null);
+
+        assertThat(isRevoked(token)).isFalse();
+    }
+
+    private String token() {
+        User user = new User();
+        user.setUserId(7L);
+        user.setUsername("alice");
+        user.setPassword("secret");
+        return jwtService.generateToken(new UserPrincipal(user));
+    }
+
+    private boolean isRevoked(String token) {
+        return revokedTokens.isRevoked(jwtService.verify(token).orElseThrow().tokenId());
+    }
+}
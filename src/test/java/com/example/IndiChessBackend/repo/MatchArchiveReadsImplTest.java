@@ -0,0 +1,100 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.chess.Fen;
+import com.example.IndiChessBackend.chess.MoveGenerator;
+import com.example.IndiChessBackend.chess.PackedMoves;
+import com.example.IndiChessBackend.chess.Position;
+import com.example.IndiChessBackend.model.ArchivedMatch;
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MatchArchiveReadsImplTest {
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final MatchArchiveReadsImpl reads = new MatchArchiveReadsImpl(entityManager);
+
+    @Test
+    void hotMatchIsReadWithoutTouchingTheArchive() {
+        Match hot = new Match();
+        hot.setId(5L);
+        when(entityManager.find(Match.class, 5L)).thenReturn(hot);
+
+        assertThat(reads.findById(5L)).containsSame(hot);
+        verify(entityManager, never()).find(ArchivedMatch.class, 5L);
+    }
+
+    @Test
+    void archivedMatchIsRebuiltWithItsFinalPosition() {
+        User alice = new User();
+        alice.setUserId(1L);
+        User bob = new User();
+        bob.setUserId(2L);
+        Position position = Position.startPosition();
+        int[] moves = new int[4];
+        String[] ucis = {"f2f3", "e7e5", "g2g4", "d8h4"};
+        for (int i = 0; i < ucis.length; i++) {
+            moves[i] = MoveGenerator.parseUci(position, ucis[i]);
+            position.makeMove(moves[i]);
+        }
+        ArchivedMatch archived = new ArchivedMatch();
+        archived.setId(9L);
+        archived.setPlayer1Id(1L);
+        archived.setPlayer2Id(2L);
+        archived.setStatus(MatchStatus.PLAYER2_WON);
+        archived.setGameType(GameType.BLITZ);
+        archived.setCurrentPly(4);
+        archived.setPackedMoves(new PackedMoves(moves, new int[4]).encode());
+        archived.setFinishedAt(LocalDateTime.of(2025, 1, 2, 3, 4));
+        when(entityManager.find(ArchivedMatch.class, 9L)).thenReturn(archived);
+        when(entityManager.find(User.class, 1L)).thenReturn(alice);
+        when(entityManager.find(User.class, 2L)).thenReturn(bob);
+
+        Match match = reads.findById(9L).orElseThrow();
+
+        assertThat(match.getId()).isEqualTo(9L);
+        assertThat(match.getPlayer1()).isSameAs(alice);
+        assertThat(match.getPlayer2()).isSameAs(bob);
+        assertThat(match.getStatus()).isEqualTo(MatchStatus.PLAYER2_WON);
+        assertThat(match.getFenCurrent()).isEqualTo(Fen.toFen(position));
+        assertThat(match.getLastMoveUci()).isEqualTo("d8h4");
+        assertThat(match.getFinishedAt()).isEqualTo(archived.getFinishedAt());
+        assertThat(match.isArchived()).isTrue();
+        assertThat(reads.findById(10L)).isEmpty();
+    }
+
+    @Test
+    void archivedMatchCannotBeSavedBackIntoTheHotTable() {
+        ArchivedMatch archived = new ArchivedMatch();
+        archived.setId(9L);
+        archived.setPlayer1Id(1L);
+        archived.setPlayer2Id(2L);
+        archived.setStatus(MatchStatus.DRAW);
+        archived.setCurrentPly(0);
+        archived.setPackedMoves(new PackedMoves(new int[0], new int[0]).encode());
+        when(entityManager.find(ArchivedMatch.class, 9L)).thenReturn(archived);
+        Match match = reads.findById(9L).orElseThrow();
+        match.setStatus(MatchStatus.PLAYER1_WON);
+
+        assertThatThrownBy(() -> reads.save(match)).isInstanceOf(IllegalStateException.class);
+        verify(entityManager, never()).merge(any());
+
+        Match hot = new Match();
+        hot.setId(5L);
+        when(entityManager.merge(hot)).thenReturn(hot);
+        assertThat(reads.save(hot)).isSameAs(hot);
+    }
+}
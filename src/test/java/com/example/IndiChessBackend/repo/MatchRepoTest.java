@@ -0,0 +1,190 @@
+package com.example.IndiChessBackend.repo;
+
+import com.example.IndiChessBackend.chess.PackedMoves;
+import com.example.IndiChessBackend.model.ArchivedMatch;
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Runs the queries on an embedded H2 in MySQL mode; the native UNION ALL is plain enough SQL for both.
+// H2 rejects match_archive's KEY_BLOCK_SIZE, so that one table comes from a script run after Hibernate's DDL.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:matchrepo;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.defer-datasource-initialization=true",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:match-archive-h2.sql"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class MatchRepoTest {
+
+    // finishedAt may not lie in the past (@FutureOrPresent), so the games "finish" from tomorrow on
+    private static final LocalDateTime T = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MatchRepo matchRepo;
+
+    private User alice;
+    private User bob;
+    private User carol;
+
+    @BeforeEach
+    void setUp() {
+        alice = user("alice");
+        bob = user("bobby");
+        carol = user("carol");
+    }
+
+    @Test
+    void finishedGamesOfAPlayerAsEitherColourNewestFirst() {
+        Match first = finished(alice, bob, T.plusMinutes(1), MatchStatus.PLAYER1_WON);
+        Match asBlack = finished(bob, alice, T.plusMinutes(2), MatchStatus.PLAYER2_WON);
+        long archived = archived(carol, alice, T.plusMinutes(3));
+        Match latest = finished(alice, carol, T.plusMinutes(4), MatchStatus.DRAW);
+        finished(bob, carol, T.plusMinutes(5), MatchStatus.DRAW); // not alice's
+        entityManager.persist(new Match(alice, bob, MatchStatus.IN_PROGRESS, 3)); // not finished
+        entityManager.flush();
+
+        List<MatchRepo.MatchSummary> games = matchRepo.findFinishedByPlayer(alice.getUserId(), END_OF_TIME, Long.MAX_VALUE, 10);
+
+        assertThat(games).extracting(MatchRepo.MatchSummary::getId)
+                .containsExactly(latest.getId(), archived, asBlack.getId(), first.getId());
+        assertThat(games.get(2)).extracting(MatchRepo.MatchSummary::getPlayer1Name, MatchRepo.MatchSummary::getPlayer2Name,
+                MatchRepo.MatchSummary::getStatus).containsExactly("bobby", "alice", MatchStatus.PLAYER2_WON);
+        assertThat(games.get(1)).extracting(MatchRepo.MatchSummary::getPlayer1Id, MatchRepo.MatchSummary::getPlayer2Name)
+                .containsExactly(carol.getUserId(), "alice");
+    }
+
+    @Test
+    void pagesThroughFinishedGamesWithTheCursor() {
+        // Four games finish at the same instant, so the id breaks the tie at the page boundary
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            expected.addFirst(finished(i % 2 == 0 ? alice : bob, i % 2 == 0 ? bob : alice, T, MatchStatus.DRAW).getId());
+        }
+        expected.addFirst(finished(alice, carol, T.plusMinutes(1), MatchStatus.DRAW).getId());
+        expected.add(finished(carol, alice, T.minusMinutes(1), MatchStatus.DRAW).getId());
+        entityManager.flush();
+
+        List<Long> paged = new ArrayList<>();
+        LocalDateTime beforeFinishedAt = END_OF_TIME;
+        long beforeId = Long.MAX_VALUE;
+        List<MatchRepo.MatchSummary> page;
+        do {
+            page = matchRepo.findFinishedByPlayer(alice.getUserId(), beforeFinishedAt, beforeId, 2);
+            assertThat(page).hasSizeLessThanOrEqualTo(2);
+            page.forEach(game -> paged.add(game.getId()));
+            if (!page.isEmpty()) {
+                beforeFinishedAt = page.getLast().getFinishedAt();
+                beforeId = page.getLast().getId();
+            }
+        } while (!page.isEmpty());
+
+        assertThat(paged).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void aGameAgainstYourselfIsListedOnce() {
+        Match self = finished(alice, alice, T, MatchStatus.DRAW);
+        entityManager.flush();
+
+        assertThat(matchRepo.findFinishedByPlayer(alice.getUserId(), END_OF_TIME, Long.MAX_VALUE, 10))
+                .extracting(MatchRepo.MatchSummary::getId).containsExactly(self.getId(), self.getId());
+    }
+
+    @Test
+    void matchesByStatusAreKeysetPagedByIdDescending() {
+        Match blitz = inProgress(alice, bob, GameType.BLITZ);
+        Match standard = inProgress(bob, carol, GameType.STANDARD);
+        Match blitz2 = inProgress(carol, alice, GameType.BLITZ);
+        finished(alice, bob, T, MatchStatus.DRAW);
+        entityManager.flush();
+
+        assertThat(matchRepo.findByStatus(MatchStatus.IN_PROGRESS, Long.MAX_VALUE, Limit.of(2)))
+                .extracting(MatchRepo.MatchSummary::getId).containsExactly(blitz2.getId(), standard.getId());
+        assertThat(matchRepo.findByStatus(MatchStatus.IN_PROGRESS, standard.getId(), Limit.of(2)))
+                .extracting(MatchRepo.MatchSummary::getId).containsExactly(blitz.getId());
+
+        assertThat(matchRepo.findByStatusAndGameType(MatchStatus.IN_PROGRESS, GameType.BLITZ, Long.MAX_VALUE, Limit.of(10)))
+                .extracting(MatchRepo.MatchSummary::getId, MatchRepo.MatchSummary::getPlayer1Name,
+                        MatchRepo.MatchSummary::getPlayer2Name, MatchRepo.MatchSummary::getGameType)
+                .containsExactly(tuple(blitz2.getId(), "carol", "alice", GameType.BLITZ),
+                        tuple(blitz.getId(), "alice", "bobby", GameType.BLITZ));
+        assertThat(matchRepo.findByStatusAndGameType(MatchStatus.IN_PROGRESS, GameType.BLITZ, blitz.getId(), Limit.of(10)))
+                .isEmpty();
+    }
+
+    @Test
+    void anArchivedMatchIsFoundByIdButNotSavedBack() {
+        long id = archived(alice, bob, T);
+        entityManager.flush();
+
+        Match match = matchRepo.findById(id).orElseThrow();
+        assertThat(match.isArchived()).isTrue();
+        assertThatThrownBy(() -> matchRepo.save(match)).hasMessageContaining("archived and read-only");
+        assertThat(matchRepo.existsById(id)).as("the hot table only").isFalse();
+
+        Match hot = matchRepo.save(new Match(alice, bob, MatchStatus.IN_PROGRESS, 0));
+        assertThat(matchRepo.findById(hot.getId())).isPresent();
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("password");
+        return entityManager.persist(user);
+    }
+
+    private Match inProgress(User white, User black, GameType gameType) {
+        Match match = new Match(white, black, MatchStatus.IN_PROGRESS, 0);
+        match.setGameType(gameType);
+        return entityManager.persist(match);
+    }
+
+    private Match finished(User white, User black, LocalDateTime finishedAt, MatchStatus status) {
+        Match match = new Match(white, black, status, 10);
+        match.setGameType(GameType.STANDARD);
+        match.setFinishedAt(finishedAt);
+        return entityManager.persist(match);
+    }
+
+    private long archived(User white, User black, LocalDateTime finishedAt) {
+        ArchivedMatch archived = new ArchivedMatch();
+        archived.setId(1_000_000L);
+        archived.setPlayer1Id(white.getUserId());
+        archived.setPlayer2Id(black.getUserId());
+        archived.setStatus(MatchStatus.PLAYER1_WON);
+        archived.setGameType(GameType.BLITZ);
+        archived.setCurrentPly(0);
+        archived.setPackedMoves(new PackedMoves(new int[0], new int[0]).encode());
+        archived.setStartedAt(finishedAt.minusMinutes(10));
+        archived.setFinishedAt(finishedAt);
+        archived.setCreatedAt(finishedAt.minusMinutes(10));
+        archived.setArchivedAt(finishedAt);
+        entityManager.persist(archived);
+        return archived.getId();
+    }
+}
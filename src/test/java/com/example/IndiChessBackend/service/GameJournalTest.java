@@ -0,0 +1,133 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.chess.Fen;
+import com.example.IndiChessBackend.chess.GameClock;
+import com.example.IndiChessBackend.chess.Move;
+import com.example.IndiChessBackend.chess.MoveLog;
+import com.example.IndiChessBackend.chess.Position;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysRecordsWrittenBeforeTheRestart() {
+        GameJournal journal = new GameJournal(dir, 1 << 16);
+        journal.gameStarted(1, "alice", "bob", new GameClock(180_000, 180_000, 2_000, 0, 0));
+        journal.gameStarted(2, "carol", "dave", null);
+        journal.moveApplied(1, 1, Move.of(12, 28, Move.DOUBLE_PUSH), new GameClock(179_000, 180_000, 2_000, 0, 0));
+        journal.moveApplied(2, 1, Move.of(6, 21, Move.QUIET), null);
+        journal.gameEnded(2);
+        Position resumed = Fen.parse("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3");
+        journal.gameResumed(new GameSnapshot.Game(3, "erin", "frank", 4, Move.of(57, 42, Move.QUIET), resumed,
+                new long[]{resumed.key()}, 60_000, 55_000, 0, 0, new MoveLog(resumed, 4)));
+        journal.destroy();
+
+        List<String> events = replay(new GameJournal(dir, 1 << 16));
+
+        assertThat(events).containsExactly(
+                "start 1 alice bob 180000 180000 2000 0",
+                "start 2 carol dave -1 -1 -1 -1",
+                "move 1 1 e2e4 179000 180000",
+                "move 2 1 g1f3 -1 -1",
+                "end 2",
+                "resume 3 erin frank 4 b8c6 r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3 60000 55000");
+    }
+
+    @Test
+    void rollsSegmentsAndDeletesThoseWithOnlyEndedGames() {
+        GameJournal journal = new GameJournal(dir, 1024);
+        journal.gameStarted(1, "alice", "bob", null);
+        for (long id = 2; id < 200; id++) {
+            journal.gameStarted(id, "white", "black", null);
+            journal.moveApplied(id, 1, Move.of(12, 28, Move.DOUBLE_PUSH), null);
+            journal.gameEnded(id);
+        }
+        // Game 1 is still live, so the segment holding its start is kept
+        assertThat(journal.segmentCount()).isGreaterThan(10);
+
+        journal.gameEnded(1);
+        for (long id = 200; id < 260; id++) {
+            journal.gameStarted(id, "white", "black", null);
+            journal.gameEnded(id);
+        }
+        assertThat(journal.segmentCount()).isLessThanOrEqualTo(2);
+        journal.destroy();
+
+        assertThat(replay(new GameJournal(dir, 1024))).last().isEqualTo("end 259");
+    }
+
+    @Test
+    void stopsAtATornRecord() throws IOException {
+        GameJournal journal = new GameJournal(dir, 1 << 16);
+        journal.gameStarted(1, "alice", "bob", null);
+        journal.moveApplied(1, 1, Move.of(12, 28, Move.DOUBLE_PUSH), null);
+        journal.moveApplied(1, 2, Move.of(52, 36, Move.DOUBLE_PUSH), null);
+        journal.destroy();
+
+        // Corrupt one byte of the last record's body, as a write cut short by a crash would
+        Path segment;
+        try (var files = Files.list(dir)) {
+            segment = files.sorted().findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int pos = 0;
+            int last = 0;
+            while (buffer.getInt(pos) != 0) {
+                last = pos;
+                pos += 8 + buffer.getInt(pos);
+            }
+            buffer.put(last + 12, (byte) (buffer.get(last + 12) ^ 1));
+            buffer.force();
+        }
+
+        assertThat(replay(new GameJournal(dir, 1 << 16)))
+                .containsExactly("start 1 alice bob -1 -1 -1 -1", "move 1 1 e2e4 -1 -1");
+    }
+
+    private static List<String> replay(GameJournal journal) {
+        List<String> events = new ArrayList<>();
+        journal.replay(new GameJournal.Listener() {
+            @Override
+            public void started(long matchId, String player1, String player2,
+                                long whiteMs, long blackMs, long incrementMs, long delayMs) {
+                events.add("start " + matchId + " " + player1 + " " + player2 + " "
+                        + whiteMs + " " + blackMs + " " + incrementMs + " " + delayMs);
+            }
+
+            @Override
+            public void moved(long matchId, int ply, int move, long whiteMs, long blackMs) {
+                events.add("move " + matchId + " " + ply + " " + Move.toUci(move) + " " + whiteMs + " " + blackMs);
+            }
+
+            @Override
+            public void resumed(GameSnapshot.Game game) {
+                events.add("resume " + game.matchId() + " " + game.player1() + " " + game.player2() + " "
+                        + game.ply() + " " + Move.toUci(game.lastMove()) + " " + Fen.toFen(game.position()) + " "
+                        + game.whiteMs() + " " + game.blackMs());
+            }
+
+            @Override
+            public void ended(long matchId) {
+                events.add("end " + matchId);
+            }
+        });
+        journal.destroy();
+        return events;
+    }
+}
@@ -0,0 +1,730 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.chess.Fen;
+import com.example.IndiChessBackend.chess.Move;
+import com.example.IndiChessBackend.chess.MoveGenerator;
+import com.example.IndiChessBackend.chess.PackedMoves;
+import com.example.IndiChessBackend.chess.Position;
+import com.example.IndiChessBackend.chess.San;
+import com.example.IndiChessBackend.chess.Square;
+import com.example.IndiChessBackend.model.DTO.GameStatusDTO;
+import com.example.IndiChessBackend.model.DTO.JoinRequest;
+import com.example.IndiChessBackend.model.DTO.MoveDeltaDTO;
+import com.example.IndiChessBackend.model.DTO.MoveHistoryDTO;
+import com.example.IndiChessBackend.model.DTO.MoveRequest;
+import com.example.IndiChessBackend.model.DTO.PlayedMoveDTO;
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.MoveRepo;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Limit;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.nio.file.Path;
+import java.security.Principal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hammers many matches at once: both players of every match poll, race
+ * duplicate copies of each move, and some matches get a resignation racing
+ * the moves. Whatever interleaving happens, each match's accepted moves must
+ * form one legal game with strictly alternating turns and sane clocks, and
+ * every match must end exactly once.
+ */
+class GameServiceConcurrencyTest {
+
+    private static final int MATCHES = 48;
+    private static final int MAX_PLIES = 80;
+    private static final int DUPLICATES = 3;
+
+    private final Map<Long, Match> matches = new ConcurrentHashMap<>();
+    private final Map<Long, Queue<Accepted>> accepted = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> gameEnds = new ConcurrentHashMap<>();
+    private final AtomicBoolean databaseDown = new AtomicBoolean();
+    private final Map<Long, List<com.example.IndiChessBackend.model.Move>> storedMoves = new ConcurrentHashMap<>();
+
+    @TempDir
+    Path journalDir;
+    @TempDir
+    Path snapshotDir;
+
+    private MatchRepo matchRepo;
+    private MoveRepo moveRepo;
+    private UserRepo userRepo;
+    private SimpMessagingTemplate messagingTemplate;
+    private MatchExecutor matchExecutor;
+    private TimingWheel timingWheel;
+    private MatchWriteBehind matchWriteBehind;
+    private GameJournal gameJournal;
+    private GameSnapshotter gameSnapshotter;
+    private GameService gameService;
+
+    private record Accepted(String username, MoveDeltaDTO delta) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        matchRepo = mock(MatchRepo.class);
+        when(matchRepo.findById(any())).thenAnswer(invocation -> {
+            if (databaseDown.get()) {
+                throw new IllegalStateException("database down");
+            }
+            return Optional.ofNullable(matches.get(invocation.<Long>getArgument(0)));
+        });
+        when(matchRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(matchRepo.findAllById(any())).thenAnswer(invocation -> {
+            List<Match> found = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> found.add(matches.get(id)));
+            return found;
+        });
+        when(matchRepo.findInProgressIds(any())).thenAnswer(invocation -> invocation.<java.util.Collection<Long>>getArgument(0)
+                .stream().filter(id -> matches.containsKey(id) && matches.get(id).getStatus() == MatchStatus.IN_PROGRESS)
+                .toList());
+        when(matchRepo.getReferenceById(any())).thenAnswer(invocation -> matches.get(invocation.<Long>getArgument(0)));
+        moveRepo = mock(MoveRepo.class);
+        when(moveRepo.saveAll(any())).thenAnswer(invocation -> {
+            invocation.<Iterable<com.example.IndiChessBackend.model.Move>>getArgument(0).forEach(move -> storedMoves
+                    .computeIfAbsent(move.getMatch().getId(), id -> new CopyOnWriteArrayList<>()).add(move));
+            return invocation.getArgument(0);
+        });
+        when(moveRepo.findByMatchIdOrderByPly(any())).thenAnswer(invocation -> storedMoves
+                .getOrDefault(invocation.<Long>getArgument(0), List.of()).stream()
+                .sorted(Comparator.comparingInt(com.example.IndiChessBackend.model.Move::getPly))
+                .map(GameServiceConcurrencyTest::played)
+                .toList());
+        when(moveRepo.findByMatchIdAndPlyGreaterThanOrderByPly(any(), anyInt(), any())).thenAnswer(invocation -> storedMoves
+                .getOrDefault(invocation.<Long>getArgument(0), List.of()).stream()
+                .filter(move -> move.getPly() > invocation.<Integer>getArgument(1))
+                .sorted(Comparator.comparingInt(com.example.IndiChessBackend.model.Move::getPly))
+                .limit(invocation.<Limit>getArgument(2).max())
+                .map(GameServiceConcurrencyTest::historyMove)
+                .toList());
+        userRepo = mock(UserRepo.class);
+
+        messagingTemplate = new SimpMessagingTemplate((message, timeout) -> {
+            if (message.getPayload() instanceof Optional<?> payload
+                    && payload.orElse(null) instanceof Map<?, ?> event
+                    && "GAME_END".equals(event.get("type"))) {
+                gameEnds.get((Long) event.get("matchId")).incrementAndGet();
+            }
+            return true;
+        });
+
+        matchExecutor = new MatchExecutor();
+        timingWheel = new TimingWheel();
+        matchWriteBehind = new MatchWriteBehind(matchRepo, moveRepo, TransactionOperations.withoutTransaction());
+        startGameService();
+    }
+
+    // A fresh GameService on the same journal directory, as after a restart
+    private void startGameService() {
+        gameJournal = new GameJournal(journalDir, 1 << 20);
+        gameSnapshotter = new GameSnapshotter(snapshotDir, gameJournal);
+        JwtService jwtService = new JwtService();
+        gameService = new GameService(matchRepo, moveRepo, userRepo, jwtService, messagingTemplate,
+                new MyUserDetailsService(userRepo, jwtService, new TokenVersions(userRepo, 60),
+                        new RevokedTokens(journalDir.resolve("revoked-tokens"), 1000, Clock.systemUTC())),
+                matchExecutor, timingWheel, matchWriteBehind, gameJournal, gameSnapshotter);
+        gameService.recoverActiveGames();
+    }
+
+    @AfterEach
+    void tearDown() {
+        timingWheel.destroy();
+        matchExecutor.destroy();
+        matchWriteBehind.destroy();
+        gameJournal.destroy();
+        gameSnapshotter.destroy();
+    }
+
+    @Test
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void concurrentMovesKeepEveryMatchConsistent() throws Exception {
+        for (long id = 1; id <= MATCHES; id++) {
+            Match match = new Match(user("white" + id), user("black" + id), MatchStatus.IN_PROGRESS, 0);
+            match.setId(id);
+            if (id % 2 == 0) {
+                match.setGameType(GameType.BLITZ);
+                match.setPlayer1TimeRemaining(180);
+                match.setPlayer2TimeRemaining(180);
+            } else {
+                match.setGameType(GameType.STANDARD);
+            }
+            matches.put(id, match);
+            accepted.put(id, new ConcurrentLinkedQueue<>());
+            gameEnds.put(id, new AtomicInteger());
+            gameService.handlePlayerJoin(id, new JoinRequest("JOIN", "white", null), () -> match.getPlayer1().getUsername());
+        }
+
+        try (ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Match match : matches.values()) {
+                futures.add(players.submit(() -> play(match, match.getPlayer1().getUsername(), players)));
+                futures.add(players.submit(() -> play(match, match.getPlayer2().getUsername(), players)));
+                if (match.getId() % 4 == 1) {
+                    // A resignation that lands somewhere in the middle of the move stream
+                    futures.add(players.submit(() -> {
+                        Thread.sleep(ThreadLocalRandom.current().nextInt(1, 50));
+                        gameService.handleResignation(match.getId(), match.getPlayer2().getUsername());
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        for (Match match : matches.values()) {
+            verifyMatch(match);
+        }
+        assertThat(matchExecutor.activeMailboxes()).isZero();
+        // Every game ended, so finish() has already written each final state
+        assertThat(matchWriteBehind.pendingCount()).isZero();
+        assertThat(matchWriteBehind.pendingMoveCount()).isZero();
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void idlePlayerLosesOnTime() throws Exception {
+        Match match = new Match(user("white"), user("black"), MatchStatus.IN_PROGRESS, 0);
+        match.setId(1L);
+        match.setGameType(GameType.BLITZ);
+        match.setPlayer1TimeRemaining(1);
+        match.setPlayer2TimeRemaining(180);
+        matches.put(1L, match);
+        gameEnds.put(1L, new AtomicInteger());
+
+        // White joins and never moves: no request arrives, the flag must still fall
+        gameService.handlePlayerJoin(1L, new JoinRequest("JOIN", "white", null), () -> "white");
+        while (gameEnds.get(1L).get() == 0) {
+            Thread.sleep(20);
+        }
+
+        assertThat(match.getStatus()).isEqualTo(MatchStatus.PLAYER2_WON);
+        assertThat(match.getPlayer1TimeRemaining()).isZero();
+        assertThat(gameEnds.get(1L)).hasValue(1);
+        assertThat(timingWheel.size()).isZero();
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void moveArrivingAfterTheFlagFellIsNotPlayed() throws Exception {
+        Match match = new Match(user("white"), user("black"), MatchStatus.IN_PROGRESS, 0);
+        match.setId(1L);
+        match.setGameType(GameType.BLITZ);
+        match.setPlayer1TimeRemaining(1);
+        match.setPlayer2TimeRemaining(180);
+        matches.put(1L, match);
+        gameEnds.put(1L, new AtomicInteger());
+        gameService.handlePlayerJoin(1L, new JoinRequest("JOIN", "white", null), () -> "white");
+        int e4 = MoveGenerator.parseUci(Position.startPosition(), "e2e4");
+
+        // Hold the match's mailbox past White's second so the move is handled before the flag-fall check
+        matchExecutor.execute(1L, () -> sleep(1_200));
+        Future<MoveDeltaDTO> late;
+        try (ExecutorService client = Executors.newVirtualThreadPerTaskExecutor()) {
+            late = client.submit(() -> gameService.processMove(1L, moveRequest(e4, true, 0), () -> "white"));
+        }
+
+        assertThat(late).failsWithin(Duration.ofSeconds(5)).withThrowableThat().withMessageContaining("Game is over");
+        matchWriteBehind.flush();
+        assertThat(match.getStatus()).isEqualTo(MatchStatus.PLAYER2_WON);
+        assertThat(match.getCurrentPly()).isZero();
+        assertThat(match.getPlayer1TimeRemaining()).isZero();
+        assertThat(stored(match)).isEmpty();
+        assertThat(gameEnds.get(1L)).hasValue(1);
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @ParameterizedTest(name = "snapshot midway: {0}")
+    @ValueSource(booleans = {false, true})
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void restartRecoversGamesInProgress(boolean snapshotMidway) throws Exception {
+        Map<Long, MoveDeltaDTO> lastMoves = new HashMap<>();
+        for (long id = 1; id <= 3; id++) {
+            Match match = new Match(user("white" + id), user("black" + id), MatchStatus.IN_PROGRESS, 0);
+            match.setId(id);
+            match.setGameType(id == 1 ? GameType.STANDARD : GameType.BLITZ);
+            if (id != 1) {
+                match.setPlayer1TimeRemaining(180);
+                match.setPlayer2TimeRemaining(180);
+            }
+            matches.put(id, match);
+            gameEnds.put(id, new AtomicInteger());
+            gameService.handlePlayerJoin(id, new JoinRequest("JOIN", "white", null), () -> match.getPlayer1().getUsername());
+        }
+        for (int ply = 0; ply < 12; ply++) {
+            if (snapshotMidway && ply == 8) {
+                // Recovery then loads this image and replays only the last four plies from the journal
+                gameSnapshotter.snapshot(gameService::captureGames);
+            }
+            for (long id = 1; id <= 3; id++) {
+                lastMoves.put(id, playSomeMove(matches.get(id)));
+            }
+        }
+        gameService.handleResignation(3L, "black3");
+        Map<Long, GameStatusDTO> before = new HashMap<>();
+        for (long id = 1; id <= 2; id++) {
+            Match match = matches.get(id);
+            before.put(id, gameService.resync(id, () -> match.getPlayer1().getUsername()));
+        }
+
+        // Drop the in-memory games as a crash would and start over on the same files
+        gameJournal.destroy();
+        gameSnapshotter.destroy();
+        startGameService();
+
+        for (long id = 1; id <= 2; id++) {
+            Match match = matches.get(id);
+            GameStatusDTO after = gameService.resync(id, () -> match.getPlayer1().getUsername());
+            assertThat(after.getStatus()).isEqualTo("IN_PROGRESS");
+            assertThat(after.getFen()).isEqualTo(before.get(id).getFen());
+            assertThat(after.getPly()).isEqualTo(12);
+            if (id == 2) {
+                // Both clocks resume from the last move; the downtime is not charged
+                MoveDeltaDTO last = lastMoves.get(id);
+                assertThat(after.getPlayer1TimeRemainingMs()).isBetween(last.getPlayer1TimeRemainingMs() - 1_000, last.getPlayer1TimeRemainingMs());
+                assertThat(after.getPlayer2TimeRemainingMs()).isEqualTo(last.getPlayer2TimeRemainingMs());
+            }
+            // The move history survives too, from the snapshot's move log and the journal
+            assertThat(gameService.getMoveHistory(id, 0, 100).getMoves()).extracting(PlayedMoveDTO::getPly)
+                    .containsExactlyElementsOf(IntStream.rangeClosed(1, 12).boxed().toList());
+            // And play simply carries on
+            assertThat(playSomeMove(match).getPly()).isEqualTo(13);
+        }
+        assertThat(gameService.resync(3L, () -> "white3").getStatus()).isEqualTo("PLAYER1_WON");
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void droppedGameIsReloadedOnceFromItsMoves() throws Exception {
+        Match match = new Match(user("white"), user("black"), MatchStatus.IN_PROGRESS, 0);
+        match.setId(1L);
+        match.setGameType(GameType.BLITZ);
+        match.setPlayer1TimeRemaining(180);
+        match.setPlayer2TimeRemaining(180);
+        matches.put(1L, match);
+        gameEnds.put(1L, new AtomicInteger());
+        gameService.handlePlayerJoin(1L, new JoinRequest("JOIN", "white", null), () -> "white");
+        for (int ply = 0; ply < 9; ply++) {
+            playSomeMove(match);
+        }
+        GameStatusDTO before = gameService.resync(1L, () -> "white");
+
+        // Dropped from memory as an idle game would be; its last state may still be queued
+        gameService.evictGame(1L);
+        clearInvocations(moveRepo);
+
+        List<Future<GameStatusDTO>> loads = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                loads.add(clients.submit(() -> gameService.resync(1L, () -> "black")));
+            }
+        }
+        for (Future<GameStatusDTO> load : loads) {
+            GameStatusDTO after = load.get();
+            assertThat(after.getStatus()).isEqualTo("IN_PROGRESS");
+            assertThat(after.getFen()).isEqualTo(before.getFen());
+            assertThat(after.getPly()).isEqualTo(9);
+            assertThat(after.isMyTurn()).isTrue();
+        }
+        verify(moveRepo, times(1)).findByMatchIdOrderByPly(1L);
+        assertThat(playSomeMove(match).getPly()).isEqualTo(10);
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void gameIsJournaledAsEndedOnlyOnceItsResultIsWritten() {
+        for (long id = 1; id <= 2; id++) {
+            Match match = new Match(user("white" + id), user("black" + id), MatchStatus.IN_PROGRESS, 0);
+            match.setId(id);
+            match.setGameType(GameType.STANDARD);
+            matches.put(id, match);
+            gameEnds.put(id, new AtomicInteger());
+            gameService.handlePlayerJoin(id, new JoinRequest("JOIN", "white", null), () -> match.getPlayer1().getUsername());
+            for (int ply = 0; ply < 4; ply++) {
+                playSomeMove(match);
+            }
+        }
+
+        // Match 1 resigns while the result cannot be written; match 2 is only evicted for being idle
+        databaseDown.set(true);
+        gameService.handleResignation(1L, "black1");
+        databaseDown.set(false);
+        gameService.evictGame(2L);
+
+        assertThat(matches.get(1L).getStatus()).isEqualTo(MatchStatus.IN_PROGRESS);
+        assertThat(gameEnds.get(1L)).hasValue(0);
+        assertThat(journaledEnds()).isEmpty();
+
+        gameService.handleResignation(1L, "white1");
+        assertThat(matches.get(1L).getStatus()).isEqualTo(MatchStatus.PLAYER2_WON);
+        assertThat(gameEnds.get(1L)).hasValue(1);
+        assertThat(journaledEnds()).containsExactly(1L);
+    }
+
+    @ParameterizedTest(name = "snapshot before the end: {0}")
+    @ValueSource(booleans = {false, true})
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void gameFinishedJustBeforeACrashIsNotRecovered(boolean snapshotBeforeTheEnd) throws Exception {
+        for (long id = 1; id <= 2; id++) {
+            Match match = new Match(user("white" + id), user("black" + id), MatchStatus.IN_PROGRESS, 0);
+            match.setId(id);
+            match.setGameType(GameType.BLITZ);
+            match.setPlayer1TimeRemaining(180);
+            match.setPlayer2TimeRemaining(180);
+            matches.put(id, match);
+            gameEnds.put(id, new AtomicInteger());
+            gameService.handlePlayerJoin(id, new JoinRequest("JOIN", "white", null), () -> match.getPlayer1().getUsername());
+            for (int ply = 0; ply < 4; ply++) {
+                playSomeMove(match);
+            }
+        }
+
+        if (snapshotBeforeTheEnd) {
+            // Then the game comes back from the snapshot, with nothing about it in the journal after it
+            gameSnapshotter.snapshot(gameService::captureGames);
+        }
+        // Match 1's result is written, then the server dies before the journal hears the game ended
+        matchWriteBehind.finish(1L, MatchStatus.PLAYER2_WON, null);
+        gameJournal.destroy();
+        gameSnapshotter.destroy();
+        startGameService();
+        matchWriteBehind.flush();
+
+        assertThat(matches.get(1L).getStatus()).isEqualTo(MatchStatus.PLAYER2_WON);
+        assertThat(gameService.resync(1L, () -> "white1").getStatus()).isEqualTo("PLAYER2_WON");
+        assertThat(gameService.resync(2L, () -> "white2").getStatus()).isEqualTo("IN_PROGRESS");
+        assertThat(journaledEnds()).containsExactly(1L);
+        // The next restart does not even look at it
+        assertThat(gameService.resync(2L, () -> "white2").getPly()).isEqualTo(4);
+    }
+
+    // Matches the journal has recorded as ended so far, read back as a restart would
+    private Set<Long> journaledEnds() {
+        gameJournal.destroy();
+        gameSnapshotter.destroy();
+        Set<Long> ended = ConcurrentHashMap.newKeySet();
+        GameJournal reader = new GameJournal(journalDir, 1 << 20);
+        reader.replay(new GameJournal.Listener() {
+            @Override
+            public void started(long matchId, String player1, String player2,
+                                long whiteMs, long blackMs, long incrementMs, long delayMs) {
+            }
+
+            @Override
+            public void moved(long matchId, int ply, int move, long whiteMs, long blackMs) {
+            }
+
+            @Override
+            public void resumed(GameSnapshot.Game game) {
+            }
+
+            @Override
+            public void ended(long matchId) {
+                ended.add(matchId);
+            }
+        });
+        reader.destroy();
+        startGameService();
+        return ended;
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void matchWithoutStoredMovesIsReloadedFromItsFen() {
+        String fen = "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3";
+        Match match = new Match(user("white"), user("black"), MatchStatus.IN_PROGRESS, 4);
+        match.setId(1L);
+        match.setGameType(GameType.STANDARD);
+        match.setFenCurrent(fen);
+        matches.put(1L, match);
+        gameEnds.put(1L, new AtomicInteger());
+
+        GameStatusDTO status = gameService.handlePlayerJoin(1L, new JoinRequest("JOIN", "white", null), () -> "white");
+
+        assertThat(status.getFen()).isEqualTo(fen);
+        assertThat(status.getPly()).isEqualTo(4);
+        assertThat(playSomeMove(match).getPly()).isEqualTo(5);
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void cachedFenFollowsEveryMove() {
+        Match match = new Match(user("white"), user("black"), MatchStatus.IN_PROGRESS, 0);
+        match.setId(1L);
+        match.setGameType(GameType.STANDARD);
+        matches.put(1L, match);
+        gameEnds.put(1L, new AtomicInteger());
+        gameService.handlePlayerJoin(1L, new JoinRequest("JOIN", "white", null), () -> "white");
+
+        // A double push, an en-passant capture, castling and a promotion
+        Position replay = Position.startPosition();
+        String[] line = {"e2e4", "d7d5", "e4e5", "f7f5", "e5f6", "g8f6", "g1f3", "e7e6", "f1d3", "f8c5", "e1g1",
+                "e8g8", "b2b4", "c5b4", "c2c4", "b4a5", "c4d5", "e6d5", "d1b3", "c7c5", "b3b7", "c5c4", "b7a8"};
+        for (int ply = 0; ply < line.length; ply++) {
+            boolean white = replay.isWhiteToMove();
+            int move = MoveGenerator.parseUci(replay, line[ply]);
+            gameService.processMove(1L, moveRequest(move, white, ply), white ? () -> "white" : () -> "black");
+            replay.makeMove(move);
+
+            assertThat(gameService.resync(1L, () -> "black").getFen()).as(line[ply]).isEqualTo(Fen.toFen(replay));
+        }
+        matchWriteBehind.flush();
+        assertThat(match.getFenCurrent()).isEqualTo("Qnbq1rk1/p5pp/5n2/b2p4/2p5/3B1N2/P2P1PPP/RNB2RK1 b - - 0 12");
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void moveHistoryPagesFromMemoryThenFromStorage() {
+        Match match = new Match(user("white"), user("black"), MatchStatus.IN_PROGRESS, 0);
+        match.setId(1L);
+        match.setGameType(GameType.STANDARD);
+        matches.put(1L, match);
+        gameEnds.put(1L, new AtomicInteger());
+        gameService.handlePlayerJoin(1L, new JoinRequest("JOIN", "white", null), () -> "white");
+        List<MoveDeltaDTO> deltas = new ArrayList<>();
+        for (int ply = 0; ply < 12; ply++) {
+            deltas.add(playSomeMove(match));
+        }
+
+        MoveHistoryDTO first = gameService.getMoveHistory(1L, 0, 5);
+        assertThat(first.isLive()).isTrue();
+        assertThat(first.getMoves()).extracting(PlayedMoveDTO::getPly).containsExactly(1, 2, 3, 4, 5);
+        assertThat(first.isHasMore()).isTrue();
+        MoveHistoryDTO rest = gameService.getMoveHistory(1L, first.getNextSincePly(), 100);
+        assertThat(rest.getMoves()).extracting(PlayedMoveDTO::getUci)
+                .containsExactlyElementsOf(deltas.subList(5, 12).stream().map(MoveDeltaDTO::getUci).toList());
+        assertThat(rest.isHasMore()).isFalse();
+        assertThat(gameService.getMoveHistory(1L, rest.getNextSincePly(), 100).getMoves()).isEmpty();
+
+        // Finished: the same history comes from the moves table, then from the packed column once the rows are gone
+        gameService.handleResignation(1L, "white");
+        List<PlayedMoveDTO> live = new ArrayList<>(first.getMoves());
+        live.addAll(rest.getMoves());
+        MoveHistoryDTO stored = gameService.getMoveHistory(1L, 0, 100);
+        assertThat(stored.isLive()).isFalse();
+        assertThat(stored.getMoves()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(live);
+        storedMoves.remove(1L);
+        MoveHistoryDTO packed = gameService.getMoveHistory(1L, 4, 3);
+        assertThat(packed.getMoves()).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(live.subList(4, 7));
+        assertThat(packed.isHasMore()).isTrue();
+    }
+
+    private MoveDeltaDTO playSomeMove(Match match) {
+        GameStatusDTO snapshot = gameService.resync(match.getId(), () -> match.getPlayer1().getUsername());
+        Position position = Fen.parse(snapshot.getFen());
+        boolean white = position.isWhiteToMove();
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generateLegal(position, moves);
+        String username = white ? match.getPlayer1().getUsername() : match.getPlayer2().getUsername();
+        return gameService.processMove(match.getId(),
+                moveRequest(moves[count / 2], white, snapshot.getPly()), () -> username);
+    }
+
+    private Void play(Match match, String username, ExecutorService threads) throws Exception {
+        Long matchId = match.getId();
+        Principal principal = () -> username;
+        boolean white = username.equals(match.getPlayer1().getUsername());
+        while (true) {
+            GameStatusDTO snapshot = gameService.resync(matchId, principal);
+            if (!"IN_PROGRESS".equals(snapshot.getStatus())) {
+                return null;
+            }
+            if (snapshot.getPly() >= MAX_PLIES) {
+                gameService.handleResignation(matchId, username);
+                return null;
+            }
+            Position position = Fen.parse(snapshot.getFen());
+            if (position.isWhiteToMove() != white) {
+                Thread.sleep(1);
+                continue;
+            }
+
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int count = MoveGenerator.generateLegal(position, moves);
+            MoveRequest request = moveRequest(moves[ThreadLocalRandom.current().nextInt(count)], white, snapshot.getPly());
+
+            // The same move delivered several times at once: at most one copy may be applied
+            List<Future<MoveDeltaDTO>> copies = new ArrayList<>();
+            for (int i = 0; i < DUPLICATES; i++) {
+                copies.add(threads.submit(() -> gameService.processMove(matchId, request, principal)));
+            }
+            for (Future<MoveDeltaDTO> copy : copies) {
+                try {
+                    accepted.get(matchId).add(new Accepted(username, copy.get()));
+                } catch (java.util.concurrent.ExecutionException rejected) {
+                    // Out of sync, not your turn, or game over: all expected under this load
+                }
+            }
+        }
+    }
+
+    private void verifyMatch(Match match) {
+        List<Accepted> moves = new ArrayList<>(accepted.get(match.getId()));
+        moves.sort(Comparator.comparing(move -> move.delta().getPly()));
+
+        Position replay = Position.startPosition();
+        Long initialMs = match.getGameType().isTimed() ? match.getGameType().getInitialMs() : null;
+        long incrementMs = match.getGameType().getIncrementMs();
+        Long[] lastClock = {initialMs, initialMs};
+        for (int i = 0; i < moves.size(); i++) {
+            MoveDeltaDTO delta = moves.get(i).delta();
+            boolean whiteMoved = i % 2 == 0;
+
+            // Plies are 1..n with no gaps or duplicates, and turns strictly alternate
+            assertThat(delta.getPly()).isEqualTo(i + 1);
+            assertThat(moves.get(i).username())
+                    .isEqualTo(whiteMoved ? match.getPlayer1().getUsername() : match.getPlayer2().getUsername());
+
+            int move = delta.getMove();
+            assertThat(MoveGenerator.findLegalMove(replay, Move.from(move), Move.to(move), Move.promotionType(move)))
+                    .isEqualTo(move);
+
+            // The moves table holds the same move, in order, with its notation
+            com.example.IndiChessBackend.model.Move stored = stored(match).get(i);
+            assertThat(stored.getPly()).isEqualTo(i + 1);
+            assertThat(stored.getUci()).isEqualTo(Move.toUci(move));
+            assertThat(stored.getSan()).isEqualTo(San.toSan(replay, move));
+            replay.makeMove(move);
+
+            // Only the mover's clock changes: down by its thinking time, up by at most the increment
+            Long[] clock = {delta.getPlayer1TimeRemainingMs(), delta.getPlayer2TimeRemainingMs()};
+            for (int side = 0; side < 2; side++) {
+                if (lastClock[side] == null) {
+                    assertThat(clock[side]).isNull();
+                    continue;
+                }
+                assertThat(clock[side]).isBetween(0L, lastClock[side] + incrementMs);
+                if (side != (whiteMoved ? 0 : 1)) {
+                    assertThat(clock[side]).isEqualTo(lastClock[side]);
+                }
+            }
+            lastClock = clock;
+        }
+
+        assertThat(match.getCurrentPly()).isEqualTo(moves.size());
+        assertThat(stored(match)).hasSize(moves.size());
+        if (!moves.isEmpty()) {
+            assertThat(match.getFenCurrent()).isEqualTo(Fen.toFen(replay));
+        }
+        assertThat(match.getStatus()).isNotEqualTo(MatchStatus.IN_PROGRESS);
+        assertThat(gameEnds.get(match.getId())).hasValue(1);
+
+        // The finished game's moves are also packed into the match row, and replay to the same position
+        PackedMoves packed = PackedMoves.decode(match.getPackedMoves());
+        assertThat(packed.moves()).containsExactly(moves.stream().mapToInt(move -> move.delta().getMove()).toArray());
+        assertThat(packed.moveTimesMs()).containsExactly(stored(match).stream()
+                .mapToInt(com.example.IndiChessBackend.model.Move::getMoveTimeMs).toArray());
+        assertThat(Fen.toFen(packed.positionAt(packed.size()))).isEqualTo(Fen.toFen(replay));
+    }
+
+    private List<com.example.IndiChessBackend.model.Move> stored(Match match) {
+        return storedMoves.getOrDefault(match.getId(), List.of());
+    }
+
+    private static MoveRepo.HistoryMove historyMove(com.example.IndiChessBackend.model.Move move) {
+        return new MoveRepo.HistoryMove() {
+            @Override
+            public int getPly() {
+                return move.getPly();
+            }
+
+            @Override
+            public String getUci() {
+                return move.getUci();
+            }
+
+            @Override
+            public String getSan() {
+                return move.getSan();
+            }
+
+            @Override
+            public Integer getMoveTimeMs() {
+                return move.getMoveTimeMs();
+            }
+        };
+    }
+
+    private static MoveRepo.PlayedMove played(com.example.IndiChessBackend.model.Move move) {
+        return new MoveRepo.PlayedMove() {
+            @Override
+            public String getUci() {
+                return move.getUci();
+            }
+
+            @Override
+            public Integer getMoveTimeMs() {
+                return move.getMoveTimeMs();
+            }
+        };
+    }
+
+    private static MoveRequest moveRequest(int move, boolean white, int ply) {
+        MoveRequest request = new MoveRequest();
+        request.setFromRow(Square.row(Move.from(move)));
+        request.setFromCol(Square.file(Move.from(move)));
+        request.setToRow(Square.row(Move.to(move)));
+        request.setToCol(Square.file(Move.to(move)));
+        request.setPiece(white ? "P" : "p");
+        request.setPromotedTo(Move.isPromotion(move) ? String.valueOf("nbrq".charAt(Move.promotionType(move) - 1)) : null);
+        request.setPlayerColor(white ? "white" : "black");
+        request.setPly(ply);
+        return request;
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.chess.Fen;
+import com.example.IndiChessBackend.chess.Move;
+import com.example.IndiChessBackend.chess.MoveGenerator;
+import com.example.IndiChessBackend.chess.MoveLog;
+import com.example.IndiChessBackend.chess.Position;
+import com.example.IndiChessBackend.chess.PositionHistory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsEveryGame() throws IOException {
+        List<GameSnapshot.Game> games = randomGames(200);
+        Path file = dir.resolve("snapshot.icsn");
+        new GameSnapshot(12_345, 1_700_000_000_000L, games).write(file);
+
+        GameSnapshot read = GameSnapshot.read(file);
+
+        assertThat(read.journalPosition()).isEqualTo(12_345);
+        assertThat(read.games()).hasSize(games.size());
+        for (int i = 0; i < games.size(); i++) {
+            GameSnapshot.Game expected = games.get(i);
+            GameSnapshot.Game actual = read.games().get(i);
+            assertThat(Fen.toFen(actual.position())).isEqualTo(Fen.toFen(expected.position()));
+            assertThat(actual.position().key()).isEqualTo(expected.position().key());
+            assertThat(actual.historyKeys()).containsExactly(expected.historyKeys());
+            assertThat(actual).usingRecursiveComparison().ignoringFields("position", "historyKeys", "moveLog").isEqualTo(expected);
+            assertThat(actual.moveLog().basePly()).isEqualTo(expected.moveLog().basePly());
+            assertThat(Fen.toFen(actual.moveLog().base())).isEqualTo(Fen.toFen(expected.moveLog().base()));
+            for (int ply = expected.moveLog().basePly() + 1; ply <= expected.ply(); ply++) {
+                assertThat(actual.moveLog().move(ply)).isEqualTo(expected.moveLog().move(ply));
+                assertThat(actual.moveLog().moveTimeMs(ply)).isEqualTo(expected.moveLog().moveTimeMs(ply));
+            }
+        }
+        assertThat(GameSnapshot.verify(file)).isEmpty();
+    }
+
+    @Test
+    void rejectsCorruptedFiles() throws IOException {
+        Path file = dir.resolve("snapshot.icsn");
+        new GameSnapshot(0, 0, randomGames(20)).write(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() / 2);
+            int b = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(b ^ 0x10);
+        }
+
+        assertThatThrownBy(() -> GameSnapshot.read(file)).isInstanceOf(IOException.class);
+        assertThat(GameSnapshot.verify(file)).isNotEmpty();
+    }
+
+    @Test
+    void rejectsOtherVersions() throws IOException {
+        Path file = dir.resolve("snapshot.icsn");
+        new GameSnapshot(0, 0, List.of()).write(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(4);
+            raf.writeShort(GameSnapshot.VERSION + 1);
+        }
+
+        assertThatThrownBy(() -> GameSnapshot.read(file)).hasMessageContaining("version");
+    }
+
+    @Test
+    void verifierFlagsInconsistentGames() throws IOException {
+        Position position = Position.startPosition();
+        GameSnapshot.Game stale = new GameSnapshot.Game(7, "white", "black", 0, Move.NONE, position,
+                new long[]{position.key() ^ 1}, -1, -1, -1, -1, new MoveLog());
+        Path file = dir.resolve("snapshot.icsn");
+        new GameSnapshot(0, 0, List.of(stale)).write(file);
+
+        assertThat(GameSnapshot.verify(file)).containsExactly(
+                "match 7: repetition history does not end with the current position");
+    }
+
+    static List<GameSnapshot.Game> randomGames(int count) {
+        Random random = new Random(42);
+        List<GameSnapshot.Game> games = new ArrayList<>(count);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        for (int i = 0; i < count; i++) {
+            Position position = Position.startPosition();
+            PositionHistory history = new PositionHistory(position);
+            int plies = random.nextInt(60);
+            int ply = 0;
+            int lastMove = Move.NONE;
+            // Every third game was loaded from a FEN at ply 5, so its log starts there
+            int basePly = i % 3 == 0 ? 5 : 0;
+            MoveLog moveLog = basePly == 0 ? new MoveLog() : null;
+            while (ply < plies) {
+                if (moveLog == null && ply == basePly) {
+                    moveLog = new MoveLog(position, basePly);
+                }
+                int legal = MoveGenerator.generateLegal(position, moves);
+                if (legal == 0) {
+                    break;
+                }
+                lastMove = moves[random.nextInt(legal)];
+                position.makeMove(lastMove);
+                history.push(position);
+                ply++;
+                if (moveLog != null) {
+                    moveLog.add(lastMove, random.nextInt(100_000));
+                }
+            }
+            if (moveLog == null) {
+                moveLog = new MoveLog(position, ply);
+            }
+            boolean timed = i % 2 == 0;
+            games.add(new GameSnapshot.Game(i + 1, "white" + i, "black" + i, ply, lastMove, position, history.keys(),
+                    timed ? 170_000 - i : -1, timed ? 175_000 : -1, timed ? 2_000 : -1, timed ? 0 : -1, moveLog));
+        }
+        return games;
+    }
+}
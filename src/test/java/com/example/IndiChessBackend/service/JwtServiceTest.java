@@ -0,0 +1,128 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.model.UserPrincipal;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T12:00:00Z"));
+    private final JwtService jwtService = new JwtService(clock);
+
+    @Test
+    void verifiesATokenOnceThenServesItFromTheCache() {
+        String token = jwtService.generateToken(user(7L, "alice"));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(jwtService.verify(token)).get()
+                    .extracting(JwtService.VerifiedToken::username).isEqualTo("alice");
+        }
+        assertThat(jwtService.extractUsername(token)).isEqualTo("alice");
+
+        assertThat(jwtService.signatureChecks()).isEqualTo(1);
+    }
+
+    @Test
+    void carriesEverythingThePrincipalNeeds() {
+        User alice = user(7L, "alice").getUser();
+        alice.setTokenVersion(3);
+
+        UserPrincipal principal = jwtService.verify(jwtService.generateToken(new UserPrincipal(alice)))
+                .orElseThrow().toPrincipal();
+
+        assertThat(principal.getUserId()).isEqualTo(7L);
+        assertThat(principal.getUsername()).isEqualTo("alice");
+        assertThat(principal.getTokenVersion()).isEqualTo(3);
+        assertThat(principal.getAuthorities()).isEmpty();
+        assertThat(principal.getPassword()).isNull();
+        assertThat(jwtService.verify(jwtService.generateToken(new UserPrincipal(alice))).orElseThrow().tokenId())
+                .isNotEqualTo(jwtService.verify(jwtService.generateToken(new UserPrincipal(alice))).orElseThrow().tokenId());
+    }
+
+    @Test
+    void reverifiesOnceTheCacheEntryLapses() {
+        String token = jwtService.generateToken(user(7L, "alice"));
+        jwtService.verify(token);
+
+        clock.advance(Duration.ofSeconds(JwtService.MAX_CACHE_SECONDS));
+
+        assertThat(jwtService.verify(token)).isPresent();
+        assertThat(jwtService.signatureChecks()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsATokenOnceItExpires() {
+        String token = jwtService.generateToken(user(7L, "alice"));
+        Instant expiresAt = jwtService.verify(token).orElseThrow().expiresAt();
+
+        clock.advance(Duration.between(clock.instant(), expiresAt).plusSeconds(1));
+
+        assertThat(jwtService.verify(token)).isEmpty();
+        assertThat(jwtService.extractUsername(token)).isNull();
+    }
+
+    @Test
+    void rejectsTamperedAndMalformedTokens() {
+        String token = jwtService.generateToken(user(7L, "alice"));
+        String[] parts = token.split("\\.");
+        String forged = new JwtService(clock).generateToken(user(8L, "mallory")).split("\\.")[1];
+
+        assertThat(jwtService.verify(parts[0] + "." + forged + "." + parts[2])).isEmpty();
+        assertThat(jwtService.verify(token.substring(0, token.length() - 2))).isEmpty();
+        assertThat(jwtService.verify("not a token")).isEmpty();
+        assertThat(jwtService.verify(null)).isEmpty();
+        assertThat(jwtService.cachedTokenCount()).isZero();
+    }
+
+    @Test
+    void keepsTheCacheBounded() {
+        for (int i = 0; i < JwtService.MAX_CACHED_TOKENS + 100; i++) {
+            jwtService.verify(jwtService.generateToken(user((long) i, "user" + i)));
+        }
+
+        assertThat(jwtService.cachedTokenCount()).isLessThanOrEqualTo(JwtService.MAX_CACHED_TOKENS);
+    }
+
+    private static UserPrincipal user(Long id, String username) {
+        User user = new User();
+        user.setUserId(id);
+        user.setUsername(username);
+        user.setPassword("secret");
+        return new UserPrincipal(user);
+    }
+
+    static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.User;
+import com.example.IndiChessBackend.model.UserPrincipal;
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoginServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<LoginService> services = new ArrayList<>();
+
+    @AfterEach
+    void shutDown() {
+        services.forEach(LoginService::destroy);
+    }
+
+    @Test
+    void shedsLoginsBeyondTheQueueWithARetryTime() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AuthenticationManager slow = authentication -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(
+                    principal(authentication.getName()), null, List.of());
+        };
+        LoginService loginService = loginService(slow, 1, 2);
+
+        List<CompletableFuture<UserPrincipal>> accepted = new ArrayList<>();
+        for (int i = 0; i < 3; i++) { // one running, two queued
+            accepted.add(loginService.login("user" + i, "pw", "10.0.0." + i));
+        }
+        waitUntil(() -> loginService.queuedLogins() == 2);
+        CompletableFuture<UserPrincipal> shed = loginService.login("user3", "pw", "10.0.0.3");
+
+        assertThatThrownBy(shed::get).cause()
+                .isInstanceOfSatisfying(LoginService.LoginRejectedException.class, rejected -> {
+                    assertThat(rejected.isThrottled()).isFalse();
+                    assertThat(rejected.getRetryAfterSeconds()).isPositive();
+                });
+        release.countDown();
+        for (int i = 0; i < 3; i++) {
+            assertThat(accepted.get(i).get(5, TimeUnit.SECONDS).getUsername()).isEqualTo("user" + i);
+        }
+    }
+
+    @Test
+    void throttlesRepeatedAttemptsOnOneAccountFromOneAddress() {
+        LoginService loginService = loginService(authentication -> {
+            throw new BadCredentialsException("Bad credentials");
+        }, 1, 10);
+
+        List<Throwable> failures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            failures.add(loginService.login("alice", "guess" + i, "10.0.0.1")
+                    .handle((principal, failure) -> failure).join());
+        }
+
+        assertThat(failures.subList(0, 5)).allMatch(BadCredentialsException.class::isInstance);
+        assertThat(failures.get(5)).isInstanceOfSatisfying(LoginService.LoginRejectedException.class,
+                rejected -> assertThat(rejected.isThrottled()).isTrue());
+    }
+
+    @Test
+    void rehashesAPasswordStoredAtALowerCost() throws ExecutionException, InterruptedException {
+        BCryptPasswordEncoder oldEncoder = new BCryptPasswordEncoder(4);
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(5);
+        User alice = new User();
+        alice.setUserId(7L);
+        alice.setUsername("alice");
+        alice.setPassword(oldEncoder.encode("correct horse"));
+        UserRepo userRepo = mock(UserRepo.class);
+        when(userRepo.getUserByUsername("alice")).thenReturn(alice);
+        MyUserDetailsService userDetailsService = new MyUserDetailsService(userRepo, new JwtService(),
+                new TokenVersions(userRepo, 60), new RevokedTokens(dir.resolve("revoked"), 10, Clock.systemUTC()));
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(userDetailsService);
+
+        UserPrincipal principal = loginService(new ProviderManager(provider), 1, 10)
+                .login("alice", "correct horse", "10.0.0.1").get();
+
+        assertThat(principal.getUserId()).isEqualTo(7L);
+        verify(userRepo).updatePassword(eq(7L), any());
+        assertThat(alice.getPassword()).startsWith("$2a$05$");
+        assertThat(encoder.matches("correct horse", alice.getPassword())).isTrue();
+    }
+
+    private LoginService loginService(AuthenticationManager authenticationManager, int threads, int queueSize) {
+        LoginService loginService = new LoginService(authenticationManager,
+                new LoginThrottle(100, 100, 5, 5, 100, 100, System::nanoTime), threads, queueSize);
+        services.add(loginService);
+        return loginService;
+    }
+
+    private static UserPrincipal principal(String username) {
+        User user = new User();
+        user.setUsername(username);
+        return new UserPrincipal(user);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong();
+    // 3 a burst per IP at 60 a minute, 2 per username at an IP at 6 a minute, 4 per username at 12 a minute
+    private final LoginThrottle throttle = new LoginThrottle(3, 60, 2, 6, 4, 12, now::get);
+
+    @Test
+    void allowsABurstPerUsernameAtAnAddressThenRefillsAtItsRate() {
+        assertThat(throttle.tryAcquire("10.0.0.1", "alice")).isZero();
+        assertThat(throttle.tryAcquire("10.0.0.1", "Alice")).isZero();
+
+        assertThat(throttle.tryAcquire("10.0.0.1", "alice")).isEqualTo(10); // 6 a minute
+
+        now.addAndGet(10 * SECOND);
+        assertThat(throttle.tryAcquire("10.0.0.1", "alice")).isZero();
+        assertThat(throttle.tryAcquire("10.0.0.1", "bob")).isZero();
+    }
+
+    @Test
+    void limitsAnAddressAcrossUsernames() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(throttle.tryAcquire("10.0.0.1", "user" + i)).isZero();
+        }
+
+        assertThat(throttle.tryAcquire("10.0.0.1", "user3")).isEqualTo(1);
+        assertThat(throttle.tryAcquire("10.0.0.2", "user3")).isZero();
+    }
+
+    @Test
+    void attemptsAgainstAUsernameElsewhereDoNotLockItsOwnerOut() {
+        assertThat(throttle.tryAcquire("10.6.6.6", "alice")).isZero();
+        assertThat(throttle.tryAcquire("10.6.6.6", "alice")).isZero();
+        assertThat(throttle.tryAcquire("10.6.6.6", "alice")).isPositive();
+
+        assertThat(throttle.tryAcquire("10.0.0.1", "alice")).isZero();
+    }
+
+    @Test
+    void limitsAUsernameAcrossAddressesMoreLoosely() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(throttle.tryAcquire("10.0.0." + i, "alice")).isZero();
+        }
+
+        assertThat(throttle.tryAcquire("10.0.0.9", "alice")).isEqualTo(5); // 12 a minute
+        assertThat(throttle.tryAcquire("10.0.0.9", "bob")).isZero();
+    }
+
+    @Test
+    void aRefusedAttemptSpendsNothing() {
+        assertThat(throttle.tryAcquire("10.0.0.1", "alice")).isZero();
+        assertThat(throttle.tryAcquire("10.0.0.1", "alice")).isZero();
+        // Refused for alice at this address: the address keeps its last token
+        assertThat(throttle.tryAcquire("10.0.0.1", "alice")).isPositive();
+        assertThat(throttle.tryAcquire("10.0.0.1", "alice")).isPositive();
+
+        assertThat(throttle.tryAcquire("10.0.0.1", "bob")).isZero();
+        assertThat(throttle.tryAcquire("10.0.0.1", "carol")).isPositive();
+    }
+
+    @Test
+    void staysBoundedUnderAFloodOfNewKeysAndKeepsActiveOnes() {
+        for (int i = 0; i < 3; i++) {
+            throttle.tryAcquire("10.6.6.6", "user" + i);
+        }
+        for (int i = 0; i < LoginThrottle.MAX_BUCKETS + 1_000; i++) {
+            throttle.tryAcquire("ip" + i, "name" + i);
+            if (i % 1_000 == 0) {
+                // Still trying, so still throttled: its bucket is never the least recently used
+                assertThat(throttle.tryAcquire("10.6.6.6", "another")).isPositive();
+            }
+        }
+
+        assertThat(throttle.bucketCount()).isLessThanOrEqualTo(3 * LoginThrottle.MAX_BUCKETS);
+        assertThat(throttle.tryAcquire("10.6.6.6", "another")).isPositive();
+    }
+
+    @Test
+    void sweepDropsBucketsThatHaveRefilled() {
+        throttle.tryAcquire("10.0.0.1", "alice");
+        throttle.tryAcquire("10.0.0.2", "bob");
+        assertThat(throttle.bucketCount()).isEqualTo(6);
+
+        now.addAndGet(10 * SECOND);
+        assertThat(throttle.sweep()).isEqualTo(6);
+        assertThat(throttle.bucketCount()).isZero();
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.chess.MoveGenerator;
+import com.example.IndiChessBackend.chess.PackedMoves;
+import com.example.IndiChessBackend.chess.Position;
+import com.example.IndiChessBackend.model.Match;
+import com.example.IndiChessBackend.model.MatchStatus;
+import com.example.IndiChessBackend.model.Move;
+import com.example.IndiChessBackend.model.PieceColor;
+import com.example.IndiChessBackend.repo.MatchRepo;
+import com.example.IndiChessBackend.repo.MoveRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MatchWriteBehindTest {
+
+    private final Map<Long, Match> matches = new ConcurrentHashMap<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private final List<Move> storedMoves = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean databaseDown = new AtomicBoolean();
+    private MatchRepo matchRepo;
+    private MoveRepo moveRepo;
+    private MatchWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        matchRepo = mock(MatchRepo.class);
+        when(matchRepo.findById(any())).thenAnswer(invocation -> Optional.ofNullable(matches.get(invocation.<Long>getArgument(0))));
+        when(matchRepo.findAllById(any())).thenAnswer(invocation -> {
+            List<Match> found = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(id -> {
+                if (matches.containsKey(id)) {
+                    found.add(matches.get(id));
+                }
+            });
+            batchSizes.add(found.size());
+            return found;
+        });
+        when(matchRepo.getReferenceById(any())).thenAnswer(invocation -> matches.get(invocation.<Long>getArgument(0)));
+        moveRepo = mock(MoveRepo.class);
+        when(moveRepo.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<Move> rows = invocation.getArgument(0);
+            if (databaseDown.get()) {
+                throw new IllegalStateException("database down");
+            }
+            for (Move row : rows) {
+                // A ply already stored for the match breaks the (match_id, ply) key and fails the whole batch
+                if (storedMoves.stream().anyMatch(stored -> stored.getMatch() == row.getMatch() && stored.getPly() == row.getPly())) {
+                    throw new DataIntegrityViolationException("Duplicate entry for key 'uk_moves_match_ply'");
+                }
+            }
+            rows.forEach(storedMoves::add);
+            return invocation.getArgument(0);
+        });
+        writeBehind = new MatchWriteBehind(matchRepo, moveRepo, TransactionOperations.withoutTransaction());
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.destroy();
+    }
+
+    @Test
+    void coalescesUpdatesToTheLatestState() {
+        Match match = match(1L);
+        for (int ply = 1; ply <= 500; ply++) {
+            writeBehind.update(1L, new MatchWriteBehind.MatchUpdate("fen" + ply, ply, "e2e4", 60, 59));
+        }
+        writeBehind.flush();
+
+        assertThat(match.getCurrentPly()).isEqualTo(500);
+        assertThat(match.getFenCurrent()).isEqualTo("fen500");
+        assertThat(match.getPlayer2TimeRemaining()).isEqualTo(59);
+        assertThat(writeBehind.pendingCount()).isZero();
+    }
+
+    @Test
+    void flushesManyMatchesInBatches() {
+        int count = MatchWriteBehind.BATCH_SIZE * 2 + 1;
+        for (long id = 1; id <= count; id++) {
+            match(id);
+            writeBehind.update(id, new MatchWriteBehind.MatchUpdate("fen", 1, "e2e4", null, null));
+        }
+        writeBehind.flush();
+
+        // The scheduled flush may have taken part of the work; either way no batch is oversized
+        assertThat(batchSizes).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(MatchWriteBehind.BATCH_SIZE));
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(count);
+        assertThat(matches.values()).allSatisfy(match -> assertThat(match.getCurrentPly()).isEqualTo(1));
+    }
+
+    @Test
+    void finishWritesPendingStateWithTheResult() {
+        Match match = match(1L);
+        writeBehind.update(1L, new MatchWriteBehind.MatchUpdate("final", 7, "d8h4", null, null));
+
+        assertThat(writeBehind.finish(1L, MatchStatus.PLAYER2_WON, null)).isTrue();
+        assertThat(match.getStatus()).isEqualTo(MatchStatus.PLAYER2_WON);
+        assertThat(match.getFenCurrent()).isEqualTo("final");
+        assertThat(match.getLastMoveUci()).isEqualTo("d8h4");
+        assertThat(match.getFinishedAt()).isNotNull();
+        assertThat(writeBehind.pendingCount()).isZero();
+        assertThat(writeBehind.finish(2L, MatchStatus.DRAW, null)).isFalse();
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        Match match = match(1L);
+        doThrow(new IllegalStateException("database down"))
+                .doReturn(List.of(match))
+                .when(matchRepo).findAllById(any());
+        writeBehind.update(1L, new MatchWriteBehind.MatchUpdate("fen", 3, "g1f3", null, null));
+
+        writeBehind.flush();
+        writeBehind.flush();
+
+        assertThat(match.getCurrentPly()).isEqualTo(3);
+        assertThat(writeBehind.pendingCount()).isZero();
+    }
+
+    @Test
+    void movesFromManyMatchesAreInsertedInOrder() {
+        for (long id = 1; id <= 3; id++) {
+            match(id);
+        }
+        for (int ply = 1; ply <= 400; ply++) {
+            for (long id = 1; id <= 3; id++) {
+                writeBehind.recordMove(new MatchWriteBehind.MoveRecord(id, ply, "e2e4", "e4", 5, null));
+            }
+        }
+        writeBehind.flush();
+
+        // 1200 moves from three matches in 500-row transactions
+        verify(moveRepo, atLeast(3)).saveAll(any());
+        assertThat(storedMoves).hasSize(1200);
+        for (long id = 1; id <= 3; id++) {
+            long matchId = id;
+            assertThat(storedMoves.stream().filter(move -> move.getMatch().getId() == matchId).map(Move::getPly))
+                    .isSorted().hasSize(400);
+        }
+        Move last = storedMoves.getLast();
+        assertThat(last.getMoveNumber()).isEqualTo(200);
+        assertThat(last.getColor()).isEqualTo(PieceColor.BLACK);
+        assertThat(writeBehind.pendingMoveCount()).isZero();
+    }
+
+    @Test
+    void finishInsertsTheGamesMovesFirst() {
+        match(1L);
+        writeBehind.recordMove(new MatchWriteBehind.MoveRecord(1L, 1, "f2f3", "f3", 5, null));
+
+        writeBehind.finish(1L, MatchStatus.DRAW, null);
+
+        assertThat(storedMoves).hasSize(1);
+    }
+
+    @Test
+    void aRejectedMoveIsDroppedAndTheMovesAfterItAreWritten() {
+        Match first = match(1L);
+        Match second = match(2L);
+        writeBehind.recordMove(new MatchWriteBehind.MoveRecord(1L, 1, "e2e4", "e4", 5, null));
+        writeBehind.flush();
+
+        writeBehind.recordMove(new MatchWriteBehind.MoveRecord(1L, 1, "e2e4", "e4", 5, null));
+        for (int ply = 2; ply <= 40; ply++) {
+            writeBehind.recordMove(new MatchWriteBehind.MoveRecord(1L, ply, "e2e4", "e4", 5, null));
+            writeBehind.recordMove(new MatchWriteBehind.MoveRecord(2L, ply - 1, "e2e4", "e4", 5, null));
+        }
+        writeBehind.update(1L, new MatchWriteBehind.MatchUpdate("fen40", 40, "e2e4", null, null));
+        writeBehind.update(2L, new MatchWriteBehind.MatchUpdate("fen39", 39, "e2e4", null, null));
+        writeBehind.flush();
+
+        assertThat(writeBehind.droppedMoveCount()).isEqualTo(1);
+        assertThat(storedMoves).hasSize(1 + 39 + 39);
+        assertThat(storedMoves.stream().filter(move -> move.getMatch() == first).map(Move::getPly))
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, 40).boxed().toList());
+        assertThat(writeBehind.pendingMoveCount()).isZero();
+        assertThat(first.getCurrentPly()).isEqualTo(40);
+        assertThat(second.getCurrentPly()).isEqualTo(39);
+    }
+
+    @Test
+    void movesThatCannotBeWrittenHoldBackOnlyTheirMatch() {
+        Match first = match(1L);
+        Match second = match(2L);
+        databaseDown.set(true);
+        writeBehind.recordMove(new MatchWriteBehind.MoveRecord(1L, 1, "e2e4", "e4", 5, null));
+        writeBehind.update(1L, new MatchWriteBehind.MatchUpdate("fen1", 1, "e2e4", null, null));
+        writeBehind.update(2L, new MatchWriteBehind.MatchUpdate("fen0", 0, null, 60, 60));
+
+        writeBehind.flush();
+
+        assertThat(second.getFenCurrent()).isEqualTo("fen0");
+        assertThat(first.getCurrentPly()).isZero();
+        assertThat(writeBehind.isPending(1L)).isTrue();
+        assertThat(writeBehind.pendingMoveCount()).isEqualTo(1);
+
+        databaseDown.set(false);
+        writeBehind.flush();
+
+        assertThat(first.getCurrentPly()).isEqualTo(1);
+        assertThat(storedMoves).hasSize(1);
+        assertThat(writeBehind.droppedMoveCount()).isZero();
+    }
+
+    @Test
+    void aMoveThatKeepsFailingIsEventuallyDropped() {
+        match(1L);
+        databaseDown.set(true);
+        writeBehind.recordMove(new MatchWriteBehind.MoveRecord(1L, 1, "e2e4", "e4", 5, null));
+
+        for (int i = 0; i < MatchWriteBehind.MAX_MOVE_ATTEMPTS; i++) {
+            writeBehind.flush();
+        }
+
+        assertThat(writeBehind.droppedMoveCount()).isEqualTo(1);
+        assertThat(writeBehind.pendingMoveCount()).isZero();
+    }
+
+    @Test
+    void finishStoresTheLiveGamesMovesEvenIfTheirRowsAreHeldBack() {
+        Match match = match(1L);
+        databaseDown.set(true);
+        Position position = Position.startPosition();
+        int move = MoveGenerator.parseUci(position, "e2e4");
+        writeBehind.recordMove(new MatchWriteBehind.MoveRecord(1L, 1, "e2e4", "e4", 5, null));
+        writeBehind.update(1L, new MatchWriteBehind.MatchUpdate("fen1", 1, "e2e4", null, null));
+
+        assertThatThrownBy(() -> writeBehind.finish(1L, MatchStatus.DRAW, null)).isInstanceOf(IllegalStateException.class);
+        assertThat(match.getStatus()).isEqualTo(MatchStatus.IN_PROGRESS);
+
+        PackedMoves moves = new PackedMoves(new int[]{move}, new int[]{5});
+        assertThat(writeBehind.finish(1L, MatchStatus.DRAW, moves)).isTrue();
+        assertThat(match.getStatus()).isEqualTo(MatchStatus.DRAW);
+        assertThat(PackedMoves.decode(match.getPackedMoves())).isEqualTo(moves);
+    }
+
+    private Match match(long id) {
+        Match match = new Match(null, null, MatchStatus.IN_PROGRESS, 0);
+        match.setId(id);
+        matches.put(id, match);
+        return match;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.model.GameType;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchmakerTest {
+
+    private final Matchmaker matchmaker = new Matchmaker();
+
+    @Test
+    void pairsTheNextPlayerOfTheSameGameType() {
+        assertThat(matchmaker.join("alice", GameType.BLITZ)).isEqualTo(Matchmaker.Join.WAITING);
+        assertThat(matchmaker.join("bob", GameType.RAPID)).isEqualTo(Matchmaker.Join.WAITING);
+
+        Matchmaker.Join join = matchmaker.join("carol", GameType.BLITZ);
+
+        assertThat(join.opponent().getUsername()).isEqualTo("alice");
+        assertThat(matchmaker.poll("alice")).contains(-1L); // until the match exists
+        matchmaker.matched(join.opponent(), 42L);
+        assertThat(matchmaker.poll("alice")).contains(42L);
+        assertThat(matchmaker.poll("alice")).isEmpty();
+        assertThat(matchmaker.poll("carol")).isEmpty();
+        assertThat(matchmaker.isWaiting("bob")).isTrue();
+    }
+
+    @Test
+    void joiningTwiceKeepsOnePlaceInTheQueue() {
+        matchmaker.join("alice", GameType.BLITZ);
+
+        assertThat(matchmaker.join("alice", GameType.BLITZ)).isEqualTo(Matchmaker.Join.WAITING);
+
+        assertThat(matchmaker.join("bob", GameType.BLITZ).opponent().getUsername()).isEqualTo("alice");
+        assertThat(matchmaker.join("carol", GameType.BLITZ)).isEqualTo(Matchmaker.Join.WAITING);
+    }
+
+    @Test
+    void joiningAgainAfterBeingPairedReturnsThatMatch() {
+        matchmaker.join("alice", GameType.BLITZ);
+        matchmaker.matched(matchmaker.join("bob", GameType.BLITZ).opponent(), 7L);
+
+        assertThat(matchmaker.join("alice", GameType.BLITZ).matchId()).isEqualTo(7L);
+        assertThat(matchmaker.poll("alice")).isEmpty();
+    }
+
+    @Test
+    void switchingGameTypeLeavesTheOldQueue() {
+        matchmaker.join("alice", GameType.BLITZ);
+
+        matchmaker.join("alice", GameType.RAPID);
+
+        assertThat(matchmaker.join("bob", GameType.BLITZ)).isEqualTo(Matchmaker.Join.WAITING);
+        assertThat(matchmaker.join("carol", GameType.RAPID).opponent().getUsername()).isEqualTo("alice");
+    }
+
+    @Test
+    void cancelsOnlyAWaitingPlayerAndOnlyOnce() {
+        matchmaker.join("alice", GameType.BLITZ);
+
+        assertThat(matchmaker.cancel("alice")).isTrue();
+        assertThat(matchmaker.cancel("alice")).isFalse();
+        assertThat(matchmaker.poll("alice")).isEmpty();
+        assertThat(matchmaker.join("bob", GameType.BLITZ)).isEqualTo(Matchmaker.Join.WAITING);
+
+        Matchmaker.Ticket bob = matchmaker.join("carol", GameType.BLITZ).opponent();
+        assertThat(matchmaker.cancel("bob")).isFalse(); // being paired
+        matchmaker.matched(bob, 9L);
+        assertThat(matchmaker.cancel("bob")).isFalse();
+        assertThat(matchmaker.poll("bob")).contains(9L);
+    }
+
+    @Test
+    void releasedOpponentWaitsAgain() {
+        matchmaker.join("alice", GameType.BLITZ);
+        Matchmaker.Ticket alice = matchmaker.join("bob", GameType.BLITZ).opponent();
+
+        matchmaker.release(alice);
+
+        assertThat(matchmaker.isWaiting("alice")).isTrue();
+        assertThat(matchmaker.join("carol", GameType.BLITZ).opponent()).isSameAs(alice);
+    }
+
+    @Test
+    void pairsEveryPlayerExactlyOnceUnderContention() throws InterruptedException {
+        int threads = 8;
+        int playersPerThread = 5_000;
+        GameType[] types = {GameType.BLITZ, GameType.RAPID};
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<String[]> pairs = new CopyOnWriteArrayList<>();
+        ConcurrentHashMap<String, Long> collected = new ConcurrentHashMap<>();
+        AtomicLong matchIds = new AtomicLong();
+
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < playersPerThread; i++) {
+                    String player = "p" + thread + "-" + i;
+                    Matchmaker.Join join = matchmaker.join(player, types[i % types.length]);
+                    if (join.opponent() != null) {
+                        long matchId = matchIds.incrementAndGet();
+                        matchmaker.matched(join.opponent(), matchId);
+                        pairs.add(new String[]{join.opponent().getUsername(), player});
+                        collected.put(player, matchId);
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        Set<String> paired = new HashSet<>();
+        for (String[] pair : pairs) {
+            assertThat(paired.add(pair[0])).isTrue();
+            assertThat(paired.add(pair[1])).isTrue();
+            Optional<Long> matchId = matchmaker.poll(pair[0]);
+            assertThat(matchId).contains(collected.get(pair[1]));
+        }
+        assertThat(threads * playersPerThread - paired.size()).isLessThanOrEqualTo(types.length);
+    }
+}
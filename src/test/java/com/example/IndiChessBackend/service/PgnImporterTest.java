@@ -0,0 +1,152 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.chess.MoveGenerator;
+import com.example.IndiChessBackend.chess.PackedMoves;
+import com.example.IndiChessBackend.chess.PgnWriter;
+import com.example.IndiChessBackend.chess.Position;
+import com.example.IndiChessBackend.model.GameType;
+import com.example.IndiChessBackend.model.MatchStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PgnImporterTest {
+
+    private static final int GAMES = 2_000;
+    private static final int BROKEN_GAME = 777; // its third move is illegal
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void importsEveryGameInFileOrder() throws IOException {
+        List<int[]> expected = new ArrayList<>();
+        Path file = writeGames(expected);
+        List<PgnImporter.ParsedChunk> chunks = new CopyOnWriteArrayList<>();
+        List<PgnImporter.Progress> reports = new CopyOnWriteArrayList<>();
+
+        PgnImporter.Progress done = new PgnImporter(3, 100, 2).run(file, 0, chunks::add, reports::add);
+
+        assertThat(done.gamesImported()).isEqualTo(GAMES - 1);
+        assertThat(done.gamesSkipped()).isEqualTo(1);
+        assertThat(done.bytesDone()).isEqualTo(Files.size(file));
+        assertThat(reports).last().isEqualTo(done);
+        long offset = 0;
+        List<PgnImporter.ImportedGame> games = new ArrayList<>();
+        for (PgnImporter.ParsedChunk chunk : chunks) {
+            assertThat(chunk.startOffset()).isEqualTo(offset);
+            offset = chunk.endOffset();
+            games.addAll(chunk.games());
+        }
+        expected.remove(BROKEN_GAME);
+        for (int i = 0; i < games.size(); i++) {
+            assertThat(PackedMoves.decode(games.get(i).packedMoves()).moves()).isEqualTo(expected.get(i));
+        }
+        PgnImporter.ImportedGame first = games.get(0);
+        assertThat(first.white()).isEqualTo("white0");
+        assertThat(first.status()).isEqualTo(MatchStatus.PLAYER1_WON);
+        assertThat(first.gameType()).isEqualTo(GameType.BLITZ);
+        assertThat(first.date()).isEqualTo(LocalDate.of(2024, 3, 9));
+        assertThat(games.get(1).status()).isEqualTo(MatchStatus.DRAW);
+        assertThat(games.get(1).date()).isNull();
+    }
+
+    @Test
+    void resumesFromTheLastCommittedChunkAfterAFailure() throws IOException {
+        Path file = writeGames(new ArrayList<>());
+        List<PgnImporter.ParsedChunk> committed = new CopyOnWriteArrayList<>();
+        PgnImporter importer = new PgnImporter(2, 50, 2);
+
+        assertThatThrownBy(() -> importer.run(file, 0, chunk -> {
+            if (committed.size() == 7) {
+                throw new IllegalStateException("database down");
+            }
+            committed.add(chunk);
+        }, progress -> { })).hasMessage("database down");
+
+        long resumeAt = committed.get(committed.size() - 1).endOffset();
+        importer.run(file, resumeAt, committed::add, progress -> { });
+
+        assertThat(committed.stream().mapToInt(chunk -> chunk.games().size() + chunk.skipped()).sum()).isEqualTo(GAMES);
+        for (int i = 1; i < committed.size(); i++) {
+            assertThat(committed.get(i).startOffset()).isEqualTo(committed.get(i - 1).endOffset());
+        }
+    }
+
+    @Test
+    void cutsChunksAtTheStartOfAGame() throws IOException {
+        String pgn = "\uFEFF[Event \"a\"]\n[Result \"*\"]\n\n1. e4 *\n\n"
+                + "% escaped line\n[Event \"b\"]\n1. d4 d5 *\n"
+                + "[Event \"c\"]\n\n1. c4\n1... e5 *\n";
+        byte[] bytes = pgn.getBytes(StandardCharsets.UTF_8);
+        PgnChunkReader reader = new PgnChunkReader(new ByteArrayInputStream(bytes), 10, 2);
+
+        PgnChunkReader.Chunk first = reader.next();
+        PgnChunkReader.Chunk second = reader.next();
+
+        assertThat(reader.next()).isNull();
+        assertThat(first.games()).isEqualTo(2);
+        assertThat(game(first, 1)).isEqualTo("[Event \"b\"]\n1. d4 d5 *\n");
+        assertThat(second.games()).isEqualTo(1);
+        assertThat(game(second, 0)).startsWith("[Event \"c\"]");
+        assertThat(first.startOffset()).isEqualTo(10);
+        assertThat(second.startOffset()).isEqualTo(first.endOffset());
+        assertThat(second.endOffset()).isEqualTo(10 + bytes.length);
+    }
+
+    private static String game(PgnChunkReader.Chunk chunk, int game) {
+        int start = chunk.gameStarts()[game];
+        return new String(chunk.data(), start, chunk.gameEnd(game) - start, StandardCharsets.UTF_8);
+    }
+
+    // Random legal games written by PgnWriter; expected gets each game's moves
+    private Path writeGames(List<int[]> expected) throws IOException {
+        Random random = new Random(42);
+        StringWriter out = new StringWriter();
+        PgnWriter pgn = new PgnWriter(out);
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        for (int g = 0; g < GAMES; g++) {
+            pgn.tag("White", "white" + g);
+            pgn.tag("Black", "black" + g);
+            pgn.tag("Date", g % 2 == 0 ? "2024.03.09" : "????.??.??");
+            pgn.tag("TimeControl", "180+2");
+            Position position = Position.startPosition();
+            int plies = 20 + random.nextInt(100);
+            int[] moves = new int[plies];
+            int count = 0;
+            while (count < plies) {
+                int n = MoveGenerator.generateLegal(position, legal);
+                if (n == 0) {
+                    break;
+                }
+                int move = legal[random.nextInt(n)];
+                if (g == BROKEN_GAME && count == 2) {
+                    out.write(" Ke5");
+                }
+                pgn.move(move);
+                position.makeMove(move);
+                moves[count++] = move;
+            }
+            expected.add(Arrays.copyOf(moves, count));
+            pgn.endGame(g % 2 == 0 ? "1-0" : "1/2-1/2");
+        }
+        Path file = dir.resolve("games.pgn");
+        Files.writeString(file, out.toString());
+        return file;
+    }
+}
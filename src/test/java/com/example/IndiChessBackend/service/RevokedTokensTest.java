@@ -0,0 +1,113 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokensTest {
+
+    @TempDir
+    Path dir;
+
+    private final JwtServiceTest.MutableClock clock = new JwtServiceTest.MutableClock(Instant.parse("2026-01-01T12:00:00Z"));
+
+    @Test
+    void revokesExactlyTheRevokedTokens() {
+        RevokedTokens revokedTokens = new RevokedTokens(dir.resolve("revoked"), 1000, clock);
+        List<UUID> revoked = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID tokenId = UUID.randomUUID();
+            revokedTokens.revoke(tokenId, clock.instant().plus(Duration.ofHours(1)));
+            revoked.add(tokenId);
+        }
+
+        assertThat(revoked).allMatch(revokedTokens::isRevoked);
+        int filterHits = 0;
+        for (int i = 0; i < 100_000; i++) {
+            UUID other = UUID.randomUUID();
+            assertThat(revokedTokens.isRevoked(other)).isFalse();
+            filterHits += revokedTokens.filterMightContain(other) ? 1 : 0;
+        }
+        assertThat(filterHits).isLessThan(2_000); // about 1% at capacity
+    }
+
+    @Test
+    void growsTheFilterPastItsExpectedSize() {
+        RevokedTokens revokedTokens = new RevokedTokens(dir.resolve("revoked"), 10, clock);
+        List<UUID> revoked = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            UUID tokenId = UUID.randomUUID();
+            revokedTokens.revoke(tokenId, clock.instant().plus(Duration.ofHours(1)));
+            revoked.add(tokenId);
+        }
+
+        assertThat(revoked).allMatch(revokedTokens::isRevoked);
+        long filterHits = IntStream.range(0, 10_000)
+                .filter(i -> revokedTokens.filterMightContain(UUID.randomUUID())).count();
+        assertThat(filterHits).isLessThan(200);
+    }
+
+    @Test
+    void survivesARestartUntilTheTokensExpire() {
+        Path file = dir.resolve("revoked");
+        UUID shortLived = UUID.randomUUID();
+        UUID longLived = UUID.randomUUID();
+        RevokedTokens before = new RevokedTokens(file, 1000, clock);
+        before.revoke(shortLived, clock.instant().plus(Duration.ofMinutes(5)));
+        before.revoke(longLived, clock.instant().plus(Duration.ofHours(5)));
+
+        RevokedTokens after = new RevokedTokens(file, 1000, clock);
+        assertThat(after.isRevoked(shortLived)).isTrue();
+        assertThat(after.isRevoked(longLived)).isTrue();
+
+        clock.advance(Duration.ofMinutes(10));
+        RevokedTokens later = new RevokedTokens(file, 1000, clock);
+        assertThat(later.isRevoked(shortLived)).isFalse();
+        assertThat(later.isRevoked(longLived)).isTrue();
+    }
+
+    @Test
+    void sweepsExpiredRevocationsFromMemoryAndFile() throws IOException {
+        Path file = dir.resolve("revoked");
+        RevokedTokens revokedTokens = new RevokedTokens(file, 1000, clock);
+        UUID expiring = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        revokedTokens.revoke(expiring, clock.instant().plus(Duration.ofMinutes(5)));
+        revokedTokens.revoke(kept, clock.instant().plus(Duration.ofHours(5)));
+        revokedTokens.revoke(UUID.randomUUID(), clock.instant().minusSeconds(1)); // already expired
+
+        clock.advance(Duration.ofMinutes(10));
+        assertThat(revokedTokens.sweep()).isEqualTo(1);
+
+        assertThat(revokedTokens.size()).isEqualTo(1);
+        assertThat(revokedTokens.isRevoked(expiring)).isFalse();
+        assertThat(revokedTokens.isRevoked(kept)).isTrue();
+        assertThat(Files.readAllLines(file)).containsExactly(kept + " " + clock.instant().plus(Duration.ofMinutes(290)).getEpochSecond());
+    }
+
+    @Test
+    void skipsALineTornByACrash() throws IOException {
+        Path file = dir.resolve("revoked");
+        UUID kept = UUID.randomUUID();
+        RevokedTokens before = new RevokedTokens(file, 1000, clock);
+        before.revoke(kept, clock.instant().plus(Duration.ofHours(1)));
+        Files.writeString(file, UUID.randomUUID().toString().substring(0, 20), StandardOpenOption.APPEND);
+
+        RevokedTokens after = new RevokedTokens(file, 1000, clock);
+
+        assertThat(after.size()).isEqualTo(1);
+        assertThat(after.isRevoked(kept)).isTrue();
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.IndiChessBackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long TICK_MS = 10;
+
+    // Eight slots of 10 ms: most deadlines below need several revolutions
+    private final TimingWheel timingWheel = new TimingWheel(TICK_MS, 8);
+
+    @AfterEach
+    void tearDown() {
+        timingWheel.destroy();
+    }
+
+    @Test
+    void firesAtOrAfterDeadline() throws Exception {
+        int count = 500;
+        CountDownLatch fired = new CountDownLatch(count);
+        ConcurrentLinkedQueue<Long> early = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> lateMs = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < count; i++) {
+            long delayMs = ThreadLocalRandom.current().nextLong(0, 400);
+            long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+            timingWheel.schedule(delayMs, () -> {
+                long now = System.nanoTime();
+                if (now < due) {
+                    early.add(due - now);
+                }
+                lateMs.add(TimeUnit.NANOSECONDS.toMillis(now - due));
+                fired.countDown();
+            });
+        }
+
+        assertThat(fired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(early).isEmpty();
+        assertThat(lateMs).allMatch(late -> late < 250, "fired within a generous bound of the tick");
+        assertThat(timingWheel.size()).isZero();
+    }
+
+    @Test
+    void cancelledTimeoutNeverFires() throws Exception {
+        AtomicBoolean ran = new AtomicBoolean();
+        TimingWheel.Timeout timeout = timingWheel.schedule(50, () -> ran.set(true));
+        CountDownLatch later = new CountDownLatch(1);
+        timingWheel.schedule(150, later::countDown);
+
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(later.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(ran).isFalse();
+        assertThat(timeout.isCancelled()).isTrue();
+        assertThat(timeout.isExpired()).isFalse();
+    }
+
+    @Test
+    void rescheduleReplacesTheDeadline() throws Exception {
+        // What a move does: drop the running clock's deadline and arm the other one
+        CountDownLatch fired = new CountDownLatch(1);
+        AtomicBoolean staleRan = new AtomicBoolean();
+        TimingWheel.Timeout deadline = timingWheel.schedule(30, () -> staleRan.set(true));
+        for (int move = 0; move < 1_000; move++) {
+            deadline.cancel();
+            deadline = timingWheel.schedule(30, () -> staleRan.set(true));
+        }
+        deadline.cancel();
+        timingWheel.schedule(60, fired::countDown);
+
+        assertThat(fired.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(staleRan).isFalse();
+        assertThat(timingWheel.size()).isZero();
+    }
+}
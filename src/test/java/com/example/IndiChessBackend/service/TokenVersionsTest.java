@@ -0,0 +1,64 @@
+package com.example.IndiChessBackend.service;
+
+import com.example.IndiChessBackend.repo.UserRepo;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenVersionsTest {
+
+    private final UserRepo userRepo = mock(UserRepo.class);
+    private final JwtServiceTest.MutableClock clock = new JwtServiceTest.MutableClock(Instant.parse("2026-01-01T12:00:00Z"));
+    private final TokenVersions tokenVersions = new TokenVersions(userRepo, clock, Duration.ofSeconds(60));
+
+    @Test
+    void checksRepeatedTokensWithoutTheDatabase() {
+        when(userRepo.findTokenVersion(1L)).thenReturn(Optional.of(0));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(tokenVersions.isCurrent(1L, 0)).isTrue();
+        }
+        assertThat(tokenVersions.isCurrent(1L, 1)).isFalse();
+
+        verify(userRepo, times(1)).findTokenVersion(1L);
+    }
+
+    @Test
+    void revokingRejectsOlderTokensAtOnce() {
+        when(userRepo.findTokenVersion(1L)).thenReturn(Optional.of(0));
+        assertThat(tokenVersions.isCurrent(1L, 0)).isTrue();
+
+        when(userRepo.findTokenVersion(1L)).thenReturn(Optional.of(1));
+        tokenVersions.revokeAll(1L);
+
+        verify(userRepo).incrementTokenVersion(1L);
+        assertThat(tokenVersions.isCurrent(1L, 0)).isFalse();
+        assertThat(tokenVersions.isCurrent(1L, 1)).isTrue();
+    }
+
+    @Test
+    void rereadsTheVersionAfterTheTtl() {
+        when(userRepo.findTokenVersion(1L)).thenReturn(Optional.of(0));
+        assertThat(tokenVersions.isCurrent(1L, 0)).isTrue();
+
+        when(userRepo.findTokenVersion(1L)).thenReturn(Optional.of(5)); // bumped in the database
+        clock.advance(Duration.ofSeconds(60));
+
+        assertThat(tokenVersions.isCurrent(1L, 0)).isFalse();
+    }
+
+    @Test
+    void rejectsTokensOfDeletedUsers() {
+        when(userRepo.findTokenVersion(2L)).thenReturn(Optional.empty());
+
+        assertThat(tokenVersions.isCurrent(2L, 0)).isFalse();
+    }
+}
@@ -0,0 +1,17 @@
+-- match_archive as Hibernate creates it, less the InnoDB compression options H2 cannot parse
+create table if not exists match_archive (
+    id bigint not null,
+    archived_at timestamp(6),
+    created_at timestamp(6),
+    current_ply integer,
+    finished_at timestamp(6),
+    game_type enum ('BLITZ','RAPID','STANDARD'),
+    packed_moves blob not null,
+    player1_id bigint not null,
+    player2_id bigint not null,
+    started_at timestamp(6),
+    status enum ('DRAW','IN_PROGRESS','PLAYER1_WON','PLAYER2_WON'),
+    primary key (id)
+);
+create index if not exists idx_match_archive_player1 on match_archive (player1_id, finished_at);
+create index if not exists idx_match_archive_player2 on match_archive (player2_id, finished_at);